@@ -1,11 +1,15 @@
 package dev.tias.librarydbms;
 
+import dev.tias.librarydbms.control.AsyncHandler;
+import dev.tias.librarydbms.control.ClassificationHandler;
 import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.model.User;
 import dev.tias.librarydbms.service.db.DataAccessManager;
+import dev.tias.librarydbms.service.db.DatabaseConfig;
 
 import java.sql.SQLException;
+import java.time.Duration;
 
 /**
  * @author Mattias Fridsén
@@ -40,16 +44,32 @@ public class LibraryManager
         DataAccessManager.setup(false);
         UserHandler.setup();
         ItemHandler.setup();
+        ClassificationHandler.setup();
+        setupAsyncHandler(DatabaseConfig.load());
         //RentalHandler.setup() //Might not be needed
         //EveryOtherHandler.setup()
     }
 
     /**
-     * Exits the program with status. If the connection to the database is still active, closes it.
+     * Starts the threads running handler calls in the background, in the execution mode given in config.json. In
+     * THREAD_PER_TASK mode as many tasks run at once as there are pooled connections.
+     */
+    private static void setupAsyncHandler(DatabaseConfig config)
+    {
+        if (config.getExecutionMode() == DatabaseConfig.ExecutionMode.THREAD_PER_TASK)
+            AsyncHandler.setupThreadPerTask(config.getPoolMaxSize(), AsyncHandler.WORKER_QUEUE_CAPACITY);
+        else
+            AsyncHandler.setup();
+    }
+
+    /**
+     * Exits the program with status. Lets the handler calls running in the background finish first, and if the
+     * connection to the database is still active, closes it.
      */
     public static void exit(int status)
     {
-        if (DataAccessManager.getConnection() != null)
+        AsyncHandler.shutdown(Duration.ofSeconds(5));
+        if (DataAccessManager.isConnected())
         { //Always close the connection to the database after use
             DataAccessManager.closeDatabaseConnection();
         }
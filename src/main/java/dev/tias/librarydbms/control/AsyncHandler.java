@@ -0,0 +1,442 @@
+package dev.tias.librarydbms.control;
+
+import dev.tias.librarydbms.service.db.RoundTripScope;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Runs the handler methods on a bounded pool of worker threads and hands back CompletableFutures, so that the GUIs
+ * never wait for the database on the Swing event thread. Any handler method can be called through it, checked
+ * exceptions included:
+ * <pre>
+ *     AsyncHandler.call(() -&gt; RentalHandler.getRentalsByUserID(userID))
+ *             .thenAccept(rentals -&gt; ...);
+ * </pre>
+ * A task that fails completes its future with the exception it threw. Tasks are rejected, rather than queued
+ * without limit, once WORKER_QUEUE_CAPACITY tasks are waiting.
+ * <p>
+ * Every future times out after DEFAULT_TIMEOUT unless told otherwise. A future that times out or is cancelled
+ * before its task has started stops the task from ever running. A task that has already started runs to the end,
+ * since interrupting a thread inside a handler would fail its query, which is fatal, and its result is dropped.
+ * <p>
+ * Every task runs in a {@link RoundTripScope} of its own, named after the operation it was given, so that a task
+ * running the same statement once per row, such as a search looking up the author of every item it found, is
+ * written to the log.
+ * <p>
+ * There are two modes, see {@link Mode}. The GUI uses a small pool of workers. When serving several front desks at
+ * once, every task can instead get its own thread, a virtual thread when the JVM supports them (Java 21 and later),
+ * with the number of tasks running at the same time capped at the number of pooled connections.
+ */
+public class AsyncHandler
+{
+    /**
+     * How tasks are given threads.
+     */
+    public enum Mode
+    {
+        //A fixed number of worker threads take turns running the queued tasks
+        WORKER_POOL,
+        //Every task gets a thread of its own, waiting for one of a fixed number of slots before it runs
+        THREAD_PER_TASK
+    }
+
+    //The number of worker threads, each of which leases its own connection while running a task
+    public static final int DEFAULT_WORKERS = 4;
+    //The most tasks waiting for a worker before more are rejected
+    public static final int WORKER_QUEUE_CAPACITY = 100;
+    //How long a future waits for its task unless told otherwise
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    //The name of the round trip scope of a task given no operation name
+    public static final String DEFAULT_OPERATION = "AsyncHandler task";
+
+    private static ThreadPoolExecutor executor;
+    private static Mode mode = Mode.WORKER_POOL;
+    //The slots tasks wait for in THREAD_PER_TASK mode, null otherwise
+    private static Semaphore taskSlots;
+    //The number of tasks given in THREAD_PER_TASK mode that are running or waiting for a slot, null otherwise.
+    //Counted from the call, rather than read from the semaphore, since a task's thread may not have started
+    //waiting yet. Those beyond maxRunningTasks are the ones waiting
+    private static AtomicInteger pendingTasks;
+    //The number of slots in THREAD_PER_TASK mode
+    private static int maxRunningTasks;
+    //The most tasks waiting for a slot in THREAD_PER_TASK mode
+    private static int taskQueueCapacity;
+    //Whether the threads of THREAD_PER_TASK mode are virtual
+    private static boolean virtualThreads;
+
+    //Set while the current thread runs a task
+    private static final ThreadLocal<Boolean> runningTask = new ThreadLocal<>();
+
+    /**
+     * Starts the worker threads with the default settings, unless already started. Called at the start of the
+     * application, and by the first call otherwise.
+     */
+    public static synchronized void setup()
+    {
+        if (executor == null || executor.isShutdown())
+            setup(DEFAULT_WORKERS, WORKER_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Starts the worker threads in WORKER_POOL mode, replacing the threads already running, which finish the tasks
+     * they were given first.
+     *
+     * @param workers       the number of worker threads.
+     * @param queueCapacity the most tasks waiting for a worker before more are rejected.
+     */
+    public static synchronized void setup(int workers, int queueCapacity)
+    {
+        validateSettings(workers, queueCapacity);
+
+        if (executor != null)
+            executor.shutdown();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(false));
+        mode = Mode.WORKER_POOL;
+        taskSlots = null;
+        pendingTasks = null;
+        virtualThreads = false;
+    }
+
+    /**
+     * Switches to THREAD_PER_TASK mode, replacing the threads already running, which finish the tasks they were
+     * given first. Every task is started on a thread of its own right away, which then waits for a slot. Tasks
+     * waiting for a slot only cost a virtual thread each where those are supported, otherwise a platform thread.
+     *
+     * @param maxRunningTasks the most tasks running at the same time, usually the size of the connection pool, so
+     *                        that no task waits for a connection.
+     * @param queueCapacity   the most tasks waiting for a slot before more are rejected.
+     */
+    public static synchronized void setupThreadPerTask(int maxRunningTasks, int queueCapacity)
+    {
+        validateSettings(maxRunningTasks, queueCapacity);
+
+        if (executor != null)
+            executor.shutdown();
+        WorkerThreadFactory threadFactory = new WorkerThreadFactory(true);
+        //No core threads and no keep-alive, so every task gets a new thread that ends with it
+        executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), threadFactory);
+        mode = Mode.THREAD_PER_TASK;
+        taskSlots = new Semaphore(maxRunningTasks, true);
+        pendingTasks = new AtomicInteger();
+        AsyncHandler.maxRunningTasks = maxRunningTasks;
+        taskQueueCapacity = queueCapacity;
+        virtualThreads = threadFactory.isVirtual();
+    }
+
+    private static void validateSettings(int threads, int queueCapacity)
+    {
+        if (threads <= 0 || queueCapacity <= 0)
+            throw new IllegalArgumentException("Invalid worker settings: threads and queue capacity must be " +
+                    "greater than 0. Threads: " + threads + ", queue capacity: " + queueCapacity);
+    }
+
+    /**
+     * Stops the worker threads, waiting up to a timeout for the tasks already given to finish. Tasks that haven't
+     * finished by then are abandoned. Doesn't wait when called from a worker thread, which would be waiting for
+     * itself.
+     *
+     * @param timeout how long to wait.
+     */
+    public static synchronized void shutdown(Duration timeout)
+    {
+        if (executor == null)
+            return;
+
+        executor.shutdown();
+        try
+        {
+            if (runningTask.get() == null &&
+                    !executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS))
+                System.err.println("Background tasks still running at shutdown: " + executor.getActiveCount());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    /**
+     * Runs a task on a worker thread, timing out after DEFAULT_TIMEOUT.
+     *
+     * @param task the task, usually a call to a handler method.
+     * @param <T>  the type of result.
+     * @return the future result of the task.
+     */
+    public static <T> CompletableFuture<T> call(Callable<T> task)
+    {
+        return call(DEFAULT_OPERATION, task, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Runs a task on a worker thread, timing out after DEFAULT_TIMEOUT.
+     *
+     * @param operation the name of the task, used to name its round trip scope.
+     * @param task      the task, usually a call to a handler method.
+     * @param <T>       the type of result.
+     * @return the future result of the task.
+     */
+    public static <T> CompletableFuture<T> call(String operation, Callable<T> task)
+    {
+        return call(operation, task, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Runs a task on a worker thread.
+     *
+     * @param task    the task, usually a call to a handler method.
+     * @param timeout how long to wait for the task before the future completes with a TimeoutException, or null
+     *                to wait as long as it takes.
+     * @param <T>     the type of result.
+     * @return the future result of the task.
+     */
+    public static <T> CompletableFuture<T> call(Callable<T> task, Duration timeout)
+    {
+        return call(DEFAULT_OPERATION, task, timeout);
+    }
+
+    /**
+     * Runs a task on a worker thread, in a round trip scope of its own.
+     *
+     * @param operation the name of the task, used to name its round trip scope.
+     * @param task      the task, usually a call to a handler method.
+     * @param timeout   how long to wait for the task before the future completes with a TimeoutException, or
+     *                  null to wait as long as it takes.
+     * @param <T>       the type of result.
+     * @return the future result of the task. If the task can't be queued, it's completed with a
+     * RejectedExecutionException.
+     */
+    public static <T> CompletableFuture<T> call(String operation, Callable<T> task, Duration timeout)
+    {
+        Objects.requireNonNull(operation, "operation");
+        Objects.requireNonNull(task, "task");
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ThreadPoolExecutor target;
+        Semaphore slots;
+        AtomicInteger pending;
+        synchronized (AsyncHandler.class)
+        {
+            setup();
+            target = executor;
+            slots = taskSlots;
+            pending = pendingTasks;
+            //Checked and counted under the lock, so no two calls can both take the last place in the queue
+            if (pending != null && pending.get() - maxRunningTasks >= taskQueueCapacity)
+            {
+                future.completeExceptionally(new RejectedExecutionException("Too many tasks waiting for a slot: " +
+                        (pending.get() - maxRunningTasks)));
+                return future;
+            }
+            if (pending != null)
+                pending.incrementAndGet();
+        }
+
+        //Set by whichever comes first, the task getting a slot or it being given up, so that it's only counted
+        //out once
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        Runnable giveUp = () ->
+        {
+            if (claimed.compareAndSet(false, true) && pending != null)
+                pending.decrementAndGet();
+        };
+
+        FutureTask<Void> work = new FutureTask<>(() ->
+        {
+            if (slots != null)
+                slots.acquireUninterruptibly();
+            //Given up before it got a slot, which is given back at once
+            if (!claimed.compareAndSet(false, true))
+            {
+                if (slots != null)
+                    slots.release();
+                return null;
+            }
+            runningTask.set(true);
+            RoundTripScope scope = RoundTripScope.open(operation);
+            try
+            {
+                //Completed from outside already, no point in running
+                if (!future.isDone())
+                    future.complete(task.call());
+            }
+            catch (Throwable e)
+            {
+                future.completeExceptionally(e);
+            }
+            finally
+            {
+                runningTask.remove();
+                if (slots != null)
+                    slots.release();
+                if (pending != null)
+                    pending.decrementAndGet();
+                scope.close();
+            }
+            return null;
+        });
+        //Keeps a cancelled or timed out task from starting, without interrupting one that has
+        future.whenComplete((result, error) ->
+        {
+            if (error instanceof CancellationException || error instanceof TimeoutException)
+            {
+                work.cancel(false);
+                //Won't run even if its thread is already waiting for a slot, unless it has got one
+                giveUp.run();
+            }
+        });
+
+        try
+        {
+            target.execute(work);
+        }
+        catch (RejectedExecutionException e)
+        {
+            giveUp.run();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        if (timeout != null)
+            future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /**
+     * Runs a task that has no result on a worker thread, timing out after DEFAULT_TIMEOUT.
+     *
+     * @param task the task.
+     * @return a future completed when the task is done.
+     */
+    public static CompletableFuture<Void> run(Runnable task)
+    {
+        Objects.requireNonNull(task, "task");
+        return call(() ->
+        {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the exception a task failed with, rather than the CompletionException or ExecutionException wrapping
+     * it.
+     *
+     * @param error the exception a future completed with.
+     * @return the exception thrown by the task, or error itself if it isn't wrapped.
+     */
+    public static Throwable unwrap(Throwable error)
+    {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) &&
+                error.getCause() != null)
+            error = error.getCause();
+        return error;
+    }
+
+    /**
+     * Returns the number of tasks waiting for a worker, or for a slot in THREAD_PER_TASK mode.
+     *
+     * @return the number of queued tasks.
+     */
+    public static synchronized int getQueuedTaskCount()
+    {
+        if (pendingTasks != null)
+            return Math.max(0, pendingTasks.get() - maxRunningTasks);
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public static synchronized Mode getMode()
+    {
+        return mode;
+    }
+
+    /**
+     * Returns whether tasks run on virtual threads, which is only the case in THREAD_PER_TASK mode on a JVM that
+     * supports them.
+     *
+     * @return true if tasks run on virtual threads.
+     */
+    public static synchronized boolean usesVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    /**
+     * Names the worker threads, and makes them daemons so that they never keep the application running. Makes
+     * virtual threads instead if asked to and the JVM supports them, which are always daemons.
+     */
+    private static class WorkerThreadFactory implements ThreadFactory
+    {
+        private static final AtomicInteger threadCount = new AtomicInteger();
+
+        private final ThreadFactory virtualThreadFactory;
+
+        private WorkerThreadFactory(boolean virtual)
+        {
+            this.virtualThreadFactory = virtual ? virtualThreadFactory() : null;
+        }
+
+        /**
+         * Looks up Thread.ofVirtual().factory() by reflection, since the project is compiled for a Java version
+         * without virtual threads.
+         *
+         * @return a factory of virtual threads, or null if the JVM doesn't support them.
+         */
+        private static ThreadFactory virtualThreadFactory()
+        {
+            try
+            {
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Method name = builderClass.getMethod("name", String.class, long.class);
+                builder = name.invoke(builder, "handler-task-", 1L);
+                return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            }
+            catch (ReflectiveOperationException | RuntimeException e)
+            {
+                return null;
+            }
+        }
+
+        private boolean isVirtual()
+        {
+            return virtualThreadFactory != null;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            if (virtualThreadFactory != null)
+                return virtualThreadFactory.newThread(runnable);
+
+            Thread thread = new Thread(runnable, "handler-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
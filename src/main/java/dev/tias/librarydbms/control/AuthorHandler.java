@@ -2,10 +2,12 @@ package dev.tias.librarydbms.control;
 
 import dev.tias.librarydbms.model.Author;
 import dev.tias.librarydbms.model.Entity;
+import dev.tias.librarydbms.service.db.BatchResult;
 import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.db.QueryResult;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.*;
+import dev.tias.librarydbms.service.search.Suggester;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -22,6 +24,39 @@ import java.util.List;
  */
 public class AuthorHandler extends EntityHandler<Author>
 {
+    //Insert command, shared by createNewAuthor and createNewAuthorBatch
+    private static final String INSERT_AUTHOR = "INSERT INTO authors (authorFirstName, authorLastName, biography, " +
+            "deleted) VALUES (?, ?, ?, ?)";
+
+    //The maximum number of authors kept by the cache used by getAuthorByID
+    public static final int AUTHOR_CACHE_SIZE = 1000;
+
+    /**
+     * Authors are looked up by ID for every item that is retrieved or created, so they are cached. Every change
+     * made through this class invalidates the changed author.
+     */
+    private static final ReadThroughCache<Integer, Author> authorCache =
+            new ReadThroughCache<>(AUTHOR_CACHE_SIZE, AuthorHandler::retrieveAuthorByIDFromTable, Author::new);
+
+    //The names suggested while typing in the search screens, of authors that aren't deleted
+    private static final String SELECT_FIRST_NAMES = "SELECT DISTINCT authorFirstname FROM authors WHERE deleted = 0";
+    private static final String SELECT_LAST_NAMES = "SELECT DISTINCT authorLastname FROM authors WHERE deleted = 0";
+
+    /**
+     * Authors aren't kept in memory, so the names to suggest are retrieved the first time they're needed after a
+     * change, one query per change rather than one per keystroke.
+     */
+    private static final Suggester firstNameSuggestions =
+            new Suggester(() -> retrieveAuthorNamesFromTable(SELECT_FIRST_NAMES, "authorFirstname"));
+    private static final Suggester lastNameSuggestions =
+            new Suggester(() -> retrieveAuthorNamesFromTable(SELECT_LAST_NAMES, "authorLastname"));
+
+    static
+    {
+        DataAccessManager.addCacheInvalidator(authorCache::invalidateAll);
+        DataAccessManager.addCacheInvalidator(AuthorHandler::invalidateNameSuggestions);
+    }
+
     /**
      * Author objects are neither particularly memory-intensive nor relatively numerous. However, since we want to be
      * able to search for authors using either of their names or both, it will help simplify search logic if we
@@ -135,22 +170,14 @@ public class AuthorHandler extends EntityHandler<Author>
     {
         try
         {
-            // Prepare query
-            String query = "INSERT INTO authors (authorFirstname, authorLastName, " +
-                    "VALUES (?, ?)";
-
-            String[] params = {
-                    author.getAuthorFirstName(),
-                    author.getAuthorLastName(),
-            };
-
             // Execute query and get the generated authorID, using try-with-resources
-            try (QueryResult queryResult =
-                         DataAccessManager.executePreparedQuery(query, params, Statement.RETURN_GENERATED_KEYS))
+            try (QueryResult queryResult = DataAccessManager.executePreparedQuery(INSERT_AUTHOR,
+                    authorParams(author), Statement.RETURN_GENERATED_KEYS))
             {
                 ResultSet generatedKeys = queryResult.getStatement().getGeneratedKeys();
                 if (generatedKeys.next())
                 {
+                    invalidateNameSuggestions();
                     return generatedKeys.getInt(1);
                 }
             }
@@ -165,14 +192,96 @@ public class AuthorHandler extends EntityHandler<Author>
         return 0;
     }
 
+    private static Object[] authorParams(Author author)
+    {
+        return new Object[]{
+                author.getAuthorFirstName(),
+                author.getAuthorLastName(),
+                author.getBiography(),
+                author.isDeleted()
+        };
+    }
+
+    /**
+     * Creates many Authors at once, saving them using a batch. Authors with invalid names are not created, the
+     * reason is reported in the returned result, keyed by the index of the author in the list.
+     *
+     * @param authorsToCreate the authors to create, constructed with the creation constructor of Author.
+     * @return the created authors, with authorIDs set, and the failures.
+     */
+    public BatchCreationResult<Author> createNewAuthorBatch(List<Author> authorsToCreate)
+    {
+        BatchCreationResult<Author> result = new BatchCreationResult<>();
+
+        //Validate every author before saving any of them
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < authorsToCreate.size(); i++)
+        {
+            Author author = authorsToCreate.get(i);
+            try
+            {
+                if (isNullEntity(author))
+                    throw new NullEntityException("Author is null.");
+                validateAuthorNames(author.getAuthorFirstName(), author.getAuthorLastName());
+                validIndexes.add(i);
+                rows.add(authorParams(author));
+            }
+            catch (NullEntityException | InvalidNameException e)
+            {
+                result.addFailure(i, e);
+            }
+        }
+
+        //Save the authors and set the generated authorIDs
+        BatchResult batchResult = DataAccessManager.executePreparedBatch(INSERT_AUTHOR, rows, true);
+        invalidateNameSuggestions();
+        for (int row = 0; row < validIndexes.size(); row++)
+        {
+            int index = validIndexes.get(row);
+            if (!batchResult.isRowSuccessful(row))
+            {
+                result.addFailure(index, batchResult.getFailures().get(row));
+                continue;
+            }
+
+            Author author = authorsToCreate.get(index);
+            try
+            {
+                author.setAuthorID(batchResult.getGeneratedKey(row));
+            }
+            catch (InvalidIDException e)
+            {
+                ExceptionManager.HandleFatalException(e, String.format("Failed to create Author with the given " +
+                        "name: '%s %s' due to %s: %s", author.getAuthorFirstName(), author.getAuthorLastName(),
+                        e.getClass().getName(), e.getMessage()));
+            }
+            result.addCreated(author);
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves an author by ID. Authors are cached, so repeated calls only query the database once.
+     *
+     * @param authorID   the ID of the author.
+     * @param getDeleted not used yet, deleted authors are retrieved as well.
+     * @return a copy of the author, or null if there is no author with the given ID.
+     */
     public static Author getAuthorByID(int authorID, boolean getDeleted)
+    {
+        return authorCache.get(authorID);
+    }
+
+    private static Author retrieveAuthorByIDFromTable(int authorID)
     {
         Author author = null;
 
         //Prepare statement
         String query = "SELECT authorID, authorFirstname, authorLastname, biography, deleted " +
                 "FROM authors WHERE authorID = ?";
-        String[] params = {String.valueOf(authorID)};
+        Object[] params = {authorID};
 
         //Execute statement
         try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params))
@@ -199,15 +308,17 @@ public class AuthorHandler extends EntityHandler<Author>
         //Let's check if the author exists in the database before we go on
 
         // Prepare a SQL command to update a updatedAuthors's data by authorID.
-        String sql = "UPDATE authors SET authorFirstname = ?, authorLastName = ?, + WHERE authorID = ?";
-        String[] params = {
+        String sql = "UPDATE authors SET authorFirstname = ?, authorLastName = ? WHERE authorID = ?";
+        Object[] params = {
                 updatedAuthor.getAuthorFirstName(),
                 updatedAuthor.getAuthorLastName(),
-                String.valueOf(updatedAuthor.getAuthorID())
+                updatedAuthor.getAuthorID()
         };
 
         // Execute the update.
         DataAccessManager.executePreparedUpdate(sql, params);
+        authorCache.invalidate(updatedAuthor.getAuthorID());
+        invalidateNameSuggestions();
     }
 
     public void deleteAuthor(Author authorToDelete)
@@ -230,13 +341,15 @@ public class AuthorHandler extends EntityHandler<Author>
 
             //Prepare a SQL query to update the author details
             String query = "UPDATE authors SET deleted = ? WHERE authorID = ?";
-            String[] params = {
-                    authorToDelete.isDeleted() ? "1" : "0",
-                    String.valueOf(authorToDelete.getAuthorID())
+            Object[] params = {
+                    authorToDelete.isDeleted(),
+                    authorToDelete.getAuthorID()
             };
 
             //Executor-class Star Dreadnought
             DataAccessManager.executePreparedUpdate(query, params);
+            authorCache.invalidate(authorToDelete.getAuthorID());
+            invalidateNameSuggestions();
         }
     }
 
@@ -259,13 +372,15 @@ public class AuthorHandler extends EntityHandler<Author>
 
         // Prepare a SQL query to update the author details
         String query = "UPDATE authors SET deleted = ? WHERE authorID = ?";
-        String[] params = {
-                authorToRecover.isDeleted() ? "1" : "0",
-                String.valueOf(authorToRecover.getAuthorID())
+        Object[] params = {
+                authorToRecover.isDeleted(),
+                authorToRecover.getAuthorID()
         };
 
         // Executor-class Star Dreadnought
         DataAccessManager.executePreparedUpdate(query, params);
+        authorCache.invalidate(authorToRecover.getAuthorID());
+        invalidateNameSuggestions();
     }
 
 
@@ -286,10 +401,12 @@ public class AuthorHandler extends EntityHandler<Author>
 
             //Prepare a SQL query to update the authorToDelete details
             String query = "DELETE FROM authors WHERE authorID = ?";
-            String[] params = {String.valueOf(authorToDelete.getAuthorID())};
+            Object[] params = {authorToDelete.getAuthorID()};
 
             //Executor-class Star Dreadnought
             DataAccessManager.executePreparedUpdate(query, params);
+            authorCache.invalidate(authorToDelete.getAuthorID());
+            invalidateNameSuggestions();
         }
     }
 
@@ -308,12 +425,13 @@ public class AuthorHandler extends EntityHandler<Author>
 
             // Prepare a SQL query to select a author by authorFirstname and authorLastname
             String query = "SELECT authorID, authorFirstname, authorLastname, biography, deleted FROM authors WHERE";
-            List<String> params = new ArrayList<>();
+            List<Object> params = new ArrayList<>();
 
             if (authorFirstname != null && !authorFirstname.trim().isEmpty())
             {
-                query += " LOWER(authorFirstname) = ?";
-                params.add(authorFirstname.toLowerCase());
+                //No LOWER(), the column collation is already case-insensitive and LOWER() would rule out the index
+                query += " authorFirstname = ?";
+                params.add(authorFirstname);
             }
 
             if (authorLastname != null && !authorLastname.trim().isEmpty())
@@ -322,11 +440,11 @@ public class AuthorHandler extends EntityHandler<Author>
                 {
                     query += " AND";
                 }
-                query += " LOWER(authorLastname) = ?";
-                params.add(authorLastname.toLowerCase());
+                query += " authorLastname = ?";
+                params.add(authorLastname);
             }
 
-            String[] paramsArray = params.toArray(new String[0]);
+            Object[] paramsArray = params.toArray();
 
             // Execute the query and store the result in a ResultSet
             try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, paramsArray))
@@ -409,6 +527,67 @@ public class AuthorHandler extends EntityHandler<Author>
         return false;
     }
 
+    /**
+     * Returns the cache used by getAuthorByID, whose hit ratio and eviction count tell how well it's sized.
+     *
+     * @return the cache.
+     */
+    public static ReadThroughCache<Integer, Author> getAuthorCache()
+    {
+        return authorCache;
+    }
+
+    //SUGGESTIONS ------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the first names of authors starting with what has been typed so far, for type-ahead. Only queries the
+     * database the first time after authors have changed.
+     *
+     * @param prefix     what has been typed so far.
+     * @param maxResults the maximum number of names to return.
+     * @return the first names, empty if none match.
+     */
+    public static List<String> suggestAuthorFirstNames(String prefix, int maxResults)
+    {
+        return firstNameSuggestions.suggest(prefix, maxResults);
+    }
+
+    /**
+     * Returns the last names of authors starting with what has been typed so far, for type-ahead. Only queries the
+     * database the first time after authors have changed.
+     *
+     * @param prefix     what has been typed so far.
+     * @param maxResults the maximum number of names to return.
+     * @return the last names, empty if none match.
+     */
+    public static List<String> suggestAuthorLastNames(String prefix, int maxResults)
+    {
+        return lastNameSuggestions.suggest(prefix, maxResults);
+    }
+
+    private static void invalidateNameSuggestions()
+    {
+        firstNameSuggestions.invalidate();
+        lastNameSuggestions.invalidate();
+    }
+
+    private static List<String> retrieveAuthorNamesFromTable(String query, String column)
+    {
+        List<String> names = new ArrayList<>();
+        try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, null))
+        {
+            ResultSet resultSet = queryResult.getResultSet();
+            while (resultSet.next())
+                names.add(resultSet.getString(column));
+        }
+        catch (SQLException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to retrieve author names from table due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+        return names;
+    }
+
     public List<Author> getAuthors()
     {
         return authors;
@@ -0,0 +1,284 @@
+package dev.tias.librarydbms.control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A thread safe, in-memory index of which copies of each title, and of each ISBN, are available, used to find a
+ * free copy during checkout without searching the items table.
+ * <p>
+ * The index only suggests copies. Whether a copy can really be rented is decided by the database when the copy is
+ * claimed, so a copy that is out of date in here costs an extra lookup, never a wrong checkout. Copies that turn
+ * out not to be available should be marked as such.
+ * <p>
+ * Lookups take no lock. Changes are made one at a time, like in the {@link UserRegistry}.
+ */
+public class AvailabilityIndex
+{
+    /**
+     * A copy of a title that isn't deleted, whether it's available or not.
+     */
+    private static class Copy
+    {
+        private final int itemID;
+        private final String title;
+        private final String isbn;
+        private volatile boolean available;
+
+        private Copy(int itemID, String title, String isbn, boolean available)
+        {
+            this.itemID = itemID;
+            this.title = title;
+            this.isbn = isbn;
+            this.available = available;
+        }
+    }
+
+    /**
+     * The contents of the index, replaced as a whole on rebuild.
+     */
+    private static class Generation
+    {
+        private final Map<Integer, Copy> copies;
+        private final Map<String, Set<Integer>> availableByTitle;
+        private final Map<String, Set<Integer>> availableByISBN;
+
+        private Generation(int expectedCopies)
+        {
+            copies = new ConcurrentHashMap<>(Math.max(16, expectedCopies * 4 / 3 + 1));
+            availableByTitle = new ConcurrentHashMap<>();
+            availableByISBN = new ConcurrentHashMap<>();
+        }
+
+        private void put(Copy copy)
+        {
+            remove(copy.itemID);
+            copies.put(copy.itemID, copy);
+            if (copy.available)
+                addAvailable(copy);
+        }
+
+        private void remove(int itemID)
+        {
+            Copy old = copies.remove(itemID);
+            if (old != null && old.available)
+                removeAvailable(old);
+        }
+
+        private void setAvailable(int itemID, boolean available)
+        {
+            Copy copy = copies.get(itemID);
+            if (copy == null || copy.available == available)
+                return;
+            copy.available = available;
+            if (available)
+                addAvailable(copy);
+            else
+                removeAvailable(copy);
+        }
+
+        private void addAvailable(Copy copy)
+        {
+            availableByTitle.computeIfAbsent(copy.title, title -> ConcurrentHashMap.newKeySet()).add(copy.itemID);
+            if (copy.isbn != null)
+                availableByISBN.computeIfAbsent(copy.isbn, isbn -> ConcurrentHashMap.newKeySet()).add(copy.itemID);
+        }
+
+        private void removeAvailable(Copy copy)
+        {
+            removeFrom(availableByTitle, copy.title, copy.itemID);
+            if (copy.isbn != null)
+                removeFrom(availableByISBN, copy.isbn, copy.itemID);
+        }
+
+        private static void removeFrom(Map<String, Set<Integer>> index, String key, int itemID)
+        {
+            Set<Integer> itemIDs = index.get(key);
+            if (itemIDs == null)
+                return;
+            itemIDs.remove(itemID);
+            //Titles with no available copies are dropped, so the index doesn't keep every title ever rented out
+            if (itemIDs.isEmpty())
+                index.remove(key, itemIDs);
+        }
+    }
+
+    private volatile Generation generation = new Generation(0);
+
+    //LOOKUPS ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns up to a given number of available copies of a title, without any particular order.
+     *
+     * @param title the title.
+     * @param max   the maximum number of copies to return.
+     * @return the itemIDs of the copies, empty if none are known to be available.
+     */
+    public List<Integer> findAvailableCopies(String title, int max)
+    {
+        return title == null ? Collections.emptyList() : first(generation.availableByTitle.get(title), max);
+    }
+
+    /**
+     * Returns up to a given number of available copies of an ISBN, without any particular order.
+     *
+     * @param isbn the ISBN.
+     * @param max  the maximum number of copies to return.
+     * @return the itemIDs of the copies, empty if none are known to be available.
+     */
+    public List<Integer> findAvailableCopiesByISBN(String isbn, int max)
+    {
+        return isbn == null ? Collections.emptyList() : first(generation.availableByISBN.get(isbn), max);
+    }
+
+    /**
+     * Returns whether a copy is known to be available.
+     *
+     * @param itemID the ID of the copy.
+     * @return true if it's available according to the index.
+     */
+    public boolean isAvailable(int itemID)
+    {
+        Copy copy = generation.copies.get(itemID);
+        return copy != null && copy.available;
+    }
+
+    /**
+     * Returns the number of copies known to the index, available or not.
+     *
+     * @return the number of copies.
+     */
+    public int size()
+    {
+        return generation.copies.size();
+    }
+
+    //CHANGES ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Adds a copy, or replaces what is known about it.
+     *
+     * @param itemID    the ID of the copy.
+     * @param title     the title.
+     * @param isbn      the ISBN, or null if the copy isn't literature.
+     * @param available whether the copy is available.
+     */
+    public synchronized void putCopy(int itemID, String title, String isbn, boolean available)
+    {
+        generation.put(new Copy(itemID, Objects.requireNonNull(title, "title"), isbn, available));
+    }
+
+    /**
+     * Removes a copy, for example once it's deleted.
+     *
+     * @param itemID the ID of the copy.
+     */
+    public synchronized void removeCopy(int itemID)
+    {
+        generation.remove(itemID);
+    }
+
+    /**
+     * Marks a known copy as available. Unknown copies are ignored.
+     *
+     * @param itemID the ID of the copy.
+     */
+    public synchronized void markAvailable(int itemID)
+    {
+        generation.setAvailable(itemID, true);
+    }
+
+    /**
+     * Marks a known copy as not available. Unknown copies are ignored.
+     *
+     * @param itemID the ID of the copy.
+     */
+    public synchronized void markUnavailable(int itemID)
+    {
+        generation.setAvailable(itemID, false);
+    }
+
+    /**
+     * Replaces the contents of the index with those of a builder, at once.
+     *
+     * @param builder the builder holding the new contents.
+     */
+    public synchronized void replace(Builder builder)
+    {
+        generation = builder.build();
+    }
+
+    /**
+     * Empties the index.
+     */
+    public void clear()
+    {
+        replace(new Builder(0));
+    }
+
+    /**
+     * Fills a new index, from a single pass over the items table. Not thread safe.
+     */
+    public static class Builder
+    {
+        private Generation generation;
+
+        /**
+         * @param expectedCopies the number of copies, used to size the index up front.
+         */
+        public Builder(int expectedCopies)
+        {
+            generation = new Generation(expectedCopies);
+        }
+
+        /**
+         * Adds a copy.
+         *
+         * @param itemID    the ID of the copy.
+         * @param title     the title.
+         * @param isbn      the ISBN, or null if the copy isn't literature.
+         * @param available whether the copy is available.
+         * @return this builder.
+         */
+        public Builder addCopy(int itemID, String title, String isbn, boolean available)
+        {
+            generation.put(new Copy(itemID, Objects.requireNonNull(title, "title"), isbn, available));
+            return this;
+        }
+
+        private Generation build()
+        {
+            if (generation == null)
+                throw new IllegalStateException("Builder already used.");
+            Generation built = generation;
+            generation = null;
+            return built;
+        }
+    }
+
+    private static List<Integer> first(Set<Integer> itemIDs, int max)
+    {
+        if (itemIDs == null || max <= 0)
+            return Collections.emptyList();
+
+        List<Integer> first = new ArrayList<>(Math.min(max, 8));
+        for (Integer itemID : itemIDs)
+        {
+            first.add(itemID);
+            if (first.size() == max)
+                break;
+        }
+        return first;
+    }
+}
@@ -0,0 +1,90 @@
+package dev.tias.librarydbms.control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * The result of one of the batch create methods of the handlers, such as ItemHandler.createNewLiteratureBatch.
+ * <p>
+ * Holds the entities that were created, in the order they were given, and the reason each of the other entities
+ * wasn't created, keyed by its index in the list that was given. A batch is never failed as a whole because of a
+ * single invalid entity.
+ *
+ * @param <T> the type of entity created.
+ */
+public class BatchCreationResult<T>
+{
+    private final List<T> created = new ArrayList<>();
+    private final Map<Integer, Exception> failures = new TreeMap<>();
+
+    /**
+     * Adds an entity that was created.
+     *
+     * @param entity the entity.
+     */
+    void addCreated(T entity)
+    {
+        created.add(entity);
+    }
+
+    /**
+     * Adds the reason an entity wasn't created.
+     *
+     * @param index the index of the entity in the list given to the batch create method.
+     * @param cause the reason, either a validation exception or the SQLException of the failed insert.
+     */
+    void addFailure(int index, Exception cause)
+    {
+        failures.put(index, cause);
+    }
+
+    /**
+     * Returns whether a given index has already failed.
+     *
+     * @param index the index of the entity in the list given to the batch create method.
+     * @return true if the entity at that index won't be created.
+     */
+    boolean hasFailed(int index)
+    {
+        return failures.containsKey(index);
+    }
+
+    /**
+     * Returns the entities that were created, in the order they were given.
+     *
+     * @return an unmodifiable list of created entities.
+     */
+    public List<T> getCreated()
+    {
+        return Collections.unmodifiableList(created);
+    }
+
+    /**
+     * Returns the reasons entities weren't created, keyed by their index in the list that was given.
+     *
+     * @return an unmodifiable map of failures.
+     */
+    public Map<Integer, Exception> getFailures()
+    {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Returns whether every entity in the batch was created.
+     *
+     * @return true if there were no failures, otherwise false.
+     */
+    public boolean isSuccessful()
+    {
+        return failures.isEmpty();
+    }
+}
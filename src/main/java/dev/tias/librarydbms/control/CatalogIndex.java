@@ -0,0 +1,423 @@
+package dev.tias.librarydbms.control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A thread safe, in-memory index of the catalog, used by the ItemHandler to validate barcodes and count copies
+ * without querying the database. For every title it counts the stored copies and the available copies, and it
+ * holds the set of registered barcodes.
+ * <p>
+ * Stored copies are counted with LongAdders, so desks counting copies of the same title don't contend with each
+ * other. Available copies are counted with AtomicIntegers instead, since they must never go below 0, which takes a
+ * compare-and-set. Reading a count or looking up a barcode takes no lock at all. A {@link Snapshot} of the whole index, as shown by
+ * the GUI, is consistent: no count changes while it is taken.
+ * <p>
+ * The index can be rebuilt with a {@link Builder} while it's in use. The new index is built on the side and swapped
+ * in at once, so readers keep using the old one until then instead of seeing it half loaded.
+ */
+public class CatalogIndex
+{
+    /**
+     * The counts of a title.
+     */
+    private static class TitleCounter
+    {
+        private final LongAdder stored = new LongAdder();
+        private final AtomicInteger available = new AtomicInteger();
+    }
+
+    /**
+     * The contents of the index, replaced as a whole on rebuild.
+     */
+    private static class Generation
+    {
+        private final ConcurrentHashMap<String, TitleCounter> titles;
+        private final Set<String> barcodes;
+
+        private Generation(int expectedTitles, int expectedBarcodes)
+        {
+            titles = new ConcurrentHashMap<>(Math.max(16, expectedTitles));
+            barcodes = ConcurrentHashMap.newKeySet(Math.max(16, expectedBarcodes));
+        }
+    }
+
+    /**
+     * Counting takes the read lock, so any number of threads count at once. Snapshots, removals and rebuilds take the
+     * write lock, so they never see a count halfway through a change.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Generation generation = new Generation(0, 0);
+
+    //COUNTING ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Counts a new copy of a title.
+     *
+     * @param title the title.
+     */
+    public void incrementStored(String title)
+    {
+        lock.readLock().lock();
+        try
+        {
+            counter(title).stored.increment();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts an available copy of a title.
+     *
+     * @param title the title.
+     */
+    public void incrementAvailable(String title)
+    {
+        lock.readLock().lock();
+        try
+        {
+            counter(title).available.incrementAndGet();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stops counting a copy of a title. When no copies are left, the title is removed from the index.
+     *
+     * @param title the title.
+     */
+    public void decrementStored(String title)
+    {
+        boolean last;
+        lock.readLock().lock();
+        try
+        {
+            TitleCounter counter = generation.titles.get(title);
+            if (counter == null)
+                return;
+            counter.stored.decrement();
+            last = counter.stored.sum() <= 0;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+
+        //The last copy is rare, so it's fine to stop all counting to remove the title
+        if (last)
+        {
+            lock.writeLock().lock();
+            try
+            {
+                generation.titles.computeIfPresent(title,
+                        (key, counter) -> counter.stored.sum() <= 0 ? null : counter);
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Stops counting an available copy of a title. The count doesn't go below 0, the title is kept with a count of 0
+     * instead.
+     *
+     * @param title the title.
+     */
+    public void decrementAvailable(String title)
+    {
+        lock.readLock().lock();
+        try
+        {
+            //Checked and decremented in one compare-and-set, so two threads can't both take the last copy
+            counter(title).available.updateAndGet(count -> Math.max(0, count - 1));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of copies of a title.
+     *
+     * @param title the title.
+     * @return the number of copies, 0 if there are none.
+     */
+    public int getStoredCount(String title)
+    {
+        TitleCounter counter = generation.titles.get(title);
+        return counter == null ? 0 : (int) Math.max(0, counter.stored.sum());
+    }
+
+    /**
+     * Returns the number of available copies of a title.
+     *
+     * @param title the title.
+     * @return the number of available copies, 0 if there are none.
+     */
+    public int getAvailableCount(String title)
+    {
+        TitleCounter counter = generation.titles.get(title);
+        return counter == null ? 0 : counter.available.get();
+    }
+
+    /**
+     * Returns whether the index counts a title at all, even with 0 copies available.
+     *
+     * @param title the title.
+     * @return true if the title is in the index.
+     */
+    public boolean containsTitle(String title)
+    {
+        return generation.titles.containsKey(title);
+    }
+
+    /**
+     * Returns the titles with at least one copy, sorted, without taking a snapshot. Only takes the read lock, so
+     * counting goes on meanwhile, and the barcodes aren't copied. A title counted or removed meanwhile may or may not
+     * be included.
+     *
+     * @return the titles.
+     */
+    public List<String> getTitles()
+    {
+        List<String> titles;
+        lock.readLock().lock();
+        try
+        {
+            Generation current = generation;
+            titles = new ArrayList<>(current.titles.size());
+            current.titles.forEach((title, counter) ->
+            {
+                if (counter.stored.sum() > 0)
+                    titles.add(title);
+            });
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+        Collections.sort(titles);
+        return titles;
+    }
+
+    //BARCODES ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Registers a barcode.
+     *
+     * @param barcode the barcode.
+     */
+    public void registerBarcode(String barcode)
+    {
+        generation.barcodes.add(barcode);
+    }
+
+    /**
+     * Unregisters a barcode.
+     *
+     * @param barcode the barcode.
+     */
+    public void unregisterBarcode(String barcode)
+    {
+        generation.barcodes.remove(barcode);
+    }
+
+    /**
+     * Returns whether a barcode is registered, in constant time.
+     *
+     * @param barcode the barcode.
+     * @return true if it's registered.
+     */
+    public boolean isBarcodeRegistered(String barcode)
+    {
+        return barcode != null && generation.barcodes.contains(barcode);
+    }
+
+    //SNAPSHOTS AND REBUILDS -------------------------------------------------------------------------------------------
+
+    /**
+     * Takes a consistent snapshot of the index. Counting waits while the snapshot is taken, lookups don't.
+     *
+     * @return the snapshot.
+     */
+    public Snapshot snapshot()
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Generation current = generation;
+            Map<String, Integer> storedTitles = new TreeMap<>();
+            Map<String, Integer> availableTitles = new TreeMap<>();
+            current.titles.forEach((title, counter) ->
+            {
+                long stored = counter.stored.sum();
+                if (stored > 0)
+                    storedTitles.put(title, (int) stored);
+                availableTitles.put(title, counter.available.get());
+            });
+            List<String> barcodes = new ArrayList<>(current.barcodes);
+            Collections.sort(barcodes);
+            return new Snapshot(storedTitles, availableTitles, barcodes);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with those of a builder. Only the swap itself waits for counting in
+     * progress, so the index can be rebuilt from a large catalog without stalling lookups.
+     * <p>
+     * Changes counted in the old index while the builder was filled are lost, so the builder should be filled from
+     * the database after those changes were committed.
+     *
+     * @param builder the builder holding the new contents.
+     */
+    public void replace(Builder builder)
+    {
+        Generation rebuilt = builder.build();
+        lock.writeLock().lock();
+        try
+        {
+            generation = rebuilt;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the index.
+     */
+    public void clear()
+    {
+        replace(new Builder(0, 0));
+    }
+
+    /**
+     * Fills a new index from the catalog, without locking. Not thread safe, meant to be filled by a single thread.
+     */
+    public static class Builder
+    {
+        private Generation generation;
+
+        /**
+         * @param expectedTitles   the number of titles, used to size the index up front.
+         * @param expectedBarcodes the number of barcodes, used to size the index up front.
+         */
+        public Builder(int expectedTitles, int expectedBarcodes)
+        {
+            generation = new Generation(expectedTitles, expectedBarcodes);
+        }
+
+        /**
+         * Adds copies of a title.
+         *
+         * @param title     the title.
+         * @param stored    the number of copies.
+         * @param available the number of available copies.
+         * @return this builder.
+         */
+        public Builder addTitle(String title, int stored, int available)
+        {
+            TitleCounter counter = generation.titles.computeIfAbsent(title, key -> new TitleCounter());
+            counter.stored.add(stored);
+            counter.available.addAndGet(available);
+            return this;
+        }
+
+        /**
+         * Adds a registered barcode.
+         *
+         * @param barcode the barcode.
+         * @return this builder.
+         */
+        public Builder addBarcode(String barcode)
+        {
+            generation.barcodes.add(barcode);
+            return this;
+        }
+
+        private Generation build()
+        {
+            if (generation == null)
+                throw new IllegalStateException("Builder already used.");
+            Generation built = generation;
+            generation = null;
+            return built;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the index. Titles are sorted, and so are barcodes.
+     */
+    public static class Snapshot
+    {
+        private final Map<String, Integer> storedTitles;
+        private final Map<String, Integer> availableTitles;
+        private final List<String> registeredBarcodes;
+
+        private Snapshot(Map<String, Integer> storedTitles, Map<String, Integer> availableTitles,
+                         List<String> registeredBarcodes)
+        {
+            this.storedTitles = Collections.unmodifiableMap(storedTitles);
+            this.availableTitles = Collections.unmodifiableMap(availableTitles);
+            this.registeredBarcodes = Collections.unmodifiableList(registeredBarcodes);
+        }
+
+        /**
+         * @return every title with at least one copy, mapped to its number of copies.
+         */
+        public Map<String, Integer> getStoredTitles()
+        {
+            return storedTitles;
+        }
+
+        /**
+         * @return every title in the index, mapped to its number of available copies, which may be 0.
+         */
+        public Map<String, Integer> getAvailableTitles()
+        {
+            return availableTitles;
+        }
+
+        /**
+         * @return the registered barcodes.
+         */
+        public List<String> getRegisteredBarcodes()
+        {
+            return registeredBarcodes;
+        }
+    }
+
+    private TitleCounter counter(String title)
+    {
+        return generation.titles.computeIfAbsent(title, key -> new TitleCounter());
+    }
+}
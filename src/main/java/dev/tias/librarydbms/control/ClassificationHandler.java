@@ -5,12 +5,14 @@ import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.db.QueryResult;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.*;
+import dev.tias.librarydbms.service.search.Suggester;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author Mattias Fridsén
@@ -21,10 +23,34 @@ public class ClassificationHandler
 {
 
     /**
-     * Used to make the process of verifying if a username is taken or not, faster.
+     * Used to make the process of verifying if a username is taken or not, faster. Read far more often than
+     * changed, and by several threads at once, so it's copied on write.
      */
 
-    private static final ArrayList<String> storedClassificationNames = new ArrayList<>();
+    private static final List<String> storedClassificationNames = new CopyOnWriteArrayList<>();
+
+    //The maximum number of classifications kept by the cache used by getClassificationByID
+    public static final int CLASSIFICATION_CACHE_SIZE = 500;
+
+    /**
+     * Classifications are looked up by ID for every item that is retrieved or created, so they are cached. Every
+     * change made through this class invalidates the changed classification.
+     */
+    private static final ReadThroughCache<Integer, Classification> classificationCache =
+            new ReadThroughCache<>(CLASSIFICATION_CACHE_SIZE,
+                    ClassificationHandler::retrieveClassificationByIDFromTable, Classification::new);
+
+    /**
+     * The classification names suggested while typing in the search screens, rebuilt from
+     * storedClassificationNames after it changes.
+     */
+    private static final Suggester nameSuggestions =
+            new Suggester(() -> new ArrayList<>(storedClassificationNames));
+
+    static
+    {
+        DataAccessManager.addCacheInvalidator(classificationCache::invalidateAll);
+    }
 
     /**
      * Performs setup tasks. In this case, syncing storedClassificationNames against the database.
@@ -37,6 +63,8 @@ public class ClassificationHandler
     public static void reset()
     {
         storedClassificationNames.clear();
+        classificationCache.invalidateAll();
+        nameSuggestions.invalidate();
     }
 
     /**
@@ -45,13 +73,16 @@ public class ClassificationHandler
 
     public static void syncClassificationNames()
     {
-        if (!storedClassificationNames.isEmpty())
-            storedClassificationNames.clear();
-        retrieveClassificationNamesFromTable();
+        //Read first, so that the names are only missing for as short as possible
+        List<String> classificationNames = retrieveClassificationNamesFromTable();
+        storedClassificationNames.clear();
+        storedClassificationNames.addAll(classificationNames);
+        nameSuggestions.invalidate();
     }
 
-    private static void retrieveClassificationNamesFromTable()
+    private static List<String> retrieveClassificationNamesFromTable()
     {
+        List<String> classificationNames = new ArrayList<>();
         try
         {
             // Execute the query to retrieve all the ClassificationNames
@@ -62,7 +93,7 @@ public class ClassificationHandler
                 // Add the retrieved classificationNames to the ArrayList
                 while (result.getResultSet().next())
                 {
-                    storedClassificationNames.add(result.getResultSet().getString("username"));
+                    classificationNames.add(result.getResultSet().getString("classificationName"));
                 }
             }
         }
@@ -71,6 +102,7 @@ public class ClassificationHandler
             ExceptionManager.HandleFatalException(e, "Failed to retrieve classifications from database due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
+        return classificationNames;
     }
 
     /**
@@ -91,11 +123,33 @@ public class ClassificationHandler
      * Returns the Arraylist of classificationName
      */
 
-    public static ArrayList<String> getStoredClassificationNames()
+    public static List<String> getStoredClassificationNames()
     {
         return storedClassificationNames;
     }
 
+    /**
+     * Returns the classification names starting with what has been typed so far, for type-ahead.
+     *
+     * @param prefix     what has been typed so far.
+     * @param maxResults the maximum number of names to return.
+     * @return the classification names, empty if none match.
+     */
+    public static List<String> suggestClassificationNames(String prefix, int maxResults)
+    {
+        return nameSuggestions.suggest(prefix, maxResults);
+    }
+
+    /**
+     * Returns the cache used by getClassificationByID, whose hit ratio and eviction count tell how well it's sized.
+     *
+     * @return the cache.
+     */
+    public static ReadThroughCache<Integer, Classification> getClassificationCache()
+    {
+        return classificationCache;
+    }
+
     /**
      * Prints all non-sensitive data for all Classification's in a list.
      *
@@ -141,6 +195,7 @@ public class ClassificationHandler
 
             // Need to remember to add to the list
             storedClassificationNames.add(newClassification.getClassificationName());
+            nameSuggestions.invalidate();
         }
         catch (ConstructionException | InvalidIDException e)
         {
@@ -159,10 +214,10 @@ public class ClassificationHandler
             // Prepare query
             String query = "INSERT INTO classifications (classificationName, description, deleted" + "VALUES (?, ?, ?)";
 
-            String[] params = {
+            Object[] params = {
                     classification.getClassificationName(),
                     classification.getDescription(),
-                    "0"
+                    false
             };
 
             // Execute query and get the generated classificationID, using try-with-resources.
@@ -188,6 +243,7 @@ public class ClassificationHandler
      * Retrieves a Classification object from the database using the provided classificationID. The method first validates the provided
      * classificationID. It then prepares and executes an SQL query to select the classification's details from the database. If a classification
      * with the provided classificationID exists, a new Classification object is created with the retrieved details and returned.
+     * Classifications are cached, so repeated calls only query the database once.
      *
      * @param classificationID The classificationID of the classification to be retrieved.
      * @return A Classification object representing the classification with the provided classificationID. Returns null if the classification does not exist.
@@ -196,16 +252,20 @@ public class ClassificationHandler
     public static Classification getClassificationByID(int classificationID)
     throws InvalidIDException
     {
-        try
-        {
+        // No point getting invalid Classifications, throws InvalidIDException
+        checkValidClassificationID(classificationID);
 
-            // No point getting invalid Classifications, throws InvalidIDException
-            checkValidClassificationID(classificationID);
+        return classificationCache.get(classificationID);
+    }
 
+    private static Classification retrieveClassificationByIDFromTable(int classificationID)
+    {
+        try
+        {
             // Prepare a SQL query to select a classification by classificationID.
             String query = "SELECT classificationName, description, deleted " +
                     "FROM classifications WHERE classificationID = ?";
-            String[] params = {String.valueOf(classificationID)};
+            Object[] params = {classificationID};
 
             // Execute the query and store the result in a ResultSet.
             try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params))
@@ -231,8 +291,6 @@ public class ClassificationHandler
         }
         // Return null if not found
         return null;
-
-
     }
 
     //UTILITY METHODS---------------------------------------------------------------------------------------------------
@@ -311,10 +369,11 @@ public class ClassificationHandler
 
             // Prepare a SQL command to set deleted to true for the specified classification.
             String sql = "UPDATE classifications SET deleted = 1 WHERE classificationID = ?";
-            String[] params = {String.valueOf(classificationToDelete.getClassificationID())};
+            Object[] params = {classificationToDelete.getClassificationID()};
 
             // Execute the update.
             DataAccessManager.executePreparedUpdate(sql, params);
+            classificationCache.invalidate(classificationToDelete.getClassificationID());
 
             //Update the deleted field of the classification object
             classificationToDelete.setDeleted(true);
@@ -355,11 +414,11 @@ public class ClassificationHandler
 
             //Prepare a SQL command to set deleted to false for the specified classification.
             String sql = "UPDATE classifications SET deleted = 0 WHERE classificationID = ?";
-            String[] params = {String.valueOf(classificationToRecover.getClassificationID())};
+            Object[] params = {classificationToRecover.getClassificationID()};
 
             // Execute the update
             DataAccessManager.executePreparedUpdate(sql, params);
-
+            classificationCache.invalidate(classificationToRecover.getClassificationID());
         }
         catch (NullEntityException | EntityNotFoundException | InvalidIDException e)
         {
@@ -396,16 +455,18 @@ public class ClassificationHandler
 
             // Prepare a SQL command to delete a classificationToDelete by classificationID.
             String sql = "DELETE FROM classifications WHERE classificationID = ?";
-            String[] params = {String.valueOf(classificationToDelete.getClassificationID())};
+            Object[] params = {classificationToDelete.getClassificationID()};
 
             // Execute the update
             DataAccessManager.executePreparedUpdate(sql, params);
+            classificationCache.invalidate(classificationToDelete.getClassificationID());
 
             // Set booleans
             classificationToDelete.setDeleted(true);
 
             // Remove the deleted classificationToDelete name from the list.
             storedClassificationNames.remove(classificationName);
+            nameSuggestions.invalidate();
         }
         catch (EntityNotFoundException | NullEntityException | InvalidIDException e)
         {
@@ -444,18 +505,20 @@ public class ClassificationHandler
                 // to storedClassificationName
                 storedClassificationNames.remove(oldClassificationName);
                 storedClassificationNames.add(updatedClassification.getClassificationName());
+                nameSuggestions.invalidate();
             }
 
-            String sql = "UPDATE classifications SET classificationsName = ?, classificationID = ?, description = ?, WHERE classificationID  = ?";
-            String[] params = {
+            String sql = "UPDATE classifications SET classificationName = ?, description = ? WHERE classificationID = ?";
+            Object[] params = {
                     updatedClassification.getClassificationName(),
                     updatedClassification.getDescription(),
-                    String.valueOf(updatedClassification.getClassificationID())
+                    updatedClassification.getClassificationID()
 
             };
 
             //Execute the update
             DataAccessManager.executePreparedUpdate(sql, params);
+            classificationCache.invalidate(updatedClassification.getClassificationID());
         }
         catch (InvalidIDException | InvalidNameException e)
         {
@@ -498,7 +561,7 @@ public class ClassificationHandler
             String query = getDeleted ?
                     "SELECT * FROM classifications WHERE classificationName = ?" :
                     "SELECT * FROM classifications WHERE classificationName = ? AND deleted = false";
-            String[] params = {classificationName};
+            Object[] params = {classificationName};
 
             // Execute the query and store the result in a ResultSet
             try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params))
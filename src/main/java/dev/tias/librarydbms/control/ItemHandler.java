@@ -1,21 +1,33 @@
 package dev.tias.librarydbms.control;
 
 import dev.tias.librarydbms.model.*;
+import dev.tias.librarydbms.service.db.BatchResult;
 import dev.tias.librarydbms.service.db.DataAccessManager;
+import dev.tias.librarydbms.service.db.Keyset;
+import dev.tias.librarydbms.service.db.Page;
 import dev.tias.librarydbms.service.db.QueryResult;
+import dev.tias.librarydbms.service.db.ResultStream;
+import dev.tias.librarydbms.service.db.Transaction;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.*;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidBarcodeException;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidISBNException;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidTitleException;
+import dev.tias.librarydbms.service.search.SearchIndex;
+import dev.tias.librarydbms.service.search.Suggester;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static dev.tias.librarydbms.control.ItemHandlerUtils.*;
 
@@ -44,21 +56,66 @@ import static dev.tias.librarydbms.control.ItemHandlerUtils.*;
  */
 public class ItemHandler
 {
+    //Insert commands, shared by the single and batch create methods
+    private static final String INSERT_ITEM = "INSERT INTO items (title, itemType, barcode, authorID, " +
+            "classificationID, allowedRentalDays, available, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_LITERATURE = "INSERT INTO literature (literatureID, ISBN) VALUES (?, ?)";
+    private static final String INSERT_FILM = "INSERT INTO films (filmID, ageRating, countryOfProduction, actors) " +
+            "VALUES (?, ?, ?, ?)";
+
+    //Queries used to rebuild the catalog index, the counts are summed up by the database rather than in here
+    private static final String COUNT_TITLES = "SELECT title, COUNT(*) AS stored, " +
+            "COALESCE(SUM(available), 0) AS available FROM items GROUP BY title";
+    private static final String SELECT_BARCODES = "SELECT barcode FROM items";
+    private static final String SELECT_COPIES = "SELECT items.itemID, items.title, items.available, literature.ISBN " +
+            "FROM items LEFT JOIN literature ON literature.literatureID = items.itemID WHERE items.deleted = 0";
+
+    //Query used to rebuild the search index, with every searched field of every item that isn't deleted
+    private static final String SELECT_SEARCH_DOCUMENTS = "SELECT items.itemID, items.title, " +
+            "authors.authorFirstName, authors.authorLastName, classifications.classificationName, literature.ISBN, " +
+            "films.actors FROM items " +
+            "JOIN authors ON items.authorID = authors.authorID " +
+            "JOIN classifications ON items.classificationID = classifications.classificationID " +
+            "LEFT JOIN literature ON items.itemID = literature.literatureID " +
+            "LEFT JOIN films ON items.itemID = films.filmID " +
+            "WHERE items.deleted = 0";
+
+    //The fields searched by searchItems, and how much a match in each counts
+    private static final Map<String, Double> SEARCH_FIELDS = Map.of(
+            "title", 3.0,
+            "isbn", 3.0,
+            "author", 2.0,
+            "classification", 1.0,
+            "actors", 1.0);
+
+    //Pages of items are ordered by itemID
+    private static final Keyset ITEM_PAGES = Keyset.byID("items.itemID");
+
+    /**
+     * Used to speed up searching and validation. Keeps track of the titles of all Items in the database, how many
+     * copies there are of each and how many of those are available, as well as of already existing barcodes to
+     * quickly enforce uniqueness. Safe to use from several threads.
+     */
+    private static final CatalogIndex catalog = new CatalogIndex();
+
     /**
-     * Used to speed up searching. Contains a HashMap with the titles of all Items in the database and how many
-     * copies there are of each.
+     * Keeps track of which copies of each title and ISBN are available, so that the RentalHandler can pick a free
+     * copy without searching the items table. Safe to use from several threads.
      */
-    private static final Map<String, Integer> storedTitles = new HashMap<>();
+    private static final AvailabilityIndex availability = new AvailabilityIndex();
 
     /**
-     * Used to keep track of how many available copies there are of Items in the database.
+     * Full-text index over the title, author, classification, ISBN and actors of every item that isn't deleted, used
+     * by searchItems. Safe to use from several threads.
      */
-    private static final Map<String, Integer> availableTitles = new HashMap<>();
+    private static final SearchIndex searchIndex = new SearchIndex(SEARCH_FIELDS);
 
     /**
-     * Used to keep track of already existing barcodes to quickly enforce uniqueness.
+     * The titles suggested while typing in the search screens, rebuilt from the catalog index after titles are added
+     * or removed.
      */
-    private static final ArrayList<String> registeredBarcodes = new ArrayList<>();
+    private static final Suggester titleSuggestions =
+            new Suggester(catalog::getTitles);
 
     /**
      * Prepares the handler by syncing titles from the database. Called at the start of the application.
@@ -66,99 +123,209 @@ public class ItemHandler
     public static void setup()
     {
         syncTitlesAndBarcodes();
+        syncSearchIndex();
     }
 
     /**
-     * Syncs the handler with the database by clearing existing data and retrieving current titles and barcodes from
-     * the database.
+     * Syncs the handler with the database by replacing existing data with current titles and barcodes from the
+     * database.
      * <p>
-     * Can be called if something's gone wrong and data needs to be re-synced during runtime.
+     * Can be called if something's gone wrong and data needs to be re-synced during runtime. The old data is used
+     * until the new data is loaded, rather than being cleared first.
      */
     public static void syncTitlesAndBarcodes()
     {
-        reset();
         retrieveTitlesAndBarcodesFromTable();
     }
 
     /**
-     * Retrieves titles from the Items table and returns them as a map with title-count pairs.
+     * Retrieves titles and barcodes from the Items table and rebuilds the catalog index from them. The index is
+     * built on the side and swapped in when done, so it stays usable while a large catalog is loaded.
      */
     private static void retrieveTitlesAndBarcodesFromTable() //TODO-PRIO RE-TEST AGAINST RETRIEVAL FROM TEST_DATA FILE
     {
-        //Execute the query to retrieve data
-        String query = "SELECT title, available, barcode FROM items ORDER BY title ASC";
-        try (QueryResult result = DataAccessManager.executePreparedQuery(query, null))
+        CatalogIndex.Builder builder = new CatalogIndex.Builder(0, 0);
+        int titles = 0;
+        int barcodes = 0;
+
+        //Execute the queries to retrieve data, one row per title and one per barcode
+        try (QueryResult result = DataAccessManager.executePreparedQuery(COUNT_TITLES, null))
         {
-            while (result.getResultSet().next())
+            ResultSet resultSet = result.getResultSet();
+            while (resultSet.next())
             {
-                //Retrieve data
-                String title = result.getResultSet().getString("title");
-                boolean available = result.getResultSet().getBoolean("available");
-                String barcode = result.getResultSet().getString("barcode");
-
-                //Increment titles
-                incrementStoredTitles(title);
-                if (available)
-                {
-                    incrementAvailableTitles(title);
-                }
+                builder.addTitle(resultSet.getString("title"), resultSet.getInt("stored"),
+                        resultSet.getInt("available"));
+                titles++;
+            }
+        }
+        catch (SQLException e) //This is fatal
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to retrieve titles from database due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
 
-                //Increment barcodes
-                incrementRegisteredBarcodes(barcode);
+        try (QueryResult result = DataAccessManager.executePreparedQuery(SELECT_BARCODES, null))
+        {
+            ResultSet resultSet = result.getResultSet();
+            while (resultSet.next())
+            {
+                builder.addBarcode(resultSet.getString("barcode"));
+                barcodes++;
             }
         }
         catch (SQLException e) //This is fatal
         {
-            ExceptionManager.HandleFatalException(e, "Failed to retrieve titles and barcodes from database due to " +
+            ExceptionManager.HandleFatalException(e, "Failed to retrieve barcodes from database due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        //Every copy that isn't deleted, available or not, so that returned copies can be found again
+        AvailabilityIndex.Builder copies = new AvailabilityIndex.Builder(barcodes);
+        try (QueryResult result = DataAccessManager.executePreparedQuery(SELECT_COPIES, null))
+        {
+            ResultSet resultSet = result.getResultSet();
+            while (resultSet.next())
+                copies.addCopy(resultSet.getInt("itemID"), resultSet.getString("title"),
+                        resultSet.getString("ISBN"), resultSet.getBoolean("available"));
+        }
+        catch (SQLException e) //This is fatal
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to retrieve copies from database due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
-        finally
+
+        catalog.replace(builder);
+        availability.replace(copies);
+        titleSuggestions.invalidate();
+        if (titles == 0) System.err.println("No titles retrieved from table!");
+        if (barcodes == 0) System.err.println("No barcodes retrieved from table!");
+    }
+
+    /**
+     * Rebuilds the search index from the database. The old index answers searches until the new one is done.
+     * <p>
+     * Items are indexed as they are created, updated and deleted. Renaming an author or classification doesn't
+     * reindex their items though, so call this afterwards for searches to find the new name.
+     */
+    public static void syncSearchIndex()
+    {
+        SearchIndex.Builder builder = new SearchIndex.Builder(searchIndex);
+        try (QueryResult result = DataAccessManager.executePreparedQuery(SELECT_SEARCH_DOCUMENTS, null))
         {
-            if (storedTitles.isEmpty()) System.err.println("No titles retrieved from table!");
-            if (registeredBarcodes.isEmpty()) System.err.println("No barcodes retrieved from table!");
+            ResultSet resultSet = result.getResultSet();
+            while (resultSet.next())
+                builder.add(new SearchIndex.Document(resultSet.getInt("itemID"))
+                        .field("title", resultSet.getString("title"))
+                        .field("author", resultSet.getString("authorFirstName"))
+                        .field("author", resultSet.getString("authorLastName"))
+                        .field("classification", resultSet.getString("classificationName"))
+                        .field("isbn", resultSet.getString("ISBN"))
+                        .field("actors", resultSet.getString("actors")));
+        }
+        catch (SQLException e) //This is fatal
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to build search index due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
         }
+        searchIndex.replace(builder);
     }
 
     /**
-     * Clears both stored and available titles maps as well as the registered barcodes list.
+     * Clears the catalog index, meaning the stored and available titles as well as the registered barcodes, the
+     * availability index and the search index.
      */
     public static void reset()
     {
-        storedTitles.clear();
-        availableTitles.clear();
-        registeredBarcodes.clear();
+        catalog.clear();
+        availability.clear();
+        searchIndex.clear();
+        titleSuggestions.invalidate();
     }
 
     //LIST AND MAP RELATED ---------------------------------------------------------------------------------------------
 
     /**
-     * Returns the storedTitles map.
+     * Returns a consistent snapshot of the catalog index, for showing all titles and barcodes at once.
      *
-     * @return the storedTitles map.
+     * @return the snapshot.
+     */
+    public static CatalogIndex.Snapshot getCatalogSnapshot()
+    {
+        return catalog.snapshot();
+    }
+
+    /**
+     * Returns a snapshot of the stored titles, sorted by title. Use getStoredCount to look up a single title.
+     *
+     * @return a map of every title to its number of copies.
      */
     public static Map<String, Integer> getStoredTitles()
     {
-        return storedTitles;
+        return catalog.snapshot().getStoredTitles();
+    }
+
+    /**
+     * Returns the titles with at least one copy, sorted, without taking a snapshot.
+     *
+     * @return the titles.
+     */
+    public static List<String> getTitles()
+    {
+        return catalog.getTitles();
     }
 
     /**
-     * Returns the availableTitles map.
+     * Returns a snapshot of the available titles, sorted by title. Use getAvailableCount to look up a single title.
      *
-     * @return the availableTitles map.
+     * @return a map of every title to its number of available copies.
      */
     public static Map<String, Integer> getAvailableTitles()
     {
-        return availableTitles;
+        return catalog.snapshot().getAvailableTitles();
+    }
+
+    /**
+     * Returns a snapshot of the registered barcodes, sorted. Use isBarcodeRegistered to look up a single barcode.
+     *
+     * @return the registered barcodes.
+     */
+    public static List<String> getRegisteredBarcodes()
+    {
+        return catalog.snapshot().getRegisteredBarcodes();
     }
 
     /**
-     * Returns the registeredBarcodes list.
+     * Returns the number of copies of a title, without taking a snapshot.
      *
-     * @return the registeredBarcodes list.
+     * @param title The title.
+     * @return The number of copies, 0 if there are none.
      */
-    public static ArrayList<String> getRegisteredBarcodes()
+    public static int getStoredCount(String title)
     {
-        return registeredBarcodes;
+        return catalog.getStoredCount(title);
+    }
+
+    /**
+     * Returns the number of available copies of a title, without taking a snapshot.
+     *
+     * @param title The title.
+     * @return The number of available copies, 0 if there are none.
+     */
+    public static int getAvailableCount(String title)
+    {
+        return catalog.getAvailableCount(title);
+    }
+
+    /**
+     * Checks whether a barcode is registered, in constant time.
+     *
+     * @param barcode The barcode.
+     * @return True if the barcode is registered.
+     */
+    public static boolean isBarcodeRegistered(String barcode)
+    {
+        return catalog.isBarcodeRegistered(barcode);
     }
 
     /**
@@ -179,11 +346,8 @@ public class ItemHandler
      */
     public static void incrementStoredTitles(String title)
     {
-        storedTitles.put(title, storedTitles.getOrDefault(title, 0) + 1);
-        if (!availableTitles.containsKey(title))
-        {
-            availableTitles.put(title, 0);
-        }
+        catalog.incrementStored(title);
+        titleSuggestions.invalidate();
     }
 
     /**
@@ -194,7 +358,7 @@ public class ItemHandler
      */
     public static void incrementAvailableTitles(String title)
     {
-        availableTitles.put(title, availableTitles.getOrDefault(title, 0) + 1);
+        catalog.incrementAvailable(title);
     }
 
     /**
@@ -204,16 +368,8 @@ public class ItemHandler
      */
     public static void decrementStoredTitles(String title)
     {
-        int storedCount = storedTitles.get(title) - 1;
-        if (storedCount == 0)
-        {
-            storedTitles.remove(title);
-            availableTitles.remove(title);
-        }
-        else
-        {
-            storedTitles.put(title, storedCount);
-        }
+        catalog.decrementStored(title);
+        titleSuggestions.invalidate();
     }
 
     /**
@@ -223,15 +379,7 @@ public class ItemHandler
      */
     public static void decrementAvailableTitles(String title)
     {
-        Integer count = availableTitles.get(title);
-        if (count != null && count > 0)
-        {
-            availableTitles.put(title, count - 1);
-        }
-        else
-        {
-            availableTitles.put(title, 0); //keep the item in the map with a count of 0
-        }
+        catalog.decrementAvailable(title); //Keeps the title with a count of 0
     }
 
     /**
@@ -241,13 +389,120 @@ public class ItemHandler
      */
     private static void decrementTitle(String oldTitle)
     {
-        if (storedTitles.get(oldTitle) != null)
+        if (catalog.getStoredCount(oldTitle) > 0)
         {
             decrementStoredTitles(oldTitle);
             decrementAvailableTitles(oldTitle);
         }
     }
 
+    /**
+     * Returns up to a given number of copies of a title that are available according to the availability index.
+     * The copies must still be claimed in the database, which decides whether they really are available.
+     *
+     * @param title The title.
+     * @param max   The maximum number of copies to return.
+     * @return The itemIDs of the copies, empty if none are known to be available.
+     */
+    public static List<Integer> findAvailableCopies(String title, int max)
+    {
+        return availability.findAvailableCopies(title, max);
+    }
+
+    /**
+     * Returns up to a given number of copies of an ISBN that are available according to the availability index.
+     * Like findAvailableCopies, the copies must still be claimed in the database.
+     *
+     * @param ISBN The ISBN.
+     * @param max  The maximum number of copies to return.
+     * @return The itemIDs of the copies, empty if none are known to be available.
+     */
+    public static List<Integer> findAvailableCopiesByISBN(String ISBN, int max)
+    {
+        return availability.findAvailableCopiesByISBN(ISBN, max);
+    }
+
+    /**
+     * Marks a copy as available in the availability index, once it's been released and committed.
+     *
+     * @param itemID The ID of the copy.
+     */
+    public static void markCopyAvailable(int itemID)
+    {
+        availability.markAvailable(itemID);
+    }
+
+    /**
+     * Marks a copy as not available in the availability index, once it's been claimed and committed, or found to
+     * be out of date.
+     *
+     * @param itemID The ID of the copy.
+     */
+    public static void markCopyUnavailable(int itemID)
+    {
+        availability.markUnavailable(itemID);
+    }
+
+    /**
+     * Adds an item to the availability and search indexes, or replaces what the indexes know about it.
+     *
+     * @param item The item.
+     */
+    private static void indexCopy(Item item)
+    {
+        String ISBN = item instanceof Literature ? ((Literature) item).getISBN() : null;
+        availability.putCopy(item.getItemID(), item.getTitle(), ISBN, item.isAvailable());
+        searchIndex.put(searchDocument(item));
+    }
+
+    /**
+     * Removes an item from the availability and search indexes.
+     *
+     * @param itemID The ID of the item.
+     */
+    private static void unindexCopy(int itemID)
+    {
+        availability.removeCopy(itemID);
+        searchIndex.remove(itemID);
+    }
+
+    /**
+     * Returns the searched fields of an item. The author and classification names are looked up by ID, since the
+     * names set on the item may be out of date after an update. The lookups are served by the handlers' caches.
+     *
+     * @param item The item.
+     * @return The search document of the item.
+     */
+    private static SearchIndex.Document searchDocument(Item item)
+    {
+        SearchIndex.Document document = new SearchIndex.Document(item.getItemID()).field("title", item.getTitle());
+
+        Author author = AuthorHandler.getAuthorByID(item.getAuthorID(), false);
+        if (author != null)
+            document.field("author", author.getAuthorFirstName()).field("author", author.getAuthorLastName());
+        else
+            document.field("author", item.getAuthorFirstname()).field("author", item.getAuthorLastname());
+
+        String classificationName = item.getClassificationName();
+        try
+        {
+            Classification classification = ClassificationHandler.getClassificationByID(item.getClassificationID());
+            if (classification != null)
+                classificationName = classification.getClassificationName();
+        }
+        catch (InvalidIDException e)
+        {
+            //Keep the name set on the item
+        }
+        document.field("classification", classificationName);
+
+        if (item instanceof Literature)
+            document.field("isbn", ((Literature) item).getISBN());
+        else if (item instanceof Film)
+            document.field("actors", ((Film) item).getListOfActors());
+        return document;
+    }
+
     /**
      * Increments the count of registered barcodes by adding the specified barcode.
      *
@@ -255,7 +510,7 @@ public class ItemHandler
      */
     public static void incrementRegisteredBarcodes(String barcode)
     {
-        registeredBarcodes.add(barcode);
+        catalog.registerBarcode(barcode);
     }
 
     /**
@@ -265,7 +520,7 @@ public class ItemHandler
      */
     public static void decrementRegisteredBarcodes(String barcode)
     {
-        registeredBarcodes.remove(barcode);
+        catalog.unregisterBarcode(barcode);
     }
 
     //CREATE -----------------------------------------------------------------------------------------------------------
@@ -307,23 +562,25 @@ public class ItemHandler
         //Create literature object and set authorName and classificationName by retrieving from their handlers
         Literature newLiterature = new Literature(title, type, authorID, classificationID, barcode, ISBN);
 
-        //Save, retrieve and set itemID,
-        int itemID = saveItem(newLiterature);
-        newLiterature.setItemID(itemID); //Throws InvalidIDException
-
-        //Save literature
-        saveLiterature(newLiterature);
+        //Save to items and literature in one transaction, and set itemID
+        //Throws InvalidIDException, and InvalidBarcodeException if the barcode was taken after it was checked
+        saveItemAndChild(newLiterature, () -> saveLiterature(newLiterature));
 
         //Set author and classification names
         newLiterature.setAuthorFirstname(author.getAuthorFirstName());
         newLiterature.setAuthorLastname(author.getAuthorLastName());
         newLiterature.setClassificationName(classification.getClassificationName());
 
-        //Increment the count of the new title. Add a new entry if the title does not exist yet.
-        incrementBothTitles(title);
+        //Update maps once committed, by the outer transaction if joined
+        DataAccessManager.afterCommit(() ->
+        {
+            //Increment the count of the new title. Add a new entry if the title does not exist yet.
+            incrementBothTitles(title);
 
-        //Increment registered barcode
-        incrementRegisteredBarcodes(barcode);
+            //Increment registered barcode
+            incrementRegisteredBarcodes(barcode);
+            indexCopy(newLiterature);
+        });
 
         return newLiterature;
     }
@@ -364,79 +621,86 @@ public class ItemHandler
         //Create film object and set authorName and classificationName by retrieving from their handlers
         Film newFilm = new Film(title, authorID, classificationID, barcode, ageRating); //Throws ConstructionException
 
-        //Save, retrieve and set itemID,
-        int itemID = saveItem(newFilm);
-
-        newFilm.setItemID(itemID); //Throws InvalidIDException
-
-        //Save the new film to the table
-        saveFilm(newFilm);
+        //Save to items and films in one transaction, and set itemID
+        //Throws InvalidIDException, and InvalidBarcodeException if the barcode was taken after it was checked
+        saveItemAndChild(newFilm, () -> saveFilm(newFilm));
 
         //Set author and classification names
         newFilm.setAuthorFirstname(author.getAuthorFirstName());
         newFilm.setAuthorLastname(author.getAuthorLastName());
         newFilm.setClassificationName(classification.getClassificationName());
 
-        //Increment the count of the new title. Add a new entry if the title does not exist yet.
-        incrementBothTitles(title);
+        //Update maps once committed, by the outer transaction if joined
+        DataAccessManager.afterCommit(() ->
+        {
+            //Increment the count of the new title. Add a new entry if the title does not exist yet.
+            incrementBothTitles(title);
 
-        //Increment registered barcode
-        incrementRegisteredBarcodes(barcode);
+            //Increment registered barcode
+            incrementRegisteredBarcodes(barcode);
+            indexCopy(newFilm);
+        });
 
         return newFilm;
     }
 
+    /**
+     * Saves an item and its row in the literature or films table in one transaction, so that there's a single
+     * commit, and never an item without its row. Sets the itemID of the item.
+     *
+     * @param item      the item to save.
+     * @param saveChild saves the row in the literature or films table, run once the itemID is set.
+     * @throws InvalidIDException      if the generated itemID is invalid, in which case nothing is saved.
+     * @throws InvalidBarcodeException if the barcode was registered by someone else after it was checked, in which
+     *                                 case nothing is saved.
+     */
+    private static void saveItemAndChild(Item item, DataAccessManager.UnitOfWork<Integer, SQLException> saveChild)
+    throws InvalidIDException, InvalidBarcodeException
+    {
+        //Rolled back when closed unless committed, also when setItemID throws
+        try (Transaction transaction = DataAccessManager.beginTransaction())
+        {
+            item.setItemID(saveItem(item));
+            saveChild.run();
+            transaction.commit();
+        }
+        catch (SQLException e)
+        {
+            //The barcode is the only UNIQUE column of items besides the itemID
+            if (DataAccessManager.isDuplicateKey(e))
+                throw new InvalidBarcodeException("Barcode " + item.getBarcode() + " is already registered.");
+            ExceptionManager.HandleFatalException(e, "Failed to save Item to database due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Saves an Item object to the database and returns the automatically generated item ID.
      * This method saves common attributes of all items in the library to the 'items' table,
      * such as title, item type, barcode, author ID, classification ID, allowed rental days,
      * availability status, and deletion status.
      * <p>
-     * If a SQLException occurs during the operation, the method will throw a fatal exception
-     * that is handled by the ExceptionManager.
-     * <p>
-     * Note: The returned value of 0 is a fallback and should never be reached in normal circumstances
-     * as any SQLException will halt the execution of the program.
+     * Any SQLException is thrown, so that the transaction the item is saved in can roll back.
      *
      * @param item The Item object to be saved.
-     * @return The automatically generated ID of the saved item.
+     * @return The automatically generated ID of the saved item, or 0 if none was returned.
+     * @throws SQLException if the item couldn't be saved.
      */
     private static int saveItem(Item item)
+    throws SQLException
     {
-        try
+        //Execute query and get the generated itemID
+        try (QueryResult queryResult = DataAccessManager.executePreparedQueryChecked(INSERT_ITEM, itemParams(item),
+                Statement.RETURN_GENERATED_KEYS))
         {
-            //Prepare query
-            String query = "INSERT INTO items (title, itemType, barcode, authorID, classificationID, " +
-                    "allowedRentalDays, available, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-            String[] params = {
-                    item.getTitle(),
-                    item.getType().toString(),
-                    item.getBarcode(),
-                    String.valueOf(item.getAuthorID()),
-                    String.valueOf(item.getClassificationID()),
-                    String.valueOf(item.getAllowedRentalDays()),
-                    item.isAvailable() ? "1" : "0", //If boolean is true, add the string "1", if false, "0"
-                    item.isDeleted() ? "1" : "0" //If boolean is true, add the string "1", if false, "0"
-            };
-
-            //Execute query and get the generated itemID
-            try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params,
-                    Statement.RETURN_GENERATED_KEYS))
+            ResultSet generatedKeys = queryResult.getStatement().getGeneratedKeys();
+            if (generatedKeys.next())
             {
-                ResultSet generatedKeys = queryResult.getStatement().getGeneratedKeys();
-                if (generatedKeys.next())
-                {
-                    return generatedKeys.getInt(1);
-                }
+                return generatedKeys.getInt(1);
             }
         }
-        catch (SQLException e) //Fatal
-        {
-            ExceptionManager.HandleFatalException(e, "Failed to save Item to database due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
-        }
 
-        //Won't reach, needed for compilation
+        //An itemID of 0 is rejected by setItemID, rolling the transaction back
         return 0;
     }
 
@@ -444,36 +708,239 @@ public class ItemHandler
      * Saves a Literature object to the literature table in the database.
      *
      * @param literature The Literature object to be saved.
+     * @return the number of rows saved.
+     * @throws SQLException if the row couldn't be saved.
      */
-    private static void saveLiterature(Literature literature)
+    private static int saveLiterature(Literature literature)
+    throws SQLException
     {
         //Save to literature table
-        String query = "INSERT INTO literature (literatureID, ISBN) VALUES (?, ?)";
-        DataAccessManager.executePreparedQuery(query,
-                new String[]{
-                        String.valueOf(literature.getItemID()),
-                        literature.getISBN()});
+        return DataAccessManager.executePreparedUpdateChecked(INSERT_LITERATURE, literatureParams(literature));
     }
 
     /**
      * Saves a Film object to the films table in the database.
      *
      * @param film the Film object to save
+     * @return the number of rows saved.
+     * @throws SQLException if the row couldn't be saved.
      */
-    private static void saveFilm(Film film)
+    private static int saveFilm(Film film)
+    throws SQLException
     {
-        // Check if countryOfProduction or listOfActors are null
-        String countryOfProduction = film.getCountryOfProduction() == null ? null : film.getCountryOfProduction();
-        String listOfActors = film.getListOfActors() == null ? null : film.getListOfActors();
-
         //Save to films table
-        String query = "INSERT INTO films (filmID, ageRating, countryOfProduction, actors) VALUES (?, ?, ?, ?)";
-        DataAccessManager.executePreparedQuery(query,
-                new String[]{
-                        String.valueOf(film.getItemID()),
-                        String.valueOf(film.getAgeRating()),
-                        countryOfProduction,
-                        listOfActors});
+        return DataAccessManager.executePreparedUpdateChecked(INSERT_FILM, filmParams(film));
+    }
+
+    /**
+     * Returns the parameters of INSERT_ITEM for an Item.
+     *
+     * @param item the item.
+     * @return the parameters.
+     */
+    private static Object[] itemParams(Item item)
+    {
+        return new Object[]{
+                item.getTitle(),
+                item.getType(),
+                item.getBarcode(),
+                item.getAuthorID(),
+                item.getClassificationID(),
+                item.getAllowedRentalDays(),
+                item.isAvailable(),
+                item.isDeleted()
+        };
+    }
+
+    /**
+     * Returns the parameters of INSERT_LITERATURE for a Literature object with its itemID set.
+     *
+     * @param literature the literature.
+     * @return the parameters.
+     */
+    private static Object[] literatureParams(Literature literature)
+    {
+        return new Object[]{
+                literature.getItemID(),
+                literature.getISBN()};
+    }
+
+    /**
+     * Returns the parameters of INSERT_FILM for a Film object with its itemID set.
+     *
+     * @param film the film.
+     * @return the parameters.
+     */
+    private static Object[] filmParams(Film film)
+    {
+        return new Object[]{
+                film.getItemID(),
+                film.getAgeRating(),
+                film.getCountryOfProduction(),
+                film.getListOfActors()};
+    }
+
+    /**
+     * Creates many Literature objects at once. Works like createNewLiterature, except that the literature is
+     * constructed by the caller, and that the rows are saved using batches, needing only a few round trips to the
+     * database no matter how many there are.
+     * <p>
+     * Literature that is invalid, for example because its barcode is already registered (or used by an earlier
+     * object in the same list), or its author or classification doesn't exist, is not created. The reason is
+     * reported in the returned result, keyed by its index in the list, and the rest of the batch is still created.
+     *
+     * @param literatureList the literature to create, constructed with the creation constructor of Literature.
+     * @return the created literature, with itemIDs and names set, and the failures.
+     */
+    public static BatchCreationResult<Literature> createNewLiteratureBatch(List<Literature> literatureList)
+    {
+        return createNewItemBatch(literatureList, INSERT_LITERATURE, ItemHandler::literatureParams);
+    }
+
+    /**
+     * Creates many Film objects at once. Works like createNewLiteratureBatch, but for films.
+     *
+     * @param filmList the films to create, constructed with the creation constructor of Film.
+     * @return the created films, with itemIDs and names set, and the failures.
+     */
+    public static BatchCreationResult<Film> createNewFilmBatch(List<Film> filmList)
+    {
+        return createNewItemBatch(filmList, INSERT_FILM, ItemHandler::filmParams);
+    }
+
+    /**
+     * Validates the items, saves the valid ones to the items table and then to their child table, both as batches,
+     * in one transaction. The maps and indexes are only updated once the transaction is committed.
+     *
+     * @param items        the items to create.
+     * @param childCommand the INSERT command of the child table.
+     * @param childParams  returns the parameters of the child command for an item.
+     * @param <T>          the type of item.
+     * @return the created items and the failures.
+     */
+    private static <T extends Item> BatchCreationResult<T> createNewItemBatch(List<T> items, String childCommand,
+                                                                              Function<T, Object[]> childParams)
+    {
+        BatchCreationResult<T> result = new BatchCreationResult<>();
+
+        //Authors and classifications are looked up once per ID, not once per item
+        Map<Integer, Author> authors = new HashMap<>();
+        Map<Integer, Classification> classifications = new HashMap<>();
+        Set<String> batchBarcodes = new HashSet<>();
+
+        //Validate every item before saving any of them
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++)
+        {
+            try
+            {
+                validateNewItem(items.get(i), batchBarcodes, authors, classifications);
+                validIndexes.add(i);
+                itemRows.add(itemParams(items.get(i)));
+            }
+            catch (NullEntityException | InvalidBarcodeException | InvalidIDException | EntityNotFoundException e)
+            {
+                result.addFailure(i, e);
+            }
+        }
+
+        //Both batches in one transaction, so that there's never an item without its child row
+        try (Transaction transaction = DataAccessManager.beginTransaction())
+        {
+            //Save to the items table and set the generated itemIDs
+            BatchResult itemResult = DataAccessManager.executePreparedBatch(INSERT_ITEM, itemRows, true);
+            List<Integer> savedIndexes = new ArrayList<>();
+            List<Object[]> childRows = new ArrayList<>();
+            for (int row = 0; row < validIndexes.size(); row++)
+            {
+                int index = validIndexes.get(row);
+                if (!itemResult.isRowSuccessful(row))
+                {
+                    result.addFailure(index, itemResult.getFailures().get(row));
+                    continue;
+                }
+
+                T item = items.get(index);
+                item.setItemID(itemResult.getGeneratedKey(row)); //Throws InvalidIDException, rolling back
+                savedIndexes.add(index);
+                childRows.add(childParams.apply(item));
+            }
+
+            //Save to the child table. The items are valid and new, so a failed child row is fatal
+            BatchResult childResult = DataAccessManager.executePreparedBatch(childCommand, childRows, false);
+            if (!childResult.isSuccessful())
+                throw childResult.getFailures().values().iterator().next();
+
+            List<T> created = new ArrayList<>();
+            for (int index : savedIndexes)
+            {
+                T item = items.get(index);
+
+                //Set author and classification names
+                Author author = authors.get(item.getAuthorID());
+                item.setAuthorFirstname(author.getAuthorFirstName());
+                item.setAuthorLastname(author.getAuthorLastName());
+                item.setClassificationName(classifications.get(item.getClassificationID()).getClassificationName());
+
+                result.addCreated(item);
+                created.add(item);
+            }
+
+            //Update maps once committed, by the outer transaction if joined
+            transaction.afterCommit(() ->
+            {
+                for (T item : created)
+                {
+                    //Increment title and barcode
+                    incrementBothTitles(item.getTitle());
+                    incrementRegisteredBarcodes(item.getBarcode());
+                    indexCopy(item);
+                }
+            });
+            transaction.commit();
+        }
+        catch (InvalidIDException | SQLException e) //Fatal
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to save batch created Items due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Validates an item about to be created as part of a batch, in the same way createNewLiterature and
+     * createNewFilm validate their input. Also makes sure the barcode isn't used by an earlier item in the batch.
+     *
+     * @param item            the item to validate.
+     * @param batchBarcodes   the barcodes of the valid items earlier in the batch. The barcode is added if valid.
+     * @param authors         the authors retrieved so far, by ID. The author of the item is added if retrieved.
+     * @param classifications the classifications retrieved so far, by ID. Works like authors.
+     * @throws NullEntityException     if the item is null.
+     * @throws InvalidIDException      if the authorID or classificationID is invalid.
+     * @throws EntityNotFoundException if the author or classification doesn't exist.
+     * @throws InvalidBarcodeException if the barcode is already registered or used earlier in the batch.
+     */
+    private static void validateNewItem(Item item, Set<String> batchBarcodes, Map<Integer, Author> authors,
+                                        Map<Integer, Classification> classifications)
+    throws NullEntityException, InvalidIDException, EntityNotFoundException, InvalidBarcodeException
+    {
+        checkNullItem(item);
+        if (barcodeTaken(item.getBarcode()) || batchBarcodes.contains(item.getBarcode()))
+            throw new InvalidBarcodeException("Barcode " + item.getBarcode() + " is already registered.");
+        if (invalidID(item.getAuthorID()))
+            throw new InvalidIDException("Invalid authorID: " + item.getAuthorID());
+        if (invalidID(item.getClassificationID()))
+            throw new InvalidIDException("Invalid classificationID: " + item.getClassificationID());
+
+        //Throw EntityNotFoundException
+        if (!authors.containsKey(item.getAuthorID()))
+            authors.put(item.getAuthorID(), getExistingAuthor(item.getAuthorID()));
+        if (!classifications.containsKey(item.getClassificationID()))
+            classifications.put(item.getClassificationID(), getExistingClassification(item.getClassificationID()));
+
+        batchBarcodes.add(item.getBarcode());
     }
 
     //UPDATE -----------------------------------------------------------------------------------------------------------
@@ -508,55 +975,87 @@ public class ItemHandler
             String sql = "UPDATE items SET title = ?, itemType = ?, barcode = ?, authorID = ?, classificationID = ?, " +
                     "allowedRentalDays = ?, available = ? WHERE " +
                     "itemID = ?";
-            String[] params = {
+            Object[] params = {
                     item.getTitle(),
-                    String.valueOf(item.getType()),
+                    item.getType(),
                     item.getBarcode(),
-                    String.valueOf(item.getAuthorID()),
-                    String.valueOf(item.getClassificationID()),
-                    String.valueOf(item.getAllowedRentalDays()),
-                    item.isAvailable() ? "1" : "0", // If boolean is true, add the string "1", if false, "0"
-                    String.valueOf(item.getItemID())
+                    item.getAuthorID(),
+                    item.getClassificationID(),
+                    item.getAllowedRentalDays(),
+                    item.isAvailable(),
+                    item.getItemID()
             };
 
-            // Execute the update.
-            DataAccessManager.executePreparedUpdate(sql, params);
-
-            // Depending on the itemType, update the appropriate details in either the films or literature table
-            if (item instanceof Literature) updateLiterature((Literature) item);
-            else if (item instanceof Film) updateFilm((Film) item);
-
-            //Update maps
-            updateMaps(item, oldTitle, oldAvailability);
+            // Execute the update, and depending on the itemType, update the appropriate details in either the films
+            // or literature table, in one transaction
+            DataAccessManager.inTransaction(() ->
+            {
+                DataAccessManager.executePreparedUpdateChecked(sql, params);
+                if (item instanceof Literature) updateLiterature((Literature) item);
+                else if (item instanceof Film) updateFilm((Film) item);
+                return null;
+            });
+
+            //Update maps once committed, by the outer transaction if joined
+            DataAccessManager.afterCommit(() ->
+            {
+                updateMaps(item, oldTitle, oldAvailability);
+                if (!oldItem.isDeleted())
+                    indexCopy(item);
+            });
         }
-        catch (InvalidIDException | RetrievalException e)
+        catch (InvalidIDException | RetrievalException | SQLException e)
         {
             ExceptionManager.HandleFatalException(e, "Failed to update Item due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Marks a rented item as available again. Unlike updateItem, only the available column is written, and the item
+     * isn't read first.
+     * <p>
+     * The availableTitles map and the availability index are left as is, since the release may be part of a
+     * transaction that is rolled back. Call incrementAvailableTitles and markCopyAvailable once the release is
+     * committed. Items are marked as rented by the checkout statement in RentalHandler.
+     *
+     * @param itemID the ID of the item.
+     * @return true if the item was released, false if it doesn't exist or is already available.
+     * @throws SQLException if the update failed, so that a surrounding transaction can roll back.
+     */
+    public static boolean releaseItem(int itemID)
+    throws SQLException
+    {
+        String sql = "UPDATE items SET available = 1 WHERE itemID = ? AND available = 0";
+
+        return DataAccessManager.executePreparedUpdateChecked(sql, new Object[]{itemID}) == 1;
+    }
+
     /**
      * Updates the literature details in the database based on the provided literature object.
      *
      * @param literature The literature object containing the updated information.
+     * @throws SQLException if the update failed.
      */
     private static void updateLiterature(Literature literature)
+    throws SQLException
     {
         String updateLiteratureQuery = "UPDATE literature SET ISBN = ? WHERE literatureID = ?";
-        String[] literatureParams = {
+        Object[] literatureParams = {
                 literature.getISBN(),
-                String.valueOf(literature.getItemID()) // Literature's itemID is same as literatureID
+                literature.getItemID() // Literature's itemID is same as literatureID
         };
-        DataAccessManager.executePreparedUpdate(updateLiteratureQuery, literatureParams);
+        DataAccessManager.executePreparedUpdateChecked(updateLiteratureQuery, literatureParams);
     }
 
     /**
      * Updates the film details in the database based on the provided film object.
      *
      * @param film The film object containing the updated information.
+     * @throws SQLException if the update failed.
      */
     private static void updateFilm(Film film)
+    throws SQLException
     {
         // Check if countryOfProduction or listOfActors are null
         String countryOfProduction = film.getCountryOfProduction() == null ? null : film.getCountryOfProduction();
@@ -564,13 +1063,13 @@ public class ItemHandler
 
         //Update to films table
         String updateFilmQuery = "UPDATE films SET ageRating = ?, countryOfProduction = ?, actors = ? WHERE filmID = ?";
-        String[] filmParams = {
-                String.valueOf(film.getAgeRating()),
+        Object[] filmParams = {
+                film.getAgeRating(),
                 countryOfProduction,
                 listOfActors, // actors is a string
-                String.valueOf(film.getItemID()) // Film's itemID is same as filmID
+                film.getItemID() // Film's itemID is same as filmID
         };
-        DataAccessManager.executePreparedUpdate(updateFilmQuery, filmParams);
+        DataAccessManager.executePreparedUpdateChecked(updateFilmQuery, filmParams);
     }
 
     /**
@@ -619,19 +1118,27 @@ public class ItemHandler
 
             // Prepare a SQL command to set deleted to true for the specified item.
             String sql = "UPDATE items SET deleted = 1 WHERE itemID = ?";
-            String[] params = {String.valueOf(itemToDelete.getItemID())};
+            Object[] params = {itemToDelete.getItemID()};
 
-            // Execute the update.
-            DataAccessManager.executePreparedUpdate(sql, params);
+            // Execute the update, as part of the transaction the calling thread is in, if any
+            DataAccessManager.inTransaction(() -> DataAccessManager.executePreparedUpdateChecked(sql, params));
 
             // Update the deleted field of the item object
             itemToDelete.setDeleted(true);
+
+            //Update indexes once committed, by the outer transaction if joined
+            DataAccessManager.afterCommit(() -> unindexCopy(itemToDelete.getItemID()));
         }
         catch (NullEntityException | EntityNotFoundException | InvalidIDException e)
         {
             throw new DeletionException("Failed to delete Item due to " +
                     e.getClass().getName() + ": " + e.getMessage(), e);
         }
+        catch (SQLException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to delete Item due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -649,19 +1156,27 @@ public class ItemHandler
 
             // Prepare a SQL command to set deleted to false for the specified item.
             String sql = "UPDATE items SET deleted = 0 WHERE itemID = ?";
-            String[] params = {String.valueOf(itemToRecover.getItemID())};
+            Object[] params = {itemToRecover.getItemID()};
 
-            // Execute the update.
-            DataAccessManager.executePreparedUpdate(sql, params);
+            // Execute the update, as part of the transaction the calling thread is in, if any
+            DataAccessManager.inTransaction(() -> DataAccessManager.executePreparedUpdateChecked(sql, params));
 
             // Update the deleted field of the item object
             itemToRecover.setDeleted(false);
+
+            //Update indexes once committed, by the outer transaction if joined
+            DataAccessManager.afterCommit(() -> indexCopy(itemToRecover));
         }
         catch (NullEntityException | EntityNotFoundException | InvalidIDException e)
         {
             throw new RetrievalException("Failed to recover Item due to " +
                     e.getClass().getName() + ": " + e.getMessage(), e);
         }
+        catch (SQLException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to recover Item due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
     }
 
     /**
@@ -681,30 +1196,39 @@ public class ItemHandler
             String oldTitle = retrieveOldTitle(item);
             String oldBarcode = retrieveOldBarcode(item);
 
-            // Delete from child tables (Film or Literature) first
-            if (item instanceof Film)
-            {
-                deleteFilm(item);
-            }
-            else if (item instanceof Literature)
-            {
-                deleteLiterature(item);
-            }
-
             // Prepare a SQL command to delete an item by itemID
             String sql = "DELETE FROM items WHERE itemID = ?";
-            String[] params = new String[]{String.valueOf(item.getItemID())};
+            Object[] params = new Object[]{item.getItemID()};
+
+            DataAccessManager.inTransaction(() ->
+            {
+                // Delete from child tables (Film or Literature) first
+                if (item instanceof Film)
+                {
+                    deleteFilm(item);
+                }
+                else if (item instanceof Literature)
+                {
+                    deleteLiterature(item);
+                }
 
-            // Execute the update //TODO-prio handle cascades in rentals
-            DataAccessManager.executePreparedUpdate(sql, params);
+                // Execute the update //TODO-prio handle cascades in rentals
+                DataAccessManager.executePreparedUpdateChecked(sql, params);
+                return null;
+            });
 
-            // Decrement the count of the old title. Remove the entry if the count reaches 0
-            decrementTitle(oldTitle);
+            //Update maps once committed, by the outer transaction if joined
+            DataAccessManager.afterCommit(() ->
+            {
+                // Decrement the count of the old title. Remove the entry if the count reaches 0
+                decrementTitle(oldTitle);
 
-            //Remove old barcode
-            decrementRegisteredBarcodes(oldBarcode);
+                //Remove old barcode
+                decrementRegisteredBarcodes(oldBarcode);
+                unindexCopy(item.getItemID());
+            });
         }
-        catch (InvalidIDException | RetrievalException e)
+        catch (InvalidIDException | RetrievalException | SQLException e)
         {
             ExceptionManager.HandleFatalException(e, "Failed to delete Item due to " +
                     e.getClass().getName() + ": " + e.getMessage());
@@ -715,65 +1239,63 @@ public class ItemHandler
      * Deletes a film from the database based on the provided item.
      *
      * @param item The item object representing the film to be deleted.
+     * @throws SQLException if the delete failed.
      */
     private static void deleteFilm(Item item)
+    throws SQLException
     {
         // Prepare SQL command to delete a film by filmID
         String sql = "DELETE FROM films WHERE filmID = ?";
-        String[] params = new String[]{String.valueOf(item.getItemID())};
+        Object[] params = new Object[]{item.getItemID()};
 
         // Execute the update
-        DataAccessManager.executePreparedUpdate(sql, params);
+        DataAccessManager.executePreparedUpdateChecked(sql, params);
     }
 
     /**
      * Deletes literature from the database based on the provided item.
      *
      * @param item The item object representing the literature to be deleted.
+     * @throws SQLException if the delete failed.
      */
     private static void deleteLiterature(Item item)
+    throws SQLException
     {
         // Prepare SQL command to delete a literature by literatureID
         String sql = "DELETE FROM literature WHERE literatureID = ?";
-        String[] params = new String[]{String.valueOf(item.getItemID())};
+        Object[] params = new Object[]{item.getItemID()};
 
         // Execute the update
-        DataAccessManager.executePreparedUpdate(sql, params);
+        DataAccessManager.executePreparedUpdateChecked(sql, params);
     }
 
     //RETRIEVING -------------------------------------------------------------------------------------------------------
 
     /**
      * Retrieves a list of items based on the provided SQL suffix, parameters, and settings.
+     * <p>
+     * The names of the author and classification of each item are joined into the same query, so the items are
+     * retrieved in a single round trip however many there are. The authors and classifications tables are already
+     * joined, so the suffix can filter on their columns without joining them again.
      *
      * @param sqlSuffix the SQL suffix to append to the main SQL command
      * @param params    the parameters to use in the prepared statement
      * @param settings  the settings for executing the prepared query
      * @return a list of items matching the query criteria
      */
-    public static List<Item> getItems(String sqlSuffix, String[] params, int settings)
+    public static List<Item> getItems(String sqlSuffix, Object[] params, int settings)
     {
         List<Item> items = new ArrayList<>();
 
-        // Prepare a SQL command to select all items from the 'items' table and join with films and literature
-        String sql = "SELECT * FROM items " +
-                "LEFT JOIN films ON items.itemID = films.filmID " +
-                "LEFT JOIN literature ON items.itemID = literature.literatureID " +
-                (sqlSuffix == null ? "" : " " + sqlSuffix);
-
-        try (QueryResult queryResult = DataAccessManager.executePreparedQuery(sql, params, settings))
+        try (QueryResult queryResult = DataAccessManager.executePreparedQuery(buildItemsQuery(sqlSuffix), params,
+                settings))
         {
             //Retrieve the ResultSet from the QueryResult
             ResultSet resultSet = queryResult.getResultSet();
 
             //Loop through the results
             while (resultSet.next())
-            {
-                Item.ItemType type = Item.ItemType.valueOf(resultSet.getString("itemType"));
-
-                if (type == Item.ItemType.FILM) items.add(constructRetrievedFilm(resultSet));
-                else items.add(constructRetrievedLiterature(resultSet));
-            }
+                items.add(constructRetrievedItem(resultSet));
         }
         catch (SQLException e)
         {
@@ -783,6 +1305,24 @@ public class ItemHandler
         return items;
     }
 
+    /**
+     * Works like getItems, but streams the items one at a time as the stream is read instead of collecting them all
+     * in a list first, so that all items can be gone through without holding them all in memory.
+     * <p>
+     * The stream holds a database connection until it's closed, which happens by itself once the last item has been
+     * read. Use try-with-resources, and don't run any other queries on the same thread until the stream is closed,
+     * see {@link DataAccessManager#executeStreamingQuery(String, Object[])}.
+     *
+     * @param sqlSuffix the SQL suffix to append to the main SQL command
+     * @param params    the parameters to use in the prepared statement
+     * @return a stream of the items matching the query criteria
+     */
+    public static Stream<Item> streamItems(String sqlSuffix, Object[] params)
+    {
+        return ResultStream.of(DataAccessManager.executeStreamingQuery(buildItemsQuery(sqlSuffix), params),
+                ItemHandler::constructRetrievedItem);
+    }
+
     /**
      * Retrieves all items from the database.
      *
@@ -793,6 +1333,80 @@ public class ItemHandler
         return getItems(null, null, 0);
     }
 
+    /**
+     * Streams all items from the database, see streamItems.
+     *
+     * @return a stream of all items, which must be closed unless read to the end
+     */
+    public static Stream<Item> streamAllItems()
+    {
+        return streamItems(null, null);
+    }
+
+    /**
+     * Retrieves one page of the items meeting a condition, ordered by itemID, see {@link Keyset}.
+     *
+     * @param condition the condition items must meet, without WHERE, or null for all items
+     * @param params    the parameters of the condition
+     * @param pageToken the token of the page, or null for the first page
+     * @param pageSize  the most items on the page
+     * @return the page
+     */
+    private static Page<Item> getItemsPage(String condition, Object[] params, String pageToken, int pageSize)
+    {
+        List<Item> items = getItems(ITEM_PAGES.suffix(condition, pageToken),
+                ITEM_PAGES.params(params, pageToken, pageSize), 0);
+        return Page.of(items, pageSize, item -> ITEM_PAGES.tokenAfter(item.getItemID()));
+    }
+
+    /**
+     * Retrieves one page of all items, ordered by itemID.
+     *
+     * @param pageToken the token of the page, or null for the first page
+     * @param pageSize  the most items on the page, between 1 and Keyset.MAX_PAGE_SIZE
+     * @return the page
+     */
+    public static Page<Item> getAllItemsPage(String pageToken, int pageSize)
+    {
+        return getItemsPage(null, null, pageToken, pageSize);
+    }
+
+    /**
+     * Builds the query used by getItems and streamItems.
+     *
+     * @param sqlSuffix the SQL suffix to append, may be null
+     * @return the query
+     */
+    private static String buildItemsQuery(String sqlSuffix)
+    {
+        // Prepare a SQL command to select all items from the 'items' table and join with films and literature,
+        // and with the names of their authors and classifications
+        return "SELECT items.*, films.*, literature.*, " +
+                "authors.authorFirstName, authors.authorLastName, classifications.classificationName " +
+                "FROM items " +
+                "LEFT JOIN films ON items.itemID = films.filmID " +
+                "LEFT JOIN literature ON items.itemID = literature.literatureID " +
+                "JOIN authors ON items.authorID = authors.authorID " +
+                "JOIN classifications ON items.classificationID = classifications.classificationID" +
+                (sqlSuffix == null ? "" : " " + sqlSuffix);
+    }
+
+    /**
+     * Constructs a film or a literature object, depending on the item type, from the current row.
+     *
+     * @param resultSet the ResultSet positioned at the row
+     * @return the item
+     * @throws SQLException if the item type couldn't be read
+     */
+    private static Item constructRetrievedItem(ResultSet resultSet)
+    throws SQLException
+    {
+        Item.ItemType type = Item.ItemType.valueOf(resultSet.getString("itemType"));
+
+        if (type == Item.ItemType.FILM) return constructRetrievedFilm(resultSet);
+        else return constructRetrievedLiterature(resultSet);
+    }
+
     /**
      * Retrieves an item with the specified item ID.
      *
@@ -808,8 +1422,8 @@ public class ItemHandler
         checkValidItemID(itemID);
 
         //Prepare suffix
-        String suffix = "WHERE itemID = ?";
-        String[] params = {String.valueOf(itemID)};
+        String suffix = "WHERE items.itemID = ?";
+        Object[] params = {itemID};
 
         List<Item> items = getItems(suffix, params, 0);
 
@@ -833,11 +1447,27 @@ public class ItemHandler
 
         //Prepare a SQL suffix to select an item by title
         String suffix = "WHERE title = ?";
-        String[] params = {title};
+        Object[] params = {title};
 
         return getItems(suffix, params, 0);
     }
 
+    /**
+     * Retrieves one page of the items with the specified title, ordered by itemID.
+     *
+     * @param title     the title of the items to retrieve
+     * @param pageToken the token of the page, or null for the first page
+     * @param pageSize  the most items on the page, between 1 and Keyset.MAX_PAGE_SIZE
+     * @return the page
+     * @throws InvalidTitleException if the provided title is invalid
+     */
+    public static Page<Item> getItemsByTitlePage(String title, String pageToken, int pageSize)
+    throws InvalidTitleException
+    {
+        checkEmptyTitle(title);
+        return getItemsPage("title = ?", new Object[]{title}, pageToken, pageSize);
+    }
+
     /**
      * Retrieves a list of items by ISBN.
      *
@@ -853,7 +1483,7 @@ public class ItemHandler
 
         //Prepare a SQL suffix to select an item by title
         String suffix = "WHERE literature.ISBN = ?";
-        String[] params = {ISBN};
+        Object[] params = {ISBN};
 
         return getItems(suffix, params, 0);
     }
@@ -872,13 +1502,29 @@ public class ItemHandler
         validateEmptyClassificationName(classificationName);
 
         //Prepare a SQL suffix to select an item by classification
-        String suffix = "LEFT JOIN classifications ON items.classificationID = classifications.classificationID " +
-                "WHERE classifications.classificationName = ?";
-        String[] params = {classificationName};
+        String suffix = "WHERE classifications.classificationName = ?";
+        Object[] params = {classificationName};
 
         return getItems(suffix, params, 0);
     }
 
+    /**
+     * Retrieves one page of the items with the specified classification name, ordered by itemID.
+     *
+     * @param classificationName the name of the classification
+     * @param pageToken          the token of the page, or null for the first page
+     * @param pageSize           the most items on the page, between 1 and Keyset.MAX_PAGE_SIZE
+     * @return the page
+     * @throws InvalidNameException if the provided classification name is invalid
+     */
+    public static Page<Item> getItemsByClassificationPage(String classificationName, String pageToken, int pageSize)
+    throws InvalidNameException
+    {
+        validateEmptyClassificationName(classificationName);
+        return getItemsPage("classifications.classificationName = ?", new Object[]{classificationName},
+                pageToken, pageSize);
+    }
+
     /**
      * Retrieves items with the specified author's first name and last name.
      *
@@ -890,37 +1536,130 @@ public class ItemHandler
     public static List<Item> getItemsByAuthor(String authorFirstname, String authorLastname)
     throws InvalidNameException
     {
-        //Validate input, one name can be null, not both
+        validateAuthorNames(authorFirstname, authorLastname);
+
+        //Prepare a SQL suffix to select an item by author name
+        String suffix = "WHERE " + authorCondition(authorFirstname, authorLastname);
+        Object[] params = authorParams(authorFirstname, authorLastname);
+
+        return getItems(suffix, params, 0);
+    }
+
+    /**
+     * Retrieves one page of the items with the specified author's first name and last name, ordered by itemID.
+     *
+     * @param authorFirstname the first name of the author
+     * @param authorLastname  the last name of the author
+     * @param pageToken       the token of the page, or null for the first page
+     * @param pageSize        the most items on the page, between 1 and Keyset.MAX_PAGE_SIZE
+     * @return the page
+     * @throws InvalidNameException if the provided author's name is invalid
+     */
+    public static Page<Item> getItemsByAuthorPage(String authorFirstname, String authorLastname, String pageToken,
+                                                  int pageSize)
+    throws InvalidNameException
+    {
+        validateAuthorNames(authorFirstname, authorLastname);
+        return getItemsPage(authorCondition(authorFirstname, authorLastname),
+                authorParams(authorFirstname, authorLastname), pageToken, pageSize);
+    }
+
+    /**
+     * Validates the names searched for by getItemsByAuthor, one name can be null or empty, not both.
+     */
+    private static void validateAuthorNames(String authorFirstname, String authorLastname)
+    throws InvalidNameException
+    {
         if ((authorFirstname == null || authorFirstname.isEmpty()) &&
                 (authorLastname == null || authorLastname.isEmpty()))
             throw new InvalidNameException("Can't perform a search by name with no names.");
+    }
 
-        //Prepare a SQL suffix to select an item by author name
-        String suffix;
-        String[] params;
-
+    /**
+     * Returns the condition selecting items by the names given, without WHERE.
+     */
+    private static String authorCondition(String authorFirstname, String authorLastname)
+    {
         //Both names are given
         if (authorFirstname != null && !authorFirstname.isEmpty() &&
                 authorLastname != null && !authorLastname.isEmpty())
-        {
-            suffix = "LEFT JOIN authors ON items.authorID = authors.authorID WHERE authors.authorFirstname = ? " +
-                    "AND authors.authorLastname = ?";
-            params = new String[]{authorFirstname, authorLastname};
-        }
+            return "authors.authorFirstname = ? AND authors.authorLastname = ?";
         //First name is given
         else if (authorFirstname != null && !authorFirstname.isEmpty())
-        {
-            suffix = "LEFT JOIN authors ON items.authorID = authors.authorID WHERE authors.authorFirstname = ?";
-            params = new String[]{authorFirstname};
-        }
+            return "authors.authorFirstname = ?";
         //Last name is given
         else
+            return "authors.authorLastname = ?";
+    }
+
+    /**
+     * Returns the parameters of authorCondition, the names given in the same order.
+     */
+    private static Object[] authorParams(String authorFirstname, String authorLastname)
+    {
+        List<Object> params = new ArrayList<>(2);
+        if (authorFirstname != null && !authorFirstname.isEmpty())
+            params.add(authorFirstname);
+        if (authorLastname != null && !authorLastname.isEmpty())
+            params.add(authorLastname);
+        return params.toArray();
+    }
+
+    /**
+     * Returns the titles in the catalog starting with what has been typed so far, or with a word starting with it,
+     * for type-ahead. Answered from memory.
+     *
+     * @param prefix     what has been typed so far.
+     * @param maxResults the maximum number of titles to return.
+     * @return the titles, empty if none match.
+     */
+    public static List<String> suggestTitles(String prefix, int maxResults)
+    {
+        return titleSuggestions.suggest(prefix, maxResults);
+    }
+
+    /**
+     * Searches the titles, author names, classification names, ISBNs and actors of all items that aren't deleted.
+     * Terms are matched regardless of case and accents, as prefixes, and with typos, see {@link SearchIndex}. The
+     * search is answered from memory, without querying the database.
+     *
+     * @param query      the search terms.
+     * @param maxResults the maximum number of results.
+     * @return the itemIDs of the best matches with their scores, best first.
+     */
+    public static List<SearchIndex.Hit> searchItems(String query, int maxResults)
+    {
+        return searchIndex.search(query, maxResults);
+    }
+
+    /**
+     * Searches like searchItems, then retrieves the items found with a single query.
+     *
+     * @param query      the search terms.
+     * @param maxResults the maximum number of results.
+     * @return the best matching items, best first.
+     */
+    public static List<Item> getItemsBySearch(String query, int maxResults)
+    {
+        List<SearchIndex.Hit> hits = searchItems(query, maxResults);
+        if (hits.isEmpty())
+            return new ArrayList<>();
+
+        //Retrieve all hits at once
+        StringBuilder suffix = new StringBuilder("WHERE items.itemID IN (");
+        Object[] params = new Object[hits.size()];
+        Map<Integer, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++)
         {
-            suffix = "LEFT JOIN authors ON items.authorID = authors.authorID WHERE authors.authorLastname = ?";
-            params = new String[]{authorLastname};
+            suffix.append(i == 0 ? "?" : ", ?");
+            params[i] = hits.get(i).getId();
+            ranks.put(hits.get(i).getId(), i);
         }
+        suffix.append(")");
 
-        return getItems(suffix, params, 0);
+        List<Item> items = getItems(suffix.toString(), params, 0);
+        items.sort(Comparator.comparingInt(item -> ranks.get(item.getItemID())));
+        return items;
     }
 
     //TODO OPTIONAL
@@ -967,7 +1706,7 @@ public class ItemHandler
     private static String getItemTitleByID(int itemID)
     {
         String sql = "SELECT title FROM items WHERE itemID = ?";
-        String[] params = {String.valueOf(itemID)};
+        Object[] params = {itemID};
 
         try
         {
@@ -1016,8 +1755,8 @@ public class ItemHandler
     throws EntityNotFoundException, NullEntityException
     {
         checkNullItem(item);
-        if (!availableTitles.containsKey(item.getTitle()) && !storedTitles.containsKey(item.getTitle()))
+        if (!catalog.containsTitle(item.getTitle()))
             throw new EntityNotFoundException(item.getTitle() + ": Item not found in stored or available titles.");
-        return availableTitles.get(item.getTitle());
+        return catalog.getAvailableCount(item.getTitle());
     }
 }
\ No newline at end of file
@@ -128,7 +128,7 @@ public class ItemHandlerUtils
      */
     static boolean barcodeTaken(String barcode)
     {
-        return (ItemHandler.getRegisteredBarcodes().contains(barcode));
+        return ItemHandler.isBarcodeRegistered(barcode);
     }
 
     /**
@@ -204,7 +204,8 @@ public class ItemHandlerUtils
     }
 
     /**
-     * Constructs a Literature object using the data from the given ResultSet.
+     * Constructs a Literature object using the data from the given ResultSet. The names of the author and
+     * classification are read from the same row, see {@link ItemHandler#getItems(String, Object[], int)}.
      *
      * @param resultSet the ResultSet containing the literature data
      * @return the constructed Literature object
@@ -223,16 +224,15 @@ public class ItemHandlerUtils
                     resultSet.getString("barcode"),
                     resultSet.getInt("authorID"),
                     resultSet.getInt("classificationID"),
-                    AuthorHandler.getAuthorByID(resultSet.getInt("authorID"), false).getAuthorFirstName(),
-                    AuthorHandler.getAuthorByID(resultSet.getInt("authorID"), false).getAuthorLastName(),
-                    ClassificationHandler.getClassificationByID(
-                            resultSet.getInt("classificationID")).getClassificationName(),
+                    resultSet.getString("authorFirstName"),
+                    resultSet.getString("authorLastName"),
+                    resultSet.getString("classificationName"),
                     resultSet.getInt("allowedRentalDays"),
                     resultSet.getBoolean("available"),
                     resultSet.getString("ISBN")
             );
         }
-        catch (ConstructionException | SQLException | InvalidIDException e)
+        catch (ConstructionException | SQLException e)
         {
             ExceptionManager.HandleFatalException(e, "constructRetrievedLiterature: Failed to construct retrieved " +
                     "Literature due to " +
@@ -243,7 +243,8 @@ public class ItemHandlerUtils
     }
 
     /**
-     * Constructs a Film object using the data from the given ResultSet.
+     * Constructs a Film object using the data from the given ResultSet. The names of the author and
+     * classification are read from the same row, see {@link ItemHandler#getItems(String, Object[], int)}.
      *
      * @param resultSet the ResultSet containing the film data
      * @return the constructed Film object
@@ -262,10 +263,9 @@ public class ItemHandlerUtils
                     resultSet.getString("barcode"),
                     resultSet.getInt("authorID"),
                     resultSet.getInt("classificationID"),
-                    AuthorHandler.getAuthorByID(resultSet.getInt("authorID"), false).getAuthorFirstName(),
-                    AuthorHandler.getAuthorByID(resultSet.getInt("authorID"), false).getAuthorLastName(),
-                    ClassificationHandler.getClassificationByID(
-                            resultSet.getInt("classificationID")).getClassificationName(),
+                    resultSet.getString("authorFirstName"),
+                    resultSet.getString("authorLastName"),
+                    resultSet.getString("classificationName"),
                     resultSet.getInt("allowedRentalDays"),
                     resultSet.getBoolean("available"),
                     resultSet.getInt("ageRating"),
@@ -273,7 +273,7 @@ public class ItemHandlerUtils
                     resultSet.getString("actors")
             );
         }
-        catch (ConstructionException | SQLException | InvalidIDException e)
+        catch (ConstructionException | SQLException e)
         {
             ExceptionManager.HandleFatalException(e, "Failed to retrieve Film by ID due to " +
                     e.getClass().getName() + ": " + e.getMessage());
@@ -288,8 +288,8 @@ public class ItemHandlerUtils
     static void printTitles()
     {
         System.out.println("\nTitles:");
-        ItemHandler.getStoredTitles().forEach(
-                (title, count) -> System.out.println("Title: " + title + " Copies: " + count));
+        for (String title : ItemHandler.getTitles())
+            System.out.println("Title: " + title + " Copies: " + ItemHandler.getStoredCount(title));
     }
 
     /**
@@ -0,0 +1,173 @@
+package dev.tias.librarydbms.control;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A bounded, thread safe LRU cache that loads missing values itself, used by the handlers to avoid querying the
+ * database for the same entity over and over.
+ * <p>
+ * Values are loaded outside the lock, so a slow query doesn't hold up lookups of other keys. A value loaded while
+ * the key was invalidated is handed to its caller but not cached, since it may already be out of date. Values
+ * that load as null aren't cached either.
+ * <p>
+ * Cached values are never handed out themselves, only copies, so callers can't change what the cache holds.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class ReadThroughCache<K, V>
+{
+    private final int maxSize;
+    private final Function<K, V> loader;
+    private final UnaryOperator<V> copier;
+    private final Map<K, V> values;
+
+    //Bumped by every invalidation, so loads that overlap one aren't cached
+    private long version = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    /**
+     * Creates a new, empty cache.
+     *
+     * @param maxSize the maximum number of values to keep, 0 disables caching.
+     * @param loader  loads the value of a key, or returns null if there is none.
+     * @param copier  copies a value before it's handed out.
+     */
+    public ReadThroughCache(int maxSize, Function<K, V> loader, UnaryOperator<V> copier)
+    {
+        this.maxSize = Math.max(0, maxSize);
+        this.loader = Objects.requireNonNull(loader, "loader");
+        this.copier = Objects.requireNonNull(copier, "copier");
+        //Access-ordered, so the eldest entry is the least recently used
+        this.values = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a copy of the value of a key, loading it if it isn't cached.
+     *
+     * @param key the key.
+     * @return a copy of the value, or null if the loader found none.
+     */
+    public V get(K key)
+    {
+        long loadVersion;
+        synchronized (this)
+        {
+            V cached = values.get(key);
+            if (cached != null)
+            {
+                hits++;
+                return copier.apply(cached);
+            }
+            misses++;
+            loadVersion = version;
+        }
+
+        V loaded = loader.apply(key);
+        if (loaded == null)
+            return null;
+
+        synchronized (this)
+        {
+            if (maxSize > 0 && version == loadVersion)
+            {
+                values.put(key, copier.apply(loaded));
+                evictLeastRecentlyUsed();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Forgets the value of a key, so the next get loads it again. Must be called whenever the value is changed or
+     * deleted.
+     *
+     * @param key the key.
+     */
+    public synchronized void invalidate(K key)
+    {
+        version++;
+        invalidations++;
+        values.remove(key);
+    }
+
+    /**
+     * Forgets all values.
+     */
+    public synchronized void invalidateAll()
+    {
+        version++;
+        invalidations++;
+        values.clear();
+    }
+
+    public synchronized int size()
+    {
+        return values.size();
+    }
+
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations()
+    {
+        return invalidations;
+    }
+
+    /**
+     * Returns the share of all gets that were served from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if nothing has been looked up yet.
+     */
+    public synchronized double getHitRatio()
+    {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String.format("size=%d/%d, hits=%d, misses=%d, hit ratio=%.2f, evictions=%d, invalidations=%d",
+                values.size(), maxSize, hits, misses, getHitRatio(), evictions, invalidations);
+    }
+
+    //HELPERS ----------------------------------------------------------------------------------------------------------
+
+    private void evictLeastRecentlyUsed()
+    {
+        Iterator<V> iterator = values.values().iterator();
+        while (values.size() > maxSize && iterator.hasNext())
+        {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+}
@@ -4,7 +4,12 @@ import dev.tias.librarydbms.model.Item;
 import dev.tias.librarydbms.model.Rental;
 import dev.tias.librarydbms.model.User;
 import dev.tias.librarydbms.service.db.DataAccessManager;
+import dev.tias.librarydbms.service.db.Keyset;
+import dev.tias.librarydbms.service.db.Page;
 import dev.tias.librarydbms.service.db.QueryResult;
+import dev.tias.librarydbms.service.db.ResultStream;
+import dev.tias.librarydbms.service.db.RoundTripScope;
+import dev.tias.librarydbms.service.db.Transaction;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.*;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidTitleException;
@@ -19,10 +24,10 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author Mattias Fridsén
@@ -61,6 +66,64 @@ public class RentalHandler
 
     //TODO-PRIO RETURNING OF RENTALS
 
+    /**
+     * Locks the user and item rows of a checkout, reading what the checkout needs from them.
+     */
+    private static final String LOCK_USER_AND_ITEM = "SELECT users.username, users.allowedRentals, " +
+            "users.currentRentals, users.lateFee, users.allowedToRent, users.deleted AS userDeleted, items.title, " +
+            "items.itemType, items.allowedRentalDays, items.available, items.deleted AS itemDeleted " +
+            "FROM users, items WHERE users.userID = ? AND items.itemID = ? FOR UPDATE";
+    /**
+     * Locks a copy suggested by the availability index, by primary key. Returns no row if the copy is locked by
+     * another checkout, and a row that tells whether the suggestion was out of date, or the copy can't be rented,
+     * otherwise.
+     */
+    private static final String LOCK_COPY = "SELECT title, itemType, allowedRentalDays, available, deleted " +
+            "FROM items WHERE itemID = ? FOR UPDATE SKIP LOCKED";
+    /**
+     * How many copies suggested by the availability index are tried before searching the items table.
+     */
+    private static final int MAX_INDEXED_COPIES = 3;
+    /**
+     * Locks an available copy of a title that may be rented. Copies locked by other checkouts are skipped rather
+     * than waited for.
+     */
+    private static final String LOCK_AVAILABLE_COPY = "SELECT itemID, itemType, allowedRentalDays FROM items " +
+            "WHERE title = ? AND available = 1 AND deleted = 0 AND allowedRentalDays > 0 " +
+            "ORDER BY itemID LIMIT 1 FOR UPDATE SKIP LOCKED";
+    /**
+     * Marks an item as rented and counts the rental for the user in the same statement. The counter is incremented
+     * in place, and both rows are guarded, so the statement matches both rows or neither. This is the only place
+     * items are marked as rented and rentals are counted for users. Since MySQL doesn't assign the columns of a
+     * multiple-table UPDATE in any given order, allowedToRent is computed by the caller.
+     */
+    private static final String UPDATE_ITEM_AND_USER_ON_CHECKOUT = "UPDATE items, users " +
+            "SET items.available = 0, users.currentRentals = users.currentRentals + 1, users.allowedToRent = ? " +
+            "WHERE items.itemID = ? AND items.available = 1 AND items.deleted = 0 " +
+            "AND users.userID = ? AND users.deleted = 0 AND users.allowedToRent = 1 AND users.lateFee <= 0 " +
+            "AND users.currentRentals < users.allowedRentals";
+    /**
+     * Marks a rental as returned, unless it already is.
+     */
+    private static final String RETURN_RENTAL = "UPDATE rentals SET rentalReturnDate = ? " +
+            "WHERE rentalID = ? AND rentalReturnDate IS NULL";
+    /**
+     * The SQLState of a transaction rolled back due to a deadlock.
+     */
+    private static final String DEADLOCK_SQL_STATE = "40001";
+    /**
+     * How many times a checkout is attempted before a deadlock is considered fatal.
+     */
+    private static final int MAX_CHECKOUT_ATTEMPTS = 3;
+    /**
+     * Pages of all rentals are ordered by rentalID.
+     */
+    private static final Keyset RENTAL_PAGES = Keyset.byID("rentals.rentalID");
+    /**
+     * Pages of the rentals of a user or an item are ordered by rentalDate, oldest first.
+     */
+    private static final Keyset RENTAL_DATE_PAGES = Keyset.byDateAndID("rentals.rentalDate", "rentals.rentalID");
+
     /**
      * Indicates whether verbose mode is enabled.
      */
@@ -91,6 +154,10 @@ public class RentalHandler
      * This method checks that the user ID and item ID are valid, retrieves the user and item,
      * and updates the item to mark it as not available and the user to increment the number of current rentals.
      * The newly created rental is then returned.
+     * <p>
+     * All of this happens in a single transaction, see {@link #checkout(int, int)}. The user and item rows are locked
+     * until the rental is saved, so two desks can never check out the same copy, and the user's current rentals
+     * can't be counted past the allowed number.
      *
      * @param userID the ID of the user renting the item
      * @param itemID the ID of the item being rented
@@ -100,8 +167,6 @@ public class RentalHandler
      * @throws InvalidIDException        if the user ID or item ID is not valid§
      *                                   <p>
      * TODO: Improve exception handling. Current handling is not consistent with other classes and needs refinement.
-     * TODO: Make this method shorter. It currently performs multiple tasks which might be better broken down into
-     *  smaller methods.
      * @see User
      * @see Item
      * @see Rental
@@ -119,70 +184,246 @@ public class RentalHandler
         if (checkItemID(itemID))
             throw new InvalidIDException("Rental creation failed: invalid itemID " + itemID);
 
-        String username = ""; //Create username here so catch block is happy
-        String title = ""; //Create title here so catch block is happy
-        String itemType = ""; //Create the itemType string here so catch block is happy
+        //Counts the round trips of the checkout, and logs any statement it repeats
+        try (RoundTripScope scope = RoundTripScope.open("RentalHandler.createNewRental"))
+        {
+            Rental rental = checkoutRetryingDeadlocks(userID, itemID);
+            if (verbose)
+                System.out.println(scope);
+            return rental;
+        }
+        catch (SQLException | InvalidDateException | InvalidNameException | InvalidTitleException |
+               InvalidReceiptException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Rental creation failed due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+        catch (ConstructionException e)
+        {
+            String cause = (e.getCause() != null) ? e.getCause().getClass().getName() : "Unknown";
+            ExceptionManager.HandleFatalException(e, "Rental construction failed due to " + cause);
 
-        try
+        }
+
+        //Won't reach, needed for compilation
+        return null;
+    }
+
+    /**
+     * Checks out an item, see {@link #checkout(int, int)}, starting over up to MAX_CHECKOUT_ATTEMPTS times if the
+     * checkout is chosen as the victim of a deadlock. Only a checkout that owns its transaction is started over,
+     * since a deadlock rolls back the outer transaction too, which the checkout can't redo on its own.
+     */
+    private static Rental checkoutRetryingDeadlocks(int userID, int itemID)
+    throws SQLException, EntityNotFoundException, RentalNotAllowedException, ConstructionException,
+           InvalidIDException, InvalidDateException, InvalidNameException, InvalidTitleException,
+           InvalidTypeException, InvalidReceiptException
+    {
+        boolean joined = DataAccessManager.isInTransaction();
+        for (int attempt = 1; ; attempt++)
         {
-            //Retrieve user, throws EntityNotFoundException if not found or RentalNotAllowedException if not allowed
-            User user = getValidatedUser(userID);
-            username = user.getUsername();
+            try
+            {
+                return checkout(userID, itemID);
+            }
+            catch (SQLException e)
+            {
+                //Two checkouts locking the same rows in opposite order, one of them is chosen as the victim
+                if (joined || !DEADLOCK_SQL_STATE.equals(e.getSQLState()) || attempt == MAX_CHECKOUT_ATTEMPTS)
+                    throw e;
+            }
+        }
+    }
 
-            //Retrieve item, throws EntityNotFoundException if not found
-            Item item = getExistingItem(itemID);
-            title = item.getTitle();
-            itemID = item.getItemID(); //Might be changed if item wasn't available
-            itemType = item.getType().toString();
+    /**
+     * Checks out an item in a single transaction, in as few round trips as possible:
+     * <ol>
+     *   <li>Locks the user and item rows with one SELECT ... FOR UPDATE.</li>
+     *   <li>If the item isn't available, locks another available copy with the same title, skipping copies locked
+     *       by other checkouts.</li>
+     *   <li>Inserts the rental.</li>
+     *   <li>Marks the item as not available and counts the rental for the user with one UPDATE.</li>
+     * </ol>
+     * If anything fails, the transaction is rolled back and nothing is changed. If the calling thread is already
+     * in a transaction, the checkout is part of that transaction instead, and is committed along with it.
+     *
+     * @param userID the ID of the user renting the item
+     * @param itemID the ID of the item being rented
+     * @return the newly created Rental
+     * @throws SQLException if the transaction failed, for example due to a deadlock.
+     */
+    private static Rental checkout(int userID, int itemID)
+    throws SQLException, EntityNotFoundException, RentalNotAllowedException, ConstructionException,
+           InvalidIDException, InvalidDateException, InvalidNameException, InvalidTitleException,
+           InvalidTypeException, InvalidReceiptException
+    {
+        try (Transaction transaction = DataAccessManager.beginTransaction())
+        {
+            Rental newRental = checkoutLockedRows(userID, itemID);
+
+            //The maps are only changed once the checkout is committed, by the outer transaction if joined
+            transaction.afterCommit(() ->
+            {
+                ItemHandler.decrementAvailableTitles(newRental.getItemTitle());
+                ItemHandler.markCopyUnavailable(newRental.getItemID());
+            });
+            transaction.commit();
+            return newRental;
+        }
+    }
 
-            //Create rental
-            Rental newRental = new Rental(userID, itemID);
+    /**
+     * The body of the checkout transaction, see {@link #checkout(int, int)}.
+     */
+    private static Rental checkoutLockedRows(int userID, int itemID)
+    throws SQLException, EntityNotFoundException, RentalNotAllowedException, ConstructionException,
+           InvalidIDException, InvalidDateException, InvalidNameException, InvalidTitleException,
+           InvalidTypeException, InvalidReceiptException
+    {
+        String username;
+        boolean stillAllowedToRent;
+        String title;
+        RentableCopy copy;
+
+        //Lock the user and item rows, and validate them
+        try (QueryResult queryResult = DataAccessManager.executePreparedQueryChecked(LOCK_USER_AND_ITEM,
+                new Object[]{userID, itemID}))
+        {
+            ResultSet resultSet = queryResult.getResultSet();
+            if (!resultSet.next())
+                throw missingUserOrItem(userID, itemID);
+
+            //User, must not be deleted and must be allowed to rent
+            username = resultSet.getString("username");
+            if (resultSet.getBoolean("userDeleted"))
+                throw new EntityNotFoundException("User with ID " + userID + " found but is deleted.");
+            int allowedRentals = resultSet.getInt("allowedRentals");
+            int currentRentals = resultSet.getInt("currentRentals");
+            double lateFee = resultSet.getDouble("lateFee");
+            if (!resultSet.getBoolean("allowedToRent") || lateFee > 0 || currentRentals >= allowedRentals)
+                throw new RentalNotAllowedException("User not allowed to rent either due to already renting at " +
+                        "maximum capacity or having a late fee." +
+                        "\nCurrent late fee: " + lateFee + ", Current rentals: " + currentRentals +
+                        ", Allowed rentals: " + allowedRentals);
+            stillAllowedToRent = currentRentals + 1 < allowedRentals;
+
+            //Item, must not be deleted and must be allowed to be rented
+            title = resultSet.getString("title");
+            copy = new RentableCopy(itemID, resultSet.getString("itemType"), resultSet.getInt("allowedRentalDays"));
+            if (resultSet.getBoolean("itemDeleted"))
+                throw new EntityNotFoundException("Item with ID " + itemID + " found but is deleted.");
+            if (copy.allowedRentalDays <= 0)
+                throw new RentalNotAllowedException("Item with ID: " + itemID + " is not allowed for rent.");
+
+            //Another copy will do if this one is out, rented for as long as that copy allows
+            if (!resultSet.getBoolean("available"))
+                copy = lockAvailableCopy(title);
+        }
+        itemID = copy.itemID;
 
-            //Set rental fields except rentalID
-            newRental.setUsername(username);
-            newRental.setItemTitle(title);
-            newRental.setItemType(itemType);
+        //Create rental
+        Rental newRental = new Rental(userID, itemID);
 
-            //Due date
-            int allowedRentalDays = ItemHandler.getAllowedRentalDaysByID(itemID);
-            LocalDateTime dueDate = newRental.getRentalDate().plusDays(allowedRentalDays);
-            newRental.setRentalDueDate(dueDate);
+        //Set rental fields except rentalID
+        newRental.setUsername(username);
+        newRental.setItemTitle(title);
+        newRental.setItemType(copy.itemType);
+        newRental.setRentalDueDate(newRental.getRentalDate().plusDays(copy.allowedRentalDays));
 
-            //Create and set receipt
-            newRental.setReceipt(createReceipt(newRental));
+        //Create and set receipt
+        newRental.setReceipt(createReceipt(newRental));
 
-            //Save rental
-            int rentalID = saveRental(newRental);
-            newRental.setRentalID(rentalID);
+        //Save rental
+        newRental.setRentalID(saveRental(newRental));
 
-            //Update Item to change its status to not available
-            item.setAvailable(false);
-            ItemHandler.updateItem(item);
+        //Mark the item as rented and count the rental for the user. Both rows are locked by this transaction, so
+        //the guards only fail if the rows were changed outside of it
+        int matchedRows = DataAccessManager.executePreparedUpdateChecked(UPDATE_ITEM_AND_USER_ON_CHECKOUT,
+                new Object[]{stillAllowedToRent, itemID, userID});
+        if (matchedRows != 2)
+            throw new RentalNotAllowedException("Rental creation failed: user with ID " + userID +
+                    " or item with ID " + itemID + " changed during checkout.");
 
-            //Update User to increment number of current rentals
-            user.setCurrentRentals(user.getCurrentRentals() + 1);
-            UserHandler.updateUser(user);
+        return newRental;
+    }
 
-            //Return rental
-            return newRental;
+    /**
+     * A copy locked by a checkout, with what the rental needs to know about it.
+     */
+    private static class RentableCopy
+    {
+        private final int itemID;
+        private final String itemType;
+        private final int allowedRentalDays;
 
-        }
-        catch (InvalidIDException | NullEntityException | InvalidDateException | InvalidNameException |
-               InvalidTitleException | RetrievalException | InvalidUserRentalsException | UpdateException |
-               InvalidReceiptException e)
+        private RentableCopy(int itemID, String itemType, int allowedRentalDays)
         {
-            String cause = (e.getCause() != null) ? e.getCause().getClass().getName() : "Unknown";
-            ExceptionManager.HandleFatalException(e, "Rental creation failed due to " + cause + ":" + e.getMessage());
+            this.itemID = itemID;
+            this.itemType = itemType;
+            this.allowedRentalDays = allowedRentalDays;
         }
-        catch (ConstructionException e)
+    }
+
+    /**
+     * Locks an available copy of an item that may be rented, skipping copies locked by other checkouts.
+     * <p>
+     * The copies the availability index knows to be available are tried first, each by primary key. Copies the
+     * index was wrong about, or that can't be rented, are marked as not available in it. If none of them can be
+     * locked, the items table is searched for a copy instead.
+     *
+     * @param title the title of the item
+     * @return the copy, with its own type and number of rental days
+     * @throws EntityNotFoundException if there's no available copy
+     */
+    private static RentableCopy lockAvailableCopy(String title)
+    throws SQLException, EntityNotFoundException
+    {
+        if (verbose)
+            System.out.println("\nGetting another available copy of item with title '" + title + "'");
+
+        for (int itemID : ItemHandler.findAvailableCopies(title, MAX_INDEXED_COPIES))
         {
-            String cause = (e.getCause() != null) ? e.getCause().getClass().getName() : "Unknown";
-            ExceptionManager.HandleFatalException(e, "Rental construction failed due to " + cause);
+            try (QueryResult queryResult = DataAccessManager.executePreparedQueryChecked(LOCK_COPY,
+                    new Object[]{itemID}))
+            {
+                ResultSet resultSet = queryResult.getResultSet();
+                if (!resultSet.next())
+                    continue; //Locked by another checkout, which will update the index if it commits
+
+                int allowedRentalDays = resultSet.getInt("allowedRentalDays");
+                if (resultSet.getBoolean("available") && !resultSet.getBoolean("deleted") &&
+                        title.equals(resultSet.getString("title")) && allowedRentalDays > 0)
+                    return new RentableCopy(itemID, resultSet.getString("itemType"), allowedRentalDays);
+                ItemHandler.markCopyUnavailable(itemID);
+            }
+        }
 
+        try (QueryResult queryResult = DataAccessManager.executePreparedQueryChecked(LOCK_AVAILABLE_COPY,
+                new Object[]{title}))
+        {
+            ResultSet resultSet = queryResult.getResultSet();
+            if (resultSet.next())
+                return new RentableCopy(resultSet.getInt("itemID"), resultSet.getString("itemType"),
+                        resultSet.getInt("allowedRentalDays"));
         }
 
-        //Won't reach, needed for compilation
-        return null;
+        throw new EntityNotFoundException(
+                "Rental creation failed: No available copy of " + title + " found.");
+    }
+
+    /**
+     * Finds out which of the user and item doesn't exist, after the locking SELECT found no row.
+     */
+    private static EntityNotFoundException missingUserOrItem(int userID, int itemID)
+    throws SQLException
+    {
+        try (QueryResult queryResult = DataAccessManager.executePreparedQueryChecked(
+                "SELECT userID FROM users WHERE userID = ?", new Object[]{userID}))
+        {
+            if (!queryResult.getResultSet().next())
+                return new EntityNotFoundException("User with ID " + userID + " not found.");
+        }
+        return new EntityNotFoundException("Item with ID " + itemID + " not found.");
     }
 
     /**
@@ -217,8 +458,10 @@ public class RentalHandler
      *
      * @param rental The Rental object to be saved. It must have all required fields set.
      * @return The ID of the newly inserted rental as generated by the database.
+     * @throws SQLException if the rental couldn't be inserted.
      */
     private static int saveRental(Rental rental)
+    throws SQLException
     {
         try
         {
@@ -226,43 +469,41 @@ public class RentalHandler
             if (rental == null)
                 throw new NullEntityException(
                         "Error saving rental: rental is null.");
-
-            //Prepare query
-            String query = "INSERT INTO rentals " +
-                    "(userID, itemID, rentalDate, rentalDueDate, rentalReturnDate, lateFee, receipt, deleted) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-
-            //Set parameters for query
-            //We check if rental.getRentalReturnDate() is null. If it is, we set the corresponding parameter to null.
-            //If it's not, we convert it to a string using toString().
-            //This should prevent any NullPointerExceptions when handling the return date.
-            String[] params = {
-                    String.valueOf(rental.getUserID()),
-                    String.valueOf(rental.getItemID()),
-                    rental.getRentalDate().toString(),
-                    rental.getRentalDueDate().toString(),
-                    (rental.getRentalReturnDate() == null) ? null : rental.getRentalReturnDate().toString(),
-                    String.valueOf(rental.getLateFee()),
-                    rental.getReceipt(),
-                    "0" //Not deleted by default
-            };
-
-            //Execute query and get the generated rentalID, using try-with-resources
-            try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params,
-                    Statement.RETURN_GENERATED_KEYS))
-            {
-                ResultSet generatedKeys = queryResult.getStatement().getGeneratedKeys();
-                if (generatedKeys.next()) return generatedKeys.getInt(1);
-            }
         }
-        catch (NullEntityException | SQLException e)
+        catch (NullEntityException e)
         {
             ExceptionManager.HandleFatalException(e, "Failed to save Rental due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
 
-        //Cannot be reached, but needed for compilation
-        return 0;
+        //Prepare query
+        String query = "INSERT INTO rentals " +
+                "(userID, itemID, rentalDate, rentalDueDate, rentalReturnDate, lateFee, receipt, deleted) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        //Set parameters for query
+        //The dates are bound as timestamps, a null rentalReturnDate is bound as NULL.
+        Object[] params = {
+                rental.getUserID(),
+                rental.getItemID(),
+                rental.getRentalDate(),
+                rental.getRentalDueDate(),
+                rental.getRentalReturnDate(),
+                rental.getLateFee(),
+                rental.getReceipt(),
+                false //Not deleted by default
+        };
+
+        //Execute query and get the generated rentalID, using try-with-resources. SQLExceptions are thrown, so that
+        //the checkout transaction can roll back.
+        try (QueryResult queryResult = DataAccessManager.executePreparedQueryChecked(query, params,
+                Statement.RETURN_GENERATED_KEYS))
+        {
+            ResultSet generatedKeys = queryResult.getStatement().getGeneratedKeys();
+            if (generatedKeys.next()) return generatedKeys.getInt(1);
+        }
+
+        throw new SQLException("No rentalID was generated for the new rental.");
     }
 
     /**
@@ -271,19 +512,18 @@ public class RentalHandler
      * This method executes the procedure of returning a rented item as follows:
      * <ol>
      *   <li>Validates the returnability of the provided rental. The rental is considered returnable if it is not already
-     *       returned and it is associated with a valid user and a valid item. If the rental is not valid, the method
-     *       throws a {@link RentalReturnException}.</li>
-     *   <li>Retrieves the User and Item associated with the rental. This step ensures that the rental is associated with
-     *       valid entities. If any of the associated entities are not valid, the method considers it a fatal exception and
-     *       handles it accordingly.</li>
-     *   <li>Sets the return date of the rental to the current time. The method considers any exception during this step as
+     *       returned and it exists. If the rental is not valid, the method throws a {@link RentalReturnException}.</li>
+     *   <li>Marks the rental as returned at the current time, decrements the number of rentals of the User and makes
+     *       the Item available again, in a single transaction, see {@link #checkin(Rental, LocalDateTime)}. Any
+     *       SQLException is considered fatal. If the rental doesn't exist, a {@link RentalReturnException} is
+     *       thrown.</li>
+     *   <li>Sets the return date of the rental object. The method considers any exception during this step as
      *       a fatal exception.</li>
-     *   <li>Updates the rental in the database. Any exception during this update is considered fatal.</li>
-     *   <li>Decrements the number of rentals of the User and updates the User. The method handles any exception during
-     *       this step as a fatal exception.</li>
-     *   <li>Changes the availability status of the Item and updates it in the database. The method also updates the list of
-     *       available items in the ItemHandler.</li>
+     *   <li>Updates the list of available items in the ItemHandler.</li>
      * </ol>
+     * The user and item aren't retrieved. Each row is changed with a guarded UPDATE instead, and the number of rows
+     * it matched tells whether the change was allowed. Two desks returning the same rental can therefore never both
+     * succeed.
      *
      * @param rentalToReturn The rental to be returned.
      * @return The rental that has been returned.
@@ -304,33 +544,17 @@ public class RentalHandler
 
         try
         {
-            //Retrieve User and Item
-            User user = UserHandler.getUserByID(rentalToReturn.getUserID()); //InvalidIDException, fatal
-            Item item = ItemHandler.getItemByID(rentalToReturn.getItemID()); //RetrievalException, fatal
-
-            //I need to look over UserHandler since user should technically be able to be null just like item here
-            if (item == null)
-                throw new EntityNotFoundException(
-                        "Item related to rental with rentalID " + rentalToReturn.getRentalID() +
-                                " not found.");
+            LocalDateTime returnDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            checkin(rentalToReturn, returnDate);
 
             //Set rentalReturnDate, throws InvalidDateException which is considered fatal in this context
-            rentalToReturn.setRentalReturnDate(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
-
-            //Update the rental in the table, throws UpdateException which is considered fatal in this context
-            updateRental(rentalToReturn);
-
-            //Decrement User's currentRentals and update
-            user.setCurrentRentals(user.getCurrentRentals() - 1); //InvalidUserRentalsException, fatal
-            UserHandler.updateUser(user);
-
-            //Change Item's availability and update ItemHandler's list
-            item.setAvailable(true);
-            ItemHandler.updateItem(item);
-            ItemHandler.incrementAvailableTitles(item.getTitle());
+            rentalToReturn.setRentalReturnDate(returnDate);
+        }
+        catch (InvalidIDException | EntityNotFoundException e)
+        { //Input Exceptions are considered non-fatal
+            throw new RentalReturnException("Rental return failed: " + e.getMessage(), e);
         }
-        catch (InvalidDateException | UpdateException | InvalidIDException | RetrievalException |
-               InvalidUserRentalsException | NullEntityException | EntityNotFoundException e)
+        catch (SQLException | InvalidDateException | InvalidUserRentalsException e)
         { //We get these and something has gone seriously wrong
             ExceptionManager.HandleFatalException(e, "Rental return failed fatally: " + e.getMessage());
         }
@@ -338,16 +562,59 @@ public class RentalHandler
         return rentalToReturn;
     }
 
+    /**
+     * Returns a rental in a single transaction, with one guarded UPDATE per row:
+     * <ol>
+     *   <li>Sets the return date of the rental, if it hasn't been returned.</li>
+     *   <li>Decrements the current rentals of the user, see {@link UserHandler#decrementCurrentRentals(int)}.</li>
+     *   <li>Makes the item available, see {@link ItemHandler#releaseItem(int)}.</li>
+     * </ol>
+     * If the calling thread is already in a transaction, the return is part of that transaction instead.
+     * <p>
+     * If the item was made available, and not already available, for example after being updated by hand while
+     * rented, the maps of the ItemHandler are updated once the return is committed.
+     *
+     * @param rental     the rental.
+     * @param returnDate the return date.
+     * @throws SQLException if the transaction failed.
+     */
+    private static void checkin(Rental rental, LocalDateTime returnDate)
+    throws SQLException, InvalidIDException, EntityNotFoundException, RentalReturnException,
+           InvalidUserRentalsException
+    {
+        try (Transaction transaction = DataAccessManager.beginTransaction())
+        {
+            //Only one return of the rental can match it
+            if (DataAccessManager.executePreparedUpdateChecked(RETURN_RENTAL,
+                    new Object[]{returnDate, rental.getRentalID()}) == 0)
+                throwNotReturnable(rental.getRentalID());
+
+            if (!UserHandler.decrementCurrentRentals(rental.getUserID()))
+                throw new InvalidUserRentalsException("User with ID " + rental.getUserID() +
+                        " related to rental with rentalID " + rental.getRentalID() + " has no current rentals.");
+
+            if (ItemHandler.releaseItem(rental.getItemID()))
+            {
+                transaction.afterCommit(() ->
+                {
+                    ItemHandler.incrementAvailableTitles(rental.getItemTitle());
+                    ItemHandler.markCopyAvailable(rental.getItemID());
+                });
+            }
+            transaction.commit();
+        }
+    }
+
     /**
      * Validates whether a rental is returnable.
      * <p>
      * This method checks that the provided rental meets the following conditions:
      * <ul>
      *   <li>The rental is not null.</li>
-     *   <li>The rental exists in the database.</li>
      *   <li>The rental is active (has not been returned yet).</li>
      * </ul>
-     * If any of these conditions is not met, the method throws the appropriate exception.
+     * If any of these conditions is not met, the method throws the appropriate exception. Whether an active rental
+     * exists is found out by the return itself, without a query of its own.
      *
      * @param rentalToReturn The rental to be validated.
      * @throws NullEntityException     If the rental is null.
@@ -361,12 +628,25 @@ public class RentalHandler
         //Not null
         if (rentalToReturn == null)
             throw new NullEntityException("Can't return rental; rental is null.");
-        //Exists
-        if (getRentalByID(rentalToReturn.getRentalID()) == null)
-            throw new EntityNotFoundException("Can't return rental; rental not found in table.");
         //Is active
         if (rentalToReturn.getRentalReturnDate() != null)
-            throw new RentalReturnException("Can't return rental; rental already returned.");
+            throwNotReturnable(rentalToReturn.getRentalID());
+    }
+
+    /**
+     * Finds out why a rental can't be returned.
+     *
+     * @param rentalID the ID of the rental.
+     * @throws EntityNotFoundException If the rental is not found in the database.
+     * @throws RentalReturnException   If the rental exists, and has already been returned.
+     */
+    private static void throwNotReturnable(int rentalID)
+    throws InvalidIDException, EntityNotFoundException, RentalReturnException
+    {
+        //Exists
+        if (getRentalByID(rentalID) == null)
+            throw new EntityNotFoundException("Can't return rental; rental not found in table.");
+        throw new RentalReturnException("Can't return rental; rental already returned.");
     }
 
     //TODO-prio update according to getUsers, getItems, to take a wider variety of suffixes
@@ -377,8 +657,13 @@ public class RentalHandler
      * is converted into a list of Rental objects. In case of an error, a fatal exception will be handled and the program
      * will terminate.
      *
-     * @param sqlSuffix The SQL query suffix to be added after "SELECT * FROM rentals". Can be null or contain conditions,
-     *                  ordering, etc. E.g., "WHERE userID = ?".
+     * <p>
+     * The username, item title and item type of each rental are joined into the same query, so the rentals are
+     * retrieved in a single round trip however many there are. Since the users and items tables are already joined,
+     * the suffix can filter on their columns, but columns found in more than one table must be qualified.
+     *
+     * @param sqlSuffix The SQL query suffix to be added after the joins. Can be null or contain conditions,
+     *                  ordering, etc. E.g., "WHERE rentals.userID = ?".
      * @param params    An array of Strings representing the parameters to be set in the PreparedStatement for the query.
      *                  Each '?' character in the sqlSuffix will be replaced by a value from this array. Can be null if no
      *                  parameters are required.
@@ -386,18 +671,16 @@ public class RentalHandler
      *                  For example, it can be used to set Statement.RETURN_GENERATED_KEYS.
      * @return A list of Rental objects matching the query, or an empty list if no matching rentals are found.
      */
-    private static List<Rental> getRentals(String sqlSuffix, String[] params, int settings)
+    private static List<Rental> getRentals(String sqlSuffix, Object[] params, int settings)
     {
         //Convert the ResultSet into a List of Rental objects
         List<Rental> rentals = new ArrayList<>();
 
-        // Prepare a SQL command to select all rentals from the 'rentals' table with given sqlSuffix
-        String sql = "SELECT * FROM rentals " + (sqlSuffix == null ? "" : sqlSuffix);
-
         try
         {
             //Execute the query.
-            try (QueryResult queryResult = DataAccessManager.executePreparedQuery(sql, params, settings))
+            try (QueryResult queryResult = DataAccessManager.executePreparedQuery(buildRentalsQuery(sqlSuffix), params,
+                    settings))
             {
 
                 //Retrieve the ResultSet from the QueryResult
@@ -424,15 +707,66 @@ public class RentalHandler
         return rentals;
     }
 
+    /**
+     * Works like getRentals, but streams the rentals one at a time as the stream is read instead of collecting them
+     * all in a list first, so that all rentals can be gone through without holding them all in memory.
+     * <p>
+     * The stream holds a database connection until it's closed, which happens by itself once the last rental has
+     * been read. Use try-with-resources, and don't run any other queries on the same thread until the stream is
+     * closed, see {@link DataAccessManager#executeStreamingQuery(String, Object[])}.
+     *
+     * @param sqlSuffix The SQL query suffix to be added after the joins, as for getRentals. Can be null.
+     * @param params    The parameters to be set in the PreparedStatement for the query. Can be null.
+     * @return A stream of the Rental objects matching the query.
+     */
+    private static Stream<Rental> streamRentals(String sqlSuffix, Object[] params)
+    {
+        return ResultStream.of(DataAccessManager.executeStreamingQuery(buildRentalsQuery(sqlSuffix), params),
+                RentalHandler::constructRetrievedRental);
+    }
+
+    /**
+     * Retrieves one page of the rentals meeting a condition, see {@link Keyset}.
+     *
+     * @param keyset    The keyset the rentals are ordered by, RENTAL_PAGES or RENTAL_DATE_PAGES.
+     * @param condition The condition rentals must meet, without WHERE, or null for all rentals.
+     * @param params    The parameters of the condition.
+     * @param pageToken The token of the page, or null for the first page.
+     * @param pageSize  The most rentals on the page.
+     * @return The page.
+     */
+    private static Page<Rental> getRentalsPage(Keyset keyset, String condition, Object[] params, String pageToken,
+                                               int pageSize)
+    {
+        List<Rental> rentals = getRentals(keyset.suffix(condition, pageToken),
+                keyset.params(params, pageToken, pageSize), 0);
+        return Page.of(rentals, pageSize, rental -> keyset == RENTAL_PAGES ?
+                keyset.tokenAfter(rental.getRentalID()) :
+                keyset.tokenAfter(rental.getRentalDate(), rental.getRentalID()));
+    }
+
+    /**
+     * Builds the query used by getRentals and streamRentals.
+     *
+     * @param sqlSuffix The SQL query suffix to be added after the joins. Can be null.
+     * @return The query.
+     */
+    private static String buildRentalsQuery(String sqlSuffix)
+    {
+        // Prepare a SQL command to select all rentals from the 'rentals' table with given sqlSuffix, along with the
+        // username of the renting user and the title and type of the rented item
+        return "SELECT rentals.*, users.username, items.title, items.itemType FROM rentals " +
+                "JOIN users ON rentals.userID = users.userID " +
+                "JOIN items ON rentals.itemID = items.itemID " + (sqlSuffix == null ? "" : sqlSuffix);
+    }
+
     /**
      * Constructs a Rental object from the provided ResultSet. This method is used to convert database records
-     * into Java objects. It fetches all necessary information about a rental, including associated user and item information.
+     * into Java objects. The username, item title and item type are read from the columns joined in by getRentals.
      *
      * @param resultSet the ResultSet obtained from the database query for a rental record
      * @see Rental
      * @see SQLException
-     * @see InvalidIDException
-     * @see RetrievalException
      * @see ConstructionException
      */
     private static Rental constructRetrievedRental(ResultSet resultSet)
@@ -449,10 +783,9 @@ public class RentalHandler
             LocalDateTime rentalReturnDate = convertTimeStampToLocalDateTime(resultSet, "rentalReturnDate");
 
             //Get username, itemTitle and itemType
-            String username = UserHandler.getUserByID(userID).getUsername();
-            Item item = ItemHandler.getItemByID(itemID);
-            String itemTitle = item.getTitle(); //Throws RetrievalException
-            String itemType = item.getType().toString();
+            String username = resultSet.getString("username");
+            String itemTitle = resultSet.getString("title");
+            String itemType = resultSet.getString("itemType");
 
             //Create and return the rental
             return new Rental(
@@ -470,7 +803,7 @@ public class RentalHandler
                     resultSet.getBoolean("deleted")
             );
         }
-        catch (SQLException | InvalidIDException | RetrievalException | ConstructionException e)
+        catch (SQLException | ConstructionException e)
         {
             ExceptionManager.HandleFatalException(e, "Failed to construct retrieved rental from database due to " +
                     e.getClass().getName() + ": " + e.getMessage());
@@ -515,6 +848,29 @@ public class RentalHandler
         return getRentals(null, null, 0);
     }
 
+    /**
+     * Streams all rentals found in the table, one at a time as the stream is read. The stream must be closed unless
+     * it's read to the end, see streamRentals.
+     *
+     * @return a stream of all rentals in database.
+     */
+    public static Stream<Rental> streamAllRentals()
+    {
+        return streamRentals(null, null);
+    }
+
+    /**
+     * Retrieves one page of all rentals, ordered by rentalID.
+     *
+     * @param pageToken the token of the page, or null for the first page.
+     * @param pageSize  the most rentals on the page, between 1 and Keyset.MAX_PAGE_SIZE.
+     * @return the page.
+     */
+    public static Page<Rental> getAllRentalsPage(String pageToken, int pageSize)
+    {
+        return getRentalsPage(RENTAL_PAGES, null, null, pageToken, pageSize);
+    }
+
     /**
      * This method fetches a rental by its rental ID from the database.
      *
@@ -533,10 +889,11 @@ public class RentalHandler
         List<Rental> rentals = null; //"Redundant" my ass, never rely on automatic initialization
 
         //Prepare suffix to select rentals by ID
-        String suffix = "WHERE rentalID = " + rentalID;
+        String suffix = "WHERE rentalID = ?";
+        Object[] params = {rentalID};
 
         //Executor-class Star Dreadnought
-        rentals = getRentals(suffix, null, 0);
+        rentals = getRentals(suffix, params, 0);
 
         //Check results, this first option should not happen and will be considered fatal
         if (rentals.size() > 1)
@@ -566,8 +923,7 @@ public class RentalHandler
         String suffix = "WHERE rentalDueDate < ? AND rentalReturnDate IS NULL";
 
         // Prepare parameters for query
-        String[] params = {DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").
-                format(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS))};
+        Object[] params = {LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)};
 
         //Executor-class Star Dreadnought
         return getRentals(suffix, params, 0); //No settings
@@ -602,15 +958,15 @@ public class RentalHandler
         String query = "UPDATE rentals " +
                 "SET userID = ?, itemID = ?, rentalDate = ?, rentalDueDate = ?, rentalReturnDate = ?, lateFee = ?, " +
                 "receipt = ? WHERE rentalID = ?";
-        String[] params = {
-                String.valueOf(updatedRental.getUserID()), //TODO-prio Should probably not be allowed
-                String.valueOf(updatedRental.getItemID()), //TODO-prio Should probably not be allowed
-                String.valueOf(updatedRental.getRentalDate()), //TODO-prio Should probably not be allowed
-                String.valueOf(updatedRental.getRentalDueDate()),
-                (updatedRental.getRentalReturnDate() == null) ? null : updatedRental.getRentalReturnDate().toString(),
-                String.valueOf(updatedRental.getLateFee()),
+        Object[] params = {
+                updatedRental.getUserID(), //TODO-prio Should probably not be allowed
+                updatedRental.getItemID(), //TODO-prio Should probably not be allowed
+                updatedRental.getRentalDate(), //TODO-prio Should probably not be allowed
+                updatedRental.getRentalDueDate(),
+                updatedRental.getRentalReturnDate(),
+                updatedRental.getLateFee(),
                 updatedRental.getReceipt(), //TODO-prio Should probably not be allowed
-                String.valueOf(updatedRental.getRentalID())
+                updatedRental.getRentalID()
         };
 
         //Executor-class Star Dreadnought
@@ -643,9 +999,9 @@ public class RentalHandler
 
         //Prepare a SQL query to update the rental details
         String query = "UPDATE rentals SET deleted = ? WHERE rentalID = ?";
-        String[] params = {
-                rentalToDelete.isDeleted() ? "1" : "0",
-                String.valueOf(rentalToDelete.getRentalID())
+        Object[] params = {
+                rentalToDelete.isDeleted(),
+                rentalToDelete.getRentalID()
         };
 
         //Executor-class Star Dreadnought
@@ -683,9 +1039,9 @@ public class RentalHandler
 
         //Prepare a SQL query to update the rental details
         String query = "UPDATE rentals SET deleted = ? WHERE rentalID = ?";
-        String[] params = {
-                rentalToRecover.isDeleted() ? "1" : "0",
-                String.valueOf(rentalToRecover.getRentalID())
+        Object[] params = {
+                rentalToRecover.isDeleted(),
+                rentalToRecover.getRentalID()
         };
 
         //Executor-class Star Dreadnought
@@ -715,7 +1071,7 @@ public class RentalHandler
 
         //Prepare a SQL query to update the rentalToDelete details
         String query = "DELETE FROM rentals WHERE rentalID = ?";
-        String[] params = {String.valueOf(rentalToDelete.getRentalID())};
+        Object[] params = {rentalToDelete.getRentalID()};
 
         //Executor-class Star Dreadnought
         DataAccessManager.executePreparedUpdate(query, params);
@@ -749,7 +1105,7 @@ public class RentalHandler
         String suffix = " WHERE rentalDate = ?";
 
         // Prepare parameters for query
-        String[] params = {rentalDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))};
+        Object[] params = {rentalDate};
 
         //Executor-class Star Dreadnought
         return getRentals(suffix, params, 0); //No settings
@@ -779,8 +1135,7 @@ public class RentalHandler
         String suffix = "WHERE rentalDate >= ? AND rentalDate < ?";
 
         // Prepare parameters for query
-        String[] params = {startOfDay.toString(),
-                startOfDayPlusOne.toString()};
+        Object[] params = {startOfDay, startOfDayPlusOne};
 
         //Executor-class Star Dreadnought
         return getRentals(suffix, params, 0); //No settings
@@ -804,7 +1159,7 @@ public class RentalHandler
 
         //Prepare a SQL query to select rentals by rentalDate within a given period
         String suffix = "WHERE rentalDate >= ? AND rentalDate <= ?";
-        String[] params = {startDateTime.toString(), endDateTime.toString()};
+        Object[] params = {startDateTime, endDateTime};
 
         //Return the list of rentals
         return getRentals(suffix, params, 0);
@@ -819,13 +1174,30 @@ public class RentalHandler
             throw new InvalidIDException("Invalid userID: " + userID + ". userID must be greater than 0.");
 
         //Prepare a SQL query to select rentals by userID
-        String suffix = "WHERE userID = ?";
-        String[] params = {String.valueOf(userID)};
+        String suffix = "WHERE rentals.userID = ?";
+        Object[] params = {userID};
 
         //Return the list of rentals
         return getRentals(suffix, params, 0);
     }
 
+    /**
+     * Retrieves one page of the rentals of a user, ordered by rentalDate, oldest first.
+     *
+     * @param userID    the ID of the user.
+     * @param pageToken the token of the page, or null for the first page.
+     * @param pageSize  the most rentals on the page, between 1 and Keyset.MAX_PAGE_SIZE.
+     * @return the page.
+     * @throws InvalidIDException if the userID is invalid.
+     */
+    public static Page<Rental> getRentalsByUserIDPage(int userID, String pageToken, int pageSize)
+    throws InvalidIDException
+    {
+        if (userID <= 0)
+            throw new InvalidIDException("Invalid userID: " + userID + ". userID must be greater than 0.");
+        return getRentalsPage(RENTAL_DATE_PAGES, "rentals.userID = ?", new Object[]{userID}, pageToken, pageSize);
+    }
+
     //TODO OPTIONAL
     public static List<Rental> getRentalsByItemID(int itemID)
     {
@@ -834,15 +1206,29 @@ public class RentalHandler
             throw new IllegalArgumentException("Invalid itemID: " + itemID + ". itemID must be greater than 0.");
 
         //Prepare a SQL query to select rentals by itemID
-        String suffix = "WHERE itemID = ?";
-        String[] params = {Integer.toString(itemID)};
+        String suffix = "WHERE rentals.itemID = ?";
+        Object[] params = {itemID};
 
         //Return the list of rentals
         return getRentals(suffix, params, 0);
     }
 
+    /**
+     * Retrieves one page of the rentals of an item, ordered by rentalDate, oldest first.
+     *
+     * @param itemID    the ID of the item.
+     * @param pageToken the token of the page, or null for the first page.
+     * @param pageSize  the most rentals on the page, between 1 and Keyset.MAX_PAGE_SIZE.
+     * @return the page.
+     */
+    public static Page<Rental> getRentalsByItemIDPage(int itemID, String pageToken, int pageSize)
+    {
+        if (itemID <= 0)
+            throw new IllegalArgumentException("Invalid itemID: " + itemID + ". itemID must be greater than 0.");
+        return getRentalsPage(RENTAL_DATE_PAGES, "rentals.itemID = ?", new Object[]{itemID}, pageToken, pageSize);
+    }
+
     //TODO OPTIONAL
-    //TODO-PRIO won't work with getRentals
     public static List<Rental> getRentalsByUsername(String username)
     throws InvalidNameException
     {
@@ -851,16 +1237,32 @@ public class RentalHandler
             throw new InvalidNameException("Invalid username: username can't be null or empty.");
 
         //Prepare a SQL query to select rentals by username
-        String suffix = "INNER JOIN users ON rentals.userID = users.userID " +
-                "WHERE users.username = ?";
-        String[] params = {username};
+        String suffix = "WHERE users.username = ?";
+        Object[] params = {username};
 
         //Return the list of rentals
         return getRentals(suffix, params, 0);
     }
 
+    /**
+     * Retrieves one page of the rentals of a user, by username, ordered by rentalDate, oldest first.
+     *
+     * @param username  the username of the user.
+     * @param pageToken the token of the page, or null for the first page.
+     * @param pageSize  the most rentals on the page, between 1 and Keyset.MAX_PAGE_SIZE.
+     * @return the page.
+     * @throws InvalidNameException if the username is null or empty.
+     */
+    public static Page<Rental> getRentalsByUsernamePage(String username, String pageToken, int pageSize)
+    throws InvalidNameException
+    {
+        if (username == null || username.isEmpty())
+            throw new InvalidNameException("Invalid username: username can't be null or empty.");
+        return getRentalsPage(RENTAL_DATE_PAGES, "users.username = ?", new Object[]{username}, pageToken,
+                pageSize);
+    }
+
     //TODO OPTIONAL
-    //TODO-PRIO won't work with getRentals
     public static List<Rental> getRentalsByItemTitle(String title)
     throws InvalidTitleException
     {
@@ -869,14 +1271,30 @@ public class RentalHandler
             throw new InvalidTitleException("Invalid title: title can't be null or empty.");
 
         //Prepare a SQL query to select rentals by item title
-        String suffix = "INNER JOIN items ON rentals.itemID = items.itemID WHERE items" +
-                ".title = ?";
-        String[] params = {title};
+        String suffix = "WHERE items.title = ?";
+        Object[] params = {title};
 
         //Return the list of rentals
         return getRentals(suffix, params, 0);
     }
 
+    /**
+     * Retrieves one page of the rentals of the items with a title, ordered by rentalDate, oldest first.
+     *
+     * @param title     the title of the items.
+     * @param pageToken the token of the page, or null for the first page.
+     * @param pageSize  the most rentals on the page, between 1 and Keyset.MAX_PAGE_SIZE.
+     * @return the page.
+     * @throws InvalidTitleException if the title is null or empty.
+     */
+    public static Page<Rental> getRentalsByItemTitlePage(String title, String pageToken, int pageSize)
+    throws InvalidTitleException
+    {
+        if (title == null || title.isEmpty())
+            throw new InvalidTitleException("Invalid title: title can't be null or empty.");
+        return getRentalsPage(RENTAL_DATE_PAGES, "items.title = ?", new Object[]{title}, pageToken, pageSize);
+    }
+
     // UTILITY STUFF --------------------------------------------------------------------------------------------------
 
     /**
@@ -901,117 +1319,6 @@ public class RentalHandler
         return itemID <= 0;
     }
 
-    /**
-     * Retrieves a User object given a userID, throwing an exception if the User doesn't exist or is (soft) deleted.
-     *
-     * @param userID the id of the User to be retrieved
-     * @return the User object corresponding to the given userID
-     * @throws EntityNotFoundException if there's no User with the given userID
-     * @throws InvalidIDException      if the userID is invalid
-     */
-    private static User getValidatedUser(int userID)
-    throws
-    EntityNotFoundException, InvalidIDException,
-    RentalNotAllowedException
-    {
-        if (verbose)
-            System.out.println("\nGetting valid user with ID " + userID);
-
-        User user = UserHandler.getUserByID(userID);
-
-        //Not null
-        if (user == null)
-            throw new EntityNotFoundException(
-                    "User with ID " + userID + " not found.");
-        if (verbose)
-            System.out.println("Found non-null user with ID " + userID);
-
-        //Not deleted
-        if (user.isDeleted())
-            throw new EntityNotFoundException(
-                    "User with ID " + userID + " found but is deleted.");
-        if (verbose)
-            System.out.println("User with ID " + userID + " is not deleted: " + !user.isDeleted());
-
-        //Allowed to rent
-        if (!user.isAllowedToRent())
-            throw new RentalNotAllowedException("User not allowed to rent either due to already renting at " +
-                    "maximum capacity or having a late fee." +
-                    "\nCurrent late fee: " + user.getLateFee() + ", Current rentals: " + user.getCurrentRentals() +
-                    ", Allowed rentals: " + user.getAllowedRentals());
-        if (verbose)
-            System.out.println("User with ID " + userID + " is allowed to rent: " + user.isAllowedToRent());
-
-        return user;
-    }
-
-    /**
-     * Retrieves an Item object given an itemID, throwing an exception if the Item doesn't exist or is (soft) deleted.
-     *
-     * @param itemID the id of the Item to be retrieved
-     * @return the Item object corresponding to the given itemID
-     * @throws EntityNotFoundException if there's no Item with the given itemID
-     * @throws InvalidIDException      if the itemID is invalid
-     */
-    private static Item getExistingItem(int itemID)
-    throws
-    EntityNotFoundException, InvalidIDException,
-    InvalidTitleException, RetrievalException, RentalNotAllowedException
-    {
-        if (verbose)
-            System.out.println("\nGetting available item with ID " + itemID);
-
-        Item item = ItemHandler.getItemByID(itemID);
-        if (item == null)
-            throw new EntityNotFoundException("Item with ID " + itemID + " not found.");
-        if (verbose)
-            System.out.println("Found non-null Item with ID " + itemID + " and title '" + item.getTitle() + "'");
-
-        if (item.isDeleted())
-            throw new EntityNotFoundException("Item with ID " + itemID + " found but is deleted.");
-        if (verbose)
-            System.out.println("Item with ID " + itemID + " is not deleted: " + !item.isDeleted());
-
-        if (item.getAllowedRentalDays() <= 0)
-            throw new RentalNotAllowedException("Item with ID: " + itemID + " is not allowed for rent.");
-        if (verbose)
-            System.out.println("Item with ID: " + itemID + " is allwed to be rented for " +
-                    item.getAllowedRentalDays() + " days.");
-
-        if (!item.isAvailable())
-            item = getAvailableCopy(item.getTitle());
-        if (verbose)
-            System.out.println("Item with ID " + itemID + " is available: " + item.isAvailable());
-
-        return item;
-    }
-
-    /**
-     * Retrieves an available copy of an Item given its title, throwing an exception if no available copy exists.
-     *
-     * @param title the title of the Item to be retrieved
-     * @return an available Item object with the given title
-     * @throws InvalidTitleException   if the title is invalid
-     * @throws EntityNotFoundException if there's no available copy of the Item with the given title
-     */
-    private static Item getAvailableCopy(String title)
-    throws InvalidTitleException, EntityNotFoundException
-    {
-        if (verbose)
-            System.out.println("\nGetting another available copy of item with title '" + title + "'");
-
-        List<Item> items = ItemHandler.getItemsByTitle(title);
-
-        for (Item item : items)
-        {
-            if (item.isAvailable())
-                return item;
-        }
-
-        throw new EntityNotFoundException(
-                "Rental creation failed: No available copy of " + title + " found.");
-    }
-
     /**
      * Validates a rentalID, ensuring it is a positive integer.
      *
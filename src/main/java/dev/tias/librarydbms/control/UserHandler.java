@@ -1,18 +1,22 @@
 package dev.tias.librarydbms.control;
 
 import dev.tias.librarydbms.model.User;
+import dev.tias.librarydbms.service.db.BatchResult;
 import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.db.QueryResult;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidEmailException;
 import dev.tias.librarydbms.service.exceptions.custom.*;
 import dev.tias.librarydbms.service.exceptions.custom.user.*;
+import dev.tias.librarydbms.service.search.Suggester;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Mattias Fridsén
@@ -42,18 +46,26 @@ import java.util.List;
  */
 public class UserHandler //TODO-future rewrite Get-methods according to ItemHandler and RentalHandler, re-test
 {
+    //Insert command, shared by createNewUser and createNewUserBatch
+    private static final String INSERT_USER = "INSERT INTO users (username, password, userType, email, " +
+            "allowedRentals, currentRentals, lateFee, allowedToRent, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    //Query used to load the registry, in a single pass
+    private static final String SELECT_ACCOUNTS = "SELECT userID, username, email FROM users";
+
     /**
-     * Used to make the process of verifying if a username is taken or not faster.
+     * Used to make the process of verifying if a username is taken, or an email is registered, faster. Looks them up
+     * without regard to case, like the users table does. Safe to use from several threads.
      */
-    private static final ArrayList<String> storedUsernames = new ArrayList<>();
+    private static final UserRegistry registry = new UserRegistry();
 
     /**
-     * Used to make the process of verifying if an email is registered or not faster.
+     * The usernames suggested while typing in the search screens, rebuilt from the registry after it changes.
      */
-    private static final ArrayList<String> registeredEmails = new ArrayList<>();
+    private static final Suggester usernameSuggestions = new Suggester(registry::getUsernames);
 
     /**
-     * Performs setup tasks. In this case, syncing storedUsernames against the database.
+     * Performs setup tasks. In this case, syncing the registry against the database.
      */
     public static void setup()
     {
@@ -61,118 +73,59 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
     }
 
     /**
-     * Clears and syncs the both lists against the Users table.
+     * Syncs the registry of usernames and emails against the Users table. The old registry is used until the new
+     * one is loaded.
      */
     public static void sync()
     {
-        syncUsernames();
-        syncEmails();
-    }
-
-    /**
-     * Clears and syncs the storedUsernames list against the usernames in the Users table.
-     */
-    public static void syncUsernames()
-    {
-        resetUsernames();
-        retrieveUsernamesFromTable();
-    }
-
-    /**
-     * Clears and syncs the registeredEmails list against the emails in the Users table.
-     */
-    public static void syncEmails()
-    {
-        resetEmails();
-        retrieveEmailsFromTable();
-    }
-
-    /**
-     * Method that retrieves the usernames in the Users table and stores them in the static ArrayList.
-     * Query needs to be ORDER BY user_id ASC or ids will be in the order of 10, 1, 2, ...
-     */
-    private static void retrieveUsernamesFromTable()
-    {
-        try
-        {
-            //Execute the query to retrieve all usernames
-            String query = "SELECT username FROM users ORDER BY userID ASC";
-            try (QueryResult result = DataAccessManager.executePreparedQuery(query, null))
-            {
-                //Add the retrieved usernames to the ArrayList
-                while (result.getResultSet().next())
-                {
-                    storedUsernames.add(result.getResultSet().getString("username"));
-                }
-            }
-        }
-        catch (SQLException e)
-        {
-            ExceptionManager.HandleFatalException(e, "Failed to retrieve usernames from database due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
-        }
+        retrieveAccountsFromTable();
     }
 
     /**
-     * Method that retrieves the emails in the Users table and stores them in the static ArrayList.
-     * Query needs to be ORDER BY user_id ASC or ids will be in the order of 10, 1, 2, ...
+     * Method that retrieves the userID, username and email of every user in the Users table, with one query, and
+     * replaces the registry with them.
      */
-    private static void retrieveEmailsFromTable()
+    private static void retrieveAccountsFromTable()
     {
+        UserRegistry.Builder builder = new UserRegistry.Builder(0);
         try
         {
-            //Execute the query to retrieve all emails
-            String query = "SELECT email FROM users ORDER BY userID ASC";
-            try (QueryResult result = DataAccessManager.executePreparedQuery(query, null))
+            try (QueryResult result = DataAccessManager.executePreparedQuery(SELECT_ACCOUNTS, null))
             {
-
-                //Add the retrieved usernames to the ArrayList
-                while (result.getResultSet().next())
+                ResultSet resultSet = result.getResultSet();
+                while (resultSet.next())
                 {
-                    registeredEmails.add(result.getResultSet().getString("email"));
+                    builder.add(resultSet.getInt("userID"), resultSet.getString("username"),
+                            resultSet.getString("email"));
                 }
             }
         }
         catch (SQLException e)
         {
-            ExceptionManager.HandleFatalException(e, "Failed to retrieve emails from database due to " +
+            ExceptionManager.HandleFatalException(e, "Failed to retrieve usernames and emails from database due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
+        registry.replace(builder);
+        usernameSuggestions.invalidate();
     }
 
     /**
-     * Clears both lists.
+     * Clears the registry.
      */
     public static void reset()
     {
-        resetUsernames();
-        resetEmails();
-    }
-
-    /**
-     * Clears the list of storedUsernames.
-     */
-    public static void resetUsernames()
-    {
-        storedUsernames.clear();
-    }
-
-    /**
-     * Clears the list of registeredEmails.
-     */
-    public static void resetEmails()
-    {
-        registeredEmails.clear();
+        registry.clear();
+        usernameSuggestions.invalidate();
     }
 
     /**
-     * Prints all usernames in the ArrayList.
+     * Prints all usernames in the registry.
      */
     public static void printUsernames()
     {
         System.out.println("\nUsernames:");
         int num = 1;
-        for (String username : storedUsernames)
+        for (String username : registry.getUsernames())
         {
             System.out.println(num + ": " + username);
             num++;
@@ -180,13 +133,13 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
     }
 
     /**
-     * Prints all emails in the ArrayList.
+     * Prints all emails in the registry.
      */
     public static void printEmails()
     {
         System.out.println("\nEmails:");
         int num = 1;
-        for (String email : registeredEmails)
+        for (String email : registry.getEmails())
         {
             System.out.println(num + ": " + email);
             num++;
@@ -194,23 +147,35 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
     }
 
     /**
-     * Returns the ArrayList of usernames.
+     * Returns a copy of the registered usernames, ordered by userID.
+     *
+     * @return the usernames
+     */
+    public static List<String> getStoredUsernames()
+    {
+        return registry.getUsernames();
+    }
+
+    /**
+     * Returns the usernames starting with what has been typed so far, for type-ahead. Answered from memory.
      *
-     * @return the ArrayList of usernames
+     * @param prefix     what has been typed so far.
+     * @param maxResults the maximum number of usernames to return.
+     * @return the usernames, empty if none match.
      */
-    public static ArrayList<String> getStoredUsernames()
+    public static List<String> suggestUsernames(String prefix, int maxResults)
     {
-        return storedUsernames;
+        return usernameSuggestions.suggest(prefix, maxResults);
     }
 
     /**
-     * Returns the ArrayList of emails.
+     * Returns a copy of the registered emails, ordered by userID.
      *
-     * @return the ArrayList of emails
+     * @return the emails
      */
-    public static ArrayList<String> getRegisteredEmails()
+    public static List<String> getRegisteredEmails()
     {
-        return registeredEmails;
+        return registry.getEmails();
     }
 
     /**
@@ -234,7 +199,7 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
      * Creates a new User with the provided username, password, userType, and email, then stores it.
      * <p>
      * This method validates the input parameters, constructs a new User object, and saves it.
-     * It also adds the username and email to the respective lists in UserHandler.
+     * It also adds the username and email to the registry in UserHandler.
      * If an exception is encountered during the construction or saving process, it will be
      * handled accordingly.
      *
@@ -246,7 +211,8 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
      *                 with length between the limits set in User class, and properly formatted.
      * @param userType the UserType of the new user. Must be a non-null value from UserType enum.
      * @return the newly created User object.
-     * @throws CreationException if validation of input parameters fails.
+     * @throws CreationException if validation of input parameters fails, or the username or email was registered by
+     *                           someone else after it was checked.
      */
     public static User createNewUser(String username, String password, String email, User.UserType userType)
     throws CreationException
@@ -265,9 +231,19 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
             newUser = new User(username, password, email, userType);
             newUser.setUserID(saveUser(newUser));
 
-            //Need to remember to add to the lists
-            storedUsernames.add(username);
-            registeredEmails.add(email);
+            //Need to remember to add to the registry
+            registry.register(newUser.getUserID(), username, email);
+            usernameSuggestions.invalidate();
+        }
+        catch (SQLException e)
+        {
+            //The registry said the username and email were free, but another desk got to them first
+            if (!DataAccessManager.isDuplicateKey(e))
+                ExceptionManager.HandleFatalException(e, "Failed to save user to database due to " +
+                        e.getClass().getName() + ": " + e.getMessage());
+            Exception cause = duplicateAccount(e, username, email);
+            throw new CreationException("Failed to create User due to " +
+                    cause.getClass().getName() + ": " + cause.getMessage(), cause);
         }
         catch (ConstructionException | InvalidIDException e)
         {
@@ -287,52 +263,150 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
      * Saves a user to the database. The method prepares an SQL insert query with the user's details such as
      * username, password, userType, email, allowed rentals, current rentals, late fee, allowedToRent and deleted status.
      * The query is executed and the auto-generated user ID from the database is retrieved and returned. If the query
-     * execution fails, the method handles the SQLException and terminates the application.
+     * execution fails, the SQLException is thrown, so that the caller can tell a username or email taken in the
+     * meantime from a failure.
      *
      * @param user The user object to be saved.
-     * @return The auto-generated ID of the user from the database.
-     * Returns 0 if an SQLException occurs. This won't happen because the application will terminate first.
+     * @return The auto-generated ID of the user from the database, or 0 if none was returned.
+     * @throws SQLException if the user couldn't be saved.
      */
     private static int saveUser(User user)
+    throws SQLException
     {
-        try
+        //Execute query and get the generated userID, using try-with-resources
+        try (QueryResult queryResult = DataAccessManager.executePreparedQueryChecked(INSERT_USER, userParams(user),
+                Statement.RETURN_GENERATED_KEYS))
         {
-            //Prepare query
-            String query = "INSERT INTO users (username, password, userType, email, allowedRentals, " +
-                    "currentRentals, lateFee, allowedToRent, deleted) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-            String[] params = {
-                    user.getUsername(),
-                    user.getPassword(),
-                    user.getUserType().toString(),
-                    user.getEmail(),
-                    String.valueOf(user.getAllowedRentals()),
-                    String.valueOf(user.getCurrentRentals()),
-                    String.valueOf(user.getLateFee()),
-                    user.isAllowedToRent() ? "1" : "0",
-                    user.isDeleted() ? "1" : "0"
-            };
+            ResultSet generatedKeys = queryResult.getStatement().getGeneratedKeys();
+            if (generatedKeys.next())
+            {
+                return generatedKeys.getInt(1);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the exception explaining why a user was rejected as a duplicate by the database. The username and
+     * email are the only UNIQUE columns of users besides the userID, and MySQL names the key at the end of the
+     * message: "Duplicate entry '...' for key 'users.email'".
+     *
+     * @param e        the duplicate key error.
+     * @param username the username of the rejected user.
+     * @param email    the email of the rejected user.
+     * @return an InvalidEmailException if the email was taken, an InvalidNameException otherwise.
+     */
+    private static Exception duplicateAccount(SQLException e, String username, String email)
+    {
+        if (e.getMessage() != null && e.getMessage().endsWith("email'"))
+            return new InvalidEmailException("Email " + email + " already registered.", e);
+        return new InvalidNameException("Username " + username + " already taken.", e);
+    }
+
+    /**
+     * Returns the parameters of INSERT_USER for a User.
+     *
+     * @param user the user.
+     * @return the parameters.
+     */
+    private static Object[] userParams(User user)
+    {
+        return new Object[]{
+                user.getUsername(),
+                user.getPassword(),
+                user.getUserType(),
+                user.getEmail(),
+                user.getAllowedRentals(),
+                user.getCurrentRentals(),
+                user.getLateFee(),
+                user.isAllowedToRent(),
+                user.isDeleted()
+        };
+    }
 
-            //Execute query and get the generated userID, using try-with-resources
-            try (QueryResult queryResult =
-                         DataAccessManager.executePreparedQuery(query, params, Statement.RETURN_GENERATED_KEYS))
+    /**
+     * Creates many Users at once. Works like createNewUser, except that the users are constructed by the caller,
+     * and that they are saved using a batch, needing only a few round trips to the database no matter how many
+     * there are.
+     * <p>
+     * Users that are invalid, for example because their username or email is already taken (or used by an earlier
+     * user in the same list), are not created. The reason is reported in the returned result, keyed by the index of
+     * the user in the list, and the rest of the batch is still created.
+     *
+     * @param users the users to create, constructed with the creation constructor of User.
+     * @return the created users, with userIDs set, and the failures.
+     */
+    public static BatchCreationResult<User> createNewUserBatch(List<User> users)
+    {
+        BatchCreationResult<User> result = new BatchCreationResult<>();
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+
+        //Validate every user before saving any of them
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++)
+        {
+            User user = users.get(i);
+            try
             {
-                ResultSet generatedKeys = queryResult.getStatement().getGeneratedKeys();
-                if (generatedKeys.next())
-                {
-                    return generatedKeys.getInt(1);
-                }
+                checkNullUser(user);
+                validateUsername(user.getUsername());
+                validatePassword(user.getPassword());
+                validateEmail(user.getEmail());
+                validateUserType(user.getUserType());
+
+                //Compared like the registry compares them
+                String normalizedUsername = UserRegistry.normalize(user.getUsername());
+                String normalizedEmail = UserRegistry.normalize(user.getEmail());
+                if (batchUsernames.contains(normalizedUsername))
+                    throw new InvalidNameException("Username " + user.getUsername() + " already taken.");
+                if (batchEmails.contains(normalizedEmail))
+                    throw new InvalidEmailException("Email " + user.getEmail() + " already registered.");
+
+                batchUsernames.add(normalizedUsername);
+                batchEmails.add(normalizedEmail);
+                validIndexes.add(i);
+                rows.add(userParams(user));
+            }
+            catch (NullEntityException | InvalidEmailException | InvalidNameException | InvalidPasswordException |
+                   InvalidTypeException e)
+            {
+                result.addFailure(i, new CreationException("Failed to create User due to " +
+                        e.getClass().getName() + ": " + e.getMessage(), e));
             }
         }
-        catch (SQLException e)
+
+        //Save the users and set the generated userIDs
+        BatchResult batchResult = DataAccessManager.executePreparedBatch(INSERT_USER, rows, true);
+        for (int row = 0; row < validIndexes.size(); row++)
         {
-            ExceptionManager.HandleFatalException(e, "Failed to save user to database due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
+            int index = validIndexes.get(row);
+            if (!batchResult.isRowSuccessful(row))
+            {
+                result.addFailure(index, batchResult.getFailures().get(row));
+                continue;
+            }
+
+            User user = users.get(index);
+            try
+            {
+                user.setUserID(batchResult.getGeneratedKey(row));
+            }
+            catch (InvalidIDException e)
+            {
+                ExceptionManager.HandleFatalException(e, String.format("Failed to create User with username: " +
+                        "'%s' due to %s: %s", user.getUsername(), e.getClass().getName(), e.getMessage()));
+            }
+
+            //Need to remember to add to the registry
+            registry.register(user.getUserID(), user.getUsername(), user.getEmail());
+            usernameSuggestions.invalidate();
+            result.addCreated(user);
         }
 
-        //Not reachable, but needed for compilation
-        return 0;
+        return result;
     }
 
     /**
@@ -370,7 +444,7 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
             String query = getDeleted ?
                     "SELECT * FROM users WHERE userID = ?" :
                     "SELECT * FROM users WHERE userID = ? AND deleted = false";
-            String[] params = {String.valueOf(userID)};
+            Object[] params = {userID};
 
             //Execute the query and store the result in a ResultSet.
             try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params))
@@ -429,7 +503,7 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
 
             //Prepare a SQL command to set deleted to true for the specified user.
             String sql = "UPDATE users SET allowedToRent = 0, deleted = 1 WHERE userID = ?";
-            String[] params = {String.valueOf(userToDelete.getUserID())};
+            Object[] params = {userToDelete.getUserID()};
 
             //Execute the update.
             DataAccessManager.executePreparedUpdate(sql, params);
@@ -474,8 +548,8 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
 
             //Prepare a SQL command to set deleted to false for the specified user.
             String sql = "UPDATE users SET allowedToRent = ?, deleted = 0 WHERE userID = ?";
-            String[] params = {userToRecover.isAllowedToRent() ? "1" : "0",
-                    String.valueOf(userToRecover.getUserID())};
+            Object[] params = {userToRecover.isAllowedToRent(),
+                    userToRecover.getUserID()};
 
             //Execute the update.
             DataAccessManager.executePreparedUpdate(sql, params);
@@ -510,13 +584,9 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
             //Validate that userToDelete has no current rentals and no late fee. Throws InvalidUserRentalsException
             validateAllowedToDeleteUser(userToDelete); // and InvalidLateFeeException
 
-            //Retrieve the unique username and email
-            String username = userToDelete.getUsername();
-            String email = userToDelete.getEmail();
-
             //Prepare a SQL command to delete a userToDelete by userID.
             String sql = "DELETE FROM users WHERE userID = ?";
-            String[] params = {String.valueOf(userToDelete.getUserID())};
+            Object[] params = {userToDelete.getUserID()};
 
             //Execute the update.
             DataAccessManager.executePreparedUpdate(sql, params);
@@ -525,9 +595,9 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
             userToDelete.setDeleted(true);
             userToDelete.setAllowedToRent(false);
 
-            //Remove the deleted userToDelete's username and email from the lists
-            storedUsernames.remove(username);
-            registeredEmails.remove(email);
+            //Free the deleted userToDelete's username and email
+            registry.unregister(userToDelete.getUserID());
+            usernameSuggestions.invalidate();
         }
         catch (EntityNotFoundException | NullEntityException | InvalidIDException |
                InvalidRentalStatusChangeException | InvalidUserRentalsException | InvalidLateFeeException e)
@@ -550,44 +620,37 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
             //Validate email and username not taken
             validateUpdatableUser(updatedUser);
 
-            //Retrieve old username
-            User oldUser = getUserByID(updatedUser.getUserID());
-            String oldUsername = oldUser.getUsername();
-            String oldEmail = oldUser.getEmail();
-
-            //If username has been changed...
-            if (!updatedUser.getUsername().equals(oldUsername))
-            {
-                //... remove old username from and add new username to storedUsernames
-                storedUsernames.remove(oldUsername);
-                storedUsernames.add(updatedUser.getUsername());
-            }
-
-            //If email has been changed
-            if (!updatedUser.getEmail().equals(oldEmail))
-            {
-                //... remove old email from and add new email to registeredEmails
-                registeredEmails.remove(oldEmail);
-                registeredEmails.add(updatedUser.getEmail());
-            }
-
             //Prepare a SQL command to update a updatedUser's data by userID.
             String sql = "UPDATE users SET username = ?, password = ?, userType = ?, email = ?, allowedRentals = ?, " +
                     "currentRentals = ?, lateFee = ?, allowedToRent = ? WHERE userID = ?";
-            String[] params = {
+            Object[] params = {
                     updatedUser.getUsername(),
                     updatedUser.getPassword(),
-                    updatedUser.getUserType().toString(),
+                    updatedUser.getUserType(),
                     updatedUser.getEmail(),
-                    String.valueOf(updatedUser.getAllowedRentals()),
-                    String.valueOf(updatedUser.getCurrentRentals()),
-                    String.valueOf(updatedUser.getLateFee()),
-                    updatedUser.isAllowedToRent() ? "1" : "0",
-                    String.valueOf(updatedUser.getUserID())
+                    updatedUser.getAllowedRentals(),
+                    updatedUser.getCurrentRentals(),
+                    updatedUser.getLateFee(),
+                    updatedUser.isAllowedToRent(),
+                    updatedUser.getUserID()
             };
 
             //Execute the update.
-            DataAccessManager.executePreparedUpdate(sql, params);
+            DataAccessManager.executePreparedUpdateChecked(sql, params);
+
+            //Replace the old username and email in the registry, if they were changed
+            registry.register(updatedUser.getUserID(), updatedUser.getUsername(), updatedUser.getEmail());
+            usernameSuggestions.invalidate();
+        }
+        catch (SQLException e)
+        {
+            //Taken by another desk after validateUpdatableUser checked it
+            if (!DataAccessManager.isDuplicateKey(e))
+                ExceptionManager.HandleFatalException(e, "Failed to update user in database due to " +
+                        e.getClass().getName() + ": " + e.getMessage());
+            Exception cause = duplicateAccount(e, updatedUser.getUsername(), updatedUser.getEmail());
+            throw new UpdateException("Failed to update user in database due to " +
+                    cause.getClass().getName() + ": " + cause.getMessage(), cause);
         }
         catch (InvalidIDException | InvalidNameException | EntityNotFoundException | InvalidEmailException e)
         {
@@ -597,27 +660,42 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
     }
 
     private static void validateUpdatableUser(User updatedUser)
-    throws InvalidIDException, InvalidNameException, InvalidEmailException
+    throws InvalidNameException, InvalidEmailException
     {
-        User oldUser = getUserByID(updatedUser.getUserID());
+        //Taken by another user, the user's own username and email are fine
+        if (registry.isUsernameTaken(updatedUser.getUsername(), updatedUser.getUserID()))
+            throw new InvalidNameException("Cannot update username; username " + updatedUser.getUsername() +
+                    " already taken.");
+
+        if (registry.isEmailRegistered(updatedUser.getEmail(), updatedUser.getUserID()))
+            throw new InvalidEmailException("Cannot update email; email " + updatedUser.getEmail() +
+                    " already taken.");
+    }
 
-        //If username is different
-        if (!updatedUser.getUsername().equals(oldUser.getUsername()))
-            if (storedUsernames.contains(updatedUser.getUsername()))
-                throw new InvalidNameException("Cannot update username; username " + updatedUser.getUsername() +
-                        " already taken.");
+    //RENTAL COUNTERS --------------------------------------------------------------------------------------------------
+
+    /**
+     * Counts a returned rental for a user. The user is allowed to rent again, unless there's a late fee. New rentals
+     * are counted by the checkout statement in RentalHandler.
+     *
+     * @param userID the ID of the user.
+     * @return true if the rental was counted, false if the user doesn't exist or has no current rentals.
+     * @throws SQLException if the update failed, so that a surrounding transaction can roll back.
+     */
+    public static boolean decrementCurrentRentals(int userID)
+    throws SQLException
+    {
+        String sql = "UPDATE users SET currentRentals = currentRentals - 1, " +
+                "allowedToRent = (currentRentals < allowedRentals AND lateFee <= 0) " +
+                "WHERE userID = ? AND currentRentals > 0";
 
-        //If email is different
-        if (!updatedUser.getEmail().equals(oldUser.getEmail()))
-            if (registeredEmails.contains(updatedUser.getEmail()))
-                throw new InvalidEmailException("Cannot update email; email " + updatedUser.getEmail() +
-                        " already taken.");
+        return DataAccessManager.executePreparedUpdateChecked(sql, new Object[]{userID}) == 1;
     }
 
     //VALIDATION STUFF -----------------------------------------------------------------------------------------------
 
     /**
-     * Basic login method. Checks whether username exists in storedUsernames. If it does, check whether password
+     * Basic login method. Checks whether username exists in the registry. If it does, check whether password
      * matches that user's password.
      *
      * @param username the username attempting to login
@@ -635,11 +713,11 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
             checkEmptyPassword(password);
 
             //First check list
-            if (!storedUsernames.contains(username))
+            if (!registry.isUsernameTaken(username))
                 throw new EntityNotFoundException("User " + username + " does not exist.");
 
             String query = "SELECT password FROM users WHERE username = ?";
-            String[] params = {username};
+            Object[] params = {username};
 
             //Execute the query and check if the input password matches the retrieved password
             try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params))
@@ -717,7 +795,7 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
                     "SELECT * FROM users WHERE username = ?" :
                     "SELECT * FROM users WHERE username = ? AND deleted = false";
 
-            String[] params = {username};
+            Object[] params = {username};
 
             //Execute the query and store the result in a ResultSet
             try (QueryResult queryResult = DataAccessManager.executePreparedQuery(query, params))
@@ -811,16 +889,16 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
     }
 
     /**
-     * Checks if a given username exists in the list of usernames. If so, throws a UsernameTakenException
+     * Checks if a given username exists in the registry. If so, throws a UsernameTakenException
      * which must be handled.
      *
      * @param username the username.
-     * @throws InvalidNameException if the username already exists in storedTitles.
+     * @throws InvalidNameException if the username already exists in the registry, regardless of case.
      */
     private static void checkUsernameTaken(String username)
     throws InvalidNameException
     {
-        if (storedUsernames.contains(username))
+        if (registry.isUsernameTaken(username))
             throw new InvalidNameException("Username " + username + " already taken.");
     }
 
@@ -893,7 +971,7 @@ public class UserHandler //TODO-future rewrite Get-methods according to ItemHand
     private static void checkEmailTaken(String email)
     throws InvalidEmailException
     {
-        if (registeredEmails.contains(email))
+        if (registry.isEmailRegistered(email))
             throw new InvalidEmailException("Email is already registered.");
     }
 
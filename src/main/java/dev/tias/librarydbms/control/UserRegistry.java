@@ -0,0 +1,276 @@
+package dev.tias.librarydbms.control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A thread safe, in-memory registry of the usernames and emails of all users, used by the UserHandler to check
+ * whether a username is taken or an email registered without querying the database.
+ * <p>
+ * Usernames and emails are looked up without regard to case, in constant time. The users table compares them
+ * without regard to case as well, so "Bob" would be refused by its unique keys if "bob" exists.
+ * <p>
+ * Lookups take no lock. Changes are few, so they are made one at a time, which keeps the username, email and ID of
+ * a user in step with each other.
+ */
+public class UserRegistry
+{
+    /**
+     * The registered username and email of a user, as they were written.
+     */
+    private static class Account
+    {
+        private final int userID;
+        private final String username;
+        private final String email;
+
+        private Account(int userID, String username, String email)
+        {
+            this.userID = userID;
+            this.username = username;
+            this.email = email;
+        }
+    }
+
+    /**
+     * The contents of the registry, replaced as a whole on rebuild.
+     */
+    private static class Generation
+    {
+        private final Map<String, Account> byUsername;
+        private final Map<String, Account> byEmail;
+        private final Map<Integer, Account> byUserID;
+
+        private Generation(int expectedUsers)
+        {
+            int capacity = Math.max(16, expectedUsers * 4 / 3 + 1);
+            byUsername = new ConcurrentHashMap<>(capacity);
+            byEmail = new ConcurrentHashMap<>(capacity);
+            byUserID = new ConcurrentHashMap<>(capacity);
+        }
+
+        private void put(Account account)
+        {
+            byUsername.put(normalize(account.username), account);
+            byEmail.put(normalize(account.email), account);
+            byUserID.put(account.userID, account);
+        }
+
+        private void remove(Account account)
+        {
+            byUsername.remove(normalize(account.username), account);
+            byEmail.remove(normalize(account.email), account);
+            byUserID.remove(account.userID, account);
+        }
+    }
+
+    private volatile Generation generation = new Generation(0);
+
+    /**
+     * Returns the form a username or email is looked up by.
+     *
+     * @param name the username or email.
+     * @return the name in lower case.
+     */
+    public static String normalize(String name)
+    {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    //LOOKUPS ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns whether a username is taken, regardless of case.
+     *
+     * @param username the username.
+     * @return true if it's taken.
+     */
+    public boolean isUsernameTaken(String username)
+    {
+        return username != null && generation.byUsername.containsKey(normalize(username));
+    }
+
+    /**
+     * Returns whether a username is taken by any other user than the given one, regardless of case. A user changing
+     * the case of their own username doesn't count.
+     *
+     * @param username the username.
+     * @param userID   the ID of the user who wants the username.
+     * @return true if it's taken by someone else.
+     */
+    public boolean isUsernameTaken(String username, int userID)
+    {
+        if (username == null)
+            return false;
+        Account owner = generation.byUsername.get(normalize(username));
+        return owner != null && owner.userID != userID;
+    }
+
+    /**
+     * Returns whether an email is registered, regardless of case.
+     *
+     * @param email the email.
+     * @return true if it's registered.
+     */
+    public boolean isEmailRegistered(String email)
+    {
+        return email != null && generation.byEmail.containsKey(normalize(email));
+    }
+
+    /**
+     * Returns whether an email is registered to any other user than the given one, regardless of case.
+     *
+     * @param email  the email.
+     * @param userID the ID of the user who wants the email.
+     * @return true if it's registered to someone else.
+     */
+    public boolean isEmailRegistered(String email, int userID)
+    {
+        if (email == null)
+            return false;
+        Account owner = generation.byEmail.get(normalize(email));
+        return owner != null && owner.userID != userID;
+    }
+
+    /**
+     * Returns the number of registered users.
+     *
+     * @return the number of users.
+     */
+    public int size()
+    {
+        return generation.byUserID.size();
+    }
+
+    /**
+     * Returns the usernames, as they were written, ordered by userID.
+     *
+     * @return a copy of the usernames.
+     */
+    public List<String> getUsernames()
+    {
+        List<String> usernames = new ArrayList<>();
+        for (Account account : sortedAccounts())
+            usernames.add(account.username);
+        return Collections.unmodifiableList(usernames);
+    }
+
+    /**
+     * Returns the emails, as they were written, ordered by userID.
+     *
+     * @return a copy of the emails.
+     */
+    public List<String> getEmails()
+    {
+        List<String> emails = new ArrayList<>();
+        for (Account account : sortedAccounts())
+            emails.add(account.email);
+        return Collections.unmodifiableList(emails);
+    }
+
+    //CHANGES ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Registers a user, or replaces the username and email registered for the user.
+     *
+     * @param userID   the ID of the user.
+     * @param username the username.
+     * @param email    the email.
+     */
+    public synchronized void register(int userID, String username, String email)
+    {
+        Generation current = generation;
+        Account old = current.byUserID.get(userID);
+        if (old != null)
+            current.remove(old);
+        current.put(new Account(userID, username, email));
+    }
+
+    /**
+     * Unregisters a user, freeing the username and email.
+     *
+     * @param userID the ID of the user.
+     */
+    public synchronized void unregister(int userID)
+    {
+        Generation current = generation;
+        Account old = current.byUserID.get(userID);
+        if (old != null)
+            current.remove(old);
+    }
+
+    /**
+     * Replaces the contents of the registry with those of a builder, at once.
+     *
+     * @param builder the builder holding the new contents.
+     */
+    public synchronized void replace(Builder builder)
+    {
+        generation = builder.build();
+    }
+
+    /**
+     * Empties the registry.
+     */
+    public void clear()
+    {
+        replace(new Builder(0));
+    }
+
+    /**
+     * Fills a new registry, from a single pass over the users table. Not thread safe.
+     */
+    public static class Builder
+    {
+        private Generation generation;
+
+        /**
+         * @param expectedUsers the number of users, used to size the registry up front.
+         */
+        public Builder(int expectedUsers)
+        {
+            generation = new Generation(expectedUsers);
+        }
+
+        /**
+         * Adds a user.
+         *
+         * @param userID   the ID of the user.
+         * @param username the username.
+         * @param email    the email.
+         * @return this builder.
+         */
+        public Builder add(int userID, String username, String email)
+        {
+            generation.put(new Account(userID, username, email));
+            return this;
+        }
+
+        private Generation build()
+        {
+            if (generation == null)
+                throw new IllegalStateException("Builder already used.");
+            Generation built = generation;
+            generation = null;
+            return built;
+        }
+    }
+
+    private List<Account> sortedAccounts()
+    {
+        List<Account> accounts = new ArrayList<>(generation.byUserID.values());
+        accounts.sort(Comparator.comparingInt(account -> account.userID));
+        return accounts;
+    }
+}
@@ -0,0 +1,178 @@
+package dev.tias.librarydbms.service.db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * The result of a batch executed by {@link DataAccessManager#executePreparedBatch}. Holds one update count and
+ * one generated key per row, in the same order as the rows were given, as well as the exception for every row
+ * that failed.
+ * <p>
+ * Failed rows have the update count Statement.EXECUTE_FAILED. Rows without a generated key, either because they
+ * failed or because keys weren't requested, have the key 0.
+ */
+public class BatchResult
+{
+    private final int[] updateCounts;
+    private final int[] generatedKeys;
+    private final Map<Integer, SQLException> failures = new TreeMap<>();
+
+    /**
+     * Creates a result for a given number of rows, where no row has been executed yet.
+     *
+     * @param rowCount the number of rows in the batch.
+     */
+    BatchResult(int rowCount)
+    {
+        this.updateCounts = new int[rowCount];
+        this.generatedKeys = new int[rowCount];
+        Arrays.fill(updateCounts, Statement.EXECUTE_FAILED);
+    }
+
+    /**
+     * Marks a row as executed.
+     *
+     * @param row         the index of the row.
+     * @param updateCount the update count of the row, may be Statement.SUCCESS_NO_INFO.
+     */
+    void setSucceeded(int row, int updateCount)
+    {
+        updateCounts[row] = updateCount;
+        failures.remove(row);
+    }
+
+    /**
+     * Marks a row as failed.
+     *
+     * @param row   the index of the row.
+     * @param cause the exception the row failed with.
+     */
+    void setFailed(int row, SQLException cause)
+    {
+        updateCounts[row] = Statement.EXECUTE_FAILED;
+        generatedKeys[row] = 0;
+        failures.put(row, cause);
+    }
+
+    /**
+     * Sets the generated key of a row.
+     *
+     * @param row the index of the row.
+     * @param key the key.
+     */
+    void setGeneratedKey(int row, int key)
+    {
+        generatedKeys[row] = key;
+    }
+
+    /**
+     * Returns the number of rows in the batch.
+     *
+     * @return the number of rows.
+     */
+    public int getRowCount()
+    {
+        return updateCounts.length;
+    }
+
+    /**
+     * Returns the update count of a row. Statement.SUCCESS_NO_INFO means the row succeeded, but the driver didn't
+     * report how many rows it affected, which is the case when MySQL rewrites the batch into a multi-row statement.
+     *
+     * @param row the index of the row.
+     * @return the update count, or Statement.EXECUTE_FAILED if the row failed.
+     */
+    public int getUpdateCount(int row)
+    {
+        return updateCounts[row];
+    }
+
+    /**
+     * Returns a copy of the update counts of all rows.
+     *
+     * @return the update counts.
+     */
+    public int[] getUpdateCounts()
+    {
+        return updateCounts.clone();
+    }
+
+    /**
+     * Returns the key generated for a row.
+     *
+     * @param row the index of the row.
+     * @return the key, or 0 if the row failed or didn't generate a key.
+     */
+    public int getGeneratedKey(int row)
+    {
+        return generatedKeys[row];
+    }
+
+    /**
+     * Returns a copy of the generated keys of all rows.
+     *
+     * @return the generated keys.
+     */
+    public int[] getGeneratedKeys()
+    {
+        return generatedKeys.clone();
+    }
+
+    /**
+     * Returns whether a given row was executed successfully.
+     *
+     * @param row the index of the row.
+     * @return true if the row succeeded, otherwise false.
+     */
+    public boolean isRowSuccessful(int row)
+    {
+        return updateCounts[row] != Statement.EXECUTE_FAILED;
+    }
+
+    /**
+     * Returns the exceptions of all failed rows, keyed by row index and in order.
+     *
+     * @return an unmodifiable map of failures.
+     */
+    public Map<Integer, SQLException> getFailures()
+    {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Returns whether every row in the batch succeeded.
+     *
+     * @return true if no rows failed, otherwise false.
+     */
+    public boolean isSuccessful()
+    {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Returns the number of rows that succeeded.
+     *
+     * @return the number of successful rows.
+     */
+    public int getSuccessCount()
+    {
+        return updateCounts.length - failures.size();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BatchResult{rows=" + updateCounts.length + ", succeeded=" + getSuccessCount() +
+                ", failed=" + failures.size() + "}";
+    }
+}
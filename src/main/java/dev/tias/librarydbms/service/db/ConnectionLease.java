@@ -0,0 +1,79 @@
+package dev.tias.librarydbms.service.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A Connection borrowed from a {@link ConnectionPool}. Closing the lease returns the connection to the pool,
+ * it does not close the connection itself.
+ * <p>
+ * Implements {@link AutoCloseable} in order to be used with try-with-resources.
+ */
+public class ConnectionLease implements AutoCloseable
+{
+    private final ConnectionPool pool;
+    private final ConnectionPool.LeaseState state;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    ConnectionLease(ConnectionPool pool, ConnectionPool.LeaseState state)
+    {
+        this.pool = pool;
+        this.state = state;
+    }
+
+    /**
+     * Returns the leased connection. It must not be used after the lease has been closed.
+     *
+     * @return the leased connection.
+     */
+    public Connection getConnection()
+    {
+        if (released.get())
+            throw new IllegalStateException("Connection lease has already been released.");
+        return state.getConnection();
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL from the statement cache of the leased connection.
+     * The statement must be handed back with releaseStatement, not closed.
+     *
+     * @param sql                 the SQL to prepare.
+     * @param returnGeneratedKeys whether the statement should return generated keys.
+     * @return the statement.
+     * @throws SQLException if the statement couldn't be prepared.
+     */
+    public PreparedStatement prepareStatement(String sql, boolean returnGeneratedKeys)
+    throws SQLException
+    {
+        getConnection(); //Fails if released
+        return state.getStatementCache().acquire(sql, returnGeneratedKeys);
+    }
+
+    /**
+     * Hands back a statement returned by prepareStatement.
+     *
+     * @param statement the statement.
+     */
+    public void releaseStatement(PreparedStatement statement)
+    {
+        state.getStatementCache().release(statement);
+    }
+
+    /**
+     * Returns the connection to the pool. Closing a lease more than once has no effect.
+     */
+    @Override
+    public void close()
+    {
+        if (released.compareAndSet(false, true))
+            pool.release(state);
+    }
+}
@@ -0,0 +1,750 @@
+package dev.tias.librarydbms.service.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A bounded pool of JDBC Connections, handed out as {@link ConnectionLease}s.
+ * <p>
+ * The pool keeps at least minSize connections open and never opens more than maxSize. Idle connections are
+ * evicted in the background once they have been idle for longer than the idle timeout, as long as the pool stays
+ * at or above minSize. Connections that have been idle for longer than the validation interval are validated
+ * before being handed out, and broken connections are replaced transparently.
+ * <p>
+ * Leases are thread-affine and reentrant: a thread that already holds a lease gets the same connection again
+ * when it asks for another one. The handlers regularly run queries while iterating over the results of another
+ * query, and this way such nested calls neither need a second connection nor risk starving the pool.
+ * <p>
+ * A pool can also be created around a single, already open Connection. This is what
+ * {@link DataAccessManager#setConnection(Connection)} uses, and means that everything goes through that one
+ * connection, one thread at a time.
+ */
+public class ConnectionPool
+{
+    /**
+     * Opens new connections for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory
+    {
+        Connection create()
+        throws SQLException;
+    }
+
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 100;
+
+    //How long other threads wait for the one connection in single-connection mode
+    private static final long SINGLE_CONNECTION_BORROW_TIMEOUT_MILLIS = 60 * 1000;
+
+    //Settings
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long borrowTimeoutNanos;
+    private final long validationIntervalNanos;
+    private final int validationTimeoutSeconds;
+    private final boolean singleConnection;
+    private volatile int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+
+    //Most recently returned connections are kept first, so the ones at the end are the ones to evict
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReturned = lock.newCondition();
+    private final ThreadLocal<LeaseState> currentLease = new ThreadLocal<>();
+    private int totalConnections = 0;
+    private int activeConnections = 0;
+    private boolean closed = false;
+
+    //The database all connections should be using, null means whatever the connection was opened with
+    private volatile String catalog;
+
+    private ScheduledExecutorService evictor;
+
+    //Statistics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+
+    /**
+     * Creates a new pool. No connections are opened until {@link #start()} is called.
+     *
+     * @param factory                  opens new connections.
+     * @param minSize                  the number of connections to keep open, even when idle.
+     * @param maxSize                  the maximum number of open connections.
+     * @param idleTimeoutMillis        how long a connection above minSize may stay idle before being closed.
+     * @param borrowTimeoutMillis      how long to wait for a connection before giving up.
+     * @param validationIntervalMillis connections idle for longer than this are validated before being leased.
+     * @param validationTimeoutSeconds how long to wait for a validation to answer.
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long idleTimeoutMillis,
+                          long borrowTimeoutMillis, long validationIntervalMillis, int validationTimeoutSeconds)
+    {
+        this(factory, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis, validationIntervalMillis,
+                validationTimeoutSeconds, false);
+    }
+
+    private ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long idleTimeoutMillis,
+                           long borrowTimeoutMillis, long validationIntervalMillis, int validationTimeoutSeconds,
+                           boolean singleConnection)
+    {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Pool max size must be at least 1, was " + maxSize);
+        if (minSize < 0 || minSize > maxSize)
+            throw new IllegalArgumentException("Pool min size must be between 0 and " + maxSize + ", was " +
+                    minSize);
+
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(validationIntervalMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.singleConnection = singleConnection;
+    }
+
+    /**
+     * Creates a pool using the settings in a DatabaseConfig. The pool is not started.
+     *
+     * @param config the config to use.
+     * @return the new pool.
+     */
+    public static ConnectionPool fromConfig(DatabaseConfig config)
+    {
+        ConnectionPool pool = new ConnectionPool(() -> DatabaseConnection.openConnection(config),
+                config.getPoolMinSize(), config.getPoolMaxSize(), config.getIdleTimeoutMillis(),
+                config.getBorrowTimeoutMillis(), config.getValidationIntervalMillis(),
+                config.getValidationTimeoutSeconds());
+        pool.setStatementCacheSize(config.getStatementCacheSize());
+        return pool;
+    }
+
+    /**
+     * Creates a started pool around a single, already open connection. The connection is never validated,
+     * evicted or replaced, and is closed when the pool is closed.
+     *
+     * @param connection the connection to hand out.
+     * @return the new pool.
+     */
+    public static ConnectionPool singleConnection(Connection connection)
+    {
+        Objects.requireNonNull(connection, "connection");
+        ConnectionPool pool = new ConnectionPool(() -> connection, 1, 1, 0, SINGLE_CONNECTION_BORROW_TIMEOUT_MILLIS,
+                0, 0, true);
+        pool.idleConnections.add(pool.newPooledConnection(connection));
+        pool.totalConnections = 1;
+        pool.createdCount.incrementAndGet();
+        return pool;
+    }
+
+    /**
+     * Opens minSize connections and starts the background eviction of idle connections.
+     *
+     * @throws SQLException if a connection could not be opened.
+     */
+    public void start()
+    throws SQLException
+    {
+        if (singleConnection)
+            return;
+
+        fillToMinimum();
+
+        if (idleTimeoutNanos > 0)
+        {
+            long intervalMillis = Math.max(1000, TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) / 2);
+            evictor = Executors.newSingleThreadScheduledExecutor(runnable ->
+            {
+                Thread thread = new Thread(runnable, "connection-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            evictor.scheduleWithFixedDelay(this::evictIdleConnections, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Leases a connection. If the calling thread already holds a lease, the same connection is leased again.
+     * Otherwise an idle connection is handed out, a new one is opened if the pool isn't full, or the call waits
+     * for a connection to be returned, at most for the borrow timeout.
+     * <p>
+     * The lease must be closed when done, preferably using try-with-resources.
+     *
+     * @return the new lease.
+     * @throws SQLException if no connection could be leased in time, or a connection could not be opened.
+     */
+    public ConnectionLease lease()
+    throws SQLException
+    {
+        LeaseState state = currentLease.get();
+        if (state != null && state.acquireNested())
+            return new ConnectionLease(this, state);
+
+        state = new LeaseState(acquire(), Thread.currentThread());
+        currentLease.set(state);
+        return new ConnectionLease(this, state);
+    }
+
+    /**
+     * Returns the connection currently leased by the calling thread, or null if it holds no lease.
+     *
+     * @return the leased connection or null.
+     */
+    public Connection getLeasedConnection()
+    {
+        LeaseState state = currentLease.get();
+        return (state != null && state.isHeld()) ? state.pooled.connection : null;
+    }
+
+    /**
+     * Called by {@link ConnectionLease#close()}. Returns the connection to the pool once the outermost lease
+     * has been closed.
+     *
+     * @param state the state of the closed lease.
+     */
+    void release(LeaseState state)
+    {
+        if (!state.releaseNested())
+            return;
+
+        //Only the owner can clear its own ThreadLocal, other threads will see that the state is no longer held
+        if (state.owner == Thread.currentThread())
+            currentLease.remove();
+
+        giveBack(state.pooled);
+    }
+
+    /**
+     * Sets the database that all connections in the pool should be using. Idle connections switch over the next
+     * time they are leased.
+     *
+     * @param catalog the name of the database.
+     */
+    public void setCatalog(String catalog)
+    {
+        this.catalog = catalog;
+    }
+
+    public String getCatalog()
+    {
+        return catalog;
+    }
+
+    /**
+     * Sets how many prepared statements each connection keeps cached. Only affects connections opened after
+     * the call, so it should be called before start.
+     *
+     * @param statementCacheSize the number of statements per connection, 0 disables caching.
+     */
+    public void setStatementCacheSize(int statementCacheSize)
+    {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Closes the pool and all idle connections. Connections that are currently leased are closed as soon as
+     * they are returned.
+     */
+    public void close()
+    {
+        List<PooledConnection> toClose;
+
+        lock.lock();
+        try
+        {
+            if (closed)
+                return;
+            closed = true;
+            toClose = new ArrayList<>(idleConnections);
+            totalConnections -= idleConnections.size();
+            idleConnections.clear();
+            connectionReturned.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (evictor != null)
+            evictor.shutdownNow();
+
+        toClose.forEach(ConnectionPool::closeQuietly);
+    }
+
+    public boolean isClosed()
+    {
+        lock.lock();
+        try
+        {
+            return closed;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public boolean isSingleConnection()
+    {
+        return singleConnection;
+    }
+
+    /**
+     * Takes a snapshot of the current state and counters of the pool.
+     *
+     * @return the statistics.
+     */
+    public PoolStatistics getStatistics()
+    {
+        int active;
+        int idle;
+        int total;
+
+        lock.lock();
+        try
+        {
+            active = activeConnections;
+            idle = idleConnections.size();
+            total = totalConnections;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        return new PoolStatistics(active, idle, total, minSize, maxSize, borrowCount.get(), waitCount.get(),
+                totalWaitNanos.get(), maxWaitNanos.get(), timeoutCount.get(), createdCount.get(),
+                evictedCount.get(), validationFailureCount.get());
+    }
+
+    //HELPERS ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Takes an idle connection, opens a new one or waits for one to be returned. Validation and opening of
+     * connections happen outside the lock, so a slow server doesn't block threads returning connections.
+     */
+    private PooledConnection acquire()
+    throws SQLException
+    {
+        long start = System.nanoTime();
+        long deadline = start + borrowTimeoutNanos;
+        boolean waited = false;
+
+        while (true)
+        {
+            PooledConnection candidate = null;
+            boolean createNew = false;
+
+            lock.lock();
+            try
+            {
+                while (candidate == null && !createNew)
+                {
+                    if (closed)
+                        throw new SQLException("Connection pool is closed.");
+
+                    candidate = idleConnections.pollFirst();
+                    if (candidate != null)
+                        break;
+
+                    if (totalConnections < maxSize)
+                    {
+                        totalConnections++;
+                        createNew = true;
+                    }
+                    else
+                    {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0)
+                        {
+                            timeoutCount.incrementAndGet();
+                            throw new SQLTimeoutException("Timed out after " +
+                                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) +
+                                    " ms waiting for a connection, all " + maxSize + " are in use.");
+                        }
+                        waited = true;
+                        connectionReturned.awaitNanos(remaining);
+                    }
+                }
+                activeConnections++;
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection.", e);
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            if (createNew)
+            {
+                try
+                {
+                    candidate = newPooledConnection(factory.create());
+                    createdCount.incrementAndGet();
+                }
+                catch (SQLException | RuntimeException e)
+                {
+                    discard(null);
+                    throw e;
+                }
+            }
+            else if (!isUsable(candidate))
+            {
+                validationFailureCount.incrementAndGet();
+                discard(candidate);
+                continue;
+            }
+
+            try
+            {
+                switchCatalog(candidate);
+            }
+            catch (SQLException e)
+            {
+                discard(candidate);
+                throw e;
+            }
+
+            recordBorrow(waited, System.nanoTime() - start);
+            return candidate;
+        }
+    }
+
+    /**
+     * Puts a connection back into the pool, or closes it if it's broken or the pool has been closed.
+     */
+    private void giveBack(PooledConnection pooled)
+    {
+        if (!singleConnection && !resetForReuse(pooled))
+        {
+            discard(pooled);
+            return;
+        }
+
+        pooled.lastUsedNanos = System.nanoTime();
+        boolean closeIt = false;
+
+        lock.lock();
+        try
+        {
+            activeConnections--;
+            if (closed)
+            {
+                totalConnections--;
+                closeIt = true;
+            }
+            else
+            {
+                idleConnections.addFirst(pooled);
+                connectionReturned.signal();
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (closeIt)
+            closeQuietly(pooled);
+    }
+
+    /**
+     * Makes sure a returned connection doesn't bring an unfinished transaction with it into its next lease.
+     * Returns false if the connection turned out to be broken.
+     */
+    private static boolean resetForReuse(PooledConnection pooled)
+    {
+        try
+        {
+            if (pooled.connection.isClosed())
+                return false;
+            if (!pooled.connection.getAutoCommit())
+            {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            return true;
+        }
+        catch (SQLException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Removes a connection that was counted as active from the pool. Passing null only fixes the counters,
+     * which is used when opening a new connection failed.
+     */
+    private void discard(PooledConnection pooled)
+    {
+        lock.lock();
+        try
+        {
+            activeConnections--;
+            totalConnections--;
+            connectionReturned.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if (pooled != null)
+            closeQuietly(pooled);
+    }
+
+    /**
+     * Connections that have been used recently are trusted, others are validated with a round trip to the server.
+     */
+    private boolean isUsable(PooledConnection pooled)
+    {
+        if (singleConnection)
+            return true;
+
+        try
+        {
+            if (System.nanoTime() - pooled.lastUsedNanos < validationIntervalNanos)
+                return !pooled.connection.isClosed();
+            return pooled.connection.isValid(validationTimeoutSeconds);
+        }
+        catch (SQLException e)
+        {
+            return false;
+        }
+    }
+
+    private void switchCatalog(PooledConnection pooled)
+    throws SQLException
+    {
+        String wanted = catalog;
+        if (wanted != null && !wanted.equals(pooled.catalog))
+        {
+            pooled.connection.setCatalog(wanted);
+            pooled.catalog = wanted;
+        }
+    }
+
+    private void recordBorrow(boolean waited, long waitNanos)
+    {
+        borrowCount.incrementAndGet();
+        if (waited)
+        {
+            waitCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+    }
+
+    /**
+     * Closes connections that have been idle for too long, as long as the pool stays at or above minSize,
+     * then opens new connections if the pool has fallen below minSize.
+     */
+    private void evictIdleConnections()
+    {
+        List<PooledConnection> toClose = new ArrayList<>();
+        long now = System.nanoTime();
+
+        lock.lock();
+        try
+        {
+            Iterator<PooledConnection> oldestFirst = idleConnections.descendingIterator();
+            while (oldestFirst.hasNext() && totalConnections > minSize)
+            {
+                PooledConnection pooled = oldestFirst.next();
+                if (now - pooled.lastUsedNanos < idleTimeoutNanos)
+                    break;
+                oldestFirst.remove();
+                totalConnections--;
+                toClose.add(pooled);
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        evictedCount.addAndGet(toClose.size());
+        toClose.forEach(ConnectionPool::closeQuietly);
+
+        try
+        {
+            fillToMinimum();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Connection pool couldn't refill to minimum size: " + e.getMessage());
+        }
+    }
+
+    private void fillToMinimum()
+    throws SQLException
+    {
+        while (true)
+        {
+            lock.lock();
+            try
+            {
+                if (closed || totalConnections >= minSize)
+                    return;
+                totalConnections++;
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            PooledConnection pooled;
+            try
+            {
+                pooled = newPooledConnection(factory.create());
+                createdCount.incrementAndGet();
+            }
+            catch (SQLException | RuntimeException e)
+            {
+                lock.lock();
+                try
+                {
+                    totalConnections--;
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+                throw e;
+            }
+
+            lock.lock();
+            try
+            {
+                idleConnections.addLast(pooled);
+                connectionReturned.signal();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
+
+    private PooledConnection newPooledConnection(Connection connection)
+    {
+        return new PooledConnection(connection, new PreparedStatementCache(connection, statementCacheSize));
+    }
+
+    private static void closeQuietly(PooledConnection pooled)
+    {
+        pooled.statementCache.clear();
+        try
+        {
+            pooled.connection.close();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    //INNER CLASSES ----------------------------------------------------------------------------------------------------
+
+    /**
+     * A connection owned by the pool, along with what the pool needs to know about it.
+     */
+    private static class PooledConnection
+    {
+        private final Connection connection;
+        private final PreparedStatementCache statementCache;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private String catalog;
+
+        private PooledConnection(Connection connection, PreparedStatementCache statementCache)
+        {
+            this.connection = connection;
+            this.statementCache = statementCache;
+        }
+    }
+
+    /**
+     * Keeps track of how many nested leases a thread holds on its connection.
+     */
+    static class LeaseState
+    {
+        private final PooledConnection pooled;
+        private final Thread owner;
+        private final AtomicInteger depth = new AtomicInteger(1);
+
+        private LeaseState(PooledConnection pooled, Thread owner)
+        {
+            this.pooled = pooled;
+            this.owner = owner;
+        }
+
+        private boolean isHeld()
+        {
+            return depth.get() > 0;
+        }
+
+        /**
+         * Adds a nested lease, unless the outermost lease has already been released.
+         */
+        private boolean acquireNested()
+        {
+            int current;
+            do
+            {
+                current = depth.get();
+                if (current <= 0)
+                    return false;
+            }
+            while (!depth.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        /**
+         * Removes a lease, returns true if it was the outermost one.
+         */
+        private boolean releaseNested()
+        {
+            return depth.decrementAndGet() == 0;
+        }
+
+        Connection getConnection()
+        {
+            return pooled.connection;
+        }
+
+        PreparedStatementCache getStatementCache()
+        {
+            return pooled.statementCache;
+        }
+    }
+}
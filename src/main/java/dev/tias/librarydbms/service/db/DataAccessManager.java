@@ -4,14 +4,19 @@ import dev.tias.librarydbms.LibraryManager;
 import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Mattias Fridsén
@@ -21,23 +26,50 @@ import java.sql.SQLException;
  * @date 4/5/2023
  * <p>
  * This class is responsible for handling a database by performing SQL Queries and SQL Commands on the database.
- * To make the code more readable it was decided to let this class retrieve and store a Connection from the
- * DatabaseConnection class.
+ * Connections are leased from a {@link ConnectionPool}, which lets several threads run queries and updates in
+ * parallel. Every method leases a connection for as long as it needs one, and returns it when done.
  * <p>
  * This class is only responsible for general operations. Specific operations are delegated to specific Handler classes,
  * such as {@link UserHandler}.   //TODO-comment rework
  */
 public class DataAccessManager
 {
-    //The DataAccessManager needs a connection to perform updates and queries.
-    private static Connection connection;
+    //The number of rows sent to the server at a time by executePreparedBatch, unless told otherwise
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+    //The fetch size that makes MySQL Connector/J stream rows one at a time instead of reading them all up front
+    public static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    //The SQLState and MySQL error code of an INSERT or UPDATE that breaks a UNIQUE constraint
+    private static final String INTEGRITY_SQL_STATE = "23000";
+    private static final int DUPLICATE_ENTRY_ERROR_CODE = 1062;
+
+    //The DataAccessManager leases connections from a pool to perform updates and queries.
+    //Volatile since handlers are called from several threads at once.
+    private static volatile ConnectionPool connectionPool;
+    //The connection in use when running in single-connection mode, otherwise null
+    private static volatile Connection singleConnection;
+
+    //The number of statements executed on the server, see getRoundTripCount
+    private static final AtomicLong roundTrips = new AtomicLong();
+
+    //Run whenever the data may have changed without the handlers knowing, see addCacheInvalidator
+    private static final List<Runnable> cacheInvalidators = new CopyOnWriteArrayList<>();
 
     //Print commands being run, default = not
     private static boolean verbose = false;
 
+    //The chunk size used by executePreparedBatch when none is given, read from config.json by setup
+    private static int batchChunkSize = DEFAULT_BATCH_CHUNK_SIZE;
+
+    //The number of statements per batch and transaction when executing SQL scripts, read from config.json by setup
+    private static int scriptChunkSize = SQLScriptExecutor.DEFAULT_CHUNK_SIZE;
+
     /**
-     * Sets up the DatabaseConnection, then checks if the database exists. If not, calls createDatabase to
-     * create it.
+     * Sets up the connection pool, then prepares the database according to the startup mode in config.json.
+     * <p>
+     * In RECREATE mode, the default, the database is dropped and created again from the SQL scripts. PERSISTENT
+     * mode is opt-in, by setting "startupMode" to "PERSISTENT" in config.json: an existing database is reused as it
+     * is, and only migrations that haven't been applied yet are run, so startup time doesn't grow with the amount of
+     * data. See {@link DatabaseConfig.StartupMode}.
      * TODO-future rework and test
      */
     public static void setup(boolean verbose)
@@ -46,25 +78,40 @@ public class DataAccessManager
         {
             //Set verbosity
             DataAccessManager.verbose = verbose;
+            long start = System.nanoTime();
 
             //Connect to database
-            connection = DatabaseConnection.setup();
+            DatabaseConfig config = DatabaseConfig.load();
+            batchChunkSize = config.getBatchChunkSize();
+            scriptChunkSize = config.getScriptChunkSize();
+            QueryStatistics.setSlowQueryThresholdMillis(config.getSlowQueryThresholdMillis());
+            ConnectionPool pool = ConnectionPool.fromConfig(config);
+            pool.start();
+            setConnectionPool(pool);
+            MetaDataRetriever.configure(config.getMetaDataSnapshotPath() == null ? null :
+                    Paths.get(config.getMetaDataSnapshotPath()));
+
+            if (config.getStartupMode() == DatabaseConfig.StartupMode.PERSISTENT &&
+                    databaseExists(LibraryManager.databaseName))
+            {
+                useDatabase(LibraryManager.databaseName);
+                migrateDatabase();
+            }
+            else
+            {
+                executePreparedUpdate("drop database if exists " + LibraryManager.databaseName, null);
+                createDatabase(LibraryManager.databaseName);
+            }
 
-            executePreparedUpdate("drop database if exists " + LibraryManager.databaseName, null);
-            createDatabase(LibraryManager.databaseName);
+            if (verbose)
+                System.out.println("Database ready in " + config.getStartupMode() + " mode after " +
+                        (System.nanoTime() - start) / 1_000_000 + " ms.");
         }
-        catch (SQLException | ClassNotFoundException e)
+        catch (SQLException e)
         {
             ExceptionManager.HandleFatalException(e, "Failed to setup databse due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
-
-        /*
-        if (!databaseExists(LibraryManager.databaseName)) {
-            createDatabase(LibraryManager.databaseName);
-        } else executeCommand("use " + LibraryManager.databaseName);
-        */
-
     }
 
     /**
@@ -76,7 +123,7 @@ public class DataAccessManager
     public static boolean databaseExists(String databaseName)
     {
         String query = "SELECT SCHEMA_NAME FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME = ?";
-        String[] params = {databaseName.toLowerCase()};
+        Object[] params = {databaseName.toLowerCase()};
 
         try
         {
@@ -104,10 +151,232 @@ public class DataAccessManager
         //Create DB
         executePreparedUpdate("create database " + databaseName, null);
         //Use DB
-        executePreparedUpdate("use " + databaseName, null);
+        useDatabase(databaseName);
         //Fill DB with tables and data
         executeSQLCommandsFromFile("src/main/resources/sql/create_tables.sql");
         executeSQLCommandsFromFile("src/main/resources/sql/data/test_data.sql");
+        //Bring the new schema up to the latest version
+        migrateDatabase();
+    }
+
+    /**
+     * Applies the migrations that haven't been applied to the database in use, see {@link SchemaMigrator}.
+     */
+    public static void migrateDatabase()
+    {
+        try
+        {
+            new SchemaMigrator(verbose).migrate();
+            invalidateCaches();
+        }
+        catch (IOException | SQLException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to migrate database due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Makes every connection in the pool use the given database, starting with the one leased by the calling
+     * thread, if any.
+     *
+     * @param databaseName the name of the database.
+     */
+    public static void useDatabase(String databaseName)
+    {
+        executePreparedUpdate("use " + databaseName, null);
+        connectionPool.setCatalog(databaseName);
+    }
+
+    /**
+     * Leases a connection from the pool. If the calling thread already holds a lease, it gets the same connection
+     * again, so nested calls on one thread never compete for connections.
+     * <p>
+     * The lease must be closed when done, which returns the connection to the pool. Use try-with-resources.
+     *
+     * @return the lease.
+     * @throws SQLException if no connection could be leased.
+     */
+    public static ConnectionLease leaseConnection()
+    throws SQLException
+    {
+        checkConnection();
+        return connectionPool.lease();
+    }
+
+    /**
+     * Work done in a transaction, see inTransaction.
+     *
+     * @param <T> the type of result.
+     * @param <E> the type of exception the work may throw, other than unchecked exceptions.
+     */
+    @FunctionalInterface
+    public interface UnitOfWork<T, E extends Exception>
+    {
+        T run()
+        throws E;
+    }
+
+    /**
+     * Begins a transaction on the connection leased by the calling thread, or joins the one it's already in.
+     * Everything the thread runs through the DataAccessManager until the transaction is closed is part of it. See
+     * {@link Transaction}, and inTransaction for the common case.
+     *
+     * @return the transaction, which must be closed. Use try-with-resources.
+     * @throws SQLException if no connection could be leased or auto-commit couldn't be turned off.
+     */
+    public static Transaction beginTransaction()
+    throws SQLException
+    {
+        return new Transaction(leaseConnection());
+    }
+
+    /**
+     * Runs work as one transaction: the updates it makes are committed at once when it returns, and rolled back if
+     * it throws. Operations of several statements, such as creating an item and its literature row, then cost one
+     * commit instead of one per statement, and never leave half their changes behind.
+     * <p>
+     * Work done while the calling thread is already in a transaction is part of that transaction instead, and is
+     * committed or rolled back along with it.
+     *
+     * @param work the work.
+     * @param <T>  the type of result.
+     * @param <E>  the type of exception the work may throw.
+     * @return the result of the work.
+     * @throws SQLException if the transaction couldn't be started or committed.
+     * @throws E            if the work threw it, after the transaction has been rolled back.
+     */
+    public static <T, E extends Exception> T inTransaction(UnitOfWork<T, E> work)
+    throws SQLException, E
+    {
+        try (Transaction transaction = beginTransaction())
+        {
+            T result = work.run();
+            transaction.commit();
+            return result;
+        }
+    }
+
+    /**
+     * Returns whether the calling thread is in a transaction, which a transaction begun now would join. A statement
+     * failing in a way that makes MySQL roll back, such as a deadlock, has then undone the work of the whole
+     * transaction, and can't simply be retried on its own.
+     *
+     * @return true if the thread is in a transaction.
+     */
+    public static boolean isInTransaction()
+    {
+        return Transaction.isActive();
+    }
+
+    /**
+     * Runs an action once the transaction the calling thread is in has been committed, or at once if it isn't in
+     * one. Meant for changes to in-memory state, such as the indexes of the handlers, that would be wrong if the
+     * transaction they depend on were rolled back. See {@link Transaction#afterCommit(Runnable)}.
+     *
+     * @param action the action.
+     */
+    public static void afterCommit(Runnable action)
+    {
+        Transaction.runAfterCommit(action);
+    }
+
+    /**
+     * Returns how many prepared statements have been served from the statement caches, summed over all
+     * connections. See also getStatementCacheMisses.
+     *
+     * @return the number of cache hits.
+     */
+    public static long getStatementCacheHits()
+    {
+        return PreparedStatementCache.getTotalHits();
+    }
+
+    /**
+     * Returns how many prepared statements had to be prepared because they weren't cached, summed over all
+     * connections.
+     *
+     * @return the number of cache misses.
+     */
+    public static long getStatementCacheMisses()
+    {
+        return PreparedStatementCache.getTotalMisses();
+    }
+
+    /**
+     * Returns how many prepared queries, updates, batches and transaction statements have been sent to the server
+     * since startup, over all threads. Compare the count before and after a call to find out how many round trips it made.
+     *
+     * @return the number of round trips.
+     */
+    public static long getRoundTripCount()
+    {
+        return roundTrips.get();
+    }
+
+    /**
+     * Returns whether an update failed because it would have stored a value that a UNIQUE column already holds,
+     * such as a barcode or username registered at the same time by another desk.
+     *
+     * @param e the exception thrown by the update.
+     * @return true if the exception is a duplicate key error.
+     */
+    public static boolean isDuplicateKey(SQLException e)
+    {
+        return INTEGRITY_SQL_STATE.equals(e.getSQLState()) && e.getErrorCode() == DUPLICATE_ENTRY_ERROR_CODE;
+    }
+
+    /**
+     * Counts a round trip in the total, and in the round trip scopes open on the calling thread, see
+     * {@link RoundTripScope}.
+     *
+     * @param sql the SQL of the statement, or null for a batch or a transaction statement.
+     */
+    static void countRoundTrip(String sql)
+    {
+        roundTrips.incrementAndGet();
+        RoundTripScope.record(sql);
+    }
+
+    /**
+     * Returns the statements that have taken the most time in total since startup, see {@link QueryStatistics}.
+     *
+     * @param n the maximum number of statements to return.
+     * @return the statistics of each statement shape, most time first.
+     */
+    public static List<StatementStatistics> getTopStatements(int n)
+    {
+        return QueryStatistics.getTopStatements(n);
+    }
+
+    /**
+     * Registers something to run whenever the data may have changed without going through the handlers, that is
+     * when the connection or pool is replaced, a SQL script has been executed or the database has been migrated.
+     * Handlers that cache entities register the clearing of their caches here.
+     *
+     * @param invalidator the invalidator.
+     */
+    public static void addCacheInvalidator(Runnable invalidator)
+    {
+        cacheInvalidators.add(invalidator);
+    }
+
+    private static void invalidateCaches()
+    {
+        for (Runnable invalidator : cacheInvalidators)
+            invalidator.run();
+    }
+
+    /**
+     * Returns a snapshot of the connection pool statistics, such as the number of active and idle connections and
+     * how long borrowers have had to wait.
+     *
+     * @return the statistics, or null if no pool has been set up.
+     */
+    public static PoolStatistics getPoolStatistics()
+    {
+        ConnectionPool pool = connectionPool;
+        return pool == null ? null : pool.getStatistics();
     }
 
     /**
@@ -116,159 +385,425 @@ public class DataAccessManager
      * rows affected, which this method also returns.
      *
      * @param command  The SQL update command to execute.
-     * @param params   An array of parameter values to be bound to the SQL command.
-     * @param settings Optional PreparedStatement settings, such as Statement.RETURN_GENERATED_KEYS.
+     * @param params   An array of parameter values to be bound to the SQL command, see {@link ParameterBinder}.
+     * @param settings Optional PreparedStatement settings. Only Statement.RETURN_GENERATED_KEYS is supported.
      * @return The number of rows affected by the update.
      *
      * TODO-test
      */
-    public static int executePreparedUpdate(String command, String[] params, int... settings)
+    public static int executePreparedUpdate(String command, Object[] params, int... settings)
+    {
+        try
+        {
+            return executePreparedUpdateChecked(command, params, settings);
+        }
+        catch (SQLException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to execute prepared update due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        //Won't reach, but needed to compile
+        return -1;
+    }
+
+    /**
+     * Works like executePreparedUpdate, but throws any SQLException instead of treating it as fatal. Meant for
+     * transactions, which need to roll back, and possibly retry, when a statement fails.
+     *
+     * @param command  The SQL update command to execute.
+     * @param params   An array of parameter values to be bound to the SQL command, see {@link ParameterBinder}.
+     * @param settings Optional PreparedStatement settings. Only Statement.RETURN_GENERATED_KEYS is supported.
+     * @return The number of rows affected by the update.
+     * @throws SQLException if the update failed.
+     */
+    public static int executePreparedUpdateChecked(String command, Object[] params, int... settings)
+    throws SQLException
     {
+        QueryPlanInspector.record(command, params);
         if (verbose)
         {
             System.out.println("\nExecuting Prepared Update: ");
             SQLFormatter.printFormattedSQL(command);
         }
 
-        try
+        try (ConnectionLease lease = leaseConnection())
         {
-            PreparedStatement stmt;
-            if (settings.length > 0)
-            {
-                stmt = connection.prepareStatement(command, settings);
-            }
-            else
+            PreparedStatement stmt = lease.prepareStatement(command, returnsGeneratedKeys(settings));
+            try
             {
-                stmt = connection.prepareStatement(command);
+                //Bind the provided params to the SQL statement, each with the setter matching its type
+                ParameterBinder.bind(stmt, params);
+
+                //Execute the update and return the number of affected rows
+                countRoundTrip(command);
+                long start = System.nanoTime();
+                int rows = stmt.executeUpdate();
+                QueryStatistics.record(command, params, System.nanoTime() - start, rows);
+                return rows;
             }
-
-            //Bind the provided params to the SQL statement
-            if (params != null)
+            finally
             {
-                for (int i = 0; i < params.length; i++)
-                {
-                    stmt.setString(i + 1, params[i]);
-                }
+                lease.releaseStatement(stmt);
             }
+        }
+    }
 
-            //Execute the update and return the number of affected rows
-            return stmt.executeUpdate();
+    /**
+     * Executes an SQL query command such as SELECT using a prepared statement.
+     * These commands retrieve data and return a ResultSet, which is encapsulated
+     * in the QueryResult object returned by this method.
+     *
+     * @param query    The SQL query command to execute.
+     * @param params   An array of parameter values to be bound to the SQL command, see {@link ParameterBinder}.
+     * @param settings Optional PreparedStatement settings. Only Statement.RETURN_GENERATED_KEYS is supported,
+     *                 and is less commonly used than for UPDATE/INSERT operations.
+     * @return A QueryResult object that encapsulates the ResultSet and the PreparedStatement.
+     * The ResultSet can be iterated to retrieve the data, and the QueryResult must
+     * be closed when finished, which hands the statement back to the statement cache.
+     *
+     * TODO-test
+     */
+    public static QueryResult executePreparedQuery(String query, Object[] params, int... settings)
+    {
+        try
+        {
+            return executePreparedQueryChecked(query, params, settings);
         }
         catch (SQLException e)
         {
-            ExceptionManager.HandleFatalException(e, "Failed to execute prepared update due to " +
+            ExceptionManager.HandleFatalException(e, "Failed to execute prepared query due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
 
         //Won't reach, but needed to compile
-        return -1;
+        return null;
     }
 
     /**
-     * Executes an SQL query command such as SELECT using a prepared statement.
-     * These commands retrieve data and return a ResultSet, which is encapsulated
-     * in the QueryResult object returned by this method.
+     * Works like executePreparedQuery, but throws any SQLException instead of treating it as fatal. Meant for
+     * transactions, which need to roll back, and possibly retry, when a statement fails.
      *
      * @param query    The SQL query command to execute.
-     * @param params   An array of parameter values to be bound to the SQL command.
-     * @param settings Optional PreparedStatement settings. These are less commonly used than for UPDATE/INSERT
-     *                 operations.
-     * @return A QueryResult object that encapsulates the ResultSet and the PreparedStatement.
-     * The ResultSet can be iterated to retrieve the data, and the PreparedStatement should
-     * be closed when finished.
+     * @param params   An array of parameter values to be bound to the SQL command, see {@link ParameterBinder}.
+     * @param settings Optional PreparedStatement settings. Only Statement.RETURN_GENERATED_KEYS is supported.
+     * @return A QueryResult object that encapsulates the ResultSet and the PreparedStatement, which must be closed.
+     * @throws SQLException if the query failed.
+     */
+    public static QueryResult executePreparedQueryChecked(String query, Object[] params, int... settings)
+    throws SQLException
+    {
+        return executeQuery(query, params, 0, settings);
+    }
+
+    /**
+     * Executes an SQL query such as SELECT and streams its rows, one at a time as they're read, instead of
+     * buffering the whole ResultSet in memory. Meant for queries that might return more rows than should be held in
+     * memory at once, see {@link ResultStream}.
+     * <p>
+     * Uses MySQL row streaming, which holds the connection until the QueryResult is closed. No other statement can
+     * be run on the connection in the meantime, and since nested calls on one thread lease the same connection, the
+     * thread reading the rows must not run any other queries until it's done.
      *
-     * TODO-test
+     * @param query  The SQL query command to execute.
+     * @param params An array of parameter values to be bound to the SQL command, see {@link ParameterBinder}.
+     * @return A QueryResult object that encapsulates the streamed ResultSet, which must be closed.
      */
-    public static QueryResult executePreparedQuery(String query, String[] params, int... settings)
+    public static QueryResult executeStreamingQuery(String query, Object[] params)
     {
+        try
+        {
+            return executeQuery(query, params, STREAMING_FETCH_SIZE);
+        }
+        catch (SQLException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to execute streaming query due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+
+        //Won't reach, but needed to compile
+        return null;
+    }
+
+    /**
+     * Executes a query on a leased connection, with the given fetch size. 0 leaves the fetch size to the driver.
+     */
+    private static QueryResult executeQuery(String query, Object[] params, int fetchSize, int... settings)
+    throws SQLException
+    {
+        QueryPlanInspector.record(query, params);
         if (verbose)
         {
             System.out.println("\nExecuting prepared query:");
             SQLFormatter.printFormattedSQL(query);
         }
 
+        //The lease is returned when the QueryResult is closed
+        ConnectionLease lease = leaseConnection();
         PreparedStatement preparedStatement = null;
-        ResultSet resultSet = null;
 
         try
         {
-            //Prepare the statement with the given settings
-            preparedStatement = connection.prepareStatement(query, settings);
-            //Set the parameters if params is not null
-            if (params != null)
+            //Get the statement from the statement cache of the leased connection
+            preparedStatement = lease.prepareStatement(query, returnsGeneratedKeys(settings));
+            //Bind the parameters, each with the setter matching its type
+            ParameterBinder.bind(preparedStatement, params);
+            //The statement cache resets the fetch size when the statement is handed back
+            if (fetchSize != 0)
+                preparedStatement.setFetchSize(fetchSize);
+            //Execute the query
+            countRoundTrip(query);
+            long start = System.nanoTime();
+            preparedStatement.execute();
+            long elapsedNanos = System.nanoTime() - start;
+            //Get the result set, if available. Its rows are counted as they're read, and recorded when closed.
+            ResultSet resultSet = preparedStatement.getResultSet();
+            if (resultSet == null)
+            {
+                QueryStatistics.record(query, params, elapsedNanos, preparedStatement.getUpdateCount());
+                return new QueryResult(null, preparedStatement, lease);
+            }
+            return new QueryResult(resultSet, preparedStatement, lease,
+                    QueryStatistics.startExecution(query, params, elapsedNanos));
+        }
+        catch (SQLException e)
+        {
+            lease.releaseStatement(preparedStatement);
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Executes the same SQL update command, such as INSERT or UPDATE, once for every row of parameters, using
+     * JDBC batching. Uses the default chunk size, see {@link #executePreparedBatch(String, List, int, boolean)}.
+     *
+     * @param command             The SQL update command to execute.
+     * @param rows                The parameters of each row, bound in the same way as by executePreparedUpdate.
+     * @param returnGeneratedKeys Whether the generated key of each row should be retrieved.
+     * @return A BatchResult with the update count and generated key of each row, and the failure of any row
+     * that failed.
+     */
+    public static BatchResult executePreparedBatch(String command, List<Object[]> rows, boolean returnGeneratedKeys)
+    {
+        return executePreparedBatch(command, rows, batchChunkSize, returnGeneratedKeys);
+    }
+
+    /**
+     * Executes the same SQL update command, such as INSERT or UPDATE, once for every row of parameters, using
+     * JDBC batching. The rows are sent to the server in chunks of at most chunkSize rows, each chunk in a single
+     * round trip (given rewriteBatchedStatements=true in the connection URL, which makes MySQL Connector/J rewrite
+     * INSERTs into multi-row INSERTs).
+     * <p>
+     * A row that fails doesn't fail the batch. When a chunk fails, the rows the driver didn't report as executed
+     * are run again one at a time, so that every failed row can be reported with the exception it caused. Rows
+     * run outside of a transaction stay committed even if other rows fail.
+     *
+     * @param command             The SQL update command to execute.
+     * @param rows                The parameters of each row, bound in the same way as by executePreparedUpdate.
+     * @param chunkSize           The maximum number of rows sent to the server at a time, at least 1.
+     * @param returnGeneratedKeys Whether the generated key of each row should be retrieved.
+     * @return A BatchResult with the update count and generated key of each row, and the failure of any row
+     * that failed.
+     * @throws IllegalArgumentException if chunkSize is less than 1.
+     */
+    public static BatchResult executePreparedBatch(String command, List<Object[]> rows, int chunkSize,
+                                                   boolean returnGeneratedKeys)
+    {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Batch chunk size must be at least 1. Received: " + chunkSize);
+
+        BatchResult result = new BatchResult(rows.size());
+        if (rows.isEmpty())
+            return result;
+
+        if (verbose)
+        {
+            System.out.println("\nExecuting prepared batch of " + rows.size() + " rows:");
+            SQLFormatter.printFormattedSQL(command);
+        }
+
+        try (ConnectionLease lease = leaseConnection())
+        {
+            PreparedStatement stmt = lease.prepareStatement(command, returnGeneratedKeys);
+            try
             {
-                for (int i = 0; i < params.length; i++)
+                for (int start = 0; start < rows.size(); start += chunkSize)
                 {
-                    preparedStatement.setString(i + 1, params[i]);
+                    executeBatchChunk(stmt, rows, start, Math.min(start + chunkSize, rows.size()),
+                            returnGeneratedKeys, result);
                 }
             }
-            //Execute the query
-            preparedStatement.execute();
-            //Get the result set, if available
-            resultSet = preparedStatement.getResultSet();
+            finally
+            {
+                lease.releaseStatement(stmt);
+            }
         }
         catch (SQLException e)
         {
-            ExceptionManager.HandleFatalException(e, "Failed to execute prepared query due to " +
+            ExceptionManager.HandleFatalException(e, "Failed to execute prepared batch due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
-        return new QueryResult(resultSet, preparedStatement);
+
+        return result;
     }
 
     /**
-     * A simple method which reads the contents of a file, and executes any SQL commands found in that file.
+     * Executes the rows from start (inclusive) to end (exclusive) as one batch, and stores the outcome of each row
+     * in the result.
      *
-     * @param filePath the path of the file
+     * @param stmt                the statement to execute.
+     * @param rows                all rows of the batch.
+     * @param start               the index of the first row of the chunk.
+     * @param end                 the index after the last row of the chunk.
+     * @param returnGeneratedKeys whether the generated keys should be retrieved.
+     * @param result              the result to store the outcome in.
+     * @throws SQLException if the parameters couldn't be bound or the generated keys couldn't be read.
      */
-    public static void executeSQLCommandsFromFile(String filePath)
+    private static void executeBatchChunk(PreparedStatement stmt, List<Object[]> rows, int start, int end,
+                                          boolean returnGeneratedKeys, BatchResult result)
+    throws SQLException
     {
-        //No point attempting to execute from an empty file path
-        if (filePath == null || filePath.isEmpty())
+        int[] updateCounts;
+        try
         {
-            System.out.println("ERROR: executeSqlCommandsFromFile: No filepath.");
-            return;
+            for (int row = start; row < end; row++)
+            {
+                ParameterBinder.bind(stmt, rows.get(row));
+                stmt.addBatch();
+            }
+            countRoundTrip(null);
+            updateCounts = stmt.executeBatch();
+        }
+        catch (BatchUpdateException e)
+        {
+            //Depending on the driver, the counts either cover every row with failed rows marked as EXECUTE_FAILED,
+            //or stop at the first failed row
+            updateCounts = e.getUpdateCounts() == null ? new int[0] : e.getUpdateCounts();
+        }
+        finally
+        {
+            stmt.clearBatch();
         }
 
-        if (verbose) System.out.println("\nExecuting commands from file: " + filePath);
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath)))
+        //Mark the rows the driver reported as executed
+        List<Integer> executedRows = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length && start + i < end; i++)
         {
-            String line;
-            StringBuilder commandBuilder = new StringBuilder();
+            if (updateCounts[i] != Statement.EXECUTE_FAILED)
+            {
+                result.setSucceeded(start + i, updateCounts[i]);
+                executedRows.add(start + i);
+            }
+        }
 
-            while ((line = reader.readLine()) != null)
+        //The keys are returned in the order the rows were executed, skipping failed rows
+        if (returnGeneratedKeys && !executedRows.isEmpty())
+        {
+            try (ResultSet keys = stmt.getGeneratedKeys())
             {
-                //Remove inline comments
-                if (line.contains("--"))
+                for (int i = 0; i < executedRows.size() && keys.next(); i++)
                 {
-                    line = line.substring(0, line.indexOf("--"));
+                    result.setGeneratedKey(executedRows.get(i), keys.getInt(1));
                 }
+            }
+        }
+
+        //Run the remaining rows one at a time, to find out which of them fail and why
+        for (int row = start; row < end; row++)
+        {
+            if (!result.isRowSuccessful(row))
+                executeBatchRow(stmt, rows.get(row), row, returnGeneratedKeys, result);
+        }
+    }
+
+    /**
+     * Executes a single row of a batch on its own, and stores its outcome in the result.
+     *
+     * @param stmt                the statement to execute.
+     * @param params              the parameters of the row.
+     * @param row                 the index of the row.
+     * @param returnGeneratedKeys whether the generated key should be retrieved.
+     * @param result              the result to store the outcome in.
+     */
+    private static void executeBatchRow(PreparedStatement stmt, Object[] params, int row,
+                                        boolean returnGeneratedKeys, BatchResult result)
+    {
+        try
+        {
+            ParameterBinder.bind(stmt, params);
+            countRoundTrip(null);
+            result.setSucceeded(row, stmt.executeUpdate());
 
-                //Skip lines that are now empty (were only a comment)
-                if (line.trim().isEmpty())
+            if (returnGeneratedKeys)
+            {
+                try (ResultSet keys = stmt.getGeneratedKeys())
                 {
-                    continue;
+                    if (keys.next())
+                        result.setGeneratedKey(row, keys.getInt(1));
                 }
+            }
+        }
+        catch (SQLException e)
+        {
+            result.setFailed(row, e);
+        }
+    }
 
-                //Append the line to the command string, adding a space in between
-                commandBuilder.append(line).append(" ");
+    /**
+     * Statements are cached by whether they return generated keys, which is the only setting used with them.
+     *
+     * @param settings the settings passed to executePreparedUpdate or executePreparedQuery.
+     * @return true if the settings include Statement.RETURN_GENERATED_KEYS.
+     */
+    private static boolean returnsGeneratedKeys(int... settings)
+    {
+        for (int setting : settings)
+        {
+            if (setting == Statement.RETURN_GENERATED_KEYS)
+                return true;
+        }
+        return false;
+    }
 
-                //Check if the line ends with a semicolon, signifying the end of the command
-                if (line.endsWith(";"))
-                {
-                    String command = commandBuilder.toString().trim();
+    /**
+     * Executes the SQL commands in a script file, see {@link SQLScriptExecutor}. Consecutive INSERTs, UPDATEs and
+     * DELETEs are sent in batches, with one transaction per chunk of statements. Progress is printed if verbose.
+     *
+     * @param filePath the path of the file
+     */
+    public static void executeSQLCommandsFromFile(String filePath)
+    {
+        ScriptProgress progress = executeSQLCommandsFromFile(filePath, verbose ? System.out::println : null);
+        if (verbose && progress != null)
+            System.out.println(progress);
+    }
+
+    /**
+     * Executes the SQL commands in a script file, see {@link SQLScriptExecutor}, reporting progress to a listener.
+     *
+     * @param filePath the path of the file
+     * @param listener the listener to report progress to, or null
+     * @return the final progress, with the totals for the script, or null if there was no file path.
+     */
+    public static ScriptProgress executeSQLCommandsFromFile(String filePath, SQLScriptExecutor.ProgressListener listener)
+    {
+        //No point attempting to execute from an empty file path
+        if (filePath == null || filePath.isEmpty())
+        {
+            System.out.println("ERROR: executeSqlCommandsFromFile: No filepath.");
+            return null;
+        }
 
-                    if (!command.isEmpty())
-                    {
-                        executePreparedUpdate(command, null);
-                    }
+        if (verbose) System.out.println("\nExecuting commands from file: " + filePath);
 
-                    //Reset the command builder for the next command
-                    commandBuilder = new StringBuilder();
-                }
-            }
+        SQLScriptExecutor executor = new SQLScriptExecutor(scriptChunkSize,
+                SQLScriptExecutor.DEFAULT_PROGRESS_INTERVAL, listener);
+        try (ConnectionLease lease = leaseConnection())
+        {
+            return executor.execute(lease.getConnection(), Paths.get(filePath));
         }
-        catch (FileNotFoundException e)
+        catch (NoSuchFileException e)
         {
             ExceptionManager.HandleFatalException(e, "Couldn't find file at path " + filePath);
         }
@@ -276,11 +811,24 @@ public class DataAccessManager
         {
             ExceptionManager.HandleFatalException(e, "Couldn't read file at path " + filePath);
         }
+        catch (SQLException e)
+        {
+            ExceptionManager.HandleFatalException(e, "Failed to execute SQL commands from file due to " +
+                    e.getClass().getName() + ": " + e.getMessage());
+        }
+        finally
+        {
+            //Even a script that failed halfway may have changed things
+            invalidateCaches();
+        }
+
+        //Won't reach, but needed to compile
+        return null;
     }
 
     public static void checkConnection()
     {
-        if (connection == null)
+        if (connectionPool == null)
         {
             setup(false);
         }
@@ -288,21 +836,101 @@ public class DataAccessManager
 
     /**
      * Since any other classes should only do Database-related things through this Handler class,
-     * we need to add a close method that calls closeConnection in the DatabaseConnection class.
+     * we need to add a close method that closes the pool, and calls closeConnection in the DatabaseConnection
+     * class.
      */
     public static void closeDatabaseConnection()
     {
+        if (connectionPool != null)
+        {
+            connectionPool.close();
+            connectionPool = null;
+        }
         DatabaseConnection.closeConnection();
     }
 
+    /**
+     * Returns true if a connection pool has been set up and not yet closed.
+     *
+     * @return true if connected, otherwise false.
+     */
+    public static boolean isConnected()
+    {
+        return connectionPool != null;
+    }
+
+    /**
+     * Returns the connection leased by the calling thread. In single-connection mode (see setConnection), the one
+     * connection is returned even if the calling thread holds no lease. Code that needs a connection of its own
+     * should use leaseConnection instead.
+     *
+     * @return the connection, or null if there is none.
+     */
     public static Connection getConnection()
     {
-        return connection;
+        ConnectionPool pool = connectionPool;
+        if (pool == null)
+            return null;
+
+        Connection leased = pool.getLeasedConnection();
+        if (leased == null && pool.isSingleConnection())
+            return singleConnection;
+        return leased;
     }
 
+    /**
+     * Makes the DataAccessManager run everything through a single, already open Connection, one thread at a time.
+     * Used by the tests, which manage their own connection.
+     *
+     * @param connection the connection to use.
+     */
     public static void setConnection(Connection connection)
     {
-        DataAccessManager.connection = connection;
+        ConnectionPool old = connectionPool;
+        DataAccessManager.singleConnection = connection;
+        connectionPool = connection == null ? null : ConnectionPool.singleConnection(connection);
+        //The connection may be to another database, such as a test database
+        MetaDataRetriever.configure(null);
+        invalidateCaches();
+        if (old != null && !old.isSingleConnection())
+            old.close();
+    }
+
+    /**
+     * Replaces the connection pool. Any previous pool is closed.
+     *
+     * @param pool the new pool.
+     */
+    public static void setConnectionPool(ConnectionPool pool)
+    {
+        ConnectionPool old = connectionPool;
+        connectionPool = pool;
+        singleConnection = null;
+        invalidateCaches();
+        if (old != null && old != pool)
+            old.close();
+    }
+
+    /**
+     * Returns the chunk size used by executePreparedBatch when none is given.
+     *
+     * @return the chunk size.
+     */
+    public static int getBatchChunkSize()
+    {
+        return batchChunkSize;
+    }
+
+    /**
+     * Sets the chunk size used by executePreparedBatch when none is given.
+     *
+     * @param batchChunkSize the chunk size, at least 1.
+     */
+    public static void setBatchChunkSize(int batchChunkSize)
+    {
+        if (batchChunkSize < 1)
+            throw new IllegalArgumentException("Batch chunk size must be at least 1. Received: " + batchChunkSize);
+        DataAccessManager.batchChunkSize = batchChunkSize;
     }
 
     public static boolean isVerbose()
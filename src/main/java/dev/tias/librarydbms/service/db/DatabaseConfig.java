@@ -0,0 +1,240 @@
+package dev.tias.librarydbms.service.db;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Holds the settings used to connect to the database server, read from config.json.
+ * <p>
+ * Only "user" and "password" are required in the file. Every other setting falls back to a default that matches
+ * a default-configured local MySQL Server, so older config files keep working.
+ */
+public class DatabaseConfig
+{
+    /**
+     * What DataAccessManager.setup does with the database on startup.
+     */
+    public enum StartupMode
+    {
+        //Drop the database, then create it from create_tables.sql and test_data.sql. Wipes all data. The default,
+        //and what config.json ships with, since the tests rely on starting from the test data.
+        RECREATE,
+        //Reuse the database if it exists, only applying migrations that haven't been applied yet.
+        //Creates it like RECREATE if it doesn't exist. Opt-in, set "startupMode" to "PERSISTENT" in config.json.
+        PERSISTENT
+    }
+
+    /**
+     * How the handlers called in the background are given threads, see AsyncHandler.
+     */
+    public enum ExecutionMode
+    {
+        //A few worker threads take turns, enough for the GUI of one desk
+        WORKER_POOL,
+        //Every operation gets a thread of its own, virtual where supported, as many running at once as there are
+        //pooled connections. For serving several desks at once.
+        THREAD_PER_TASK
+    }
+
+    public static final String DEFAULT_CONFIG_PATH = "src/main/resources/config.json";
+
+    //rewriteBatchedStatements lets the driver send a batch of INSERTs as one multi-row INSERT
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306?rewriteBatchedStatements=true";
+
+    //Startup settings
+    private StartupMode startupMode = StartupMode.RECREATE;
+    private ExecutionMode executionMode = ExecutionMode.WORKER_POOL;
+
+    //Connection settings
+    private String url = DEFAULT_URL;
+    private String user;
+    private String password;
+
+    //Pool settings
+    private int poolMinSize = 2;
+    private int poolMaxSize = 10;
+    private long idleTimeoutMillis = 5 * 60 * 1000;
+    private long borrowTimeoutMillis = 30 * 1000;
+    private long validationIntervalMillis = 500;
+    private int validationTimeoutSeconds = 2;
+    private int statementCacheSize = ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE;
+
+    //Batch settings
+    private int batchChunkSize = DataAccessManager.DEFAULT_BATCH_CHUNK_SIZE;
+    private int scriptChunkSize = SQLScriptExecutor.DEFAULT_CHUNK_SIZE;
+
+    //Metadata settings, no snapshot unless a path is given
+    private String metaDataSnapshotPath = null;
+
+    //Statistics settings
+    private long slowQueryThresholdMillis = QueryStatistics.DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS;
+
+    /**
+     * Reads the configuration from the default path.
+     *
+     * @return the configuration.
+     */
+    public static DatabaseConfig load()
+    {
+        return load(DEFAULT_CONFIG_PATH);
+    }
+
+    /**
+     * Reads the configuration from a given path. If the file can't be read, a configuration with only
+     * default values (and no user or password) is returned.
+     *
+     * @param path the path of the config file.
+     * @return the configuration.
+     */
+    public static DatabaseConfig load(String path)
+    {
+        DatabaseConfig config = new DatabaseConfig();
+
+        try (FileReader reader = new FileReader(path))
+        {
+            JsonObject json = new Gson().fromJson(reader, JsonElement.class).getAsJsonObject();
+
+            config.startupMode = StartupMode.valueOf(
+                    getString(json, "startupMode", config.startupMode.name()).toUpperCase());
+            config.executionMode = ExecutionMode.valueOf(
+                    getString(json, "executionMode", config.executionMode.name()).toUpperCase());
+            config.url = getString(json, "url", config.url);
+            config.user = getString(json, "user", null);
+            config.password = getString(json, "password", null);
+            config.poolMinSize = getInt(json, "poolMinSize", config.poolMinSize);
+            config.poolMaxSize = getInt(json, "poolMaxSize", config.poolMaxSize);
+            config.idleTimeoutMillis = getLong(json, "idleTimeoutMillis", config.idleTimeoutMillis);
+            config.borrowTimeoutMillis = getLong(json, "borrowTimeoutMillis", config.borrowTimeoutMillis);
+            config.validationIntervalMillis = getLong(json, "validationIntervalMillis",
+                    config.validationIntervalMillis);
+            config.validationTimeoutSeconds = getInt(json, "validationTimeoutSeconds",
+                    config.validationTimeoutSeconds);
+            config.statementCacheSize = getInt(json, "statementCacheSize", config.statementCacheSize);
+            config.batchChunkSize = getInt(json, "batchChunkSize", config.batchChunkSize);
+            config.scriptChunkSize = getInt(json, "scriptChunkSize", config.scriptChunkSize);
+            config.metaDataSnapshotPath = getString(json, "metaDataSnapshotPath", config.metaDataSnapshotPath);
+            config.slowQueryThresholdMillis = getLong(json, "slowQueryThresholdMillis",
+                    config.slowQueryThresholdMillis);
+        }
+        catch (IOException e)
+        {
+            System.err.println("Couldn't read database config at " + path + ", using defaults.");
+        }
+
+        return config;
+    }
+
+    private static String getString(JsonObject json, String key, String defaultValue)
+    {
+        return json.has(key) ? json.get(key).getAsString() : defaultValue;
+    }
+
+    private static int getInt(JsonObject json, String key, int defaultValue)
+    {
+        return json.has(key) ? json.get(key).getAsInt() : defaultValue;
+    }
+
+    private static long getLong(JsonObject json, String key, long defaultValue)
+    {
+        return json.has(key) ? json.get(key).getAsLong() : defaultValue;
+    }
+
+    /**
+     * Getters are self-explanatory.
+     */
+    public StartupMode getStartupMode()
+    {
+        return startupMode;
+    }
+
+    public ExecutionMode getExecutionMode()
+    {
+        return executionMode;
+    }
+
+    public String getUrl()
+    {
+        return url;
+    }
+
+    public String getUser()
+    {
+        return user;
+    }
+
+    public String getPassword()
+    {
+        return password;
+    }
+
+    public int getPoolMinSize()
+    {
+        return poolMinSize;
+    }
+
+    public int getPoolMaxSize()
+    {
+        return poolMaxSize;
+    }
+
+    public long getIdleTimeoutMillis()
+    {
+        return idleTimeoutMillis;
+    }
+
+    public long getBorrowTimeoutMillis()
+    {
+        return borrowTimeoutMillis;
+    }
+
+    public long getValidationIntervalMillis()
+    {
+        return validationIntervalMillis;
+    }
+
+    public int getValidationTimeoutSeconds()
+    {
+        return validationTimeoutSeconds;
+    }
+
+    public int getStatementCacheSize()
+    {
+        return statementCacheSize;
+    }
+
+    public int getBatchChunkSize()
+    {
+        return batchChunkSize;
+    }
+
+    public int getScriptChunkSize()
+    {
+        return scriptChunkSize;
+    }
+
+    /**
+     * @return the path of the metadata snapshot file, or null if snapshots are disabled.
+     */
+    public String getMetaDataSnapshotPath()
+    {
+        return metaDataSnapshotPath == null || metaDataSnapshotPath.isBlank() ? null : metaDataSnapshotPath;
+    }
+
+    /**
+     * @return how long a query or update may take before it's written to the slow query log.
+     */
+    public long getSlowQueryThresholdMillis()
+    {
+        return slowQueryThresholdMillis;
+    }
+}
@@ -1,10 +1,5 @@
 package dev.tias.librarydbms.service.db;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-
-import java.io.FileReader;
-import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -32,29 +27,38 @@ public class DatabaseConnection
      * url: jdbc:mysql://localhost:3306
      * server: localhost
      * port: 3306
+     * <p>
+     * User and password (and optionally url) are read from config.json, see {@link DatabaseConfig}.
      */
     public static Connection setup()
     throws SQLException, ClassNotFoundException
     {
-        String url = "jdbc:mysql://localhost:3306";
-        String user = null;
-        String password = null;
+        DatabaseConfig config = DatabaseConfig.load();
+        return connectToDatabaseServer(config.getUrl(), config.getUser(), config.getPassword());
+    }
 
+    /**
+     * Opens a new connection using the given config. Unlike setup, the connection is not stored in this class,
+     * which makes this the method used by the {@link ConnectionPool} to open its connections.
+     *
+     * @param config the config holding url, user and password.
+     * @return a new Connection.
+     * @throws SQLException if the connection could not be opened, or the JDBC driver could not be loaded.
+     */
+    public static Connection openConnection(DatabaseConfig config)
+    throws SQLException
+    {
         try
         {
-            // Read the user and password from config.json
-            Gson gson = new Gson();
-            JsonElement config = gson.fromJson(new FileReader("src/main/resources/config.json"),
-                    JsonElement.class);
-            user = config.getAsJsonObject().get("user").getAsString();
-            password = config.getAsJsonObject().get("password").getAsString();
+            Class.forName("com.mysql.cj.jdbc.Driver");
         }
-        catch (IOException e)
+        catch (ClassNotFoundException e)
         {
-            // Handle any exceptions that might occur while reading the file
+            throw new SQLException("Couldn't load JDBC driver.", e);
         }
 
-        return connectToDatabaseServer(url, user, password);
+        if (verbose) System.out.println("Opening connection to: " + config.getUser() + "@" + config.getUrl());
+        return DriverManager.getConnection(config.getUrl(), config.getUser(), config.getPassword());
     }
 
     /**
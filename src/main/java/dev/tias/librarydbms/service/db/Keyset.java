@@ -0,0 +1,232 @@
+package dev.tias.librarydbms.service.db;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Builds the queries for keyset pagination, where a page continues after the key of the last row of the previous
+ * page instead of skipping rows with OFFSET. The database finds the start of every page through the index, so a
+ * page takes as long to fetch however far into the results it is, and rows inserted or deleted before it don't shift
+ * its contents.
+ * <p>
+ * Rows are ordered either by their primary key, or by a date and then the primary key, to break ties between rows
+ * with the same date. The key of the last row is handed out as an opaque page token, see {@link Page}.
+ * <p>
+ * A page query asks for one row more than the page size, which tells whether another page follows.
+ */
+public class Keyset
+{
+    //The most rows a page can hold
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String ID_TOKEN = "I:";
+    private static final String DATE_TOKEN = "D:";
+
+    //Null when ordering by the primary key only
+    private final String dateColumn;
+    private final String idColumn;
+
+    private Keyset(String dateColumn, String idColumn)
+    {
+        this.dateColumn = dateColumn;
+        this.idColumn = Objects.requireNonNull(idColumn, "idColumn");
+    }
+
+    /**
+     * Returns a keyset ordering rows by their primary key.
+     *
+     * @param idColumn the primary key column, qualified if the query joins other tables, e.g. "items.itemID".
+     * @return the keyset.
+     */
+    public static Keyset byID(String idColumn)
+    {
+        return new Keyset(null, idColumn);
+    }
+
+    /**
+     * Returns a keyset ordering rows by a date, and rows with the same date by their primary key.
+     *
+     * @param dateColumn the date column, which must not contain NULLs.
+     * @param idColumn   the primary key column.
+     * @return the keyset.
+     */
+    public static Keyset byDateAndID(String dateColumn, String idColumn)
+    {
+        return new Keyset(Objects.requireNonNull(dateColumn, "dateColumn"), idColumn);
+    }
+
+    /**
+     * Builds the SQL suffix selecting a page, to be added after the FROM and JOIN clauses of a query.
+     *
+     * @param condition the condition rows must meet, without WHERE, or null for all rows.
+     * @param pageToken the token of the page, or null for the first page.
+     * @return the suffix, made of a WHERE, an ORDER BY and a LIMIT clause.
+     */
+    public String suffix(String condition, String pageToken)
+    {
+        List<String> conditions = new ArrayList<>();
+        if (condition != null && !condition.isBlank())
+            conditions.add("(" + condition + ")");
+        if (pageToken != null)
+        {
+            if (dateColumn == null)
+                conditions.add(idColumn + " > ?");
+            else
+                conditions.add("(" + dateColumn + " > ? OR (" + dateColumn + " = ? AND " + idColumn + " > ?))");
+        }
+
+        StringBuilder suffix = new StringBuilder();
+        if (!conditions.isEmpty())
+            suffix.append("WHERE ").append(String.join(" AND ", conditions)).append(" ");
+        suffix.append("ORDER BY ");
+        if (dateColumn != null)
+            suffix.append(dateColumn).append(", ");
+        suffix.append(idColumn).append(" LIMIT ?");
+        return suffix.toString();
+    }
+
+    /**
+     * Builds the parameters of the suffix returned by suffix.
+     *
+     * @param params    the parameters of the condition, may be null.
+     * @param pageToken the token of the page, or null for the first page.
+     * @param pageSize  the number of rows per page, between 1 and MAX_PAGE_SIZE.
+     * @return the parameters.
+     * @throws IllegalArgumentException if the page size is out of range, or the token wasn't made by this kind of
+     *                                  keyset.
+     */
+    public Object[] params(Object[] params, String pageToken, int pageSize)
+    {
+        validatePageSize(pageSize);
+
+        List<Object> all = new ArrayList<>();
+        if (params != null)
+            all.addAll(Arrays.asList(params));
+        if (pageToken != null)
+        {
+            String token = decode(pageToken);
+            if (dateColumn == null)
+            {
+                all.add(parseID(token.substring(ID_TOKEN.length()), pageToken));
+            }
+            else
+            {
+                //"<date>|<id>"
+                String key = token.substring(DATE_TOKEN.length());
+                int separator = key.lastIndexOf('|');
+                if (separator < 0)
+                    throw new IllegalArgumentException("Invalid page token: " + pageToken);
+                LocalDateTime date = parseDate(key.substring(0, separator), pageToken);
+                all.add(date);
+                all.add(date);
+                all.add(parseID(key.substring(separator + 1), pageToken));
+            }
+        }
+        //One more than fits, to tell whether another page follows
+        all.add(pageSize + 1);
+        return all.toArray();
+    }
+
+    /**
+     * Returns the token of the page following a row, for keysets ordering by primary key.
+     *
+     * @param id the primary key of the row.
+     * @return the token.
+     */
+    public String tokenAfter(int id)
+    {
+        if (dateColumn != null)
+            throw new IllegalStateException("Keyset orders by " + dateColumn + ", a date is needed.");
+        return encode(ID_TOKEN + id);
+    }
+
+    /**
+     * Returns the token of the page following a row, for keysets ordering by date.
+     *
+     * @param date the date of the row.
+     * @param id   the primary key of the row.
+     * @return the token.
+     */
+    public String tokenAfter(LocalDateTime date, int id)
+    {
+        if (dateColumn == null)
+            throw new IllegalStateException("Keyset orders by " + idColumn + " only.");
+        return encode(DATE_TOKEN + Objects.requireNonNull(date, "date") + "|" + id);
+    }
+
+    /**
+     * Checks that a page size is between 1 and MAX_PAGE_SIZE.
+     *
+     * @param pageSize the page size.
+     * @throws IllegalArgumentException if it isn't.
+     */
+    public static void validatePageSize(int pageSize)
+    {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Invalid page size: " + pageSize + ". Page size must be between 1 " +
+                    "and " + MAX_PAGE_SIZE + ".");
+    }
+
+    //HELPERS ----------------------------------------------------------------------------------------------------------
+
+    private static String encode(String token)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token, checking that it was made by the same kind of keyset.
+     */
+    private String decode(String pageToken)
+    {
+        String token;
+        try
+        {
+            token = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+
+        if (!token.startsWith(dateColumn == null ? ID_TOKEN : DATE_TOKEN))
+            throw new IllegalArgumentException("Invalid page token: " + pageToken);
+        return token;
+    }
+
+    private static int parseID(String id, String pageToken)
+    {
+        try
+        {
+            return Integer.parseInt(id);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+
+    private static LocalDateTime parseDate(String date, String pageToken)
+    {
+        try
+        {
+            return LocalDateTime.parse(date);
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new IllegalArgumentException("Invalid page token: " + pageToken, e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package dev.tias.librarydbms.service.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Counts latencies in buckets that grow exponentially, four per doubling, from 1 microsecond to about 19 hours. A
+ * percentile is read as the upper bound of the bucket it falls in, so it's at most about 19% too high, and never
+ * more than the largest latency recorded. Recording takes a couple of atomic increments and no locks, so it can be
+ * called by several threads at once.
+ */
+public class LatencyHistogram
+{
+    //Buckets per doubling of latency
+    private static final int BUCKETS_PER_DOUBLING = 4;
+    private static final int BUCKET_COUNT = 36 * BUCKETS_PER_DOUBLING;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record(long nanos)
+    {
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the latency that a given share of the recorded latencies are at or below.
+     *
+     * @param percentile the share, from 0 to 100, such as 95 for the 95th percentile.
+     * @return the latency in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long getPercentileNanos(double percentile)
+    {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile must be between 0 and 100. Received: " + percentile);
+
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0)
+            return 0;
+
+        //The rank of the latency asked for, counting from 1
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(upperBoundNanos(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    public long getTotalNanos()
+    {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos.get();
+    }
+
+    /**
+     * Bucket i holds the latencies from 2^(i/4) up to 2^((i+1)/4) microseconds, bucket 0 everything below that.
+     */
+    private static int bucketOf(long nanos)
+    {
+        double micros = (double) nanos / TimeUnit.MICROSECONDS.toNanos(1);
+        if (micros <= 1)
+            return 0;
+        int bucket = (int) (Math.log(micros) / Math.log(2) * BUCKETS_PER_DOUBLING);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private static long upperBoundNanos(int bucket)
+    {
+        double micros = Math.pow(2, (double) (bucket + 1) / BUCKETS_PER_DOUBLING);
+        return (long) Math.ceil(micros * TimeUnit.MICROSECONDS.toNanos(1));
+    }
+}
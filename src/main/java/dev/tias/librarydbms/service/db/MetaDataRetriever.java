@@ -1,10 +1,15 @@
 package dev.tias.librarydbms.service.db;
 
+import dev.tias.librarydbms.LibraryManager;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 
-import java.sql.DatabaseMetaData;
-import java.sql.ResultSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.zip.CRC32;
 
 /**
  * @author Mattias Fridsén
@@ -17,92 +22,153 @@ import java.sql.SQLException;
  * available), But not before.
  * <p>
  * Brought to you by enough nicotine to kill a large horse.
+ * <p>
+ * The sizes of all columns are loaded once, with a single query, into a {@link SchemaMetaData} that every model
+ * class reads its limits from. If a snapshot path is configured, the sizes are saved to it, and later starts on the
+ * same schema read them from the file without asking the database.
  */
 public class MetaDataRetriever
 {
-    //TODO-prio create a generalized method to replace the specific methods
-    // or be used by the specific methods
+    private static final String BASELINE_SCRIPT = "src/main/resources/sql/create_tables.sql";
+
+    //Loaded on first use, and again after configure is called
+    private static volatile SchemaMetaData schemaMetaData;
+    //Where to keep the snapshot, null if snapshots are disabled
+    private static Path snapshotPath;
 
     /**
-     * Retrieves the metadata for the "authors" table from the database, specifically the sizes of the
-     * "authorFirstname" and "authorLastName" columns.
+     * Sets where the metadata snapshot is kept, and forgets any metadata loaded so far. Called by the
+     * DataAccessManager whenever it connects to a database.
      *
-     * @return an int array with two elements, the first representing the size of "authorFirstname" column and the
-     * second representing the size of the "authorLastName" column.
+     * @param snapshotPath the snapshot file, or null to always load the metadata from the database.
      */
-    public static int[] getAuthorMetaData()
+    public static synchronized void configure(Path snapshotPath)
     {
+        MetaDataRetriever.snapshotPath = snapshotPath;
+        schemaMetaData = null;
+    }
+
+    /**
+     * Returns the sizes of all columns in the database, loading them on first use.
+     *
+     * @return the metadata.
+     */
+    public static SchemaMetaData getSchemaMetaData()
+    {
+        SchemaMetaData metaData = schemaMetaData;
+        if (metaData != null)
+            return metaData;
+
         DataAccessManager.checkConnection();
 
-        try
+        synchronized (MetaDataRetriever.class)
         {
-            DatabaseMetaData metaData = DataAccessManager.getConnection().getMetaData();
+            if (schemaMetaData == null)
+                schemaMetaData = bootstrap();
+            return schemaMetaData;
+        }
+    }
 
-            //Get metadata for authorFirstname column
-            ResultSet resultSet = metaData.getColumns(null, null,
-                    "authors", "authorFirstname");
-            int firstnameColumnSize = 0;
-            if (resultSet.next())
-            {
-                firstnameColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
+    /**
+     * Reads the metadata from the snapshot if there is one for the current schema, otherwise loads it from the
+     * database and saves a new snapshot.
+     */
+    private static SchemaMetaData bootstrap()
+    {
+        String schemaKey = snapshotPath == null ? null : getSchemaKey();
+        if (schemaKey != null)
+        {
+            SchemaMetaData snapshot = SchemaMetaData.readSnapshot(snapshotPath, schemaKey);
+            if (snapshot != null)
+                return snapshot;
+        }
 
-            //Get metadata for authorLastName column
-            resultSet = metaData.getColumns(null, null,
-                    "authors", "authorLastName");
-            int lastnameColumnSize = 0;
-            if (resultSet.next())
-            {
-                lastnameColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
+        try
+        {
+            SchemaMetaData metaData = SchemaMetaData.load();
 
-            return new int[]{firstnameColumnSize, lastnameColumnSize};
+            //Only a fully migrated schema matches the key, which is based on the migrations on disk
+            if (schemaKey != null && SchemaMigrator.getCurrentVersion() == getLatestMigrationVersion())
+                writeSnapshot(metaData, schemaKey);
 
+            return metaData;
         }
-        catch (SQLException e)
+        catch (SQLException | IOException e)
         {
-            ExceptionManager.HandleFatalException(e, "Couldn't retrieve Author Meta data due to " +
+            ExceptionManager.HandleFatalException(e, "Couldn't retrieve Meta data due to " +
                     e.getClass().getName() + ": " + e.getMessage());
         }
 
         //Won't reach, but needed to compile
-        return new int[0];
+        return null;
+    }
+
+    private static void writeSnapshot(SchemaMetaData metaData, String schemaKey)
+    {
+        try
+        {
+            metaData.writeSnapshot(snapshotPath, schemaKey);
+        }
+        catch (IOException e)
+        {
+            //Not fatal, the next start just loads the metadata again
+            System.err.println("Couldn't save metadata snapshot to " + snapshotPath + ": " + e.getMessage());
+        }
     }
 
     /**
-     * Retrieves the metadata for the "classifications" table from the database, specifically the size of the
-     * "classificationName" column.
+     * Returns a key identifying the schema without asking the database: the database name, the version of the
+     * latest migration and the checksum of create_tables.sql. Any change to the schema changes one of these.
      *
-     * @return an int array with one element, representing the size of the "classificationName" column.
+     * @return the key, or null if the scripts couldn't be read.
      */
-    public static int[] getClassificationMetaData()
+    static String getSchemaKey()
     {
-        DataAccessManager.checkConnection();
-
         try
         {
-            DatabaseMetaData metaData = DataAccessManager.getConnection().getMetaData();
-
-            //Get metadata for classificationName column
-            ResultSet resultSet = metaData.getColumns(null, null,
-                    "classifications",
-                    "classificationName");
-            int classificationNameColumnSize = 0;
-            if (resultSet.next())
-            {
-                classificationNameColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            return new int[]{classificationNameColumnSize};
+            CRC32 crc = new CRC32();
+            crc.update(Files.readAllBytes(Paths.get(BASELINE_SCRIPT)));
+            return LibraryManager.databaseName + ":V" + getLatestMigrationVersion() + ":" +
+                    Long.toHexString(crc.getValue());
         }
-        catch (SQLException e)
+        catch (IOException e)
         {
-            ExceptionManager.HandleFatalException(e, "Couldn't retrieve Classification Meta data due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
+            System.err.println("Couldn't compute schema key, not using metadata snapshot: " + e.getMessage());
+            return null;
         }
+    }
 
-        //Won't reach, but needed to compile
-        return new int[0];
+    private static int getLatestMigrationVersion()
+    throws IOException
+    {
+        List<SchemaMigrator.Migration> migrations =
+                SchemaMigrator.findMigrations(Paths.get(SchemaMigrator.DEFAULT_MIGRATIONS_DIRECTORY));
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    /**
+     * Retrieves the metadata for the "authors" table from the database, specifically the sizes of the
+     * "authorFirstname" and "authorLastName" columns.
+     *
+     * @return an int array with two elements, the first representing the size of "authorFirstname" column and the
+     * second representing the size of the "authorLastName" column.
+     */
+    public static int[] getAuthorMetaData()
+    {
+        SchemaMetaData metaData = getSchemaMetaData();
+        return new int[]{metaData.getColumnSize("authors", "authorFirstname"),
+                metaData.getColumnSize("authors", "authorLastName")};
+    }
+
+    /**
+     * Retrieves the metadata for the "classifications" table from the database, specifically the size of the
+     * "classificationName" column.
+     *
+     * @return an int array with one element, representing the size of the "classificationName" column.
+     */
+    public static int[] getClassificationMetaData()
+    {
+        return new int[]{getSchemaMetaData().getColumnSize("classifications", "classificationName")};
     }
 
     /**
@@ -112,41 +178,9 @@ public class MetaDataRetriever
      */
     public static int[] getItemMetaData()
     {
-        DataAccessManager.checkConnection();
-
-        try
-        {
-            DatabaseMetaData metaData = DataAccessManager.getConnection().getMetaData();
-
-            //Get metadata for title column
-            ResultSet resultSet = metaData.getColumns(null, null,
-                    "items", "title");
-            int titleColumnSize = 0;
-            if (resultSet.next())
-            {
-                titleColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            //Get metadata for barcode column
-            resultSet = metaData.getColumns(null, null,
-                    "items", "barcode");
-            int barcodeColumnSize = 0;
-            if (resultSet.next())
-            {
-                barcodeColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            return new int[]{titleColumnSize, barcodeColumnSize};
-
-        }
-        catch (SQLException e)
-        {
-            ExceptionManager.HandleFatalException(e, "Couldn't retrieve Item Meta data due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
-        }
-
-        //Won't reach, but needed to compile
-        return new int[0];
+        SchemaMetaData metaData = getSchemaMetaData();
+        return new int[]{metaData.getColumnSize("items", "title"),
+                metaData.getColumnSize("items", "barcode")};
     }
 
     /**
@@ -156,31 +190,7 @@ public class MetaDataRetriever
      */
     public static int[] getLiteratureMetaData()
     {
-        DataAccessManager.checkConnection();
-
-        try
-        {
-            DatabaseMetaData metaData = DataAccessManager.getConnection().getMetaData();
-
-            //Get metadata for title column
-            ResultSet resultSet = metaData.getColumns(null, null,
-                    "literature", "isbn");
-            int ISBNColumnSize = 0;
-            if (resultSet.next())
-            {
-                ISBNColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            return new int[]{ISBNColumnSize};
-        }
-        catch (SQLException e)
-        {
-            ExceptionManager.HandleFatalException(e, "Couldn't retrieve Literature Meta data due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
-        }
-
-        //Won't reach, but needed to compile
-        return new int[0];
+        return new int[]{getSchemaMetaData().getColumnSize("literature", "isbn")};
     }
 
     /**
@@ -190,31 +200,7 @@ public class MetaDataRetriever
      */
     public static int[] getFilmMetaData()
     {
-        DataAccessManager.checkConnection();
-
-        try
-        {
-            DatabaseMetaData metaData = DataAccessManager.getConnection().getMetaData();
-
-            //Get metadata for title column
-            ResultSet resultSet = metaData.getColumns(null, null,
-                    "films", "countryOfProduction");
-            int countryOfProductionColumnSize = 0;
-            if (resultSet.next())
-            {
-                countryOfProductionColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            return new int[]{countryOfProductionColumnSize};
-        }
-        catch (SQLException e)
-        {
-            ExceptionManager.HandleFatalException(e, "Couldn't retrieve Literature Meta data due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
-        }
-
-        //Won't reach, but needed to compile
-        return new int[0];
+        return new int[]{getSchemaMetaData().getColumnSize("films", "countryOfProduction")};
     }
 
     /**
@@ -226,49 +212,9 @@ public class MetaDataRetriever
      */
     public static int[] getUserMetaData()
     {
-        DataAccessManager.checkConnection();
-
-        try
-        {
-            DatabaseMetaData metaData = DataAccessManager.getConnection().getMetaData();
-
-            //Get metadata for username column
-            ResultSet resultSet = metaData.getColumns(null, null,
-                    "users", "username");
-            int usernameColumnSize = 0;
-            if (resultSet.next())
-            {
-                usernameColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            //Get metadata for password column
-            resultSet = metaData.getColumns(null, null,
-                    "users", "password");
-            int passwordColumnSize = 0;
-            if (resultSet.next())
-            {
-                passwordColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            //Get metadata for email column
-            resultSet = metaData.getColumns(null, null,
-                    "users", "email");
-            int emailColumnSize = 0;
-            if (resultSet.next())
-            {
-                emailColumnSize = resultSet.getInt("COLUMN_SIZE");
-            }
-
-            return new int[]{usernameColumnSize, passwordColumnSize, emailColumnSize};
-
-        }
-        catch (SQLException e)
-        {
-            ExceptionManager.HandleFatalException(e, "Couldn't retrieve User Meta data due to " +
-                    e.getClass().getName() + ": " + e.getMessage());
-        }
-
-        //Won't reach, but needed to compile
-        return new int[0];
+        SchemaMetaData metaData = getSchemaMetaData();
+        return new int[]{metaData.getColumnSize("users", "username"),
+                metaData.getColumnSize("users", "password"),
+                metaData.getColumnSize("users", "email")};
     }
-}
\ No newline at end of file
+}
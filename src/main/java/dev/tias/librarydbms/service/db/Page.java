@@ -0,0 +1,95 @@
+package dev.tias.librarydbms.service.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * One page of the results of a list query, along with the token that continues where the page ends. The token is
+ * passed back to the same method to get the next page, and is null on the last page.
+ * <p>
+ * Pages are cut by a {@link Keyset}, so tokens stay valid when rows before them are inserted or deleted.
+ *
+ * @param <T> the type of result.
+ */
+public class Page<T>
+{
+    private final List<T> items;
+    private final String nextPageToken;
+
+    /**
+     * Creates a page.
+     *
+     * @param items         the results on this page.
+     * @param nextPageToken the token of the next page, null if this is the last page.
+     */
+    public Page(List<T> items, String nextPageToken)
+    {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Creates a page from the rows of a query that asked for one row more than the page size, as the queries built
+     * by a Keyset do. If that extra row is there, another page follows, and the token continues after the last row
+     * kept.
+     *
+     * @param rows     the rows, at most pageSize + 1.
+     * @param pageSize the page size.
+     * @param tokenOf  returns the token continuing after a row.
+     * @param <T>      the type of result.
+     * @return the page.
+     */
+    public static <T> Page<T> of(List<T> rows, int pageSize, Function<T, String> tokenOf)
+    {
+        if (rows.size() <= pageSize)
+            return new Page<>(rows, null);
+
+        List<T> items = rows.subList(0, pageSize);
+        return new Page<>(items, tokenOf.apply(items.get(pageSize - 1)));
+    }
+
+    /**
+     * Returns a page holding all the results, for results that aren't paged.
+     *
+     * @param items the results.
+     * @param <T>   the type of result.
+     * @return the page, with no next page.
+     */
+    public static <T> Page<T> of(List<T> items)
+    {
+        return new Page<>(items, null);
+    }
+
+    public List<T> getItems()
+    {
+        return items;
+    }
+
+    public String getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    /**
+     * Returns whether there are more results after this page.
+     *
+     * @return true if there is a next page.
+     */
+    public boolean hasNext()
+    {
+        return nextPageToken != null;
+    }
+
+    public boolean isEmpty()
+    {
+        return items.isEmpty();
+    }
+}
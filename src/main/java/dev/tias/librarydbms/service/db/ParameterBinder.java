@@ -0,0 +1,91 @@
+package dev.tias.librarydbms.service.db;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Binds parameters to PreparedStatements using the JDBC setter matching the type of each value, instead of
+ * binding everything as Strings and leaving it to MySQL to cast them.
+ * <p>
+ * Supported types are String, Integer, Long, Short, Byte, Boolean, Double, Float, BigDecimal, LocalDateTime,
+ * LocalDate, LocalTime and enums (bound by name). Nulls are bound as SQL NULL. Anything else is passed on to
+ * setObject and left to the driver.
+ */
+public class ParameterBinder
+{
+    /**
+     * Binds the given values to the parameters of a statement, in order.
+     *
+     * @param statement the statement to bind to.
+     * @param params    the values, may be null if the statement has no parameters.
+     * @throws SQLException if a value could not be bound.
+     */
+    public static void bind(PreparedStatement statement, Object[] params)
+    throws SQLException
+    {
+        if (params == null)
+            return;
+
+        for (int i = 0; i < params.length; i++)
+        {
+            bind(statement, i + 1, params[i]);
+        }
+    }
+
+    /**
+     * Binds a single value to a parameter of a statement.
+     *
+     * @param statement the statement to bind to.
+     * @param index     the index of the parameter, starting at 1.
+     * @param value     the value.
+     * @throws SQLException if the value could not be bound.
+     */
+    public static void bind(PreparedStatement statement, int index, Object value)
+    throws SQLException
+    {
+        if (value == null)
+            statement.setNull(index, Types.NULL);
+        else if (value instanceof String)
+            statement.setString(index, (String) value);
+        else if (value instanceof Integer)
+            statement.setInt(index, (Integer) value);
+        else if (value instanceof Boolean)
+            statement.setBoolean(index, (Boolean) value);
+        else if (value instanceof LocalDateTime)
+            statement.setTimestamp(index, Timestamp.valueOf((LocalDateTime) value));
+        else if (value instanceof Double)
+            statement.setDouble(index, (Double) value);
+        else if (value instanceof Long)
+            statement.setLong(index, (Long) value);
+        else if (value instanceof Enum)
+            statement.setString(index, ((Enum<?>) value).name());
+        else if (value instanceof LocalDate)
+            statement.setDate(index, Date.valueOf((LocalDate) value));
+        else if (value instanceof LocalTime)
+            statement.setTime(index, Time.valueOf((LocalTime) value));
+        else if (value instanceof Float)
+            statement.setFloat(index, (Float) value);
+        else if (value instanceof Short)
+            statement.setShort(index, (Short) value);
+        else if (value instanceof Byte)
+            statement.setByte(index, (Byte) value);
+        else if (value instanceof BigDecimal)
+            statement.setBigDecimal(index, (BigDecimal) value);
+        else
+            statement.setObject(index, value);
+    }
+}
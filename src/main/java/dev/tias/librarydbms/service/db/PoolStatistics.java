@@ -0,0 +1,146 @@
+package dev.tias.librarydbms.service.db;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * An immutable snapshot of the state and counters of a {@link ConnectionPool}, used to size the pool under load.
+ * The counters are cumulative since the pool was created.
+ */
+public class PoolStatistics
+{
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowCount;
+    private final long waitCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long evictedCount;
+    private final long validationFailureCount;
+
+    public PoolStatistics(int activeConnections, int idleConnections, int totalConnections, int minSize,
+                          int maxSize, long borrowCount, long waitCount, long totalWaitNanos, long maxWaitNanos,
+                          long timeoutCount, long createdCount, long evictedCount, long validationFailureCount)
+    {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowCount = borrowCount;
+        this.waitCount = waitCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+        this.validationFailureCount = validationFailureCount;
+    }
+
+    /**
+     * Returns the average time spent waiting by the borrows that had to wait for a connection.
+     *
+     * @return the average wait in milliseconds, or 0 if no borrow has had to wait.
+     */
+    public double getAverageWaitMillis()
+    {
+        if (waitCount == 0)
+            return 0;
+        return (double) totalWaitNanos / waitCount / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxWaitMillis()
+    {
+        return (double) maxWaitNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Getters are self-explanatory.
+     */
+    public int getActiveConnections()
+    {
+        return activeConnections;
+    }
+
+    public int getIdleConnections()
+    {
+        return idleConnections;
+    }
+
+    public int getTotalConnections()
+    {
+        return totalConnections;
+    }
+
+    public int getMinSize()
+    {
+        return minSize;
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public long getBorrowCount()
+    {
+        return borrowCount;
+    }
+
+    public long getWaitCount()
+    {
+        return waitCount;
+    }
+
+    public long getTotalWaitNanos()
+    {
+        return totalWaitNanos;
+    }
+
+    public long getMaxWaitNanos()
+    {
+        return maxWaitNanos;
+    }
+
+    public long getTimeoutCount()
+    {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount()
+    {
+        return createdCount;
+    }
+
+    public long getEvictedCount()
+    {
+        return evictedCount;
+    }
+
+    public long getValidationFailureCount()
+    {
+        return validationFailureCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PoolStatistics{active=" + activeConnections + ", idle=" + idleConnections +
+                ", total=" + totalConnections + ", min=" + minSize + ", max=" + maxSize +
+                ", borrows=" + borrowCount + ", waits=" + waitCount +
+                ", avgWaitMs=" + String.format("%.2f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.2f", getMaxWaitMillis()) +
+                ", timeouts=" + timeoutCount + ", created=" + createdCount + ", evicted=" + evictedCount +
+                ", validationFailures=" + validationFailureCount + "}";
+    }
+}
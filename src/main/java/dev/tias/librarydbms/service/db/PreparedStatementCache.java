@@ -0,0 +1,279 @@
+package dev.tias.librarydbms.service.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * An LRU cache of PreparedStatements belonging to one Connection, keyed by SQL text and whether generated keys
+ * are returned. Every pooled connection has its own cache, which lives and dies with the connection.
+ * <p>
+ * Statements are checked out with acquire and must be handed back with release instead of being closed. A
+ * statement that is already checked out is never handed out twice, since executing it again would close the
+ * ResultSet its first user is still reading. Nested calls running the same SQL get a fresh, uncached statement
+ * instead, which is closed on release.
+ * <p>
+ * Hit and miss counters are kept both per cache and summed over all caches.
+ */
+public class PreparedStatementCache
+{
+    //Summed over all caches
+    private static final LongAdder totalHits = new LongAdder();
+    private static final LongAdder totalMisses = new LongAdder();
+    private static final LongAdder totalEvictions = new LongAdder();
+
+    private final Connection connection;
+    private final int maxSize;
+    private final Map<Key, PreparedStatement> statements;
+    private final Set<PreparedStatement> checkedOut = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates a new cache for a connection.
+     *
+     * @param connection the connection the statements belong to.
+     * @param maxSize    the maximum number of statements to keep, 0 disables caching.
+     */
+    public PreparedStatementCache(Connection connection, int maxSize)
+    {
+        this.connection = Objects.requireNonNull(connection, "connection");
+        this.maxSize = Math.max(0, maxSize);
+        //Access-ordered, so the eldest entry is the least recently used
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a statement for the given SQL, preparing it if it isn't cached or the cached one is checked out.
+     *
+     * @param sql                 the SQL to prepare.
+     * @param returnGeneratedKeys whether the statement should return generated keys.
+     * @return the statement, which must be handed back with release.
+     * @throws SQLException if the statement couldn't be prepared.
+     */
+    public synchronized PreparedStatement acquire(String sql, boolean returnGeneratedKeys)
+    throws SQLException
+    {
+        Key key = new Key(sql, returnGeneratedKeys);
+        PreparedStatement statement = statements.get(key);
+
+        if (statement != null && !checkedOut.contains(statement) && !statement.isClosed())
+        {
+            hits++;
+            totalHits.increment();
+        }
+        else
+        {
+            misses++;
+            totalMisses.increment();
+            if (statement != null && statement.isClosed())
+                statements.remove(key);
+
+            PreparedStatement prepared = prepare(key);
+            //Only cache if there's no (checked out) statement for this key already
+            if (maxSize > 0 && !statements.containsKey(key))
+            {
+                statements.put(key, prepared);
+                evictLeastRecentlyUsed();
+            }
+            statement = prepared;
+        }
+
+        checkedOut.add(statement);
+        return statement;
+    }
+
+    /**
+     * Hands back a statement acquired from this cache. Cached statements have their parameters cleared and their
+     * fetch size reset, and are kept for reuse, all others are closed.
+     *
+     * @param statement the statement to hand back.
+     */
+    public synchronized void release(PreparedStatement statement)
+    {
+        if (statement == null || !checkedOut.remove(statement))
+            return;
+
+        try
+        {
+            if (statements.containsValue(statement) && !statement.isClosed())
+            {
+                statement.clearParameters();
+                statement.clearWarnings();
+                //Streaming queries change the fetch size, the next user expects the default
+                if (statement.getFetchSize() != 0)
+                    statement.setFetchSize(0);
+            }
+            else
+                statement.close();
+        }
+        catch (SQLException e)
+        {
+            //A statement that can't be reset isn't worth keeping
+            statements.values().remove(statement);
+            closeQuietly(statement);
+        }
+    }
+
+    /**
+     * Closes and forgets all cached statements that aren't checked out. Checked out statements are closed when
+     * released.
+     */
+    public synchronized void clear()
+    {
+        statements.values().removeIf(statement ->
+        {
+            if (!checkedOut.contains(statement))
+                closeQuietly(statement);
+            return true;
+        });
+    }
+
+    public synchronized int size()
+    {
+        return statements.size();
+    }
+
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Returns the hits summed over all caches.
+     *
+     * @return the total number of hits.
+     */
+    public static long getTotalHits()
+    {
+        return totalHits.sum();
+    }
+
+    /**
+     * Returns the misses summed over all caches.
+     *
+     * @return the total number of misses.
+     */
+    public static long getTotalMisses()
+    {
+        return totalMisses.sum();
+    }
+
+    /**
+     * Returns the evictions summed over all caches.
+     *
+     * @return the total number of evictions.
+     */
+    public static long getTotalEvictions()
+    {
+        return totalEvictions.sum();
+    }
+
+    /**
+     * Returns the share of all acquires that were served from a cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if nothing has been acquired yet.
+     */
+    public static double getTotalHitRatio()
+    {
+        long hits = totalHits.sum();
+        long total = hits + totalMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    //HELPERS ----------------------------------------------------------------------------------------------------------
+
+    private PreparedStatement prepare(Key key)
+    throws SQLException
+    {
+        if (key.returnGeneratedKeys)
+            return connection.prepareStatement(key.sql, Statement.RETURN_GENERATED_KEYS);
+        return connection.prepareStatement(key.sql);
+    }
+
+    /**
+     * Drops least recently used statements until the cache fits. Statements that are checked out are dropped from
+     * the cache but only closed when released.
+     */
+    private void evictLeastRecentlyUsed()
+    {
+        Iterator<PreparedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext())
+        {
+            PreparedStatement eldest = iterator.next();
+            iterator.remove();
+            evictions++;
+            totalEvictions.increment();
+            if (!checkedOut.contains(eldest))
+                closeQuietly(eldest);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement)
+    {
+        try
+        {
+            statement.close();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * What a statement is cached by.
+     */
+    private static class Key
+    {
+        private final String sql;
+        private final boolean returnGeneratedKeys;
+
+        private Key(String sql, boolean returnGeneratedKeys)
+        {
+            this.sql = Objects.requireNonNull(sql, "sql");
+            this.returnGeneratedKeys = returnGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return returnGeneratedKeys == key.returnGeneratedKeys && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * sql.hashCode() + (returnGeneratedKeys ? 1 : 0);
+        }
+    }
+}
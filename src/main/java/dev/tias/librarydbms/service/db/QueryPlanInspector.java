@@ -0,0 +1,204 @@
+package dev.tias.librarydbms.service.db;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Runs EXPLAIN on queries to find those that scan whole tables, in order to catch queries that lack an index.
+ * <p>
+ * Can also record the queries run through the DataAccessManager, so that the queries of the handlers can be
+ * checked by calling the handler methods instead of copying their SQL. Recording is off unless started, and only
+ * costs a volatile read per query while off.
+ */
+public class QueryPlanInspector
+{
+    //The SQL of every recorded query, with the parameters it was first run with
+    private static final Map<String, Object[]> recordedQueries = new LinkedHashMap<>();
+    private static volatile boolean recording = false;
+
+    /**
+     * A row of EXPLAIN output, describing how one table is accessed.
+     */
+    public static class PlanRow
+    {
+        private final String table;
+        private final String accessType;
+        private final String possibleKeys;
+        private final String key;
+        private final long rows;
+        private final String extra;
+
+        PlanRow(String table, String accessType, String possibleKeys, String key, long rows, String extra)
+        {
+            this.table = table;
+            this.accessType = accessType;
+            this.possibleKeys = possibleKeys;
+            this.key = key;
+            this.rows = rows;
+            this.extra = extra;
+        }
+
+        public String getTable()
+        {
+            return table;
+        }
+
+        /**
+         * @return the join type, such as const, eq_ref, ref, range, index or ALL.
+         */
+        public String getAccessType()
+        {
+            return accessType;
+        }
+
+        public String getPossibleKeys()
+        {
+            return possibleKeys;
+        }
+
+        public String getKey()
+        {
+            return key;
+        }
+
+        public long getRows()
+        {
+            return rows;
+        }
+
+        public String getExtra()
+        {
+            return extra;
+        }
+
+        /**
+         * Returns whether the table is read in full without any index it could have used. A table read in full
+         * even though an index is possible isn't counted, since the optimizer prefers scanning small tables, such
+         * as those of the test data, over using an index.
+         *
+         * @return true if the table is scanned because no index matches the query.
+         */
+        public boolean isFullTableScan()
+        {
+            return "ALL".equalsIgnoreCase(accessType) && (possibleKeys == null || possibleKeys.isEmpty());
+        }
+
+        @Override
+        public String toString()
+        {
+            return table + ": type=" + accessType + ", possible_keys=" + possibleKeys + ", key=" + key +
+                    ", rows=" + rows + (extra == null ? "" : ", extra=" + extra);
+        }
+    }
+
+    /**
+     * Runs EXPLAIN on a query with the given parameters.
+     *
+     * @param sql    the query, a SELECT, UPDATE or DELETE.
+     * @param params the parameters of the query, see {@link ParameterBinder}.
+     * @return a row for every table the query accesses.
+     * @throws SQLException if the query couldn't be explained.
+     */
+    public static List<PlanRow> explain(String sql, Object[] params)
+    throws SQLException
+    {
+        List<PlanRow> plan = new ArrayList<>();
+        try (QueryResult result = DataAccessManager.executePreparedQuery("EXPLAIN " + sql, params))
+        {
+            ResultSet resultSet = result.getResultSet();
+            while (resultSet.next())
+            {
+                plan.add(new PlanRow(
+                        resultSet.getString("table"),
+                        resultSet.getString("type"),
+                        resultSet.getString("possible_keys"),
+                        resultSet.getString("key"),
+                        resultSet.getLong("rows"),
+                        resultSet.getString("Extra")));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Runs EXPLAIN on a query and returns the tables it would scan in full for lack of an index.
+     *
+     * @param sql    the query.
+     * @param params the parameters of the query.
+     * @return the plan rows of the scanned tables, empty if there are none.
+     * @throws SQLException if the query couldn't be explained.
+     */
+    public static List<PlanRow> findFullTableScans(String sql, Object[] params)
+    throws SQLException
+    {
+        List<PlanRow> scans = new ArrayList<>();
+        for (PlanRow row : explain(sql, params))
+        {
+            if (row.isFullTableScan())
+                scans.add(row);
+        }
+        return scans;
+    }
+
+    /**
+     * Starts recording the queries run through the DataAccessManager, forgetting any recorded before.
+     */
+    public static synchronized void startRecording()
+    {
+        recordedQueries.clear();
+        recording = true;
+    }
+
+    /**
+     * Stops recording and returns the recorded queries.
+     *
+     * @return the SQL of every distinct SELECT, UPDATE or DELETE run while recording, mapped to the parameters it
+     * was first run with, in the order they were first run.
+     */
+    public static synchronized Map<String, Object[]> stopRecording()
+    {
+        recording = false;
+        Map<String, Object[]> queries = new LinkedHashMap<>(recordedQueries);
+        recordedQueries.clear();
+        return Collections.unmodifiableMap(queries);
+    }
+
+    /**
+     * Called by the DataAccessManager for every query and update it runs.
+     *
+     * @param sql    the SQL.
+     * @param params the parameters.
+     */
+    static void record(String sql, Object[] params)
+    {
+        if (!recording || !isExplainable(sql))
+            return;
+
+        synchronized (QueryPlanInspector.class)
+        {
+            if (recording)
+                recordedQueries.putIfAbsent(sql, params == null ? null : params.clone());
+        }
+    }
+
+    /**
+     * Only statements that read rows are worth explaining. INSERTs don't read any.
+     */
+    private static boolean isExplainable(String sql)
+    {
+        String start = sql.trim().toUpperCase(Locale.ROOT);
+        return start.startsWith("SELECT") || start.startsWith("UPDATE") || start.startsWith("DELETE");
+    }
+}
@@ -1,5 +1,6 @@
 package dev.tias.librarydbms.service.db;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -15,12 +16,18 @@ import java.sql.Statement;
  * both the ResultSet and the Statement, allowing for easier management of resources, especially when closing
  * the ResultSet and the Statement.
  * <p>
+ * If the query was run on a leased connection, the lease is held until this QueryResult is closed, since the
+ * ResultSet can't be read once the connection has been handed to someone else.
+ * <p>
  * Implements {@link AutoCloseable} in order to be used with try-with-resources.
  */
 public class QueryResult implements AutoCloseable
 {
     private final ResultSet resultSet;
     private final Statement statement;
+    private final ConnectionLease lease;
+    //Records the query along with the rows read when closed, null if statistics are disabled
+    private final QueryStatistics.Execution execution;
 
     /**
      * Constructs a new QueryResult object with the specified ResultSet and Statement.
@@ -30,16 +37,50 @@ public class QueryResult implements AutoCloseable
      */
     public QueryResult(ResultSet resultSet, Statement statement)
     {
-        this.resultSet = resultSet;
+        this(resultSet, statement, null);
+    }
+
+    /**
+     * Constructs a new QueryResult object with the specified ResultSet and Statement, holding on to the lease of
+     * the connection they belong to until closed.
+     *
+     * @param resultSet the ResultSet resulting from the execution of a SQL query
+     * @param statement the Statement used to execute the SQL query
+     * @param lease     the lease of the connection the query was run on, may be null
+     */
+    public QueryResult(ResultSet resultSet, Statement statement, ConnectionLease lease)
+    {
+        this(resultSet, statement, lease, null);
+    }
+
+    /**
+     * Constructs a new QueryResult object that counts the rows read from the ResultSet, and records them in the
+     * QueryStatistics when closed.
+     *
+     * @param resultSet the ResultSet resulting from the execution of a SQL query
+     * @param statement the Statement used to execute the SQL query
+     * @param lease     the lease of the connection the query was run on, may be null
+     * @param execution the execution of the query, may be null
+     */
+    QueryResult(ResultSet resultSet, Statement statement, ConnectionLease lease, QueryStatistics.Execution execution)
+    {
+        this.resultSet = execution == null || resultSet == null ? resultSet : execution.countRows(resultSet);
         this.statement = statement;
+        this.lease = lease;
+        this.execution = execution;
     }
 
     /**
-     * Closes both the ResultSet and the Statement associated with this QueryResult object.
+     * Closes both the ResultSet and the Statement associated with this QueryResult object, then returns the
+     * connection lease, if any. Statements belonging to a lease are handed back to its statement cache instead of
+     * being closed.
      * Any SQLExceptions thrown during the closing process are caught and handled within this method.
      */
     public void close()
     {
+        if (execution != null)
+            execution.finish();
+
         try
         {
             if (resultSet != null)
@@ -48,7 +89,11 @@ public class QueryResult implements AutoCloseable
             }
             if (statement != null)
             {
-                statement.close();
+                //Statements from a lease belong to the statement cache of its connection
+                if (lease != null && statement instanceof PreparedStatement)
+                    lease.releaseStatement((PreparedStatement) statement);
+                else
+                    statement.close();
             }
         }
         catch (SQLException e)
@@ -56,6 +101,11 @@ public class QueryResult implements AutoCloseable
             // Handle the exception or throw it, depending on your needs
             System.err.println("Error closing resources: " + e.getMessage());
         }
+        finally
+        {
+            if (lease != null)
+                lease.close();
+        }
     }
 
     /**
@@ -0,0 +1,342 @@
+package dev.tias.librarydbms.service.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Times the queries and updates run through the DataAccessManager. Statements are grouped by shape, their SQL with
+ * literals replaced by ? and whitespace collapsed, and every shape keeps a count, the rows it returned or affected
+ * and a {@link LatencyHistogram} of how long the server took to run it. The shapes that took the most time in total
+ * are returned by getTopStatements.
+ * <p>
+ * Statements that take longer than the slow query threshold are also written, with their parameters, to the
+ * dev.tias.librarydbms.SlowQueries logger, which logback.xml sends to logs/slow-queries.log. Parameters of statements
+ * that mention passwords are left out.
+ * <p>
+ * The time of a query is the time until the server starts returning rows, reading them isn't included. Its rows are
+ * counted as they are read, and recorded when the QueryResult is closed. Batches aren't timed, their rows are timed
+ * as a whole by whoever runs them.
+ */
+public class QueryStatistics
+{
+    public static final long DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS = 200;
+    //The shape used for all statements once MAX_SHAPES shapes have been recorded
+    public static final String OTHER_SHAPE = "(other statements)";
+    //Keeps statements built with concatenated values that normalize misses from growing the map without bounds
+    private static final int MAX_SHAPES = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatistics.class);
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("dev.tias.librarydbms.SlowQueries");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    //The only method of a ResultSet that is counted, every other one is just passed on
+    private static final Method NEXT = nextMethod();
+
+    //The timer of every shape recorded since the last reset
+    private static final Map<String, StatementTimer> timers = new ConcurrentHashMap<>();
+    //The shape of every distinct SQL string seen, since the handlers run the same few strings over and over
+    private static final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private static final LongAdder slowQueries = new LongAdder();
+
+    private static volatile boolean enabled = true;
+    private static volatile long slowQueryThresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS);
+
+    /**
+     * The timings of one shape.
+     */
+    private static class StatementTimer
+    {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+
+        private void record(long elapsedNanos, long rowCount)
+        {
+            histogram.record(elapsedNanos);
+            if (rowCount > 0)
+                rows.add(rowCount);
+        }
+
+        private StatementStatistics snapshot(String shape)
+        {
+            return new StatementStatistics(shape, histogram.getCount(), rows.sum(), histogram.getTotalNanos(),
+                    histogram.getMaxNanos(), histogram.getPercentileNanos(50), histogram.getPercentileNanos(95),
+                    histogram.getPercentileNanos(99));
+        }
+    }
+
+    /**
+     * A query whose rows are still being read. Counts the rows read through the ResultSet returned by
+     * countRows, and records the query when finished.
+     */
+    static class Execution
+    {
+        private final String sql;
+        private final Object[] params;
+        private final long elapsedNanos;
+        private long rows = 0;
+        private boolean finished = false;
+
+        private Execution(String sql, Object[] params, long elapsedNanos)
+        {
+            this.sql = sql;
+            this.params = params;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Wraps a ResultSet so that every row moved to by next is counted. The wrapper is a Proxy, so that every
+         * method of ResultSet is passed on without having to be written out.
+         *
+         * @param resultSet the ResultSet of the query.
+         * @return the wrapped ResultSet.
+         */
+        ResultSet countRows(ResultSet resultSet)
+        {
+            return (ResultSet) Proxy.newProxyInstance(QueryStatistics.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) ->
+                    {
+                        Object value;
+                        try
+                        {
+                            value = method.invoke(resultSet, args);
+                        }
+                        catch (InvocationTargetException e)
+                        {
+                            throw e.getCause();
+                        }
+                        if (method.equals(NEXT) && Boolean.TRUE.equals(value))
+                            rows++;
+                        return value;
+                    });
+        }
+
+        /**
+         * Records the query with the rows read so far. Only the first call has any effect.
+         */
+        void finish()
+        {
+            if (finished)
+                return;
+            finished = true;
+            record(sql, params, elapsedNanos, rows);
+        }
+    }
+
+    /**
+     * Starts tracking a query that returned a ResultSet, see {@link Execution}.
+     *
+     * @param sql          the SQL of the query.
+     * @param params       its parameters.
+     * @param elapsedNanos how long the server took to run it.
+     * @return the execution, or null if statistics are disabled.
+     */
+    static Execution startExecution(String sql, Object[] params, long elapsedNanos)
+    {
+        return enabled ? new Execution(sql, params, elapsedNanos) : null;
+    }
+
+    /**
+     * Called by the DataAccessManager for every statement it has run.
+     *
+     * @param sql          the SQL.
+     * @param params       the parameters.
+     * @param elapsedNanos how long the server took to run it.
+     * @param rows         the number of rows returned or affected.
+     */
+    static void record(String sql, Object[] params, long elapsedNanos, long rows)
+    {
+        if (!enabled)
+            return;
+
+        String shape = shapeOf(sql);
+        StatementTimer timer = timers.get(shape);
+        if (timer == null)
+        {
+            if (timers.size() >= MAX_SHAPES)
+                shape = OTHER_SHAPE;
+            timer = timers.computeIfAbsent(shape, key -> new StatementTimer());
+        }
+        timer.record(elapsedNanos, rows);
+
+        long threshold = slowQueryThresholdNanos;
+        if (threshold >= 0 && elapsedNanos >= threshold)
+        {
+            slowQueries.increment();
+            slowQueryLog.warn("{} ms, {} rows: {} {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows,
+                    WHITESPACE.matcher(sql).replaceAll(" ").trim(), formatParams(sql, params));
+        }
+    }
+
+    /**
+     * Normalizes SQL into its shape, so that statements differing only in their values are grouped together.
+     * Collapses whitespace, replaces string and numeric literals by ?, and IN lists of any length by IN (?...).
+     *
+     * @param sql the SQL.
+     * @return the shape.
+     */
+    public static String normalize(String sql)
+    {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return IN_LIST.matcher(shape).replaceAll("IN (?...)");
+    }
+
+    /**
+     * Returns the shape of a statement, normalizing it only the first time the SQL is seen.
+     *
+     * @param sql the SQL.
+     * @return the shape.
+     */
+    static String shapeOf(String sql)
+    {
+        String shape = shapes.get(sql);
+        if (shape == null)
+        {
+            shape = normalize(sql);
+            if (shapes.size() < MAX_SHAPES)
+                shapes.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private static Method nextMethod()
+    {
+        try
+        {
+            return ResultSet.class.getMethod("next");
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new IllegalStateException("ResultSet has no next method.", e);
+        }
+    }
+
+    private static String formatParams(String sql, Object[] params)
+    {
+        if (params == null)
+            return "[]";
+        if (sql.toLowerCase(Locale.ROOT).contains("password"))
+            return "[" + params.length + " parameters hidden]";
+        return Arrays.toString(params);
+    }
+
+    /**
+     * Returns the statistics of the shapes that have taken the most time in total, most first.
+     *
+     * @param n the maximum number of shapes to return.
+     * @return the statistics, at most n of them.
+     */
+    public static List<StatementStatistics> getTopStatements(int n)
+    {
+        if (n < 0)
+            throw new IllegalArgumentException("n must not be negative. Received: " + n);
+
+        List<StatementStatistics> statistics = new ArrayList<>();
+        for (Map.Entry<String, StatementTimer> entry : timers.entrySet())
+            statistics.add(entry.getValue().snapshot(entry.getKey()));
+        statistics.sort(Comparator.comparingDouble(StatementStatistics::getTotalMillis).reversed());
+        return statistics.size() > n ? new ArrayList<>(statistics.subList(0, n)) : statistics;
+    }
+
+    /**
+     * Returns the statistics of the shape of a statement.
+     *
+     * @param sql the SQL of the statement, normalized before looking it up.
+     * @return the statistics, or null if no statement of that shape has been recorded.
+     */
+    public static StatementStatistics getStatistics(String sql)
+    {
+        String shape = normalize(sql);
+        StatementTimer timer = timers.get(shape);
+        return timer == null ? null : timer.snapshot(shape);
+    }
+
+    /**
+     * Logs the shapes that have taken the most time in total, most first.
+     *
+     * @param n the maximum number of shapes to log.
+     */
+    public static void logTopStatements(int n)
+    {
+        StringBuilder report = new StringBuilder("Top ").append(n).append(" statements by total time:");
+        for (StatementStatistics statistics : getTopStatements(n))
+            report.append("\n  ").append(statistics);
+        log.info(report.toString());
+    }
+
+    /**
+     * Returns how many statements have been written to the slow query log since the last reset.
+     *
+     * @return the number of slow statements.
+     */
+    public static long getSlowQueryCount()
+    {
+        return slowQueries.sum();
+    }
+
+    /**
+     * Forgets every recorded statement.
+     */
+    public static void reset()
+    {
+        timers.clear();
+        slowQueries.reset();
+    }
+
+    public static long getSlowQueryThresholdMillis()
+    {
+        long threshold = slowQueryThresholdNanos;
+        return threshold < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(threshold);
+    }
+
+    /**
+     * Sets how long a statement may take before it's written to the slow query log.
+     *
+     * @param thresholdMillis the threshold in milliseconds. 0 logs every statement, a negative threshold none.
+     */
+    public static void setSlowQueryThresholdMillis(long thresholdMillis)
+    {
+        slowQueryThresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Turns the statistics, and the slow query log, on or off. On by default.
+     *
+     * @param enabled whether statements should be recorded.
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        QueryStatistics.enabled = enabled;
+    }
+}
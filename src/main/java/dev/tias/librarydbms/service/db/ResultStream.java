@@ -0,0 +1,123 @@
+package dev.tias.librarydbms.service.db;
+
+import dev.tias.librarydbms.service.exceptions.ExceptionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Turns the ResultSet of a {@link QueryResult} into a lazily populated Stream, which reads and maps one row at a
+ * time as the stream is consumed, instead of reading every row into a list first.
+ * <p>
+ * The QueryResult, and with it the leased connection, is closed when the stream is closed, when the last row has
+ * been read, or when mapping a row fails, whichever comes first. Streams that might not be read to the end must be
+ * closed, so use try-with-resources.
+ */
+public class ResultStream
+{
+    /**
+     * Maps the current row of a ResultSet to an object.
+     *
+     * @param <T> the type of object.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T>
+    {
+        T map(ResultSet resultSet)
+        throws SQLException;
+    }
+
+    //Only static methods
+    private ResultStream()
+    {
+    }
+
+    /**
+     * Returns a stream of the rows of a QueryResult, mapped to objects.
+     *
+     * @param queryResult the result to stream, which the stream takes ownership of.
+     * @param mapper      maps each row to an object, must not return null.
+     * @param <T>         the type of object.
+     * @return the stream, which must be closed unless it is read to the end.
+     */
+    public static <T> Stream<T> of(QueryResult queryResult, RowMapper<T> mapper)
+    {
+        Objects.requireNonNull(queryResult, "queryResult");
+        Objects.requireNonNull(mapper, "mapper");
+
+        RowSpliterator<T> spliterator = new RowSpliterator<>(queryResult, mapper);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Reads one row per call to tryAdvance.
+     */
+    private static class RowSpliterator<T> extends Spliterators.AbstractSpliterator<T>
+    {
+        private final QueryResult queryResult;
+        private final RowMapper<T> mapper;
+        private boolean closed;
+
+        private RowSpliterator(QueryResult queryResult, RowMapper<T> mapper)
+        {
+            //The number of rows isn't known until they've been read
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.queryResult = queryResult;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action)
+        {
+            if (closed)
+                return false;
+
+            T row;
+            try
+            {
+                if (!queryResult.getResultSet().next())
+                {
+                    //Nothing more to read, no need to hold on to the connection until the stream is closed
+                    close();
+                    return false;
+                }
+                row = mapper.map(queryResult.getResultSet());
+            }
+            catch (SQLException e)
+            {
+                close();
+                ExceptionManager.HandleFatalException(e, "Failed to read streamed rows due to " +
+                        e.getClass().getName() + ": " + e.getMessage());
+                return false; //Won't reach, but needed to compile
+            }
+            catch (RuntimeException e)
+            {
+                close();
+                throw e;
+            }
+
+            action.accept(row);
+            return true;
+        }
+
+        private void close()
+        {
+            if (closed)
+                return;
+            closed = true;
+            queryResult.close();
+        }
+    }
+}
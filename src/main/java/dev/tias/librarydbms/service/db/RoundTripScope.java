@@ -0,0 +1,198 @@
+package dev.tias.librarydbms.service.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Counts the round trips to the server made by the calling thread while the scope is open, and how many times each
+ * statement shape was run, see {@link QueryStatistics#normalize(String)}. Meant to be opened around a top-level
+ * handler operation, in order to find out how many statements it really sends:
+ * <pre>
+ *     try (RoundTripScope scope = RoundTripScope.open("RentalHandler.createNewRental"))
+ *     {
+ *         ...
+ *     }
+ * </pre>
+ * A shape run REPEAT_THRESHOLD times or more within one scope is likely an N+1, a query run once per row of an
+ * earlier query instead of being joined into it, and is written to the log when the outermost scope is closed.
+ * Batches are counted as round trips, but their shapes aren't, since running one statement many times is what
+ * they're for. Neither are the statements starting, committing and rolling back a {@link Transaction}.
+ * <p>
+ * Scopes can be nested, the round trips of an inner scope are counted by the scopes around it as well. A scope
+ * belongs to the thread that opened it, and must be closed by it, in the reverse order of opening.
+ */
+public class RoundTripScope implements AutoCloseable
+{
+    //The number of runs of one shape within a scope at which it's considered a likely N+1
+    public static final int REPEAT_THRESHOLD = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(RoundTripScope.class);
+    //The innermost scope open on each thread
+    private static final ThreadLocal<RoundTripScope> current = new ThreadLocal<>();
+
+    private final String operation;
+    private final RoundTripScope parent;
+    //The number of runs of each shape, in the order they were first run
+    private final Map<String, Integer> shapeCounts = new LinkedHashMap<>();
+    private long roundTrips = 0;
+    private boolean closed = false;
+
+    private RoundTripScope(String operation, RoundTripScope parent)
+    {
+        this.operation = operation;
+        this.parent = parent;
+    }
+
+    /**
+     * Opens a scope on the calling thread, inside the scope already open on it, if any.
+     *
+     * @param operation the name of the operation, used when logging.
+     * @return the scope, which must be closed.
+     */
+    public static RoundTripScope open(String operation)
+    {
+        RoundTripScope scope = new RoundTripScope(operation, current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    /**
+     * Runs an operation in a scope of its own, and returns the closed scope. Meant for tests, which can then check
+     * the round trips against the budget of the operation:
+     * <pre>
+     *     RoundTripScope scope = RoundTripScope.measure("checkout", () -> RentalHandler.createNewRental(1, 1));
+     *     assertTrue(scope.getRoundTrips() &lt;= 4, scope.toString());
+     * </pre>
+     *
+     * @param operation the name of the operation.
+     * @param work      the operation.
+     * @param <E>       the type of exception the operation may throw.
+     * @return the closed scope.
+     * @throws E if the operation threw it.
+     */
+    public static <E extends Exception> RoundTripScope measure(String operation,
+                                                               DataAccessManager.UnitOfWork<?, E> work)
+    throws E
+    {
+        try (RoundTripScope scope = open(operation))
+        {
+            work.run();
+            return scope;
+        }
+    }
+
+    /**
+     * Called by the DataAccessManager for every round trip, counts it in every scope open on the calling thread.
+     *
+     * @param sql the SQL of the statement, or null for a batch or a transaction statement.
+     */
+    static void record(String sql)
+    {
+        RoundTripScope scope = current.get();
+        if (scope == null)
+            return;
+
+        String shape = sql == null ? null : QueryStatistics.shapeOf(sql);
+        for (; scope != null; scope = scope.parent)
+        {
+            scope.roundTrips++;
+            if (shape != null)
+                scope.shapeCounts.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    public String getOperation()
+    {
+        return operation;
+    }
+
+    /**
+     * Returns the number of round trips made since the scope was opened, until it was closed.
+     *
+     * @return the number of round trips.
+     */
+    public long getRoundTrips()
+    {
+        return roundTrips;
+    }
+
+    /**
+     * Returns how many times each statement shape was run, batches left out.
+     *
+     * @return the shapes, in the order they were first run, mapped to their runs.
+     */
+    public Map<String, Integer> getShapeCounts()
+    {
+        return Collections.unmodifiableMap(shapeCounts);
+    }
+
+    /**
+     * Returns the shapes that were run REPEAT_THRESHOLD times or more, and are therefore likely N+1 queries.
+     *
+     * @return the repeated shapes mapped to their runs, empty if there are none.
+     */
+    public Map<String, Integer> getRepeatedStatements()
+    {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : shapeCounts.entrySet())
+        {
+            if (entry.getValue() >= REPEAT_THRESHOLD)
+                repeated.put(entry.getKey(), entry.getValue());
+        }
+        return repeated;
+    }
+
+    public boolean hasRepeatedStatements()
+    {
+        return !getRepeatedStatements().isEmpty();
+    }
+
+    /**
+     * Closes the scope, and logs any repeated statements if it's the outermost scope of the thread. Closing a scope
+     * more than once has no effect.
+     *
+     * @throws IllegalStateException if a scope opened inside this one is still open, or the scope belongs to
+     *                               another thread.
+     */
+    @Override
+    public void close()
+    {
+        if (closed)
+            return;
+        if (current.get() != this)
+            throw new IllegalStateException("Round trip scope " + operation + " closed out of order, or by a " +
+                    "thread other than the one that opened it.");
+        closed = true;
+
+        if (parent == null)
+            current.remove();
+        else
+            current.set(parent);
+
+        if (parent == null && hasRepeatedStatements())
+            log.warn("Likely N+1 in {}: {}", operation, this);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder(operation).append(": ").append(roundTrips).append(" round trips");
+        for (Map.Entry<String, Integer> entry : shapeCounts.entrySet())
+        {
+            builder.append("\n  ").append(entry.getValue()).append("x ").append(entry.getKey());
+            if (entry.getValue() >= REPEAT_THRESHOLD)
+                builder.append(" (repeated)");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,297 @@
+package dev.tias.librarydbms.service.db;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Executes SQL scripts, such as the table definitions and test data, or a dump of the production database.
+ * <p>
+ * The script is streamed with an {@link SQLScriptReader}. Consecutive INSERT, UPDATE, DELETE and REPLACE statements
+ * are sent to the server as JDBC batches of at most chunkSize statements, and each batch is committed as one
+ * transaction. Any other statement ends the current batch, and is executed and committed on its own.
+ * <p>
+ * If a statement fails, the transaction it is part of is rolled back and an SQLException naming the line of the
+ * statement is thrown. Chunks committed before that are kept.
+ * <p>
+ * The batches, statements and commits are counted as round trips, see {@link DataAccessManager#getRoundTripCount()}.
+ */
+public class SQLScriptExecutor
+{
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int DEFAULT_PROGRESS_INTERVAL = 10000;
+
+    /**
+     * Receives progress reports from an SQLScriptExecutor.
+     */
+    @FunctionalInterface
+    public interface ProgressListener
+    {
+        /**
+         * Called every progressInterval statements, and once when the script has been executed.
+         *
+         * @param progress the progress so far.
+         */
+        void onProgress(ScriptProgress progress);
+    }
+
+    private final int chunkSize;
+    private final int progressInterval;
+    private final ProgressListener listener;
+
+    //State of the script being executed
+    private String scriptName;
+    private SQLScriptReader reader;
+    private long startNanos;
+    private long statementsExecuted;
+    private long batchesExecuted;
+    private long transactionsCommitted;
+    private long nextProgressReport;
+    private final List<Integer> batchLineNumbers = new ArrayList<>();
+
+    /**
+     * Creates an executor with the default chunk size that doesn't report progress.
+     */
+    public SQLScriptExecutor()
+    {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_PROGRESS_INTERVAL, null);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param chunkSize        the maximum number of statements per batch and transaction, at least 1.
+     * @param progressInterval how many statements to execute between progress reports, at least 1.
+     * @param listener         the listener to report progress to, or null.
+     */
+    public SQLScriptExecutor(int chunkSize, int progressInterval, ProgressListener listener)
+    {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Chunk size must be at least 1. Received: " + chunkSize);
+        if (progressInterval < 1)
+            throw new IllegalArgumentException("Progress interval must be at least 1. Received: " + progressInterval);
+
+        this.chunkSize = chunkSize;
+        this.progressInterval = progressInterval;
+        this.listener = listener;
+    }
+
+    /**
+     * Executes a script file on a connection. The auto-commit mode of the connection is restored when done.
+     *
+     * @param connection the connection to execute the script on.
+     * @param script     the path of the script.
+     * @return the final progress, with the totals for the script.
+     * @throws IOException  if the script couldn't be read.
+     * @throws SQLException if a statement failed.
+     */
+    public ScriptProgress execute(Connection connection, Path script)
+    throws IOException, SQLException
+    {
+        try (SQLScriptReader scriptReader = new SQLScriptReader(script))
+        {
+            return execute(connection, scriptReader, script.toString());
+        }
+    }
+
+    /**
+     * Executes the statements of a script reader on a connection. The auto-commit mode of the connection is
+     * restored when done. Executors are not thread safe, but can execute one script after another.
+     *
+     * @param connection   the connection to execute the script on.
+     * @param scriptReader the reader to read statements from. It is not closed.
+     * @param scriptName   the name of the script, used in progress reports and error messages.
+     * @return the final progress, with the totals for the script.
+     * @throws IOException  if the script couldn't be read.
+     * @throws SQLException if a statement failed.
+     */
+    public synchronized ScriptProgress execute(Connection connection, SQLScriptReader scriptReader, String scriptName)
+    throws IOException, SQLException
+    {
+        this.scriptName = scriptName;
+        this.reader = scriptReader;
+        this.startNanos = System.nanoTime();
+        this.statementsExecuted = 0;
+        this.batchesExecuted = 0;
+        this.transactionsCommitted = 0;
+        this.nextProgressReport = progressInterval;
+        this.batchLineNumbers.clear();
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try (Statement statement = connection.createStatement())
+        {
+            String sql;
+            while ((sql = reader.nextStatement()) != null)
+            {
+                if (isBatchable(sql))
+                {
+                    statement.addBatch(sql);
+                    batchLineNumbers.add(reader.getStatementLineNumber());
+                    if (batchLineNumbers.size() >= chunkSize)
+                        executeBatch(connection, statement);
+                }
+                else
+                {
+                    executeBatch(connection, statement);
+                    executeSingle(connection, statement, sql, reader.getStatementLineNumber());
+                }
+            }
+            executeBatch(connection, statement);
+        }
+        catch (SQLException | IOException e)
+        {
+            rollback(connection);
+            throw e;
+        }
+        finally
+        {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        ScriptProgress progress = getProgress(true);
+        if (listener != null)
+            listener.onProgress(progress);
+        return progress;
+    }
+
+    /**
+     * Executes and commits the statements added to the batch, if any.
+     */
+    private void executeBatch(Connection connection, Statement statement)
+    throws SQLException
+    {
+        if (batchLineNumbers.isEmpty())
+            return;
+
+        try
+        {
+            statement.executeBatch();
+            DataAccessManager.countRoundTrip(null);
+            connection.commit();
+            DataAccessManager.countRoundTrip(null);
+        }
+        catch (BatchUpdateException e)
+        {
+            //The update counts stop at the failed statement, unless the driver went on after it
+            int[] counts = e.getUpdateCounts() == null ? new int[0] : e.getUpdateCounts();
+            int failed = counts.length;
+            for (int i = 0; i < counts.length; i++)
+            {
+                if (counts[i] == Statement.EXECUTE_FAILED)
+                {
+                    failed = i;
+                    break;
+                }
+            }
+            int line = batchLineNumbers.get(Math.min(failed, batchLineNumbers.size() - 1));
+            throw new SQLException(failureMessage(line, e), e.getSQLState(), e.getErrorCode(), e);
+        }
+        finally
+        {
+            statement.clearBatch();
+        }
+
+        batchesExecuted++;
+        transactionsCommitted++;
+        statementsExecuted += batchLineNumbers.size();
+        batchLineNumbers.clear();
+        reportProgress();
+    }
+
+    /**
+     * Executes and commits a single statement.
+     */
+    private void executeSingle(Connection connection, Statement statement, String sql, int line)
+    throws SQLException
+    {
+        try
+        {
+            statement.execute(sql);
+            DataAccessManager.countRoundTrip(sql);
+            connection.commit();
+            DataAccessManager.countRoundTrip(null);
+        }
+        catch (SQLException e)
+        {
+            throw new SQLException(failureMessage(line, e), e.getSQLState(), e.getErrorCode(), e);
+        }
+
+        transactionsCommitted++;
+        statementsExecuted++;
+        reportProgress();
+    }
+
+    private String failureMessage(int line, SQLException cause)
+    {
+        return "Statement at line " + line + " of " + scriptName + " failed: " + cause.getMessage();
+    }
+
+    /**
+     * Rolls back the current transaction after a failure. A failing rollback must not hide the original exception.
+     */
+    private static void rollback(Connection connection)
+    {
+        try
+        {
+            connection.rollback();
+        }
+        catch (SQLException e)
+        {
+            System.err.println("Failed to roll back script transaction: " + e.getMessage());
+        }
+    }
+
+    private void reportProgress()
+    {
+        if (listener != null && statementsExecuted >= nextProgressReport)
+        {
+            listener.onProgress(getProgress(false));
+            nextProgressReport = (statementsExecuted / progressInterval + 1) * progressInterval;
+        }
+    }
+
+    private ScriptProgress getProgress(boolean finished)
+    {
+        return new ScriptProgress(scriptName, statementsExecuted, batchesExecuted, transactionsCommitted,
+                reader.getBytesRead(), reader.getTotalBytes(), System.nanoTime() - startNanos, finished);
+    }
+
+    /**
+     * Returns whether a statement changes rows, and can therefore be sent as part of a batch. Statements that
+     * change the schema or session, such as CREATE TABLE or USE, must run on their own.
+     *
+     * @param sql the statement.
+     * @return true if the statement is an INSERT, UPDATE, DELETE or REPLACE.
+     */
+    static boolean isBatchable(String sql)
+    {
+        int end = 0;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end)))
+            end++;
+
+        switch (sql.substring(0, end).toUpperCase(Locale.ROOT))
+        {
+            case "INSERT":
+            case "UPDATE":
+            case "DELETE":
+            case "REPLACE":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
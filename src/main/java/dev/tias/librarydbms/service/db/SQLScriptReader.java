@@ -0,0 +1,424 @@
+package dev.tias.librarydbms.service.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Reads the statements of an SQL script one at a time, streaming the file through a FileChannel and a fixed size
+ * buffer, so that scripts of any size can be read without holding them in memory.
+ * <p>
+ * Follows the MySQL rules for splitting a script into statements:
+ * <ul>
+ *     <li>Statements end with the delimiter, ';' by default. It can be changed with a DELIMITER line.</li>
+ *     <li>'--' followed by whitespace and '#' start comments running to the end of the line.</li>
+ *     <li>'/* ... *&#47;' are comments, except '/*! ... *&#47;' and '/*+ ... *&#47;' which are kept, since the
+ *     server executes them.</li>
+ *     <li>Nothing inside '...', "..." or `...` is treated as a comment or delimiter. Quotes can be escaped with a
+ *     backslash or by doubling them.</li>
+ * </ul>
+ * The script is expected to be UTF-8 encoded.
+ */
+public class SQLScriptReader implements AutoCloseable
+{
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final String DEFAULT_DELIMITER = ";";
+    private static final int END_OF_INPUT = -1;
+
+    private final ReadableByteChannel channel;
+    private final long totalBytes;
+    private final ByteBuffer byteBuffer;
+    private final CharBuffer charBuffer;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private long bytesRead = 0;
+    private boolean channelDrained = false;
+    private boolean decoderFlushed = false;
+    private int lineNumber = 1;
+    private int statementLineNumber = 0;
+    private String delimiter = DEFAULT_DELIMITER;
+
+    /**
+     * Opens a script file for reading.
+     *
+     * @param path the path of the script.
+     * @throws IOException if the file couldn't be opened.
+     */
+    public SQLScriptReader(Path path)
+    throws IOException
+    {
+        this(FileChannel.open(path, StandardOpenOption.READ), DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Reads a script from a channel. If the channel is a FileChannel, its size is used to report how much of the
+     * script has been read.
+     *
+     * @param channel    the channel to read from. It is closed when the reader is closed.
+     * @param bufferSize the size of the read buffer in bytes, at least 16.
+     * @throws IOException if the size of a FileChannel couldn't be read.
+     */
+    public SQLScriptReader(ReadableByteChannel channel, int bufferSize)
+    throws IOException
+    {
+        if (bufferSize < 16)
+            throw new IllegalArgumentException("Buffer size must be at least 16 bytes. Received: " + bufferSize);
+
+        this.channel = channel;
+        this.totalBytes = channel instanceof FileChannel ? ((FileChannel) channel).size() : -1;
+        this.byteBuffer = ByteBuffer.allocateDirect(bufferSize);
+        this.charBuffer = CharBuffer.allocate(bufferSize);
+        this.charBuffer.flip(); //Start out empty
+    }
+
+    /**
+     * Reads the next statement of the script.
+     *
+     * @return the statement, without its delimiter and with comments removed, or null at the end of the script.
+     * @throws IOException if the script couldn't be read.
+     */
+    public String nextStatement()
+    throws IOException
+    {
+        StringBuilder statement = new StringBuilder();
+        statementLineNumber = 0;
+
+        int c;
+        while ((c = read()) != END_OF_INPUT)
+        {
+            //Quoted strings and identifiers are copied as they are
+            if (c == '\'' || c == '"' || c == '`')
+            {
+                markStatementStart(statement);
+                readQuoted(statement, (char) c);
+                continue;
+            }
+
+            //Comments
+            if (c == '#' || (c == '-' && peek() == '-' && isWhitespaceOrEnd(peek(1))))
+            {
+                skipLineComment();
+                statement.append('\n');
+                continue;
+            }
+            if (c == '/' && peek() == '*')
+            {
+                read();
+                int hint = peek();
+                if (hint == '!' || hint == '+')
+                {
+                    //Executable comment, keep it
+                    markStatementStart(statement);
+                    statement.append("/*");
+                    readBlockComment(statement);
+                }
+                else
+                {
+                    readBlockComment(null);
+                    statement.append(' ');
+                }
+                continue;
+            }
+
+            //DELIMITER lines change the delimiter, and are not sent to the server
+            if (c == '\n' && isDelimiterCommand(statement))
+            {
+                delimiter = statement.toString().trim().substring("DELIMITER".length()).trim();
+                if (delimiter.isEmpty())
+                    delimiter = DEFAULT_DELIMITER;
+                statement.setLength(0);
+                statementLineNumber = 0;
+                continue;
+            }
+
+            if (!Character.isWhitespace(c))
+                markStatementStart(statement);
+            statement.append((char) c);
+
+            //End of statement, unless the delimiter is part of a DELIMITER line
+            if (endsWithDelimiter(statement) && !isDelimiterCommand(statement))
+            {
+                statement.setLength(statement.length() - delimiter.length());
+                String sql = statement.toString().trim();
+                if (!sql.isEmpty())
+                    return sql;
+                statement.setLength(0);
+                statementLineNumber = 0;
+            }
+        }
+
+        //The last statement doesn't need a delimiter
+        if (isDelimiterCommand(statement))
+            return null;
+        String sql = statement.toString().trim();
+        return sql.isEmpty() ? null : sql;
+    }
+
+    /**
+     * Returns the line the statement last returned by nextStatement starts on, counting from 1.
+     *
+     * @return the line number.
+     */
+    public int getStatementLineNumber()
+    {
+        return statementLineNumber;
+    }
+
+    /**
+     * Returns the number of bytes read from the channel so far.
+     *
+     * @return the number of bytes read.
+     */
+    public long getBytesRead()
+    {
+        return bytesRead;
+    }
+
+    /**
+     * Returns the size of the script in bytes.
+     *
+     * @return the size, or -1 if it isn't known.
+     */
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    /**
+     * Closes the underlying channel.
+     *
+     * @throws IOException if the channel couldn't be closed.
+     */
+    @Override
+    public void close()
+    throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Copies a quoted string or identifier, whose opening quote has already been read, including its closing quote.
+     */
+    private void readQuoted(StringBuilder statement, char quote)
+    throws IOException
+    {
+        statement.append(quote);
+
+        int c;
+        while ((c = read()) != END_OF_INPUT)
+        {
+            statement.append((char) c);
+            if (c == '\\' && quote != '`')
+            {
+                //Escaped character, copy it without looking at it
+                int escaped = read();
+                if (escaped == END_OF_INPUT)
+                    return;
+                statement.append((char) escaped);
+            }
+            else if (c == quote)
+            {
+                //A doubled quote is an escaped quote, the string goes on
+                if (peek() != quote)
+                    return;
+                statement.append((char) read());
+            }
+        }
+    }
+
+    /**
+     * Skips the rest of a line comment, up to and including the line break.
+     */
+    private void skipLineComment()
+    throws IOException
+    {
+        int c;
+        do
+        {
+            c = read();
+        }
+        while (c != END_OF_INPUT && c != '\n');
+    }
+
+    /**
+     * Reads a block comment whose opening '/*' has already been read, up to and including its end.
+     *
+     * @param statement the statement to copy the comment to, or null to skip it.
+     */
+    private void readBlockComment(StringBuilder statement)
+    throws IOException
+    {
+        int c;
+        while ((c = read()) != END_OF_INPUT)
+        {
+            if (statement != null)
+                statement.append((char) c);
+            if (c == '*' && peek() == '/')
+            {
+                read();
+                if (statement != null)
+                    statement.append('/');
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remembers the current line as the start of the statement, if the statement has no content yet.
+     */
+    private void markStatementStart(StringBuilder statement)
+    {
+        if (statementLineNumber == 0)
+            statementLineNumber = lineNumber;
+    }
+
+    private boolean endsWithDelimiter(StringBuilder statement)
+    {
+        int start = statement.length() - delimiter.length();
+        if (start < 0)
+            return false;
+        for (int i = 0; i < delimiter.length(); i++)
+        {
+            if (statement.charAt(start + i) != delimiter.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the statement read so far is a single DELIMITER line. Returns quickly for anything else,
+     * since it is called at the end of every line.
+     */
+    private static boolean isDelimiterCommand(StringBuilder statement)
+    {
+        String keyword = "DELIMITER";
+        int start = 0;
+        while (start < statement.length() && Character.isWhitespace(statement.charAt(start)))
+            start++;
+
+        if (statement.length() - start <= keyword.length())
+            return false;
+        if (Character.toUpperCase(statement.charAt(start)) != 'D')
+            return false;
+        if (!statement.substring(start, start + keyword.length()).equalsIgnoreCase(keyword))
+            return false;
+        if (!Character.isWhitespace(statement.charAt(start + keyword.length())))
+            return false;
+
+        for (int i = start; i < statement.length(); i++)
+        {
+            if (statement.charAt(i) == '\n')
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespaceOrEnd(int c)
+    {
+        return c == END_OF_INPUT || Character.isWhitespace(c);
+    }
+
+    /**
+     * Reads the next character, refilling the buffer from the channel when needed.
+     *
+     * @return the character, or END_OF_INPUT.
+     */
+    private int read()
+    throws IOException
+    {
+        if (!charBuffer.hasRemaining() && !fill())
+            return END_OF_INPUT;
+        char c = charBuffer.get();
+        if (c == '\n')
+            lineNumber++;
+        return c;
+    }
+
+    /**
+     * Returns the next character without reading it.
+     */
+    private int peek()
+    throws IOException
+    {
+        return peek(0);
+    }
+
+    /**
+     * Returns the character at a given offset from the next character without reading it. Compacts the buffer
+     * and reads more from the channel if it doesn't hold enough characters.
+     */
+    private int peek(int offset)
+    throws IOException
+    {
+        while (charBuffer.remaining() <= offset)
+        {
+            if (!fill())
+                return END_OF_INPUT;
+        }
+        return charBuffer.get(charBuffer.position() + offset);
+    }
+
+    /**
+     * Decodes more characters into the char buffer, keeping any characters not yet read.
+     *
+     * @return false if there was nothing more to read.
+     */
+    private boolean fill()
+    throws IOException
+    {
+        if (decoderFlushed)
+            return false;
+
+        int before = charBuffer.remaining();
+        charBuffer.compact();
+        try
+        {
+            while (charBuffer.position() == before)
+            {
+                if (!channelDrained)
+                {
+                    int read = channel.read(byteBuffer);
+                    if (read < 0)
+                        channelDrained = true;
+                    else
+                        bytesRead += read;
+                }
+
+                byteBuffer.flip();
+                CoderResult result = decoder.decode(byteBuffer, charBuffer, channelDrained);
+                byteBuffer.compact();
+                if (result.isError())
+                    result.throwException();
+
+                if (channelDrained)
+                {
+                    decoder.flush(charBuffer);
+                    decoderFlushed = true;
+                    break;
+                }
+            }
+        }
+        finally
+        {
+            charBuffer.flip();
+        }
+        return charBuffer.remaining() > before;
+    }
+}
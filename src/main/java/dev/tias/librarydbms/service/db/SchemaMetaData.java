@@ -0,0 +1,195 @@
+package dev.tias.librarydbms.service.db;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * An immutable map of the sizes of every column in the database in use, loaded with a single query against
+ * information_schema.COLUMNS. For character columns the size is the maximum number of characters, for numeric
+ * columns the precision.
+ * <p>
+ * Table and column names are looked up without regard to case, like the MySQL Server does on the platforms we
+ * run on.
+ * <p>
+ * The map can be saved to a snapshot file and read back on a later start. A snapshot is tied to a schema key,
+ * see {@link MetaDataRetriever}, and is ignored if the key no longer matches.
+ */
+public class SchemaMetaData
+{
+    static final String COLUMNS_QUERY = "SELECT TABLE_NAME, COLUMN_NAME, " +
+            "COALESCE(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, DATETIME_PRECISION, 0) AS COLUMN_SIZE " +
+            "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()";
+
+    private static final String SCHEMA_KEY_PROPERTY = "schemaKey";
+    private static final String COLUMN_PROPERTY_PREFIX = "column.";
+
+    //Keys are lower case "table.column"
+    private final Map<String, Integer> columnSizes;
+
+    SchemaMetaData(Map<String, Integer> columnSizes)
+    {
+        this.columnSizes = Collections.unmodifiableMap(new HashMap<>(columnSizes));
+    }
+
+    /**
+     * Loads the sizes of all columns in the database in use, in one query.
+     *
+     * @return the metadata.
+     * @throws SQLException if the query failed.
+     */
+    public static SchemaMetaData load()
+    throws SQLException
+    {
+        try (QueryResult result = DataAccessManager.executePreparedQuery(COLUMNS_QUERY, null))
+        {
+            return fromResultSet(result.getResultSet());
+        }
+    }
+
+    /**
+     * Reads the rows of the columns query.
+     */
+    static SchemaMetaData fromResultSet(ResultSet resultSet)
+    throws SQLException
+    {
+        Map<String, Integer> columnSizes = new HashMap<>();
+        while (resultSet.next())
+        {
+            columnSizes.put(key(resultSet.getString("TABLE_NAME"), resultSet.getString("COLUMN_NAME")),
+                    (int) Math.min(resultSet.getLong("COLUMN_SIZE"), Integer.MAX_VALUE));
+        }
+        return new SchemaMetaData(columnSizes);
+    }
+
+    /**
+     * Returns the size of a column.
+     *
+     * @param table  the name of the table.
+     * @param column the name of the column.
+     * @return the size, or 0 if there is no such column.
+     */
+    public int getColumnSize(String table, String column)
+    {
+        return columnSizes.getOrDefault(key(table, column), 0);
+    }
+
+    /**
+     * Returns whether a column exists.
+     *
+     * @param table  the name of the table.
+     * @param column the name of the column.
+     * @return true if it exists.
+     */
+    public boolean hasColumn(String table, String column)
+    {
+        return columnSizes.containsKey(key(table, column));
+    }
+
+    /**
+     * Returns the number of columns, over all tables.
+     *
+     * @return the number of columns.
+     */
+    public int getColumnCount()
+    {
+        return columnSizes.size();
+    }
+
+    /**
+     * Saves the metadata to a snapshot file, replacing any earlier snapshot. The file is written next to the
+     * snapshot and then moved into place, so a reader never sees half a snapshot.
+     *
+     * @param path      the snapshot file.
+     * @param schemaKey the key of the schema the metadata was loaded from.
+     * @throws IOException if the file couldn't be written.
+     */
+    public void writeSnapshot(Path path, String schemaKey)
+    throws IOException
+    {
+        Properties properties = new Properties();
+        properties.setProperty(SCHEMA_KEY_PROPERTY, schemaKey);
+        for (Map.Entry<String, Integer> column : columnSizes.entrySet())
+        {
+            properties.setProperty(COLUMN_PROPERTY_PREFIX + column.getKey(), Integer.toString(column.getValue()));
+        }
+
+        Path absolute = path.toAbsolutePath();
+        if (absolute.getParent() != null)
+            Files.createDirectories(absolute.getParent());
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))
+        {
+            properties.store(writer, "Column sizes, generated on startup. Safe to delete.");
+        }
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads metadata from a snapshot file.
+     *
+     * @param path      the snapshot file.
+     * @param schemaKey the key of the schema in use.
+     * @return the metadata, or null if there is no snapshot, it can't be read or it belongs to another schema.
+     */
+    public static SchemaMetaData readSnapshot(Path path, String schemaKey)
+    {
+        if (!Files.isRegularFile(path))
+            return null;
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+        {
+            properties.load(reader);
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            System.err.println("Ignoring unreadable metadata snapshot at " + path + ": " + e.getMessage());
+            return null;
+        }
+
+        if (!schemaKey.equals(properties.getProperty(SCHEMA_KEY_PROPERTY)))
+            return null;
+
+        Map<String, Integer> columnSizes = new HashMap<>();
+        for (String name : properties.stringPropertyNames())
+        {
+            if (!name.startsWith(COLUMN_PROPERTY_PREFIX))
+                continue;
+
+            try
+            {
+                columnSizes.put(name.substring(COLUMN_PROPERTY_PREFIX.length()),
+                        Integer.parseInt(properties.getProperty(name)));
+            }
+            catch (NumberFormatException e)
+            {
+                System.err.println("Ignoring corrupt metadata snapshot at " + path + ".");
+                return null;
+            }
+        }
+        return columnSizes.isEmpty() ? null : new SchemaMetaData(columnSizes);
+    }
+
+    private static String key(String table, String column)
+    {
+        return (table + "." + column).toLowerCase(Locale.ROOT);
+    }
+}
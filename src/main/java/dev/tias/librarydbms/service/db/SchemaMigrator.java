@@ -0,0 +1,344 @@
+package dev.tias.librarydbms.service.db;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Brings the schema of the database up to date by applying versioned migration scripts that haven't been applied
+ * yet. Applied migrations are recorded in the schema_version table.
+ * <p>
+ * Migrations are SQL scripts in the migrations directory, named V&lt;version&gt;__&lt;description&gt;.sql, for
+ * example V1__add_item_indexes.sql. They are applied in version order, each with an {@link SQLScriptExecutor}.
+ * Version 0 is the baseline, the schema created by create_tables.sql. A database without a schema_version table
+ * is assumed to be at the baseline.
+ * <p>
+ * A migration must never be changed once it has been applied somewhere, add a new one instead. Changed migrations
+ * are reported on startup, since the checksum of every applied migration is recorded.
+ */
+public class SchemaMigrator
+{
+    public static final String DEFAULT_MIGRATIONS_DIRECTORY = "src/main/resources/sql/migrations";
+    public static final String VERSION_TABLE = "schema_version";
+
+    private static final Pattern MIGRATION_FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    //Keeps application instances starting at the same time from applying the same migrations
+    private static final String LOCK_NAME = "librarydbms_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    /**
+     * A migration script found in the migrations directory.
+     */
+    public static class Migration
+    {
+        private final int version;
+        private final String description;
+        private final Path path;
+
+        Migration(int version, String description, Path path)
+        {
+            this.version = version;
+            this.description = description;
+            this.path = path;
+        }
+
+        public int getVersion()
+        {
+            return version;
+        }
+
+        public String getDescription()
+        {
+            return description;
+        }
+
+        public Path getPath()
+        {
+            return path;
+        }
+
+        /**
+         * Returns the CRC32 checksum of the script, used to detect migrations changed after being applied.
+         *
+         * @return the checksum.
+         * @throws IOException if the script couldn't be read.
+         */
+        public long getChecksum()
+        throws IOException
+        {
+            CRC32 crc = new CRC32();
+            crc.update(Files.readAllBytes(path));
+            return crc.getValue();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "V" + version + " (" + description + ")";
+        }
+    }
+
+    private final Path migrationsDirectory;
+    private final boolean verbose;
+
+    /**
+     * Creates a migrator for the default migrations directory.
+     *
+     * @param verbose whether to print the migrations being applied.
+     */
+    public SchemaMigrator(boolean verbose)
+    {
+        this(Paths.get(DEFAULT_MIGRATIONS_DIRECTORY), verbose);
+    }
+
+    /**
+     * Creates a migrator for a given migrations directory.
+     *
+     * @param migrationsDirectory the directory holding the migration scripts.
+     * @param verbose             whether to print the migrations being applied.
+     */
+    public SchemaMigrator(Path migrationsDirectory, boolean verbose)
+    {
+        this.migrationsDirectory = migrationsDirectory;
+        this.verbose = verbose;
+    }
+
+    /**
+     * Applies every migration that hasn't been applied to the database in use, in version order. Creates the
+     * schema_version table, recording the baseline, if it doesn't exist.
+     *
+     * @return the migrations that were applied, empty if the schema was already up to date.
+     * @throws IOException  if a migration couldn't be read.
+     * @throws SQLException if a migration failed, in which case later migrations are not applied.
+     */
+    public List<Migration> migrate()
+    throws IOException, SQLException
+    {
+        List<Migration> migrations = findMigrations(migrationsDirectory);
+        List<Migration> applied = new ArrayList<>();
+
+        //All of this runs on one connection, which holds the migration lock
+        try (ConnectionLease lease = DataAccessManager.leaseConnection())
+        {
+            acquireLock();
+            try
+            {
+                createVersionTable();
+                Map<Integer, Long> appliedChecksums = retrieveAppliedChecksums();
+                warnAboutChangedMigrations(migrations, appliedChecksums);
+
+                for (Migration migration : pendingMigrations(migrations, appliedChecksums.keySet()))
+                {
+                    apply(lease, migration);
+                    applied.add(migration);
+                }
+            }
+            finally
+            {
+                releaseLock();
+            }
+        }
+
+        return applied;
+    }
+
+    /**
+     * Returns the highest version recorded in the schema_version table.
+     *
+     * @return the version, or -1 if the table doesn't exist or is empty.
+     * @throws SQLException if the table couldn't be read.
+     */
+    public static int getCurrentVersion()
+    throws SQLException
+    {
+        if (!versionTableExists())
+            return -1;
+
+        try (QueryResult result = DataAccessManager.executePreparedQuery(
+                "SELECT MAX(version) FROM " + VERSION_TABLE, null))
+        {
+            ResultSet resultSet = result.getResultSet();
+            if (resultSet.next())
+            {
+                int version = resultSet.getInt(1);
+                return resultSet.wasNull() ? -1 : version;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Lists the migrations in a directory, sorted by version. Files not named like migrations are ignored.
+     *
+     * @param directory the directory.
+     * @return the migrations, empty if the directory doesn't exist.
+     * @throws IOException           if the directory couldn't be read.
+     * @throws IllegalStateException if two migrations have the same version.
+     */
+    static List<Migration> findMigrations(Path directory)
+    throws IOException
+    {
+        List<Migration> migrations = new ArrayList<>();
+        if (!Files.isDirectory(directory))
+            return migrations;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "V*__*.sql"))
+        {
+            for (Path file : files)
+            {
+                Matcher matcher = MIGRATION_FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches())
+                    migrations.add(new Migration(Integer.parseInt(matcher.group(1)),
+                            matcher.group(2).replace('_', ' '), file));
+            }
+        }
+
+        migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < migrations.size(); i++)
+        {
+            if (migrations.get(i).getVersion() == migrations.get(i - 1).getVersion())
+                throw new IllegalStateException("Two migrations have version " + migrations.get(i).getVersion() +
+                        ": " + migrations.get(i - 1).getPath() + " and " + migrations.get(i).getPath());
+        }
+        return migrations;
+    }
+
+    /**
+     * Returns the migrations that haven't been applied, in version order. The baseline, version 0, is never
+     * pending, since it is created by create_tables.sql.
+     *
+     * @param migrations      all migrations, sorted by version.
+     * @param appliedVersions the versions that have been applied.
+     * @return the pending migrations.
+     */
+    static List<Migration> pendingMigrations(List<Migration> migrations, Set<Integer> appliedVersions)
+    {
+        List<Migration> pending = new ArrayList<>();
+        for (Migration migration : migrations)
+        {
+            if (migration.getVersion() > 0 && !appliedVersions.contains(migration.getVersion()))
+                pending.add(migration);
+        }
+        return pending;
+    }
+
+    private void apply(ConnectionLease lease, Migration migration)
+    throws IOException, SQLException
+    {
+        if (verbose) System.out.println("Applying migration " + migration + "...");
+        long start = System.nanoTime();
+
+        new SQLScriptExecutor().execute(lease.getConnection(), migration.getPath());
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        recordVersion(migration.getVersion(), migration.getDescription(),
+                migration.getPath().getFileName().toString(), migration.getChecksum(), millis);
+
+        if (verbose) System.out.println("Applied migration " + migration + " in " + millis + " ms.");
+    }
+
+    private static boolean versionTableExists()
+    throws SQLException
+    {
+        String query = "SELECT 1 FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        try (QueryResult result = DataAccessManager.executePreparedQuery(query, new Object[]{VERSION_TABLE}))
+        {
+            return result.getResultSet().next();
+        }
+    }
+
+    /**
+     * Creates the schema_version table if it doesn't exist, recording the baseline as applied.
+     */
+    private static void createVersionTable()
+    throws SQLException
+    {
+        if (versionTableExists())
+            return;
+
+        DataAccessManager.executePreparedUpdate("CREATE TABLE " + VERSION_TABLE + " (" +
+                "version INT PRIMARY KEY NOT NULL, " +
+                "description VARCHAR(255) NOT NULL, " +
+                "script VARCHAR(255) NOT NULL, " +
+                "checksum BIGINT NOT NULL, " +
+                "installedOn DATETIME NOT NULL, " +
+                "executionMillis INT NOT NULL)", null);
+        recordVersion(0, "baseline", "create_tables.sql", 0, 0);
+    }
+
+    private static void recordVersion(int version, String description, String script, long checksum, long millis)
+    {
+        DataAccessManager.executePreparedUpdate("INSERT INTO " + VERSION_TABLE + " (version, description, script, " +
+                        "checksum, installedOn, executionMillis) VALUES (?, ?, ?, ?, ?, ?)",
+                new Object[]{version, description, script, checksum, LocalDateTime.now(), (int) millis});
+    }
+
+    private static Map<Integer, Long> retrieveAppliedChecksums()
+    throws SQLException
+    {
+        Map<Integer, Long> checksums = new HashMap<>();
+        try (QueryResult result = DataAccessManager.executePreparedQuery(
+                "SELECT version, checksum FROM " + VERSION_TABLE, null))
+        {
+            ResultSet resultSet = result.getResultSet();
+            while (resultSet.next())
+            {
+                checksums.put(resultSet.getInt("version"), resultSet.getLong("checksum"));
+            }
+        }
+        return checksums;
+    }
+
+    private static void warnAboutChangedMigrations(List<Migration> migrations, Map<Integer, Long> appliedChecksums)
+    throws IOException
+    {
+        for (Migration migration : migrations)
+        {
+            Long checksum = appliedChecksums.get(migration.getVersion());
+            if (checksum != null && migration.getVersion() > 0 && checksum != migration.getChecksum())
+                System.err.println("WARNING: Migration " + migration + " has been changed since it was applied.");
+        }
+    }
+
+    private static void acquireLock()
+    throws SQLException
+    {
+        try (QueryResult result = DataAccessManager.executePreparedQuery("SELECT GET_LOCK(?, ?)",
+                new Object[]{LOCK_NAME, LOCK_TIMEOUT_SECONDS}))
+        {
+            ResultSet resultSet = result.getResultSet();
+            if (!resultSet.next() || resultSet.getInt(1) != 1)
+                throw new SQLException("Timed out waiting for another instance to finish migrating the schema.");
+        }
+    }
+
+    private static void releaseLock()
+    throws SQLException
+    {
+        try (QueryResult result = DataAccessManager.executePreparedQuery("SELECT RELEASE_LOCK(?)",
+                new Object[]{LOCK_NAME}))
+        {
+            result.getResultSet().next();
+        }
+    }
+}
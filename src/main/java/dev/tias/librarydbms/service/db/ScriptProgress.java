@@ -0,0 +1,120 @@
+package dev.tias.librarydbms.service.db;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * An immutable snapshot of how far an {@link SQLScriptExecutor} has come with a script, and how fast it is going.
+ */
+public class ScriptProgress
+{
+    private final String script;
+    private final long statementsExecuted;
+    private final long batchesExecuted;
+    private final long transactionsCommitted;
+    private final long bytesRead;
+    private final long totalBytes;
+    private final long elapsedNanos;
+    private final boolean finished;
+
+    ScriptProgress(String script, long statementsExecuted, long batchesExecuted, long transactionsCommitted,
+                   long bytesRead, long totalBytes, long elapsedNanos, boolean finished)
+    {
+        this.script = script;
+        this.statementsExecuted = statementsExecuted;
+        this.batchesExecuted = batchesExecuted;
+        this.transactionsCommitted = transactionsCommitted;
+        this.bytesRead = bytesRead;
+        this.totalBytes = totalBytes;
+        this.elapsedNanos = elapsedNanos;
+        this.finished = finished;
+    }
+
+    /**
+     * Getters are self-explanatory.
+     */
+    public String getScript()
+    {
+        return script;
+    }
+
+    public long getStatementsExecuted()
+    {
+        return statementsExecuted;
+    }
+
+    public long getBatchesExecuted()
+    {
+        return batchesExecuted;
+    }
+
+    public long getTransactionsCommitted()
+    {
+        return transactionsCommitted;
+    }
+
+    public long getBytesRead()
+    {
+        return bytesRead;
+    }
+
+    /**
+     * @return the size of the script in bytes, or -1 if it isn't known.
+     */
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    public long getElapsedMillis()
+    {
+        return elapsedNanos / 1_000_000;
+    }
+
+    /**
+     * @return true if this is the final progress report of the script.
+     */
+    public boolean isFinished()
+    {
+        return finished;
+    }
+
+    /**
+     * Returns how much of the script has been read. Since the script is read ahead in chunks, this runs slightly
+     * ahead of the statements executed.
+     *
+     * @return the percentage read, between 0 and 100, or -1 if the size of the script isn't known.
+     */
+    public double getPercentRead()
+    {
+        if (totalBytes < 0)
+            return -1;
+        if (totalBytes == 0)
+            return 100;
+        return Math.min(100.0, bytesRead * 100.0 / totalBytes);
+    }
+
+    /**
+     * Returns the average number of statements executed per second so far.
+     *
+     * @return the throughput.
+     */
+    public double getStatementsPerSecond()
+    {
+        if (elapsedNanos <= 0)
+            return 0;
+        return statementsExecuted * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        String percent = totalBytes < 0 ? "" : String.format(" (%.1f%% read)", getPercentRead());
+        return String.format("%s: %d statements in %d batches and %d transactions, %d ms, %.0f statements/s%s%s",
+                script, statementsExecuted, batchesExecuted, transactionsCommitted, getElapsedMillis(),
+                getStatementsPerSecond(), percent, finished ? ", done" : "");
+    }
+}
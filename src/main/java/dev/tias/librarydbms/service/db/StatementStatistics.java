@@ -0,0 +1,111 @@
+package dev.tias.librarydbms.service.db;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * An immutable snapshot of the timings of one statement shape, see {@link QueryStatistics}. The counters are
+ * cumulative since the statistics were last reset.
+ */
+public class StatementStatistics
+{
+    private final String shape;
+    private final long count;
+    private final long rows;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p95Nanos;
+    private final long p99Nanos;
+
+    public StatementStatistics(String shape, long count, long rows, long totalNanos, long maxNanos, long p50Nanos,
+                               long p95Nanos, long p99Nanos)
+    {
+        this.shape = shape;
+        this.count = count;
+        this.rows = rows;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p95Nanos = p95Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    /**
+     * Returns the normalized SQL of the statement, with literals replaced by ? and whitespace collapsed.
+     *
+     * @return the shape.
+     */
+    public String getShape()
+    {
+        return shape;
+    }
+
+    /**
+     * Returns how many times the statement has been run.
+     *
+     * @return the count.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the rows returned by the statement, if a query, or affected, if an update, summed over every run.
+     *
+     * @return the number of rows.
+     */
+    public long getRows()
+    {
+        return rows;
+    }
+
+    public double getTotalMillis()
+    {
+        return toMillis(totalNanos);
+    }
+
+    public double getMeanMillis()
+    {
+        return count == 0 ? 0 : toMillis(totalNanos) / count;
+    }
+
+    public double getMaxMillis()
+    {
+        return toMillis(maxNanos);
+    }
+
+    public double getP50Millis()
+    {
+        return toMillis(p50Nanos);
+    }
+
+    public double getP95Millis()
+    {
+        return toMillis(p95Nanos);
+    }
+
+    public double getP99Millis()
+    {
+        return toMillis(p99Nanos);
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("total=%.1f ms, count=%d, rows=%d, mean=%.2f ms, p50=%.2f ms, p95=%.2f ms, " +
+                        "p99=%.2f ms, max=%.2f ms: %s", getTotalMillis(), count, rows, getMeanMillis(),
+                getP50Millis(), getP95Millis(), getP99Millis(), getMaxMillis(), shape);
+    }
+}
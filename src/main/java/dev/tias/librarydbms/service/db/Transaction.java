@@ -0,0 +1,207 @@
+package dev.tias.librarydbms.service.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A unit of work on the connection leased by the calling thread, started by DataAccessManager.beginTransaction.
+ * Every update made through the DataAccessManager on that thread until the transaction is closed is part of it, and
+ * is committed at once by commit. Closing a transaction that hasn't been committed rolls it back.
+ * <pre>
+ *     try (Transaction transaction = DataAccessManager.beginTransaction())
+ *     {
+ *         ...
+ *         transaction.commit();
+ *     }
+ * </pre>
+ * A transaction begun while the thread is already in one joins it, and its commit and rollback are left to the
+ * outer transaction. Closing the joined transaction without committing doesn't roll anything back, the exception
+ * that kept it from committing is expected to reach the outer transaction.
+ * <p>
+ * Changes to in-memory state that must only happen if the transaction is committed, such as the indexes of the
+ * handlers, are registered with afterCommit. A joined transaction hands them to the outer transaction, so they're
+ * run when the database transaction is actually committed, and dropped if it's rolled back.
+ * <p>
+ * Turning auto-commit off and on, committing and rolling back are round trips of their own, and are counted along
+ * with the statements run through the DataAccessManager, see {@link RoundTripScope}.
+ * <p>
+ * Implements {@link AutoCloseable} in order to be used with try-with-resources.
+ */
+public class Transaction implements AutoCloseable
+{
+    //The transaction that started the database transaction the calling thread is in, if any
+    private static final ThreadLocal<Transaction> owning = new ThreadLocal<>();
+
+    private final ConnectionLease lease;
+    //Run once committed, see afterCommit
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+    //True if this transaction started the database transaction, false if it joined one
+    private final boolean owner;
+    private boolean committed = false;
+    private boolean closed = false;
+
+    /**
+     * Starts a transaction on the connection of a lease, or joins the one already running on it. The lease is
+     * closed along with the transaction.
+     *
+     * @param lease the lease.
+     * @throws SQLException if auto-commit couldn't be turned off, in which case the lease is closed.
+     */
+    Transaction(ConnectionLease lease)
+    throws SQLException
+    {
+        this.lease = lease;
+        try
+        {
+            Connection connection = lease.getConnection();
+            owner = connection.getAutoCommit();
+            if (owner)
+            {
+                connection.setAutoCommit(false);
+                DataAccessManager.countRoundTrip(null);
+                owning.set(this);
+            }
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Commits the transaction, unless it joined an outer transaction, which commits it instead.
+     *
+     * @throws SQLException          if the commit failed. The transaction is rolled back when closed.
+     * @throws IllegalStateException if the transaction has already been committed or closed.
+     */
+    public void commit()
+    throws SQLException
+    {
+        if (closed || committed)
+            throw new IllegalStateException("Transaction has already been " + (closed ? "closed." : "committed."));
+
+        if (owner)
+        {
+            lease.getConnection().commit();
+            DataAccessManager.countRoundTrip(null);
+        }
+        committed = true;
+
+        //Empty when joined to an outer Transaction, which runs the actions instead
+        for (Runnable action : afterCommitActions)
+            action.run();
+        afterCommitActions.clear();
+    }
+
+    /**
+     * Registers an action to run once the database transaction is committed. If this transaction joined an outer
+     * transaction, the action is run when the outer transaction is committed. Actions are dropped if the
+     * transaction is rolled back.
+     *
+     * @param action the action, which shouldn't throw.
+     * @throws IllegalStateException if the transaction has already been committed or closed.
+     */
+    public void afterCommit(Runnable action)
+    {
+        if (closed || committed)
+            throw new IllegalStateException("Transaction has already been " + (closed ? "closed." : "committed."));
+
+        Transaction outer = owning.get();
+        if (!owner && outer != null)
+            outer.afterCommit(action);
+        else
+            afterCommitActions.add(action);
+    }
+
+    /**
+     * Returns whether the calling thread is in a database transaction started by a Transaction.
+     *
+     * @return true if a transaction begun now would join another.
+     */
+    static boolean isActive()
+    {
+        return owning.get() != null;
+    }
+
+    /**
+     * Runs an action once the database transaction the calling thread is in has been committed, or at once if the
+     * thread isn't in one. See {@link #afterCommit(Runnable)}.
+     *
+     * @param action the action.
+     */
+    static void runAfterCommit(Runnable action)
+    {
+        Transaction outer = owning.get();
+        if (outer == null)
+            action.run();
+        else
+            outer.afterCommit(action);
+    }
+
+    /**
+     * Returns whether this transaction started the database transaction, rather than joining an outer one.
+     *
+     * @return true if commit actually commits.
+     */
+    public boolean isOwner()
+    {
+        return owner;
+    }
+
+    public boolean isCommitted()
+    {
+        return committed;
+    }
+
+    /**
+     * Rolls the transaction back if it hasn't been committed, and turns auto-commit back on, unless it joined an
+     * outer transaction. Then closes the lease. Closing a transaction more than once has no effect.
+     *
+     * @throws SQLException if the rollback failed. The connection is handed back to the pool regardless, which
+     *                      resets it before it's leased again.
+     */
+    @Override
+    public void close()
+    throws SQLException
+    {
+        if (closed)
+            return;
+        closed = true;
+        afterCommitActions.clear();
+
+        try
+        {
+            if (owner)
+            {
+                Connection connection = lease.getConnection();
+                try
+                {
+                    if (!committed)
+                    {
+                        connection.rollback();
+                        DataAccessManager.countRoundTrip(null);
+                    }
+                }
+                finally
+                {
+                    owning.remove();
+                    connection.setAutoCommit(true);
+                    DataAccessManager.countRoundTrip(null);
+                }
+            }
+        }
+        finally
+        {
+            lease.close();
+        }
+    }
+}
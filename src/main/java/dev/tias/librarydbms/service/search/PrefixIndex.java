@@ -0,0 +1,140 @@
+package dev.tias.librarydbms.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.search
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * An immutable index of names, such as titles or usernames, that finds the names starting with what has been typed
+ * so far. A name is also found by the start of any later word in it, so "aber" finds "Joe Abercrombie", but names
+ * starting with the prefix come first. Case and accents are ignored.
+ * <p>
+ * The names are kept in two sorted arrays, one for the starts of the names and one for the starts of later words,
+ * so a lookup is a binary search followed by reading no more than the number of names asked for.
+ */
+public class PrefixIndex
+{
+    private final String[] names;
+
+    //Normalized names, sorted, and the index of the name each one belongs to
+    private final String[] nameKeys;
+    private final int[] nameOwners;
+
+    //Normalized names from the start of every word after the first, sorted, and the name each one belongs to
+    private final String[] wordKeys;
+    private final int[] wordOwners;
+
+    /**
+     * Builds the index. Null, empty and duplicate names are left out.
+     *
+     * @param names the names.
+     */
+    public PrefixIndex(Collection<String> names)
+    {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String name : names)
+            if (name != null && !name.isBlank())
+                distinct.add(name);
+        this.names = distinct.toArray(new String[0]);
+
+        List<Key> starts = new ArrayList<>(this.names.length);
+        List<Key> words = new ArrayList<>();
+        for (int i = 0; i < this.names.length; i++)
+        {
+            String normalized = Tokenizer.normalize(this.names[i].trim());
+            starts.add(new Key(normalized, i));
+            for (int j = 1; j < normalized.length(); j++)
+                if (!Character.isLetterOrDigit(normalized.charAt(j - 1)) &&
+                        Character.isLetterOrDigit(normalized.charAt(j)))
+                    words.add(new Key(normalized.substring(j), i));
+        }
+
+        starts.sort(Comparator.comparing(key -> key.text));
+        words.sort(Comparator.comparing(key -> key.text));
+        nameKeys = new String[starts.size()];
+        nameOwners = new int[starts.size()];
+        for (int i = 0; i < starts.size(); i++)
+        {
+            nameKeys[i] = starts.get(i).text;
+            nameOwners[i] = starts.get(i).owner;
+        }
+        wordKeys = new String[words.size()];
+        wordOwners = new int[words.size()];
+        for (int i = 0; i < words.size(); i++)
+        {
+            wordKeys[i] = words.get(i).text;
+            wordOwners[i] = words.get(i).owner;
+        }
+    }
+
+    /**
+     * Returns the names starting with a prefix, or with a word starting with it. Names starting with the prefix come
+     * first, each group in alphabetical order.
+     *
+     * @param prefix     what has been typed so far.
+     * @param maxResults the maximum number of names to return.
+     * @return the names, empty if none match or the prefix is blank.
+     */
+    public List<String> suggest(String prefix, int maxResults)
+    {
+        String normalized = Tokenizer.normalize(prefix == null ? null : prefix.trim());
+        if (normalized.isEmpty() || maxResults <= 0)
+            return Collections.emptyList();
+
+        Set<String> suggestions = new LinkedHashSet<>();
+        collect(nameKeys, nameOwners, normalized, maxResults, suggestions);
+        collect(wordKeys, wordOwners, normalized, maxResults, suggestions);
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * Returns the number of names in the index.
+     *
+     * @return the number of names.
+     */
+    public int size()
+    {
+        return names.length;
+    }
+
+    /**
+     * Adds the names of the keys starting with the prefix, until there are maxResults names.
+     */
+    private void collect(String[] keys, int[] owners, String prefix, int maxResults, Set<String> suggestions)
+    {
+        int i = Arrays.binarySearch(keys, prefix);
+        if (i < 0)
+            i = -i - 1;
+        //Keys with the same text sort together, so the first one may be before where the search landed
+        while (i > 0 && keys[i - 1].equals(prefix))
+            i--;
+        for (; i < keys.length && suggestions.size() < maxResults && keys[i].startsWith(prefix); i++)
+            suggestions.add(names[owners[i]]);
+    }
+
+    /**
+     * A normalized name, or the end of one, and the name it belongs to.
+     */
+    private static class Key
+    {
+        private final String text;
+        private final int owner;
+
+        private Key(String text, int owner)
+        {
+            this.text = text;
+            this.owner = owner;
+        }
+    }
+}
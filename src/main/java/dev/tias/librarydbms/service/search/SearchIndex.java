@@ -0,0 +1,833 @@
+package dev.tias.librarydbms.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.search
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A thread safe, in-memory inverted index for full-text search over documents identified by an int, such as the
+ * items of the catalog. Each document consists of named fields, and every field has a weight that tells how much a
+ * match in it counts, so that a match in a title can rank above a match in a list of actors.
+ * <p>
+ * Text is split into terms by the {@link Tokenizer}. A document matches a query if every term of the query matches
+ * one of its terms, either exactly, as a prefix, or with a typo or two for longer terms. Exact matches count the
+ * most, and rare terms count more than common ones.
+ * <p>
+ * The terms are kept in a trie, so the terms starting with a prefix, or a typo or two away from a term, are found by
+ * walking only the branches that can still match. The documents of each term are kept in plain arrays, and scores
+ * in sorted arrays of primitives, so a search doesn't create an object per matching document.
+ * <p>
+ * Searches share a read lock, so any number can run at once. Changes take the write lock, and rebuilds are done on
+ * the side and swapped in, like in the {@link dev.tias.librarydbms.control.CatalogIndex}.
+ */
+public class SearchIndex
+{
+    //Prefixes shorter than this only match exactly, since a single letter would match most of the index
+    public static final int MIN_PREFIX_LENGTH = 2;
+    //The most index terms a query term is expanded to as a prefix
+    public static final int MAX_PREFIX_EXPANSIONS = 64;
+    //The most index terms a query term is expanded to with typos, terms with one typo before those with two
+    public static final int MAX_TYPO_EXPANSIONS = 64;
+    //Terms shorter than this must be spelled right, terms at least TWO_TYPOS_LENGTH long may have two typos
+    public static final int ONE_TYPO_LENGTH = 4;
+    public static final int TWO_TYPOS_LENGTH = 8;
+
+    //How much a match counts compared to an exact match
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final double ONE_TYPO_FACTOR = 0.5;
+    private static final double TWO_TYPOS_FACTOR = 0.3;
+
+    /**
+     * A document that matched a query, with its score. Higher scores are better matches.
+     */
+    public static class Hit
+    {
+        private final int id;
+        private final double score;
+
+        private Hit(int id, double score)
+        {
+            this.id = id;
+            this.score = score;
+        }
+
+        public int getId()
+        {
+            return id;
+        }
+
+        public double getScore()
+        {
+            return score;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d (%.3f)", id, score);
+        }
+    }
+
+    /**
+     * The text of a document, by field. Fields with null or empty text are left out.
+     */
+    public static class Document
+    {
+        private final int id;
+        private final Map<String, String> fields = new HashMap<>();
+
+        /**
+         * @param id the ID of the document.
+         */
+        public Document(int id)
+        {
+            this.id = id;
+        }
+
+        /**
+         * Adds text to a field, after any text the field already has.
+         *
+         * @param field the name of the field.
+         * @param text  the text, may be null.
+         * @return this document.
+         */
+        public Document field(String field, String text)
+        {
+            if (text != null && !text.isEmpty())
+                fields.merge(field, text, (old, added) -> old + " " + added);
+            return this;
+        }
+
+        public int getId()
+        {
+            return id;
+        }
+    }
+
+    /**
+     * The documents a term appears in, sorted by ID, each with the summed weights of the fields the term appears in.
+     */
+    private static class Postings
+    {
+        private int[] ids = new int[2];
+        private double[] weights = new double[2];
+        private int size;
+
+        private void put(int id, double weight)
+        {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0)
+            {
+                weights[i] = weight;
+                return;
+            }
+            i = -i - 1;
+            if (size == ids.length)
+            {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            System.arraycopy(weights, i, weights, i + 1, size - i);
+            ids[i] = id;
+            weights[i] = weight;
+            size++;
+        }
+
+        private void remove(int id)
+        {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0)
+                return;
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+            size--;
+        }
+    }
+
+    /**
+     * A node of the term trie. The path from the root spells a term, which is in the index if the node has postings.
+     * Children are kept sorted by letter, so terms are walked in order.
+     */
+    private static class TermNode
+    {
+        private char[] letters = new char[0];
+        private TermNode[] children = new TermNode[0];
+        private Postings postings;
+
+        private TermNode child(char letter)
+        {
+            int i = Arrays.binarySearch(letters, letter);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private TermNode addChild(char letter)
+        {
+            int i = Arrays.binarySearch(letters, letter);
+            if (i >= 0)
+                return children[i];
+            i = -i - 1;
+            char[] newLetters = new char[letters.length + 1];
+            TermNode[] newChildren = new TermNode[children.length + 1];
+            System.arraycopy(letters, 0, newLetters, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(letters, i, newLetters, i + 1, letters.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            newLetters[i] = letter;
+            newChildren[i] = new TermNode();
+            letters = newLetters;
+            children = newChildren;
+            return newChildren[i];
+        }
+
+        private void removeChild(char letter)
+        {
+            int i = Arrays.binarySearch(letters, letter);
+            if (i < 0)
+                return;
+            char[] newLetters = new char[letters.length - 1];
+            TermNode[] newChildren = new TermNode[children.length - 1];
+            System.arraycopy(letters, 0, newLetters, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(letters, i + 1, newLetters, i, letters.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            letters = newLetters;
+            children = newChildren;
+        }
+
+        private boolean isEmpty()
+        {
+            return postings == null && letters.length == 0;
+        }
+    }
+
+    /**
+     * The contents of the index, replaced as a whole on rebuild.
+     */
+    private static class Generation
+    {
+        private final TermNode root = new TermNode();
+        //Document -> its terms, so the document can be removed again
+        private final Map<Integer, Set<String>> documents = new HashMap<>();
+        private int termCount;
+
+        private void put(int id, Map<String, Double> termWeights)
+        {
+            remove(id);
+            for (Map.Entry<String, Double> entry : termWeights.entrySet())
+            {
+                TermNode node = root;
+                for (int i = 0; i < entry.getKey().length(); i++)
+                    node = node.addChild(entry.getKey().charAt(i));
+                if (node.postings == null)
+                {
+                    node.postings = new Postings();
+                    termCount++;
+                }
+                node.postings.put(id, entry.getValue());
+            }
+            documents.put(id, termWeights.keySet());
+        }
+
+        private boolean remove(int id)
+        {
+            Set<String> terms = documents.remove(id);
+            if (terms == null)
+                return false;
+            for (String term : terms)
+                removeFromTerm(root, term, 0, id);
+            return true;
+        }
+
+        /**
+         * Removes a document from a term, and the term and the nodes leading only to it once no document has it.
+         *
+         * @return true if the node is left empty and can be removed from its parent.
+         */
+        private boolean removeFromTerm(TermNode node, String term, int depth, int id)
+        {
+            if (depth == term.length())
+            {
+                node.postings.remove(id);
+                if (node.postings.size == 0)
+                {
+                    node.postings = null;
+                    termCount--;
+                }
+            }
+            else
+            {
+                char letter = term.charAt(depth);
+                if (removeFromTerm(node.child(letter), term, depth + 1, id))
+                    node.removeChild(letter);
+            }
+            return node.isEmpty();
+        }
+
+        private TermNode find(String term)
+        {
+            TermNode node = root;
+            for (int i = 0; i < term.length() && node != null; i++)
+                node = node.child(term.charAt(i));
+            return node;
+        }
+    }
+
+    /**
+     * A term of the index matched by a query term, with how much a match counts.
+     */
+    private static class Match
+    {
+        private final Postings postings;
+        private final double factor;
+
+        private Match(Postings postings, double factor)
+        {
+            this.postings = postings;
+            this.factor = factor;
+        }
+    }
+
+    /**
+     * Scores by document ID, in arrays sorted by ID so that no objects are created per document, and the scores of
+     * two query terms are combined by walking both in order.
+     */
+    private static class Scores
+    {
+        private final int[] ids;
+        private final double[] scores;
+        private int size;
+
+        private Scores(int capacity)
+        {
+            ids = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        private void add(int id, double score)
+        {
+            ids[size] = id;
+            scores[size] = score;
+            size++;
+        }
+    }
+
+    private final Map<String, Double> fieldWeights;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Generation generation = new Generation();
+
+    /**
+     * Creates a new, empty index.
+     *
+     * @param fieldWeights the fields documents may have, with how much a match in each counts.
+     */
+    public SearchIndex(Map<String, Double> fieldWeights)
+    {
+        this.fieldWeights = Map.copyOf(fieldWeights);
+    }
+
+    //SEARCHING --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the documents best matching a query, best first. Documents that match equally well are ordered by ID.
+     *
+     * @param query      the query, split into terms like the documents are.
+     * @param maxResults the maximum number of results.
+     * @return the results, empty if nothing matched.
+     */
+    public List<Hit> search(String query, int maxResults)
+    {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (queryTerms.isEmpty() || maxResults <= 0)
+            return Collections.emptyList();
+
+        lock.readLock().lock();
+        try
+        {
+            List<List<Match>> termMatches = new ArrayList<>();
+            for (String queryTerm : queryTerms)
+            {
+                List<Match> matches = matchTerm(queryTerm);
+                if (matches.isEmpty())
+                    return Collections.emptyList();
+                termMatches.add(matches);
+            }
+            //Every query term must match, so starting with the rarest one keeps the candidates few
+            termMatches.sort(Comparator.comparingInt(SearchIndex::countPostings));
+
+            //A document scores by its best match for each query term, and the scores of the terms are summed
+            Scores scores = union(termMatches.get(0));
+            for (int i = 1; i < termMatches.size(); i++)
+            {
+                scores = intersect(scores, termMatches.get(i));
+                if (scores.size == 0)
+                    return Collections.emptyList();
+            }
+            return best(scores, maxResults);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of documents in the index.
+     *
+     * @return the number of documents.
+     */
+    public int size()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return generation.documents.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct terms in the index.
+     *
+     * @return the number of terms.
+     */
+    public int getTermCount()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return generation.termCount;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    //CHANGES ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Adds a document, or replaces it if it's already in the index.
+     *
+     * @param document the document.
+     */
+    public void put(Document document)
+    {
+        Map<String, Double> termWeights = weighTerms(document);
+        lock.writeLock().lock();
+        try
+        {
+            generation.put(document.id, termWeights);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document.
+     *
+     * @param id the ID of the document.
+     * @return true if the document was in the index.
+     */
+    public boolean remove(int id)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            return generation.remove(id);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with those of a builder, at once.
+     *
+     * @param builder the builder holding the new contents.
+     */
+    public void replace(Builder builder)
+    {
+        Generation built = builder.build();
+        lock.writeLock().lock();
+        try
+        {
+            generation = built;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Empties the index.
+     */
+    public void clear()
+    {
+        replace(new Builder(this));
+    }
+
+    /**
+     * Fills a new index on the side, without holding up searches. Not thread safe.
+     */
+    public static class Builder
+    {
+        private final SearchIndex index;
+        private Generation generation = new Generation();
+
+        /**
+         * @param index the index the builder will replace the contents of, whose fields it uses.
+         */
+        public Builder(SearchIndex index)
+        {
+            this.index = Objects.requireNonNull(index, "index");
+        }
+
+        /**
+         * Adds a document.
+         *
+         * @param document the document.
+         * @return this builder.
+         */
+        public Builder add(Document document)
+        {
+            if (generation == null)
+                throw new IllegalStateException("Builder already used.");
+            generation.put(document.id, index.weighTerms(document));
+            return this;
+        }
+
+        private Generation build()
+        {
+            if (generation == null)
+                throw new IllegalStateException("Builder already used.");
+            Generation built = generation;
+            generation = null;
+            return built;
+        }
+    }
+
+    //HELPERS ----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the terms of a document, each with the summed weights of the fields it appears in.
+     */
+    private Map<String, Double> weighTerms(Document document)
+    {
+        Map<String, Double> termWeights = new HashMap<>();
+        for (Map.Entry<String, String> field : document.fields.entrySet())
+        {
+            Double weight = fieldWeights.get(field.getKey());
+            if (weight == null)
+                throw new IllegalArgumentException("Unknown search field: " + field.getKey());
+            //A term counts once per field, however often it's repeated
+            for (String term : new LinkedHashSet<>(Tokenizer.tokenize(field.getValue())))
+                termWeights.merge(term, weight, Double::sum);
+        }
+        return termWeights;
+    }
+
+    /**
+     * Returns the index terms a query term matches, exactly, as a prefix or with typos.
+     */
+    private List<Match> matchTerm(String queryTerm)
+    {
+        List<Match> matches = new ArrayList<>();
+        TermNode node = generation.find(queryTerm);
+
+        //Exact
+        if (node != null && node.postings != null)
+            matches.add(match(node.postings, 1.0));
+
+        //Prefix
+        if (node != null && queryTerm.length() >= MIN_PREFIX_LENGTH)
+        {
+            int[] expansionsLeft = {MAX_PREFIX_EXPANSIONS};
+            for (TermNode child : node.children)
+                addPrefixMatches(matches, child, expansionsLeft);
+        }
+
+        //Typos. Only terms starting with the same letter are compared, people rarely get the first letter wrong
+        TermNode first = generation.root.child(queryTerm.charAt(0));
+        if (first != null && queryTerm.length() >= ONE_TYPO_LENGTH)
+        {
+            int maxTypos = queryTerm.length() >= TWO_TYPOS_LENGTH ? 2 : 1;
+            int[][] rows = new int[queryTerm.length() + maxTypos + 2][queryTerm.length() + 1];
+            for (int j = 0; j <= queryTerm.length(); j++)
+                rows[0][j] = j;
+            List<Postings> oneTypo = new ArrayList<>();
+            List<Postings> twoTypos = new ArrayList<>();
+            addTypoMatches(oneTypo, twoTypos, first, 1, queryTerm.charAt(0), (char) 0, queryTerm.toCharArray(),
+                    maxTypos, rows, false);
+
+            //Long terms are a typo or two away from a great many others, which would all have to be scored
+            for (int i = 0; i < oneTypo.size() && i < MAX_TYPO_EXPANSIONS; i++)
+                matches.add(match(oneTypo.get(i), ONE_TYPO_FACTOR));
+            for (int i = 0; i < twoTypos.size() && oneTypo.size() + i < MAX_TYPO_EXPANSIONS; i++)
+                matches.add(match(twoTypos.get(i), TWO_TYPOS_FACTOR));
+        }
+        return matches;
+    }
+
+    /**
+     * Adds the terms under a node, in order, until the expansions left run out.
+     */
+    private void addPrefixMatches(List<Match> matches, TermNode node, int[] expansionsLeft)
+    {
+        if (expansionsLeft[0] == 0)
+            return;
+        if (node.postings != null)
+        {
+            matches.add(match(node.postings, PREFIX_FACTOR));
+            expansionsLeft[0]--;
+        }
+        for (TermNode child : node.children)
+            addPrefixMatches(matches, child, expansionsLeft);
+    }
+
+    /**
+     * Adds the terms under a node that are at most maxTypos letters inserted, deleted, substituted or swapped with a
+     * neighbour away from the query term, in order, to the list of postings of terms with as many typos.
+     * <p>
+     * Each node adds a row to the edit distance table of the path leading to it. Once every value of a row is over
+     * the limit, no term under the node can match, and the branch is left. So is the branch of the query term itself,
+     * whose terms are prefix matches rather than typos.
+     *
+     * @param depth        the length of the path to the node, and the row it computes.
+     * @param letter       the last letter of the path.
+     * @param previous     the letter before it, 0 at the first letter.
+     * @param extendsQuery whether the path starts with the query term, so its terms are already prefix matches.
+     */
+    private void addTypoMatches(List<Postings> oneTypo, List<Postings> twoTypos, TermNode node, int depth, char letter,
+                                char previous, char[] queryTerm, int maxTypos, int[][] rows, boolean extendsQuery)
+    {
+        //Once there are enough terms with two typos, only branches that can still hold a term with one are walked
+        int limit = twoTypos.size() >= MAX_TYPO_EXPANSIONS ? 1 : maxTypos;
+        if (extendsQuery || computeRow(rows, depth, letter, previous, queryTerm, maxTypos) > limit)
+            return;
+
+        //The last column is only computed once the path is within maxTypos letters of the length of the query term
+        int typos = depth + maxTypos >= queryTerm.length ? rows[depth][queryTerm.length] : maxTypos + 1;
+        if (depth == queryTerm.length && typos == 0)
+            extendsQuery = true;
+        else if (node.postings != null && typos == 1)
+            oneTypo.add(node.postings);
+        else if (node.postings != null && typos == 2 && limit == 2)
+            twoTypos.add(node.postings);
+
+        for (int i = 0; i < node.children.length; i++)
+            addTypoMatches(oneTypo, twoTypos, node.children[i], depth + 1, node.letters[i], letter, queryTerm,
+                    maxTypos, rows, extendsQuery);
+    }
+
+    /**
+     * Computes a row of the edit distance table from the rows before it. Only the cells at most maxTypos from the
+     * diagonal are computed, the others are over the limit whatever the letters, and are marked as such next to the
+     * computed ones.
+     *
+     * @return the smallest value of the row, a lower bound of the distance to any term with this prefix.
+     */
+    private static int computeRow(int[][] rows, int depth, char letter, char previous, char[] queryTerm,
+                                  int maxTypos)
+    {
+        int[] above = rows[depth - 1];
+        int[] current = rows[depth];
+        int over = maxTypos + 1;
+        int from = Math.max(1, depth - maxTypos);
+        int to = Math.min(queryTerm.length, depth + maxTypos);
+        if (from > to)
+            return over;
+
+        current[0] = depth;
+        current[from - 1] = Math.min(depth, over);
+        if (to < queryTerm.length)
+            current[to + 1] = over;
+        int rowMin = current[from - 1];
+        for (int j = from; j <= to; j++)
+        {
+            int cost = letter == queryTerm[j - 1] ? 0 : 1;
+            int value = Math.min(Math.min(current[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+            if (depth > 1 && j > 1 && letter == queryTerm[j - 2] && previous == queryTerm[j - 1])
+                value = Math.min(value, rows[depth - 2][j - 2] + 1);
+            current[j] = value;
+            rowMin = Math.min(rowMin, value);
+        }
+        return rowMin;
+    }
+
+    /**
+     * Weighs a match of a term. Rare terms count more than common ones, weighed like BM25 does.
+     */
+    private Match match(Postings postings, double factor)
+    {
+        int documents = generation.documents.size();
+        double rarity = Math.log(1 + (documents - postings.size + 0.5) / (postings.size + 0.5));
+        return new Match(postings, factor * rarity);
+    }
+
+    private static int countPostings(List<Match> matches)
+    {
+        int count = 0;
+        for (Match match : matches)
+            count += match.postings.size;
+        return count;
+    }
+
+    /**
+     * Returns the documents matched by any of the matches of a query term, with their best score. The postings are
+     * merged two at a time, like in a merge sort, so every posting is copied about log2 of the number of matches
+     * times.
+     */
+    private static Scores union(List<Match> matches)
+    {
+        List<Scores> merged = new ArrayList<>(matches.size());
+        for (Match match : matches)
+        {
+            Postings postings = match.postings;
+            Scores scores = new Scores(postings.size);
+            for (int i = 0; i < postings.size; i++)
+                scores.add(postings.ids[i], match.factor * postings.weights[i]);
+            merged.add(scores);
+        }
+
+        while (merged.size() > 1)
+        {
+            List<Scores> next = new ArrayList<>((merged.size() + 1) / 2);
+            for (int i = 0; i + 1 < merged.size(); i += 2)
+                next.add(merge(merged.get(i), merged.get(i + 1)));
+            if (merged.size() % 2 == 1)
+                next.add(merged.get(merged.size() - 1));
+            merged = next;
+        }
+        return merged.get(0);
+    }
+
+    /**
+     * Merges two sets of scores, keeping the higher score of a document in both.
+     */
+    private static Scores merge(Scores a, Scores b)
+    {
+        Scores merged = new Scores(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size)
+        {
+            if (a.ids[i] < b.ids[j])
+                merged.add(a.ids[i], a.scores[i++]);
+            else if (a.ids[i] > b.ids[j])
+                merged.add(b.ids[j], b.scores[j++]);
+            else
+                merged.add(a.ids[i], Math.max(a.scores[i++], b.scores[j++]));
+        }
+        while (i < a.size)
+            merged.add(a.ids[i], a.scores[i++]);
+        while (j < b.size)
+            merged.add(b.ids[j], b.scores[j++]);
+        return merged;
+    }
+
+    /**
+     * Keeps the candidates also matched by a query term, adding the best score of the term to theirs. Each candidate
+     * is looked up in the postings of every match by galloping forward from the previous candidate, so the cost
+     * follows the number of candidates rather than the length of the postings, which matters once the candidates
+     * have been narrowed down by rarer terms. The candidates are overwritten.
+     */
+    private static Scores intersect(Scores candidates, List<Match> matches)
+    {
+        int[] positions = new int[matches.size()];
+        int kept = 0;
+        for (int c = 0; c < candidates.size; c++)
+        {
+            int id = candidates.ids[c];
+            double best = -1;
+            for (int m = 0; m < matches.size(); m++)
+            {
+                Postings postings = matches.get(m).postings;
+                int position = gallop(postings.ids, positions[m], postings.size, id);
+                positions[m] = position;
+                if (position < postings.size && postings.ids[position] == id)
+                    best = Math.max(best, matches.get(m).factor * postings.weights[position]);
+            }
+            if (best >= 0)
+            {
+                candidates.ids[kept] = id;
+                candidates.scores[kept] = candidates.scores[c] + best;
+                kept++;
+            }
+        }
+        candidates.size = kept;
+        return candidates;
+    }
+
+    /**
+     * Returns the position of the first ID at least as large as id, searching from a position onwards in steps of
+     * doubling length, then binary searching the last step.
+     */
+    private static int gallop(int[] ids, int from, int size, int id)
+    {
+        if (from >= size || ids[from] >= id)
+            return from;
+
+        int low = from;
+        int step = 1;
+        while (low + step < size && ids[low + step] < id)
+        {
+            low += step;
+            step <<= 1;
+        }
+        int high = Math.min(low + step, size);
+        //ids[low] < id, and ids[high] >= id unless high is size
+        int i = Arrays.binarySearch(ids, low + 1, high, id);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Returns the best scored documents, best first, keeping no more than maxResults in a heap while going through
+     * them. Documents are gone through in order of ID, so one that only ties the worst one kept is never better.
+     */
+    private static List<Hit> best(Scores scores, int maxResults)
+    {
+        Comparator<Hit> worstFirst = Comparator.comparingDouble(Hit::getScore)
+                .thenComparing(Comparator.comparingInt(Hit::getId).reversed());
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(maxResults, scores.size) + 1, worstFirst);
+        for (int i = 0; i < scores.size; i++)
+        {
+            double score = scores.scores[i];
+            if (heap.size() == maxResults)
+            {
+                //Only create a hit for documents that beat the worst one kept
+                if (score <= heap.peek().score)
+                    continue;
+                heap.poll();
+            }
+            heap.add(new Hit(scores.ids[i], score));
+        }
+
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(worstFirst.reversed());
+        return hits;
+    }
+}
@@ -0,0 +1,84 @@
+package dev.tias.librarydbms.service.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.search
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Suggests names for type-ahead from a {@link PrefixIndex} that is rebuilt from its source when needed. The handlers
+ * own one per kind of name, fed from the names they already keep in memory, and invalidate it whenever those change.
+ * The index is rebuilt on the first suggestion asked for after that, so a burst of changes costs one rebuild.
+ * <p>
+ * Thread safe. Suggestions don't wait for a rebuild unless the index is stale.
+ */
+public class Suggester
+{
+    private final Supplier<Collection<String>> source;
+    private volatile PrefixIndex index = new PrefixIndex(List.of());
+    private volatile boolean stale = true;
+
+    /**
+     * @param source returns the names to suggest from, called on every rebuild.
+     */
+    public Suggester(Supplier<Collection<String>> source)
+    {
+        this.source = Objects.requireNonNull(source, "source");
+    }
+
+    /**
+     * Returns the names starting with a prefix, or with a word starting with it, rebuilding the index first if it's
+     * stale.
+     *
+     * @param prefix     what has been typed so far.
+     * @param maxResults the maximum number of names to return.
+     * @return the names, empty if none match or the prefix is blank.
+     */
+    public List<String> suggest(String prefix, int maxResults)
+    {
+        if (stale)
+            rebuild();
+        return index.suggest(prefix, maxResults);
+    }
+
+    /**
+     * Marks the index as stale, so that it is rebuilt from the source when next used.
+     */
+    public void invalidate()
+    {
+        stale = true;
+    }
+
+    /**
+     * Returns the number of names in the index, as of the last rebuild.
+     *
+     * @return the number of names.
+     */
+    public int size()
+    {
+        return index.size();
+    }
+
+    private synchronized void rebuild()
+    {
+        if (!stale)
+            return;
+        //Cleared before reading the source, so that changes made while rebuilding mark it stale again
+        stale = false;
+        try
+        {
+            index = new PrefixIndex(source.get());
+        }
+        catch (RuntimeException e)
+        {
+            stale = true;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package dev.tias.librarydbms.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.search
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Splits text into the terms the {@link SearchIndex} stores and looks up. Text is lower-cased and stripped of
+ * accents, so "Fridsén" and "fridsen" are the same term, and split on anything that isn't a letter or a digit.
+ * Hyphens between digits are dropped rather than split on, so an ISBN is one term with or without its hyphens.
+ */
+public class Tokenizer
+{
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern DIGIT_HYPHENS = Pattern.compile("(?<=\\d)-(?=\\d)");
+
+    private Tokenizer()
+    {
+    }
+
+    /**
+     * Lower-cases a text and strips it of accents, without splitting it.
+     *
+     * @param text the text, may be null.
+     * @return the normalized text, empty if the text is null.
+     */
+    public static String normalize(String text)
+    {
+        if (text == null || text.isEmpty())
+            return "";
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return ACCENTS.matcher(normalized).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits a text into terms, in the order they appear. Duplicates are kept.
+     *
+     * @param text the text, may be null.
+     * @return the terms, empty if there are none.
+     */
+    public static List<String> tokenize(String text)
+    {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty())
+            return terms;
+
+        String normalized = DIGIT_HYPHENS.matcher(normalize(text)).replaceAll("");
+
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++)
+        {
+            boolean partOfTerm = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (partOfTerm && start < 0)
+                start = i;
+            else if (!partOfTerm && start >= 0)
+            {
+                terms.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
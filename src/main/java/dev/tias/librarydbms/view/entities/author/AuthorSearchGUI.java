@@ -1,6 +1,9 @@
 package dev.tias.librarydbms.view.entities.author;
 
+import dev.tias.librarydbms.control.AuthorHandler;
 import dev.tias.librarydbms.model.Author;
+import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
+import dev.tias.librarydbms.view.gui.AutocompleteCellEditor;
 import dev.tias.librarydbms.view.gui.GUI;
 
 import javax.swing.*;
@@ -80,6 +83,8 @@ public class AuthorSearchGUI extends GUI
     private List<Author> performSearch()
     {
         List<Author> searchResultList = new ArrayList<>();
+        String authorFirstName = null;
+        String authorLastName = null;
 
         for (int row = 0; row < authorSearchTable.getRowCount(); row++)
         {
@@ -93,31 +98,44 @@ public class AuthorSearchGUI extends GUI
             }
 
             //Attempt to parse the cell data and perform the search
-            /*try {
-                switch (row) {
-                    //User ID
-                    case 0 -> {
-                        int userID = Integer.parseInt(cellData.toString());
-                        User user = UserHandler.getUserByID(userID);
-                        if (!(user == null)) {
-                            searchResultList.add(user);
-                        } else System.err.println("No user found for userID: " + userID);
-                    }
-                    //Username
-                    case 1 -> {
-                        String username = cellData.toString();
-                        User user = UserHandler.getUserByUsername(username);
-                        if (!(user == null)) {
-                            searchResultList.add(user);
-                        } else System.err.println("No user found for username: " + username);
+            try
+            {
+                switch (row)
+                {
+                    //Author ID
+                    case 0 ->
+                    {
+                        int authorID = Integer.parseInt(cellData.toString());
+                        Author author = AuthorHandler.getAuthorByID(authorID, false);
+                        if (author != null)
+                            searchResultList.add(author);
+                        else System.err.println("No author found for authorID: " + authorID);
                     }
+                    //Names, suggested while typing and searched for together below
+                    case 1 -> authorFirstName = cellData.toString();
+                    case 2 -> authorLastName = cellData.toString();
                 }
-            } catch (NumberFormatException nfe) {
-                //The cell data could not be parsed to an int or a date, do nothing
-                System.err.println("Wrong data type for field: " + userSearchTable.getValueAt(row, 0));
             }
+            catch (NumberFormatException nfe)
+            {
+                //The cell data could not be parsed to an int, do nothing
+                System.err.println("Wrong data type for field: " + authorSearchTable.getValueAt(row, 0));
+            }
+        }
 
-             */
+        if (authorFirstName != null || authorLastName != null)
+        {
+            try
+            {
+                List<Author> authors = AuthorHandler.getAuthorByAuthorName(authorFirstName, authorLastName);
+                if (!authors.isEmpty())
+                    searchResultList.addAll(authors);
+                else System.err.println("No author found for name: " + authorFirstName + " " + authorLastName);
+            }
+            catch (InvalidNameException e)
+            {
+                System.err.println("Invalid author name: " + e.getMessage());
+            }
         }
 
         return searchResultList;
@@ -129,13 +147,20 @@ public class AuthorSearchGUI extends GUI
         String[] columnNames = {"Property", "Search Value"};
 
         Object[][] data = {
-                {"User ID", ""},
-                {"Username", ""},
+                {"Author ID", ""},
+                {"First Name", ""},
+                {"Last Name", ""},
         };
 
         //Use the column names and data to create a new table with editable cells.
         authorSearchTable = setupTableWithEditableCells(columnNames, data, 1);
 
+        //Suggest names while typing
+        new AutocompleteCellEditor()
+                .addSuggestions(1, AuthorHandler::suggestAuthorFirstNames)
+                .addSuggestions(2, AuthorHandler::suggestAuthorLastNames)
+                .install(authorSearchTable, 1);
+
         //Create a new scroll pane and add the table to it.
         JScrollPane rentalScrollPane = new JScrollPane();
         rentalScrollPane.setViewportView(authorSearchTable);
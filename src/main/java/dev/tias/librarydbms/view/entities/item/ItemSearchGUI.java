@@ -1,18 +1,23 @@
 package dev.tias.librarydbms.view.entities.item;
 
+import dev.tias.librarydbms.control.AuthorHandler;
+import dev.tias.librarydbms.control.ClassificationHandler;
 import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.model.Item;
+import dev.tias.librarydbms.service.db.Page;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidIDException;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
 import dev.tias.librarydbms.service.exceptions.custom.RetrievalException;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidISBNException;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidTitleException;
+import dev.tias.librarydbms.view.gui.AutocompleteCellEditor;
+import dev.tias.librarydbms.view.gui.BackgroundTask;
 import dev.tias.librarydbms.view.gui.GUI;
+import dev.tias.librarydbms.view.gui.PagedResults;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -27,6 +32,11 @@ public class ItemSearchGUI extends GUI
 {
     //TODO-prio look over exceptions
 
+    /**
+     * The maximum number of items shown for a keyword search.
+     */
+    private static final int MAX_KEYWORD_RESULTS = 50;
+
     /**
      * Table used for search queries.
      */
@@ -104,38 +114,71 @@ public class ItemSearchGUI extends GUI
         JButton searchButton = new JButton("Search");
         searchButton.addActionListener(e ->
         {
-            List<Item> searchResultList = performSearch();
-            if (!searchResultList.isEmpty())
+            //Searched in the background, so the window keeps repainting while the database is queried
+            Object[][] searchTable = copySearchTable();
+            searchButton.setEnabled(false);
+            BackgroundTask.run(this, () -> performSearch(searchTable), searchResults ->
             {
-                dispose();
-                new ItemSearchResultGUI(this, searchResultList);
-            }
-            else
+                searchButton.setEnabled(true);
+                if (!searchResults.isEmpty())
+                {
+                    dispose();
+                    new ItemSearchResultGUI(this, searchResults);
+                }
+                else
+                {
+                    System.err.println("No results found for search.");
+                }
+            }, error ->
             {
-                System.err.println("No results found for search.");
-            }
+                searchButton.setEnabled(true);
+                System.err.println("Search failed due to " + error.getClass().getName() + ": " + error.getMessage());
+            });
         });
         return searchButton;
     }
 
     /**
-     * Performs a search for items in the database using parameters from the itemSearchTable.
+     * Copies the contents of the itemSearchTable, so that they can be read outside of the Swing event thread.
      *
-     * @return a List of Item objects that match the search parameters. If no matches are found, returns an empty list.
+     * @return the property and search value of each row.
+     */
+    private Object[][] copySearchTable()
+    {
+        if (itemSearchTable.isEditing())
+            itemSearchTable.getCellEditor().stopCellEditing();
+
+        Object[][] searchTable = new Object[itemSearchTable.getRowCount()][2];
+        for (int row = 0; row < searchTable.length; row++)
+        {
+            searchTable[row][0] = itemSearchTable.getValueAt(row, 0);
+            searchTable[row][1] = itemSearchTable.getValueAt(row, 1);
+        }
+        return searchTable;
+    }
+
+    /**
+     * Performs a search for items in the database using parameters from the itemSearchTable. Searches by title,
+     * classification and author are paged, only their first pages are fetched here, see {@link PagedResults}.
+     * Runs in the background, so the table is read beforehand, see {@link #copySearchTable()}.
+     *
+     * @param searchTable the contents of the itemSearchTable, one row of property and search value per search.
+     * @return the Item objects that match the search parameters. If no matches are found, there are no results.
      * Iterates over each row of the itemSearchTable, getting the value at column 1 (search parameters) and running the
      * appropriate search function based on the row number (search type). Handles special case of author name search
      * separately after the switch statement.
      * The author search is performed using both first name and last name parameters. Both parameters are allowed to be null.
      * Exceptions related to invalid data are caught and logged, and the corresponding table cells are reset.
      */
-    private List<Item> performSearch()
+    private PagedResults<Item> performSearch(Object[][] searchTable)
     {
         //TODO-prio create smaller helper methods
-        List<Item> searchResultList = new ArrayList<>();
+        PagedResults<Item> searchResults = new PagedResults<>(Item::getItemID);
 
-        for (int row = 0; row < itemSearchTable.getRowCount(); row++)
+        for (int row = 0; row < searchTable.length; row++)
         {
-            Object cellData = itemSearchTable.getValueAt(row, 1);
+            Object property = searchTable[row][0];
+            Object cellData = searchTable[row][1];
 
             //Setup values to be used in searches
             int itemID = 0;
@@ -159,7 +202,7 @@ public class ItemSearchGUI extends GUI
                         {
                             Item item = performItemIDSearch(itemID);
                             if (item != null)
-                                searchResultList.add(item);
+                                searchResults.addAll(List.of(item));
                             else
                                 System.err.println("No item found for itemID: " + itemID);
                         }
@@ -170,13 +213,13 @@ public class ItemSearchGUI extends GUI
                     case 1 ->
                     {
                         String title = cellData.toString();
-                        searchResultList.addAll(performItemTitleSearch(title, row));
+                        performItemTitleSearch(title, property, searchResults);
                     }
                     //Item classification
                     case 2 ->
                     {
                         String classificationName = cellData.toString();
-                        searchResultList.addAll(performItemClassificationSearch(classificationName, row));
+                        performItemClassificationSearch(classificationName, property, searchResults);
                     }
                     //Author first name
                     case 3 -> authorFirstName = cellData.toString();
@@ -189,26 +232,36 @@ public class ItemSearchGUI extends GUI
                         List<Item> items = ItemHandler.getItemsByISBN(ISBN);
                         if (!items.isEmpty())
                         {
-                            searchResultList.addAll(items);
+                            searchResults.addAll(items);
                         }
                         else
                         {
                             System.err.println("No item found for ISBN: " + ISBN);
                         }
                     }
+                    //Keywords, searched for in all of the above and in the actors of films
+                    case 6 ->
+                    {
+                        String keywords = cellData.toString();
+                        List<Item> items = ItemHandler.getItemsBySearch(keywords, MAX_KEYWORD_RESULTS);
+                        if (!items.isEmpty())
+                            searchResults.addAll(items);
+                        else
+                            System.err.println("No item found for keywords: " + keywords);
+                    }
                 }
             }
             catch (NumberFormatException | InvalidISBNException nfe)
             {
-                System.err.println("Wrong data type for field: " + itemSearchTable.getValueAt(row, 0));
-                resetCells(); //TODO-prio make helper method
+                System.err.println("Wrong data type for field: " + property);
+                SwingUtilities.invokeLater(this::resetCells); //TODO-prio make helper method
             }
 
             // Perform search by author names after reading both names from the table
-            searchResultList.addAll(performAuthorSearch(authorFirstName, authorLastName, row));
+            performAuthorSearch(authorFirstName, authorLastName, property, searchResults);
         }
 
-        return searchResultList;
+        return searchResults;
     }
 
     /**
@@ -234,88 +287,120 @@ public class ItemSearchGUI extends GUI
     }
 
     /**
-     * Attempts to retrieve items based on a given title.
+     * Attempts to retrieve the first page of items based on a given title.
      *
-     * @param title The title of the items to search for.
-     * @param row   The row in the table where the title is located.
-     * @return A list of Items with the given title, or an empty list if none were found.
+     * @param title    The title of the items to search for.
+     * @param property The property in the table the title was entered for.
+     * @param results  The results to add the page to.
      */
-    private List<Item> performItemTitleSearch(String title, int row)
+    private void performItemTitleSearch(String title, Object property, PagedResults<Item> results)
     {
-        List<Item> items = new ArrayList<>();
-
         try
         {
-            items = ItemHandler.getItemsByTitle(title);
-            if (items.isEmpty())
+            Page<Item> page = ItemHandler.getItemsByTitlePage(title, null, PagedResults.PAGE_SIZE);
+            if (page.isEmpty())
                 System.err.println("No item found for title: " + title);
+            results.addFirstPage(page, pageToken ->
+            {
+                try
+                {
+                    return ItemHandler.getItemsByTitlePage(title, pageToken, PagedResults.PAGE_SIZE);
+                }
+                catch (InvalidTitleException e)
+                {
+                    //Already validated by the first page
+                    ExceptionManager.HandleFatalException(e);
+                    return null;
+                }
+            });
         }
         catch (InvalidTitleException e)
         {
-            System.err.println("Wrong data type for field: " + itemSearchTable.getValueAt(row, 0));
-            resetCells(); //TODO-prio make helper method
+            System.err.println("Wrong data type for field: " + property);
+            SwingUtilities.invokeLater(this::resetCells); //TODO-prio make helper method
         }
-
-        return items;
     }
 
     /**
-     * Attempts to retrieve items based on a given classification.
+     * Attempts to retrieve the first page of items based on a given classification.
      *
      * @param classificationName The classification of the items to search for.
-     * @param row                The row in the table where the classification is located.
-     * @return A list of Items with the given classification, or an empty list if none were found.
+     * @param property           The property in the table the classification was entered for.
+     * @param results            The results to add the page to.
      */
-    private List<Item> performItemClassificationSearch(String classificationName, int row)
+    private void performItemClassificationSearch(String classificationName, Object property, PagedResults<Item> results)
     {
-        List<Item> items = new ArrayList<>();
-
         try
         {
-            items = ItemHandler.getItemsByClassification(classificationName);
-            if (items.isEmpty())
+            Page<Item> page = ItemHandler.getItemsByClassificationPage(classificationName, null,
+                    PagedResults.PAGE_SIZE);
+            if (page.isEmpty())
                 System.err.println("No item found for classificationName: " + classificationName);
+            results.addFirstPage(page, pageToken ->
+            {
+                try
+                {
+                    return ItemHandler.getItemsByClassificationPage(classificationName, pageToken,
+                            PagedResults.PAGE_SIZE);
+                }
+                catch (InvalidNameException e)
+                {
+                    //Already validated by the first page
+                    ExceptionManager.HandleFatalException(e);
+                    return null;
+                }
+            });
         }
         catch (InvalidNameException e)
         {
-            System.err.println("Wrong data type for field: " + itemSearchTable.getValueAt(row, 0));
-            resetCells(); //TODO-prio make helper method
+            System.err.println("Wrong data type for field: " + property);
+            SwingUtilities.invokeLater(this::resetCells); //TODO-prio make helper method
         }
-
-        return items;
     }
 
     /**
-     * Helper method to perform the search for author names in the database.
+     * Helper method to perform the search for author names in the database, fetching the first page of items.
      *
      * @param authorFirstName The author's first name as a String.
      * @param authorLastName  The author's last name as a String.
-     * @param row             The row index in the itemSearchTable where the author's name is located.
-     * @return a List of Item objects that match the author's first name and/or last name. If no matches are found,
-     * returns an empty list.
-     * This method is called by performSearch() after author first and last names have been retrieved from the table.
-     * Exceptions related to invalid data are caught and logged, and the corresponding table cells are reset.
+     * @param property        The property in the itemSearchTable the author's name was entered for.
+     * @param results         The results to add the page to.
+     *                        This method is called by performSearch() after author first and last names have been
+     *                        retrieved from the table. Exceptions related to invalid data are caught and logged, and
+     *                        the corresponding table cells are reset.
      */
-    private List<Item> performAuthorSearch(String authorFirstName, String authorLastName, int row)
+    private void performAuthorSearch(String authorFirstName, String authorLastName, Object property,
+                                     PagedResults<Item> results)
     {
-        List<Item> items = new ArrayList<>();
-
         if (authorFirstName != null || authorLastName != null)
         {
             try
             {
-                items = ItemHandler.getItemsByAuthor(authorFirstName, authorLastName);
-                if (items.isEmpty())
+                Page<Item> page = ItemHandler.getItemsByAuthorPage(authorFirstName, authorLastName, null,
+                        PagedResults.PAGE_SIZE);
+                if (page.isEmpty())
                     System.err.println("No item found for author: " + authorFirstName + " " + authorLastName);
+                results.addFirstPage(page, pageToken ->
+                {
+                    try
+                    {
+                        return ItemHandler.getItemsByAuthorPage(authorFirstName, authorLastName, pageToken,
+                                PagedResults.PAGE_SIZE);
+                    }
+                    catch (InvalidNameException e)
+                    {
+                        //Already validated by the first page
+                        ExceptionManager.HandleFatalException(e);
+                        return null;
+                    }
+                });
             }
             catch (InvalidNameException e)
             {
-                System.err.println("Wrong data type for field: " + itemSearchTable.getValueAt(row, 0));
-                resetCells(); //TODO-prio make helper method
+                System.err.println("Wrong data type for field: " + property);
+                SwingUtilities.invokeLater(this::resetCells); //TODO-prio make helper method
             }
         }
-
-        return items;
     }
 
     /**
@@ -331,10 +416,17 @@ public class ItemSearchGUI extends GUI
                 {"Classification", ""},
                 {"Author/Director First Name", ""},
                 {"Author/Director Last Name", ""},
-                {"ISBN", ""}
+                {"ISBN", ""},
+                {"Keywords", ""}
         };
 
         itemSearchTable = setupTableWithEditableCells(columnNames, data, 1);
+        new AutocompleteCellEditor()
+                .addSuggestions(1, ItemHandler::suggestTitles)
+                .addSuggestions(2, ClassificationHandler::suggestClassificationNames)
+                .addSuggestions(3, AuthorHandler::suggestAuthorFirstNames)
+                .addSuggestions(4, AuthorHandler::suggestAuthorLastNames)
+                .install(itemSearchTable, 1);
 
         JScrollPane rentalScrollPane = new JScrollPane();
         rentalScrollPane.setViewportView(itemSearchTable);
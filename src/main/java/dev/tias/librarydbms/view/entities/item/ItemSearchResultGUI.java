@@ -3,13 +3,14 @@ package dev.tias.librarydbms.view.entities.item;
 import dev.tias.librarydbms.model.Item;
 import dev.tias.librarydbms.view.LoginScreenGUI;
 import dev.tias.librarydbms.view.buttons.ButtonRenderer;
+import dev.tias.librarydbms.view.gui.BackgroundTask;
 import dev.tias.librarydbms.view.gui.GUI;
+import dev.tias.librarydbms.view.gui.PagedResults;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * @author Jesper Truedsson
@@ -17,9 +18,16 @@ import java.util.Set;
  * @date 2023-04-27
  * <p>
  * This class extends the GUI class and represents the GUI for displaying a list of items.
+ * <p>
+ * Paged search results are shown a page at a time, the "Load More" button adds the next page to the table.
  */
 public class ItemSearchResultGUI extends GUI
 {
+    /**
+     * The search results, duplicates already left out.
+     */
+    private final PagedResults<Item> searchResults;
+
     /**
      * The list of Item objects to be displayed.
      */
@@ -30,6 +38,17 @@ public class ItemSearchResultGUI extends GUI
      */
     private JPanel searchResultPanel;
 
+    /**
+     * The table showing the search results, and its model.
+     */
+    private ItemTable searchResultTable;
+    private ItemTableModel searchResultTableModel;
+
+    /**
+     * Loads the next page of results, set up by setupButtons.
+     */
+    private JButton loadMoreButton;
+
     /**
      * Constructs a new ItemSearchResultGUI.
      *
@@ -37,25 +56,35 @@ public class ItemSearchResultGUI extends GUI
      * @param searchResultList the list of Item objects to be displayed.
      */
     public ItemSearchResultGUI(GUI previousGUI, List<Item> searchResultList)
+    {
+        this(previousGUI, unpaged(searchResultList));
+    }
+
+    /**
+     * Constructs a new ItemSearchResultGUI showing the results fetched so far, with more loaded on demand.
+     *
+     * @param previousGUI   the GUI instance from which this GUI was opened.
+     * @param searchResults the search results to be displayed.
+     */
+    public ItemSearchResultGUI(GUI previousGUI, PagedResults<Item> searchResults)
     {
         super(previousGUI, "ItemSearchResultGUI", null);
-        this.searchResultList = searchResultList;
-        clearDuplicates();
+        this.searchResults = searchResults;
+        this.searchResultList = new ArrayList<>(searchResults.getResults());
+        loadMoreButton.setEnabled(searchResults.hasMore());
         setupScrollPane();
         setupPanels();
         displayGUI();
     }
 
     /**
-     * Removes any duplicate items from the search result list.
-     * An item is considered duplicate if it shares the same item ID
-     * with another item in the list. In case of duplicates, all but one
-     * instance will be removed.
+     * Wraps a list of items in results without further pages. Items sharing the same item ID are only kept once.
      */
-    private void clearDuplicates()
+    private static PagedResults<Item> unpaged(List<Item> items)
     {
-        Set<Integer> seenItemIDs = new HashSet<>();
-        searchResultList.removeIf(item -> !seenItemIDs.add(item.getItemID()));
+        PagedResults<Item> results = new PagedResults<>(Item::getItemID);
+        results.addAll(items);
+        return results;
     }
 
     /**
@@ -74,7 +103,45 @@ public class ItemSearchResultGUI extends GUI
             dispose();
             new LoginScreenGUI(this);
         });
-        return new JButton[]{homeButton};
+
+        loadMoreButton = new JButton("Load More");
+        loadMoreButton.addActionListener(e -> loadMore());
+        return new JButton[]{homeButton, loadMoreButton};
+    }
+
+    /**
+     * Fetches the next page of results in the background and adds them to the end of the table once they arrive.
+     * The button is disabled meanwhile, so only one page is fetched at a time.
+     */
+    private void loadMore()
+    {
+        loadMoreButton.setEnabled(false);
+        BackgroundTask.run(this, searchResults::loadMore, added ->
+        {
+            searchResultList.addAll(added);
+            if (searchResultTable != null)
+            {
+                searchResultTable.addItems(added, this);
+                for (Item item : added)
+                    searchResultTableModel.addRow(toRow(item));
+            }
+            loadMoreButton.setEnabled(searchResults.hasMore());
+        }, error ->
+        {
+            System.err.println("Failed to load more results due to " + error.getClass().getName() + ": " +
+                    error.getMessage());
+            loadMoreButton.setEnabled(searchResults.hasMore());
+        });
+    }
+
+    /**
+     * Returns the cells of the row showing an item.
+     */
+    private static Object[] toRow(Item item)
+    {
+        return new Object[]{item.getItemID(), item.getTitle(), item.getClassificationName(),
+                "View", // Text for the button
+                "Rent"}; // Text for the button
     }
 
     /**
@@ -89,18 +156,12 @@ public class ItemSearchResultGUI extends GUI
 
         if (searchResultList != null && !searchResultList.isEmpty())
         {
-            Object[][] data = new Object[searchResultList.size()][columnNames.length];
+            Object[][] data = new Object[searchResultList.size()][];
             for (int i = 0; i < searchResultList.size(); i++)
-            {
-                Item item = searchResultList.get(i);
-                data[i][0] = item.getItemID();
-                data[i][1] = item.getTitle();
-                data[i][2] = item.getClassificationName();
-                data[i][3] = "View"; // Text for the button
-                data[i][4] = "Rent"; // Text for the button
-            }
+                data[i] = toRow(searchResultList.get(i));
 
-            ItemTable searchResultTable = new ItemTable(new ItemTableModel(data, columnNames), searchResultList, this);
+            searchResultTableModel = new ItemTableModel(data, columnNames);
+            searchResultTable = new ItemTable(searchResultTableModel, searchResultList, this);
 
             ButtonRenderer buttonRenderer = new ButtonRenderer();
 
@@ -45,6 +45,22 @@ public class ItemTable extends JTable
         }
     }
 
+    /**
+     * Adds the "View" and "Rent" buttons of items added to the end of the table, such as when more search results
+     * have been loaded.
+     *
+     * @param items       the items added.
+     * @param previousGUI the GUI from which the ItemTable is created.
+     */
+    public void addItems(List<Item> items, GUI previousGUI)
+    {
+        for (Item item : items)
+        {
+            this.editors.add(new ItemGUIButtonEditor(new JCheckBox(), item, "View", previousGUI));
+            this.editors.add(new ItemGUIButtonEditor(new JCheckBox(), item, "Rent", previousGUI));
+        }
+    }
+
     /**
      * Returns the appropriate cell editor for the given cell, which
      * is an ItemGUIButtonEditor if the cell is in the "View" or "Rent"
@@ -1,19 +1,25 @@
 package dev.tias.librarydbms.view.entities.rental;
 
 import dev.tias.librarydbms.LibraryManager;
+import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.control.RentalHandler;
+import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.model.Rental;
+import dev.tias.librarydbms.service.db.Page;
+import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidDateException;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidIDException;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidTitleException;
+import dev.tias.librarydbms.view.gui.AutocompleteCellEditor;
+import dev.tias.librarydbms.view.gui.BackgroundTask;
 import dev.tias.librarydbms.view.gui.GUI;
+import dev.tias.librarydbms.view.gui.PagedResults;
 
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -144,21 +150,50 @@ public class RentalSearchGUI extends GUI
         JButton searchButton = new JButton("Search");
         searchButton.addActionListener(e ->
         {
-            //Perform the search
-            List<Rental> searchResultList = performSearch();
-            //If the search doesn't generate a result, we stay
-            if (!searchResultList.isEmpty()) {
-                dispose();
-                new RentalSearchResultGUI(this, searchResultList);
-                RentalHandler.printRentalList(searchResultList);
-            } else {
-                System.err.println("No results found for search.");
-                resetCells();
-            }
+            //Perform the search in the background, the window keeps repainting while the database is queried
+            Object[][] searchTable = copySearchTable();
+            searchButton.setEnabled(false);
+            BackgroundTask.run(this, () -> performSearch(searchTable), searchResults ->
+            {
+                searchButton.setEnabled(true);
+                //If the search doesn't generate a result, we stay
+                if (!searchResults.isEmpty()) {
+                    dispose();
+                    new RentalSearchResultGUI(this, searchResults);
+                    RentalHandler.printRentalList(searchResults.getResults());
+                } else {
+                    System.err.println("No results found for search.");
+                    resetCells();
+                }
+            }, error ->
+            {
+                searchButton.setEnabled(true);
+                System.err.println("Search failed due to " + error.getClass().getName() + ": " + error.getMessage());
+            });
         });
         return searchButton;
     }
 
+    /**
+     * Copies the contents of the rentalSearchTable, so that the search can read them outside of the Swing event
+     * thread. A value still being edited is committed first.
+     *
+     * @return Object[][] The property and search value of each row.
+     */
+    private Object[][] copySearchTable()
+    {
+        if (rentalSearchTable.isEditing())
+            rentalSearchTable.getCellEditor().stopCellEditing();
+
+        Object[][] searchTable = new Object[rentalSearchTable.getRowCount()][2];
+        for (int row = 0; row < searchTable.length; row++)
+        {
+            searchTable[row][0] = rentalSearchTable.getValueAt(row, 0);
+            searchTable[row][1] = rentalSearchTable.getValueAt(row, 1);
+        }
+        return searchTable;
+    }
+
     //TODO-test
 
     /**
@@ -167,22 +202,27 @@ public class RentalSearchGUI extends GUI
      * item title, rental date).
      * If the cell data for a row is not null or empty, an attempt will be made to parse it into the appropriate type
      * (int or String or LocalDateTime)
-     * and perform the corresponding search. The search results are then added to a list of Rentals.
+     * and perform the corresponding search. The search results are then added to a list of Rentals. Searches by user
+     * and by item are paged, only their first pages are fetched here, see {@link PagedResults}.
      * <p>
      * If a search doesn't generate any results, a message will be printed to the system error stream.
      * If the cell data cannot be parsed to the correct type, a message will be printed to the system error stream and the search will continue with the next row.
      * If a SQLException occurs during a search, the stack trace will be printed and the program will exit with a status of 1.
      *
-     * @return List<Rental> The list of Rentals that match the search parameters.
+     * <p>
+     * Runs in the background, so it reads a copy of the table, see {@link #copySearchTable()}.
+     *
+     * @param searchTable The contents of the rentalSearchTable.
+     * @return PagedResults<Rental> The Rentals that match the search parameters.
      */
-    private List<Rental> performSearch()
+    private PagedResults<Rental> performSearch(Object[][] searchTable)
     {
-        List<Rental> searchResultList = new ArrayList<>();
+        PagedResults<Rental> searchResults = new PagedResults<>(Rental::getRentalID);
 
-        for (int row = 0; row < rentalSearchTable.getRowCount(); row++)
+        for (int row = 0; row < searchTable.length; row++)
         {
             //Retrieve cell data
-            Object cellData = rentalSearchTable.getValueAt(row, 1);
+            Object cellData = searchTable[row][1];
 
             //If data is null or empty, do nothing
             if (cellData == null || cellData.toString().isEmpty())
@@ -198,39 +238,83 @@ public class RentalSearchGUI extends GUI
                         int rentalID = Integer.parseInt(cellData.toString());
                         Rental rentalByID = RentalHandler.getRentalByID(rentalID);
                         if (rentalByID != null) {
-                            searchResultList.add(rentalByID);
+                            searchResults.addAll(List.of(rentalByID));
                         } else System.err.println("No rental found for rentalID: " + rentalID);
                     }
                     //User ID
                     case 1 -> {
                         int userID = Integer.parseInt(cellData.toString());
-                        List<Rental> rentalByUserIDList = RentalHandler.getRentalsByUserID(userID);
-                        if (!rentalByUserIDList.isEmpty()) {
-                            searchResultList.addAll(rentalByUserIDList);
+                        Page<Rental> rentalByUserIDPage = RentalHandler.getRentalsByUserIDPage(userID, null,
+                                PagedResults.PAGE_SIZE);
+                        if (!rentalByUserIDPage.isEmpty()) {
+                            searchResults.addFirstPage(rentalByUserIDPage, pageToken ->
+                            {
+                                try
+                                {
+                                    return RentalHandler.getRentalsByUserIDPage(userID, pageToken,
+                                            PagedResults.PAGE_SIZE);
+                                }
+                                catch (InvalidIDException e)
+                                {
+                                    //Already validated by the first page
+                                    ExceptionManager.HandleFatalException(e);
+                                    return null;
+                                }
+                            });
                         } else System.err.println("No rentals found for userID: " + userID);
                     }
                     //Username
                     case 2 -> {
                         String username = cellData.toString();
-                        List<Rental> rentalByUsernameList = RentalHandler.getRentalsByUsername(username);
-                        if (!rentalByUsernameList.isEmpty()) {
-                            searchResultList.addAll(rentalByUsernameList);
+                        Page<Rental> rentalByUsernamePage = RentalHandler.getRentalsByUsernamePage(username, null,
+                                PagedResults.PAGE_SIZE);
+                        if (!rentalByUsernamePage.isEmpty()) {
+                            searchResults.addFirstPage(rentalByUsernamePage, pageToken ->
+                            {
+                                try
+                                {
+                                    return RentalHandler.getRentalsByUsernamePage(username, pageToken,
+                                            PagedResults.PAGE_SIZE);
+                                }
+                                catch (InvalidNameException e)
+                                {
+                                    //Already validated by the first page
+                                    ExceptionManager.HandleFatalException(e);
+                                    return null;
+                                }
+                            });
                         } else System.err.println("No rentals found for username: " + username);
                     }
                     //Item ID
                     case 3 -> {
                         int itemID = Integer.parseInt(cellData.toString());
-                        List<Rental> rentalByItemIDList = RentalHandler.getRentalsByItemID(itemID);
-                        if (!rentalByItemIDList.isEmpty()) {
-                            searchResultList.addAll(rentalByItemIDList);
+                        Page<Rental> rentalByItemIDPage = RentalHandler.getRentalsByItemIDPage(itemID, null,
+                                PagedResults.PAGE_SIZE);
+                        if (!rentalByItemIDPage.isEmpty()) {
+                            searchResults.addFirstPage(rentalByItemIDPage, pageToken ->
+                                    RentalHandler.getRentalsByItemIDPage(itemID, pageToken, PagedResults.PAGE_SIZE));
                         } else System.err.println("No rentals found for itemID: " + itemID);
                     }
                     //Item Title
                     case 4 -> {
                         String itemTitle = cellData.toString();
-                        List<Rental> rentalByItemTitleList = RentalHandler.getRentalsByItemTitle(itemTitle);
-                        if (!rentalByItemTitleList.isEmpty()) {
-                            searchResultList.addAll(rentalByItemTitleList);
+                        Page<Rental> rentalByItemTitlePage = RentalHandler.getRentalsByItemTitlePage(itemTitle, null,
+                                PagedResults.PAGE_SIZE);
+                        if (!rentalByItemTitlePage.isEmpty()) {
+                            searchResults.addFirstPage(rentalByItemTitlePage, pageToken ->
+                            {
+                                try
+                                {
+                                    return RentalHandler.getRentalsByItemTitlePage(itemTitle, pageToken,
+                                            PagedResults.PAGE_SIZE);
+                                }
+                                catch (InvalidTitleException e)
+                                {
+                                    //Already validated by the first page
+                                    ExceptionManager.HandleFatalException(e);
+                                    return null;
+                                }
+                            });
                         } else System.err.println("No rentals found for item title: " + itemTitle);
                     }
                     //Rental date, assuming the date is stored as a String in the format "yyyy-MM-dd"
@@ -238,13 +322,13 @@ public class RentalSearchGUI extends GUI
                         LocalDateTime rentalDate = LocalDateTime.parse(cellData.toString());
                         List<Rental> rentalByDateList = RentalHandler.getRentalsByRentalDate(rentalDate);
                         if (!rentalByDateList.isEmpty()) {
-                            searchResultList.addAll(rentalByDateList);
+                            searchResults.addAll(rentalByDateList);
                         } else System.err.println("No rentals found for rental date: " + rentalDate);
                     }
                 }
             } catch (NumberFormatException | DateTimeParseException nfe) {
                 //The cell data could not be parsed to an int or a date, do nothing
-                System.err.println("Wrong data type for field: " + rentalSearchTable.getValueAt(row, 0));
+                System.err.println("Wrong data type for field: " + searchTable[row][0]);
             }
             catch (InvalidNameException | InvalidDateException | InvalidIDException | InvalidTitleException e)
             {
@@ -253,7 +337,7 @@ public class RentalSearchGUI extends GUI
             }
         }
 
-        return searchResultList;
+        return searchResults;
     }
 
     /**
@@ -286,6 +370,11 @@ public class RentalSearchGUI extends GUI
 
         //Use the column names and data to create a new table with editable cells.
         rentalSearchTable = setupTableWithEditableCells(columnNames, data, 1);
+        //Suggest usernames and titles while typing
+        new AutocompleteCellEditor()
+                .addSuggestions(2, UserHandler::suggestUsernames)
+                .addSuggestions(4, ItemHandler::suggestTitles)
+                .install(rentalSearchTable, 1);
 
         //Create a new scroll pane and add the table to it.
         JScrollPane rentalScrollPane = new JScrollPane();
@@ -3,13 +3,14 @@ package dev.tias.librarydbms.view.entities.rental;
 import dev.tias.librarydbms.model.Rental;
 import dev.tias.librarydbms.view.LoginScreenGUI;
 import dev.tias.librarydbms.view.buttons.ButtonRenderer;
+import dev.tias.librarydbms.view.gui.BackgroundTask;
 import dev.tias.librarydbms.view.gui.GUI;
+import dev.tias.librarydbms.view.gui.PagedResults;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * @author Mattias Fridsén
@@ -20,9 +21,16 @@ import java.util.Set;
  * <p>
  * This class extends GUI to create a specialized graphical interface for displaying a list of rental search results.
  * Each row in the table represents a Rental object and includes a button to view the details of the rental.
+ * <p>
+ * Paged search results are shown a page at a time, the "Load More" button adds the next page to the table.
  */
 public class RentalSearchResultGUI extends GUI
 {
+    /**
+     * The search results, duplicates already left out.
+     */
+    private final PagedResults<Rental> searchResults;
+
     /**
      * The list of Rental objects to be displayed.
      */
@@ -33,6 +41,17 @@ public class RentalSearchResultGUI extends GUI
      */
     private JPanel searchResultPanel;
 
+    /**
+     * The table showing the search results, and its model.
+     */
+    private RentalTable searchResultTable;
+    private RentalTableModel searchResultTableModel;
+
+    /**
+     * Loads the next page of results, set up by setupButtons.
+     */
+    private JButton loadMoreButton;
+
     /**
      * Constructs a new RentalSearchResultGUI.
      *
@@ -40,25 +59,36 @@ public class RentalSearchResultGUI extends GUI
      * @param searchResultList the list of Rental objects to be displayed.
      */
     public RentalSearchResultGUI(GUI previousGUI, List<Rental> searchResultList)
+    {
+        this(previousGUI, unpaged(searchResultList));
+    }
+
+    /**
+     * Constructs a new RentalSearchResultGUI showing the results fetched so far, with more loaded on demand.
+     *
+     * @param previousGUI   the GUI instance from which this GUI was opened.
+     * @param searchResults the search results to be displayed.
+     */
+    public RentalSearchResultGUI(GUI previousGUI, PagedResults<Rental> searchResults)
     {
         super(previousGUI, "RentalSearchResultGUI", null);
-        this.searchResultList = searchResultList;
-        clearDuplicates();
+        this.searchResults = searchResults;
+        this.searchResultList = new ArrayList<>(searchResults.getResults());
+        loadMoreButton.setEnabled(searchResults.hasMore());
         setupScrollPane();
         setupPanels();
         displayGUI();
     }
 
     /**
-     * Removes any duplicate rentals from the search result list.
-     * A rental is considered duplicate if it shares the same rental ID
-     * with another rental in the list. In case of duplicates, all but one
-     * instance will be removed.
+     * Wraps a list of rentals in results without further pages. Rentals sharing the same rental ID are only kept
+     * once.
      */
-    private void clearDuplicates()
+    private static PagedResults<Rental> unpaged(List<Rental> rentals)
     {
-        Set<Integer> seenRentalIDs = new HashSet<>();
-        searchResultList.removeIf(rental -> !seenRentalIDs.add(rental.getRentalID()));
+        PagedResults<Rental> results = new PagedResults<>(Rental::getRentalID);
+        results.addAll(rentals);
+        return results;
     }
 
     /**
@@ -77,7 +107,45 @@ public class RentalSearchResultGUI extends GUI
             dispose(); //TODO-prio should open a MyAccountGUI depending on what type of User is logged on
             new LoginScreenGUI(this);
         });
-        return new JButton[]{homeButton};
+
+        loadMoreButton = new JButton("Load More");
+        loadMoreButton.addActionListener(e -> loadMore());
+        return new JButton[]{homeButton, loadMoreButton};
+    }
+
+    /**
+     * Fetches the next page of results in the background and adds them to the end of the table once they arrive.
+     * The button is disabled meanwhile, so only one page is fetched at a time.
+     */
+    private void loadMore()
+    {
+        loadMoreButton.setEnabled(false);
+        BackgroundTask.run(this, searchResults::loadMore, added ->
+        {
+            searchResultList.addAll(added);
+            if (searchResultTable != null)
+            {
+                searchResultTable.addRentals(added, this);
+                for (Rental rental : added)
+                    searchResultTableModel.addRow(toRow(rental));
+            }
+            loadMoreButton.setEnabled(searchResults.hasMore());
+        }, error ->
+        {
+            System.err.println("Failed to load more results due to " + error.getClass().getName() + ": " +
+                    error.getMessage());
+            loadMoreButton.setEnabled(searchResults.hasMore());
+        });
+    }
+
+    /**
+     * Returns the cells of the row showing a rental.
+     */
+    private static Object[] toRow(Rental rental)
+    {
+        return new Object[]{rental.getRentalID(), rental.getUsername(), rental.getItemTitle(),
+                rental.getRentalDate(),
+                "View"}; // Text for the button
     }
 
     /**
@@ -93,21 +161,14 @@ public class RentalSearchResultGUI extends GUI
 
         if (searchResultList != null && !searchResultList.isEmpty())
         {
-            Object[][] data = new Object[searchResultList.size()][columnNames.length];
+            Object[][] data = new Object[searchResultList.size()][];
 
             for (int i = 0; i < searchResultList.size(); i++)
-            {
-                Rental rental = searchResultList.get(i);
-                data[i][0] = rental.getRentalID();
-                data[i][1] = rental.getUsername();
-                data[i][2] = rental.getItemTitle();
-                data[i][3] = rental.getRentalDate();
-                data[i][4] = "View";  // Text for the button
-            }
+                data[i] = toRow(searchResultList.get(i));
 
             // Use the custom table model when creating the table
-            RentalTable searchResultTable = new RentalTable(new RentalTableModel(data, columnNames),
-                    searchResultList, this);
+            searchResultTableModel = new RentalTableModel(data, columnNames);
+            searchResultTable = new RentalTable(searchResultTableModel, searchResultList, this);
 
             // Set the custom cell renderer and editor for the last column
             ButtonRenderer buttonRenderer = new ButtonRenderer();
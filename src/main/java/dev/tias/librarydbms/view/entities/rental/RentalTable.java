@@ -43,6 +43,21 @@ public class RentalTable extends JTable
         }
     }
 
+    /**
+     * Adds the 'View Rental' buttons of rentals added to the end of the table, such as when more search results have
+     * been loaded.
+     *
+     * @param rentals     the rentals added
+     * @param previousGUI the previous GUI instance
+     */
+    public void addRentals(List<Rental> rentals, GUI previousGUI)
+    {
+        for (Rental rental : rentals)
+        {
+            this.editors.add(new RentalGUIButtonEditor(new JCheckBox(), rental, "View", previousGUI));
+        }
+    }
+
     /**
      * Returns an appropriate editor for the cell specified by the given row and column indices.
      *
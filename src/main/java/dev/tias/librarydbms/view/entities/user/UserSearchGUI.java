@@ -1,6 +1,10 @@
 package dev.tias.librarydbms.view.entities.user;
 
+import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.model.User;
+import dev.tias.librarydbms.service.exceptions.custom.InvalidIDException;
+import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
+import dev.tias.librarydbms.view.gui.AutocompleteCellEditor;
 import dev.tias.librarydbms.view.gui.GUI;
 
 import javax.swing.*;
@@ -96,31 +100,35 @@ public class UserSearchGUI extends GUI
             }
 
             //Attempt to parse the cell data and perform the search
-            /*try {
-                switch (row) {
+            try
+            {
+                switch (row)
+                {
                     //User ID
-                    case 0 -> {
+                    case 0 ->
+                    {
                         int userID = Integer.parseInt(cellData.toString());
                         User user = UserHandler.getUserByID(userID);
-                        if (!(user == null)) {
+                        if (user != null)
                             searchResultList.add(user);
-                        } else System.err.println("No user found for userID: " + userID);
+                        else System.err.println("No user found for userID: " + userID);
                     }
-                    //Username
-                    case 1 -> {
+                    //Username, suggested while typing
+                    case 1 ->
+                    {
                         String username = cellData.toString();
                         User user = UserHandler.getUserByUsername(username);
-                        if (!(user == null)) {
+                        if (user != null)
                             searchResultList.add(user);
-                        } else System.err.println("No user found for username: " + username);
+                        else System.err.println("No user found for username: " + username);
                     }
                 }
-            } catch (NumberFormatException nfe) {
-                //The cell data could not be parsed to an int or a date, do nothing
+            }
+            catch (NumberFormatException | InvalidIDException | InvalidNameException e)
+            {
+                //The cell data could not be parsed to an int, or isn't a valid ID or username, do nothing
                 System.err.println("Wrong data type for field: " + userSearchTable.getValueAt(row, 0));
             }
-
-             */
         }
 
         return searchResultList;
@@ -138,6 +146,10 @@ public class UserSearchGUI extends GUI
 
         //Use the column names and data to create a new table with editable cells.
         userSearchTable = setupTableWithEditableCells(columnNames, data, 1);
+        //Suggest usernames while typing
+        new AutocompleteCellEditor()
+                .addSuggestions(1, UserHandler::suggestUsernames)
+                .install(userSearchTable, 1);
 
         //Create a new scroll pane and add the table to it.
         JScrollPane rentalScrollPane = new JScrollPane();
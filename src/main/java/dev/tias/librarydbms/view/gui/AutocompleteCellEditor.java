@@ -0,0 +1,285 @@
+package dev.tias.librarydbms.view.gui;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.view.gui
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * A text cell editor for the search tables that suggests values while typing, such as titles or usernames. Every
+ * row of the column can have its own source of suggestions, rows without one are edited as plain text.
+ * <p>
+ * Suggestions are only looked up once typing pauses for DEBOUNCE_MILLIS, and no more than MAX_SUGGESTIONS are
+ * shown. They're shown in a list below the cell, Up and Down move through it, Enter or a click picks one and Escape
+ * hides it.
+ */
+public class AutocompleteCellEditor extends DefaultCellEditor
+{
+    //How long typing must pause before suggestions are looked up
+    public static final int DEBOUNCE_MILLIS = 150;
+    //The most suggestions shown at once
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * Returns the values starting with what has been typed so far, like ItemHandler.suggestTitles.
+     */
+    @FunctionalInterface
+    public interface Suggestions
+    {
+        List<String> suggest(String prefix, int maxResults);
+    }
+
+    private final JTextField textField;
+    private final Map<Integer, Suggestions> suggestionsByRow = new HashMap<>();
+    private final DefaultListModel<String> listModel = new DefaultListModel<>();
+    private final JList<String> suggestionList = new JList<>(listModel);
+    private final JPopupMenu popup = new JPopupMenu();
+    private final Timer debounceTimer;
+    private int editingRow = -1;
+    //Set while the editor itself writes to the text field, so that it doesn't trigger a lookup
+    private boolean writingText;
+
+    /**
+     * Creates a new editor without any suggestions, add them with addSuggestions.
+     */
+    public AutocompleteCellEditor()
+    {
+        super(new JTextField());
+        textField = (JTextField) getComponent();
+
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, e -> showSuggestions());
+        debounceTimer.setRepeats(false);
+
+        setupPopup();
+        setupTextField();
+    }
+
+    /**
+     * Sets the source of suggestions for a row.
+     *
+     * @param row         the row.
+     * @param suggestions the source of suggestions.
+     * @return this editor.
+     */
+    public AutocompleteCellEditor addSuggestions(int row, Suggestions suggestions)
+    {
+        suggestionsByRow.put(row, suggestions);
+        return this;
+    }
+
+    /**
+     * Makes this the editor of a column of a table. The table hands keyboard focus to the editor when typing starts,
+     * so that Up, Down and Enter move through the suggestions rather than the rows.
+     *
+     * @param table  the table.
+     * @param column the column.
+     */
+    public void install(JTable table, int column)
+    {
+        table.getColumnModel().getColumn(column).setCellEditor(this);
+        table.setSurrendersFocusOnKeystroke(true);
+    }
+
+    @Override
+    public Component getTableCellEditorComponent(JTable table, Object value, boolean isSelected, int row, int column)
+    {
+        editingRow = row;
+        //Filling in the current value isn't typing, so it doesn't bring up suggestions
+        writingText = true;
+        try
+        {
+            return super.getTableCellEditorComponent(table, value, isSelected, row, column);
+        }
+        finally
+        {
+            writingText = false;
+        }
+    }
+
+    @Override
+    public boolean stopCellEditing()
+    {
+        hideSuggestions();
+        return super.stopCellEditing();
+    }
+
+    @Override
+    public void cancelCellEditing()
+    {
+        hideSuggestions();
+        super.cancelCellEditing();
+    }
+
+    private void setupPopup()
+    {
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setFocusable(false);
+        suggestionList.addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int index = suggestionList.locationToIndex(e.getPoint());
+                if (index >= 0)
+                    pick(listModel.get(index));
+            }
+        });
+
+        popup.setFocusable(false);
+        popup.add(new JScrollPane(suggestionList));
+    }
+
+    private void setupTextField()
+    {
+        textField.getDocument().addDocumentListener(new DocumentListener()
+        {
+            @Override
+            public void insertUpdate(DocumentEvent e)
+            {
+                textChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e)
+            {
+                textChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e)
+            {
+                textChanged();
+            }
+        });
+
+        InputMap inputMap = textField.getInputMap(JComponent.WHEN_FOCUSED);
+        ActionMap actionMap = textField.getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke("DOWN"), "nextSuggestion");
+        inputMap.put(KeyStroke.getKeyStroke("UP"), "previousSuggestion");
+        inputMap.put(KeyStroke.getKeyStroke("ENTER"), "pickSuggestion");
+        inputMap.put(KeyStroke.getKeyStroke("ESCAPE"), "hideSuggestions");
+        actionMap.put("nextSuggestion", new AbstractAction()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                moveSelection(1);
+            }
+        });
+        actionMap.put("previousSuggestion", new AbstractAction()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                moveSelection(-1);
+            }
+        });
+        actionMap.put("pickSuggestion", new AbstractAction()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                //Enter picks the selected suggestion, or ends editing like it normally does
+                if (popup.isVisible() && suggestionList.getSelectedValue() != null)
+                    pick(suggestionList.getSelectedValue());
+                else
+                    stopCellEditing();
+            }
+        });
+        actionMap.put("hideSuggestions", new AbstractAction()
+        {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                if (popup.isVisible())
+                    hideSuggestions();
+                else
+                    cancelCellEditing();
+            }
+        });
+    }
+
+    private void textChanged()
+    {
+        if (writingText)
+            return;
+        if (suggestionsByRow.containsKey(editingRow))
+            debounceTimer.restart();
+    }
+
+    /**
+     * Looks up the suggestions for what has been typed, and shows them if there are any.
+     */
+    private void showSuggestions()
+    {
+        Suggestions suggestions = suggestionsByRow.get(editingRow);
+        String prefix = textField.getText();
+        if (suggestions == null || !textField.isShowing() || prefix.isBlank())
+        {
+            hideSuggestions();
+            return;
+        }
+
+        List<String> found = suggestions.suggest(prefix, MAX_SUGGESTIONS);
+        //Nothing to suggest if the only suggestion is what has already been typed
+        if (found.isEmpty() || (found.size() == 1 && found.get(0).equals(prefix)))
+        {
+            hideSuggestions();
+            return;
+        }
+
+        listModel.clear();
+        for (String suggestion : found)
+            listModel.addElement(suggestion);
+        suggestionList.setVisibleRowCount(found.size());
+        suggestionList.clearSelection();
+        popup.setPreferredSize(null);
+        popup.pack();
+        popup.setPreferredSize(new Dimension(Math.max(textField.getWidth(), popup.getPreferredSize().width),
+                popup.getPreferredSize().height));
+        popup.show(textField, 0, textField.getHeight());
+    }
+
+    private void hideSuggestions()
+    {
+        debounceTimer.stop();
+        popup.setVisible(false);
+    }
+
+    private void moveSelection(int step)
+    {
+        if (!popup.isVisible() || listModel.isEmpty())
+            return;
+        int index = suggestionList.getSelectedIndex() + step;
+        index = Math.max(0, Math.min(listModel.size() - 1, index));
+        suggestionList.setSelectedIndex(index);
+        suggestionList.ensureIndexIsVisible(index);
+    }
+
+    private void pick(String suggestion)
+    {
+        writingText = true;
+        try
+        {
+            textField.setText(suggestion);
+        }
+        finally
+        {
+            writingText = false;
+        }
+        hideSuggestions();
+        textField.requestFocusInWindow();
+    }
+}
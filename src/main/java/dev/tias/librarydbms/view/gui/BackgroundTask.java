@@ -0,0 +1,76 @@
+package dev.tias.librarydbms.view.gui;
+
+import dev.tias.librarydbms.control.AsyncHandler;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.view.gui
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Runs the handler calls of a GUI in the background through the {@link AsyncHandler}, so that the window keeps
+ * repainting and responding while the database is queried. The window shows a wait cursor in the meantime, and the
+ * result or failure is handed back on the Swing event thread, where it's safe to update the window. The round trips
+ * of the task are counted in a scope named after the window, see {@link AsyncHandler}.
+ * <p>
+ * Everything the task needs from the window, like the contents of a table, must be read before it's started, since
+ * the task doesn't run on the event thread.
+ */
+public class BackgroundTask
+{
+    //Only static methods
+    private BackgroundTask()
+    {
+    }
+
+    /**
+     * Runs a task in the background, printing the exception it fails with, if any.
+     *
+     * @param owner    the window, or other component, waiting for the task.
+     * @param task     the task, usually a call to a handler method.
+     * @param onResult receives the result on the event thread.
+     * @param <T>      the type of result.
+     * @return the future result, which can be cancelled.
+     */
+    public static <T> CompletableFuture<T> run(Component owner, Callable<T> task, Consumer<T> onResult)
+    {
+        return run(owner, task, onResult, error -> System.err.println("Background task failed due to " +
+                error.getClass().getName() + ": " + error.getMessage()));
+    }
+
+    /**
+     * Runs a task in the background.
+     *
+     * @param owner     the window, or other component, waiting for the task.
+     * @param task      the task, usually a call to a handler method.
+     * @param onResult  receives the result on the event thread.
+     * @param onFailure receives the exception thrown by the task, or a TimeoutException, on the event thread. Not
+     *                  called if the task is cancelled.
+     * @param <T>       the type of result.
+     * @return the future result, which can be cancelled.
+     */
+    public static <T> CompletableFuture<T> run(Component owner, Callable<T> task, Consumer<T> onResult,
+                                               Consumer<Throwable> onFailure)
+    {
+        owner.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        CompletableFuture<T> future = AsyncHandler.call(owner.getClass().getSimpleName(), task);
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() ->
+        {
+            owner.setCursor(Cursor.getDefaultCursor());
+            if (error == null)
+                onResult.accept(result);
+            else if (!(error instanceof CancellationException))
+                onFailure.accept(AsyncHandler.unwrap(error));
+        }));
+        return future;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.tias.librarydbms.view.gui;
+
+import dev.tias.librarydbms.service.db.Page;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.view.gui
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * The results of a search screen, fetched a page at a time. A search can look in several places at once, like by
+ * title and by author, each of which is paged on its own. The first page of each is fetched by the search, and
+ * loadMore fetches the next page of each that has more, so a search answers as fast however many results there are.
+ * <p>
+ * Results found in more than one place are only kept once.
+ *
+ * @param <T> the type of result.
+ */
+public class PagedResults<T>
+{
+    //How many results are fetched per page by the search screens
+    public static final int PAGE_SIZE = 50;
+
+    /**
+     * Fetches the page of a search with a given token, like ItemHandler.getItemsByTitlePage.
+     */
+    @FunctionalInterface
+    public interface PageLoader<T>
+    {
+        Page<T> load(String pageToken);
+    }
+
+    private final Function<T, Integer> idOf;
+    private final Set<Integer> seenIDs = new HashSet<>();
+    private final List<T> results = new ArrayList<>();
+    private final List<Source<T>> sources = new ArrayList<>();
+
+    /**
+     * @param idOf returns the ID of a result, used to leave out results found more than once.
+     */
+    public PagedResults(Function<T, Integer> idOf)
+    {
+        this.idOf = idOf;
+    }
+
+    /**
+     * Adds results that aren't paged.
+     *
+     * @param items the results.
+     * @return the results that weren't already found.
+     */
+    public List<T> addAll(List<T> items)
+    {
+        List<T> added = new ArrayList<>();
+        for (T item : items)
+            if (item != null && seenIDs.add(idOf.apply(item)))
+                added.add(item);
+        results.addAll(added);
+        return added;
+    }
+
+    /**
+     * Adds the first page of a search, and how to fetch the pages after it.
+     *
+     * @param firstPage the first page.
+     * @param loader    fetches the following pages.
+     * @return the results on the first page that weren't already found.
+     */
+    public List<T> addFirstPage(Page<T> firstPage, PageLoader<T> loader)
+    {
+        if (firstPage.hasNext())
+            sources.add(new Source<>(loader, firstPage.getNextPageToken()));
+        return addAll(firstPage.getItems());
+    }
+
+    /**
+     * Fetches the next page of every search that has more results.
+     *
+     * @return the results fetched that weren't already found.
+     */
+    public List<T> loadMore()
+    {
+        List<T> added = new ArrayList<>();
+        Iterator<Source<T>> iterator = sources.iterator();
+        while (iterator.hasNext())
+        {
+            Source<T> source = iterator.next();
+            Page<T> page = source.loader.load(source.nextPageToken);
+            added.addAll(addAll(page.getItems()));
+
+            if (page.hasNext())
+                source.nextPageToken = page.getNextPageToken();
+            else
+                iterator.remove();
+        }
+        return added;
+    }
+
+    /**
+     * Returns whether any search has more results to fetch.
+     *
+     * @return true if loadMore would fetch anything.
+     */
+    public boolean hasMore()
+    {
+        return !sources.isEmpty();
+    }
+
+    /**
+     * Returns the results fetched so far, in the order they were found.
+     *
+     * @return the results.
+     */
+    public List<T> getResults()
+    {
+        return Collections.unmodifiableList(results);
+    }
+
+    public boolean isEmpty()
+    {
+        return results.isEmpty();
+    }
+
+    /**
+     * A paged search, and the token of its next page.
+     */
+    private static class Source<T>
+    {
+        private final PageLoader<T> loader;
+        private String nextPageToken;
+
+        private Source(PageLoader<T> loader, String nextPageToken)
+        {
+            this.loader = loader;
+            this.nextPageToken = nextPageToken;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.model.User;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
 import dev.tias.librarydbms.service.exceptions.custom.user.UserValidationException;
+import dev.tias.librarydbms.view.gui.BackgroundTask;
 import dev.tias.librarydbms.view.gui.GUI;
 
 import javax.swing.*;
@@ -85,35 +86,28 @@ public class LoginOptionPane extends OptionPane
 
         loginButton.addActionListener(e ->
         {
-            boolean loginSuccessful = false;
-            try
+            //Logs in in the background, the dialog stays open and keeps repainting until the user is found
+            String username = usernameField.getText();
+            String password = new String(passwordField.getPassword());
+            loginButton.setEnabled(false);
+            BackgroundTask.run(panel, () -> login(username, password), user ->
             {
-                loginSuccessful = UserHandler.login(usernameField.getText(), new String(passwordField.getPassword()));
-            }
-            catch (UserValidationException userValidationException)
-            {
-                userValidationException.printStackTrace();
-            }
-            if (loginSuccessful)
-            {
-                User user = null;
-                try
+                loginButton.setEnabled(true);
+                if (user != null)
                 {
-                    user = UserHandler.getUserByUsername(usernameField.getText());
+                    LibraryManager.setCurrentUser(user);
+                    System.out.println("Login successful.");
+                    JOptionPane.getRootFrame().dispose();
                 }
-                catch (InvalidNameException invalidNameException)
+                else
                 {
-                    invalidNameException.printStackTrace();
+                    System.err.println("Login failed");
                 }
-
-                LibraryManager.setCurrentUser(user);
-                System.out.println("Login successful.");
-                JOptionPane.getRootFrame().dispose();
-            }
-            else
+            }, error ->
             {
-                System.err.println("Login failed");
-            }
+                loginButton.setEnabled(true);
+                System.err.println("Login failed due to " + error.getClass().getName() + ": " + error.getMessage());
+            });
         });
 
         backButton.addActionListener(e -> JOptionPane.getRootFrame().dispose());
@@ -121,4 +115,37 @@ public class LoginOptionPane extends OptionPane
         JOptionPane.showOptionDialog(null, panel, "Login", JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE,
                 null, new Object[]{}, null);
     }
+
+    /**
+     * Validates the login and retrieves the user logging in. Runs in the background.
+     *
+     * @param username the username entered.
+     * @param password the password entered.
+     * @return the user if the login was successful, otherwise null.
+     */
+    private static User login(String username, String password)
+    {
+        boolean loginSuccessful = false;
+        try
+        {
+            loginSuccessful = UserHandler.login(username, password);
+        }
+        catch (UserValidationException userValidationException)
+        {
+            userValidationException.printStackTrace();
+        }
+        if (!loginSuccessful)
+            return null;
+
+        User user = null;
+        try
+        {
+            user = UserHandler.getUserByUsername(username);
+        }
+        catch (InvalidNameException invalidNameException)
+        {
+            invalidNameException.printStackTrace();
+        }
+        return user;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+-- @author Mattias Fridsén
+-- @project LibraryDBMS
+-- @date 10/17/2026
+-- @contact matfir-1@student.ltu.se
+
+-- Secondary indexes for the hot Item queries
+
+-- Lookup by title (getItemsByTitle, getAvailableCopy, getRentalsByItemTitle). Also covers the title, availability
+-- and barcode sync in ItemHandler, which can then read the index in title order instead of sorting the table.
+CREATE INDEX idx_items_title_available_barcode ON items (title, available, barcode);
+
+-- Lookup by ISBN (getItemsByISBN)
+CREATE INDEX idx_literature_isbn ON literature (ISBN);
+
+-- Lookup by author name (getItemsByAuthor, getAuthorByAuthorName). The composite index serves searches by first
+-- name, or by first and last name. Searches by last name only need an index of their own.
+CREATE INDEX idx_authors_first_last_name ON authors (authorFirstName, authorLastName);
+CREATE INDEX idx_authors_last_name ON authors (authorLastName);
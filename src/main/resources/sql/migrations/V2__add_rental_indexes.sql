@@ -0,0 +1,13 @@
+-- @author Mattias Fridsén
+-- @project LibraryDBMS
+-- @date 10/17/2026
+-- @contact matfir-1@student.ltu.se
+
+-- Secondary indexes for the hot Rental queries. userID and itemID are already indexed by their foreign keys.
+
+-- Overdue rentals (getOverdueRentals), WHERE rentalDueDate < ? AND rentalReturnDate IS NULL. The equality on
+-- rentalReturnDate comes first, so that the range on rentalDueDate can use the rest of the index.
+CREATE INDEX idx_rentals_return_due_date ON rentals (rentalReturnDate, rentalDueDate);
+
+-- Rentals by date (getRentalsByRentalDate, getRentalsByTimePeriod)
+CREATE INDEX idx_rentals_rental_date ON rentals (rentalDate);
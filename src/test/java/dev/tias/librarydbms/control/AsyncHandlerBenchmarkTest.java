@@ -0,0 +1,139 @@
+package dev.tias.librarydbms.control;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Throughput benchmark of the AsyncHandler modes, simulating several front desks sending operations at once. Each
+ * operation holds one of CONNECTIONS simulated connections for ROUND_TRIP_MILLIS, like a handler waiting for the
+ * database. Doesn't use the database, so it measures how the threads are scheduled, not the queries.
+ * <p>
+ * Not part of the ControlTestSuite, since it takes a few seconds. Prints operations per second for each mode.
+ */
+@Tag("benchmark")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AsyncHandlerBenchmarkTest
+{
+    //The size of the simulated connection pool, same as the default poolMaxSize
+    private static final int CONNECTIONS = 10;
+    //How long each operation holds its connection
+    private static final int ROUND_TRIP_MILLIS = 5;
+    //The number of operations sent by the desks
+    private static final int OPERATIONS = 2000;
+
+    @AfterAll
+    static void tearDown()
+    {
+        AsyncHandler.setup(AsyncHandler.DEFAULT_WORKERS, AsyncHandler.WORKER_QUEUE_CAPACITY);
+    }
+
+    /**
+     * The default worker pool, whose few workers leave most connections unused.
+     */
+    @Test
+    @Order(1)
+    void benchmarkDefaultWorkerPool() throws Exception
+    {
+        System.out.print("\n1: Benchmarking the default worker pool...");
+
+        AsyncHandler.setup(AsyncHandler.DEFAULT_WORKERS, OPERATIONS);
+        System.out.print(" " + run() + " ops/s.");
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * A platform thread pool with one worker per connection.
+     */
+    @Test
+    @Order(2)
+    void benchmarkWorkerPerConnection() throws Exception
+    {
+        System.out.print("\n2: Benchmarking a worker pool with one worker per connection...");
+
+        AsyncHandler.setup(CONNECTIONS, OPERATIONS);
+        System.out.print(" " + run() + " ops/s.");
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * A thread per operation, virtual where supported, as many running at once as there are connections.
+     */
+    @Test
+    @Order(3)
+    void benchmarkThreadPerTask() throws Exception
+    {
+        System.out.print("\n3: Benchmarking a thread per task...");
+
+        AsyncHandler.setupThreadPerTask(CONNECTIONS, OPERATIONS);
+        System.out.print(" " + run() + " ops/s on " +
+                (AsyncHandler.usesVirtualThreads() ? "virtual" : "platform") + " threads.");
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Sends all operations at once, after a warmup, and waits for them to finish.
+     *
+     * @return the operations finished per second.
+     */
+    private static long run() throws Exception
+    {
+        Semaphore connections = new Semaphore(CONNECTIONS);
+        runOperations(OPERATIONS / 10, connections);
+
+        long start = System.nanoTime();
+        runOperations(OPERATIONS, connections);
+        long elapsedNanos = System.nanoTime() - start;
+
+        //Never more operations running at once than there are connections
+        assertEquals(CONNECTIONS, connections.availablePermits());
+        return OPERATIONS * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    private static void runOperations(int operations, Semaphore connections) throws Exception
+    {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < operations; i++)
+        {
+            futures.add(AsyncHandler.call(() ->
+            {
+                //Never waits, the modes should never run more operations than there are connections
+                assertTrue(connections.tryAcquire(), "More operations running than there are connections");
+                try
+                {
+                    Thread.sleep(ROUND_TRIP_MILLIS);
+                    return 1;
+                }
+                finally
+                {
+                    connections.release();
+                }
+            }, null));
+        }
+
+        int finished = 0;
+        for (CompletableFuture<Integer> future : futures)
+            finished += future.get(1, TimeUnit.MINUTES);
+        assertEquals(operations, finished);
+    }
+}
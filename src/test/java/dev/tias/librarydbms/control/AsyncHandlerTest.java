@@ -0,0 +1,191 @@
+package dev.tias.librarydbms.control;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the AsyncHandler class. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AsyncHandlerTest
+{
+    @AfterAll
+    static void tearDown()
+    {
+        AsyncHandler.setup(AsyncHandler.DEFAULT_WORKERS, AsyncHandler.WORKER_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Tests that a task runs on a worker thread, and that the exception a task fails with is handed back as is.
+     */
+    @Test
+    @Order(1)
+    void testCall() throws Exception
+    {
+        System.out.print("\n1: Testing results and failures of tasks...");
+
+        AsyncHandler.setup(2, 10);
+
+        String thread = AsyncHandler.call(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        assertTrue(thread.startsWith("handler-worker-"));
+
+        CompletableFuture<Object> failed = AsyncHandler.call(() ->
+        {
+            throw new IllegalStateException("failed");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertTrue(AsyncHandler.unwrap(e) instanceof IllegalStateException);
+        assertEquals("failed", AsyncHandler.unwrap(e).getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> AsyncHandler.setup(0, 10));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that tasks queued behind a busy worker time out, or are cancelled, without ever running, while the
+     * task already running finishes.
+     */
+    @Test
+    @Order(2)
+    void testTimeoutAndCancel() throws Exception
+    {
+        System.out.print("\n2: Testing timeouts and cancelling...");
+
+        AsyncHandler.setup(1, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        CompletableFuture<String> running = AsyncHandler.call(() ->
+        {
+            release.await();
+            return "done";
+        }, Duration.ofMillis(50));
+        CompletableFuture<Void> cancelled = AsyncHandler.run(() -> queuedRan.set(true));
+        CompletableFuture<Object> timedOut = AsyncHandler.call(() ->
+        {
+            queuedRan.set(true);
+            return null;
+        }, Duration.ofMillis(50));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> timedOut.get(5, TimeUnit.SECONDS));
+        assertTrue(AsyncHandler.unwrap(e) instanceof TimeoutException);
+        assertTrue(cancelled.cancel(false));
+
+        //The running task times out as well, but isn't interrupted
+        assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals("done", AsyncHandler.call(() -> "done").get(5, TimeUnit.SECONDS));
+        assertFalse(queuedRan.get());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that tasks are rejected once the queue is full.
+     */
+    @Test
+    @Order(3)
+    void testRejected() throws Exception
+    {
+        System.out.print("\n3: Testing rejecting tasks when the queue is full...");
+
+        AsyncHandler.setup(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> running = AsyncHandler.call(() ->
+        {
+            release.await();
+            return null;
+        });
+        //Wait for the worker to take the first task, so the second is the only one queued
+        while (AsyncHandler.getQueuedTaskCount() > 0)
+            Thread.sleep(5);
+        CompletableFuture<Integer> queued = AsyncHandler.call(() -> 1);
+        CompletableFuture<Integer> rejected = AsyncHandler.call(() -> 2);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(AsyncHandler.unwrap(e) instanceof RejectedExecutionException);
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(1, queued.get(5, TimeUnit.SECONDS));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that in THREAD_PER_TASK mode no more tasks run at once than there are slots, that tasks waiting for a
+     * slot can be cancelled, and that tasks are rejected once too many are waiting.
+     */
+    @Test
+    @Order(4)
+    void testThreadPerTask() throws Exception
+    {
+        System.out.print("\n4: Testing thread per task mode...");
+
+        AsyncHandler.setupThreadPerTask(2, 1);
+        assertEquals(AsyncHandler.Mode.THREAD_PER_TASK, AsyncHandler.getMode());
+        //Virtual threads only from Java 21
+        assertEquals(Runtime.version().feature() >= 21, AsyncHandler.usesVirtualThreads());
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Callable<Integer> task = () ->
+        {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            release.await();
+            running.decrementAndGet();
+            return 1;
+        };
+
+        CompletableFuture<Integer> first = AsyncHandler.call(task);
+        CompletableFuture<Integer> second = AsyncHandler.call(task);
+        while (running.get() < 2)
+            Thread.sleep(5);
+        assertEquals(0, AsyncHandler.getQueuedTaskCount());
+
+        //Counted as waiting from the call, before its thread has started waiting for a slot
+        CompletableFuture<Integer> waiting = AsyncHandler.call(task);
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> AsyncHandler.call(() -> 0).get(5, TimeUnit.SECONDS));
+        assertTrue(AsyncHandler.unwrap(e) instanceof RejectedExecutionException);
+        assertEquals(1, AsyncHandler.getQueuedTaskCount());
+        assertTrue(waiting.cancel(false));
+        assertEquals(0, AsyncHandler.getQueuedTaskCount());
+
+        release.countDown();
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, AsyncHandler.call(() -> 2).get(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+
+        AsyncHandler.setup(AsyncHandler.DEFAULT_WORKERS, AsyncHandler.WORKER_QUEUE_CAPACITY);
+        assertEquals(AsyncHandler.Mode.WORKER_POOL, AsyncHandler.getMode());
+
+        System.out.print(" Test Finished.");
+    }
+}
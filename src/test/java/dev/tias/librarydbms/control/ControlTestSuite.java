@@ -20,6 +20,8 @@ import org.junit.platform.suite.api.Suite;
 @SelectClasses({
         //AuthorHandlerTestSuite.class,
         //ClassificationHandlerTestSuite.class,
+        AsyncHandlerTest.class,
+        ReadThroughCacheTest.class,
         ItemHandlerTestSuite.class,
         UserHandlerTestSuite.class,
         RentalHandlerTestSuite.class,
@@ -0,0 +1,143 @@
+package dev.tias.librarydbms.control;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the ReadThroughCache class. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ReadThroughCacheTest
+{
+    /**
+     * Tests that values are loaded once, handed out as copies, and that misses aren't cached.
+     */
+    @Test
+    @Order(1)
+    void testReadThrough()
+    {
+        System.out.print("\n1: Testing loading and copying values...");
+
+        AtomicInteger loads = new AtomicInteger();
+        ReadThroughCache<Integer, List<String>> cache = new ReadThroughCache<>(10, key ->
+        {
+            loads.incrementAndGet();
+            return key < 0 ? null : new ArrayList<>(List.of("value" + key));
+        }, ArrayList::new);
+
+        List<String> first = cache.get(1);
+        first.add("changed by caller");
+        assertEquals(List.of("value1"), cache.get(1));
+        assertNotSame(cache.get(1), cache.get(1));
+        assertEquals(1, loads.get());
+
+        //Keys without a value are looked up every time
+        assertNull(cache.get(-1));
+        assertNull(cache.get(-1));
+        assertEquals(3, loads.get());
+
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the least recently used value is evicted when the cache is full.
+     */
+    @Test
+    @Order(2)
+    void testEviction()
+    {
+        System.out.print("\n2: Testing evicting the least recently used value...");
+
+        AtomicInteger loads = new AtomicInteger();
+        ReadThroughCache<Integer, String> cache = new ReadThroughCache<>(2, key ->
+        {
+            loads.incrementAndGet();
+            return "value" + key;
+        }, value -> value);
+
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+        cache.get(3); //Evicts 2
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+
+        cache.get(1);
+        assertEquals(3, loads.get());
+        cache.get(2);
+        assertEquals(4, loads.get());
+
+        //A cache of size 0 caches nothing
+        ReadThroughCache<Integer, String> disabled = new ReadThroughCache<>(0, key -> "value" + key, value -> value);
+        disabled.get(1);
+        assertEquals(0, disabled.size());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that invalidated values are loaded again, and that a value loaded while its key is invalidated isn't
+     * cached.
+     */
+    @Test
+    @Order(3)
+    void testInvalidation()
+    {
+        System.out.print("\n3: Testing invalidating values...");
+
+        AtomicInteger version = new AtomicInteger(1);
+        AtomicReference<ReadThroughCache<Integer, String>> invalidateDuringLoad = new AtomicReference<>();
+        ReadThroughCache<Integer, String> cache = new ReadThroughCache<>(10, key ->
+        {
+            String value = key + "v" + version.get();
+            //Simulates an update committed by another thread while this one is loading
+            ReadThroughCache<Integer, String> self = invalidateDuringLoad.getAndSet(null);
+            if (self != null)
+            {
+                version.incrementAndGet();
+                self.invalidate(key);
+            }
+            return value;
+        }, value -> value);
+
+        assertEquals("1v1", cache.get(1));
+        version.set(2);
+        assertEquals("1v1", cache.get(1));
+        cache.invalidate(1);
+        assertEquals("1v2", cache.get(1));
+
+        //The value loaded during the invalidation is handed out, but not kept
+        invalidateDuringLoad.set(cache);
+        cache.invalidate(1);
+        assertEquals("1v2", cache.get(1));
+        assertEquals("1v3", cache.get(1));
+        assertEquals("1v3", cache.get(1));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(4, cache.getInvalidations());
+
+        System.out.print(" Test Finished.");
+    }
+}
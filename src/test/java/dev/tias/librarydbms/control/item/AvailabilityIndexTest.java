@@ -0,0 +1,100 @@
+package dev.tias.librarydbms.control.item;
+
+import dev.tias.librarydbms.control.AvailabilityIndex;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control.item
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the AvailabilityIndex class. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AvailabilityIndexTest
+{
+    /**
+     * Tests that available copies are found by title and ISBN, and that renting and returning copies moves them out
+     * of and into the index.
+     */
+    @Test
+    @Order(1)
+    void testRentingAndReturning()
+    {
+        System.out.print("\n1: Testing finding copies while they're rented and returned...");
+
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.replace(new AvailabilityIndex.Builder(4)
+                .addCopy(1, "title1", "isbn1", true)
+                .addCopy(2, "title1", "isbn1", true)
+                .addCopy(3, "title1", "isbn1", false)
+                .addCopy(4, "film", null, true));
+
+        assertEquals(Set.of(1, 2), Set.copyOf(index.findAvailableCopies("title1", 10)));
+        assertEquals(Set.of(1, 2), Set.copyOf(index.findAvailableCopiesByISBN("isbn1", 10)));
+        assertEquals(1, index.findAvailableCopies("title1", 1).size());
+        assertEquals(List.of(4), index.findAvailableCopies("film", 10));
+        assertTrue(index.findAvailableCopies("title2", 10).isEmpty());
+        assertTrue(index.findAvailableCopies(null, 10).isEmpty());
+        assertEquals(4, index.size());
+
+        index.markUnavailable(1);
+        index.markUnavailable(2);
+        assertTrue(index.findAvailableCopies("title1", 10).isEmpty());
+        assertTrue(index.findAvailableCopiesByISBN("isbn1", 10).isEmpty());
+        assertFalse(index.isAvailable(1));
+
+        //Returned copies are found again, unknown copies are ignored
+        index.markAvailable(3);
+        index.markAvailable(99);
+        assertEquals(List.of(3), index.findAvailableCopies("title1", 10));
+        assertEquals(List.of(3), index.findAvailableCopiesByISBN("isbn1", 10));
+        assertTrue(index.isAvailable(3));
+        assertFalse(index.isAvailable(99));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that changing the title of a copy moves it to the new title, and that removed copies are forgotten.
+     */
+    @Test
+    @Order(2)
+    void testChangingAndRemovingCopies()
+    {
+        System.out.print("\n2: Testing changing and removing copies...");
+
+        AvailabilityIndex index = new AvailabilityIndex();
+        index.putCopy(1, "old", "isbn1", true);
+        index.putCopy(1, "new", "isbn2", true);
+        assertTrue(index.findAvailableCopies("old", 10).isEmpty());
+        assertTrue(index.findAvailableCopiesByISBN("isbn1", 10).isEmpty());
+        assertEquals(List.of(1), index.findAvailableCopies("new", 10));
+        assertEquals(1, index.size());
+
+        index.removeCopy(1);
+        assertTrue(index.findAvailableCopies("new", 10).isEmpty());
+        assertEquals(0, index.size());
+
+        //Removed copies aren't brought back by a return
+        index.markAvailable(1);
+        assertTrue(index.findAvailableCopies("new", 10).isEmpty());
+
+        index.putCopy(2, "new", null, true);
+        index.clear();
+        assertEquals(0, index.size());
+        assertThrows(NullPointerException.class, () -> index.putCopy(3, null, null, true));
+
+        System.out.print(" Test Finished.");
+    }
+}
@@ -0,0 +1,204 @@
+package dev.tias.librarydbms.control.item;
+
+import dev.tias.librarydbms.control.CatalogIndex;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control.item
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the CatalogIndex class. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CatalogIndexTest
+{
+    /**
+     * Tests that copies and available copies are counted like the old maps of the ItemHandler counted them.
+     */
+    @Test
+    @Order(1)
+    void testCounting()
+    {
+        System.out.print("\n1: Testing counting titles and barcodes...");
+
+        CatalogIndex index = new CatalogIndex();
+        index.incrementStored("title1");
+        index.incrementStored("title1");
+        index.incrementAvailable("title1");
+        index.incrementStored("title2");
+        index.registerBarcode("barcode1");
+
+        assertEquals(2, index.getStoredCount("title1"));
+        assertEquals(1, index.getAvailableCount("title1"));
+        assertEquals(0, index.getAvailableCount("title2"));
+        assertTrue(index.containsTitle("title2"));
+        assertTrue(index.isBarcodeRegistered("barcode1"));
+        assertFalse(index.isBarcodeRegistered("barcode2"));
+        assertFalse(index.isBarcodeRegistered(null));
+        assertEquals(List.of("title1", "title2"), index.getTitles());
+
+        //Available copies don't go below 0
+        index.decrementAvailable("title1");
+        index.decrementAvailable("title1");
+        assertEquals(0, index.getAvailableCount("title1"));
+
+        //The title is removed with its last copy
+        index.decrementStored("title2");
+        assertFalse(index.containsTitle("title2"));
+        assertFalse(index.snapshot().getAvailableTitles().containsKey("title2"));
+        assertEquals(List.of("title1"), index.getTitles());
+
+        index.unregisterBarcode("barcode1");
+        assertFalse(index.isBarcodeRegistered("barcode1"));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that no count is lost when many threads count the same titles at once, and that the available count
+     * doesn't go below 0 when they race for the last copies.
+     */
+    @Test
+    @Order(2)
+    void testConcurrentCounting()
+    throws Exception
+    {
+        System.out.print("\n2: Testing counting from several threads...");
+
+        CatalogIndex index = new CatalogIndex();
+        int threads = 8;
+        int increments = 10000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                int thread = t;
+                futures.add(executor.submit(() ->
+                {
+                    start.await();
+                    for (int i = 0; i < increments; i++)
+                    {
+                        index.incrementStored("shared");
+                        index.incrementAvailable("shared");
+                        index.registerBarcode(thread + "-" + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        CatalogIndex.Snapshot snapshot = index.snapshot();
+        assertEquals(threads * increments, snapshot.getStoredTitles().get("shared"));
+        assertEquals(threads * increments, snapshot.getAvailableTitles().get("shared"));
+        assertEquals(threads * increments, snapshot.getRegisteredBarcodes().size());
+
+        //Twice as many decrements as available copies, racing for the last ones
+        executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startDecrementing = new CountDownLatch(1);
+        futures.clear();
+        try
+        {
+            for (int t = 0; t < threads; t++)
+            {
+                futures.add(executor.submit(() ->
+                {
+                    startDecrementing.await();
+                    for (int i = 0; i < 2 * increments; i++)
+                        index.decrementAvailable("shared");
+                    return null;
+                }));
+            }
+            startDecrementing.countDown();
+            for (Future<?> future : futures)
+                future.get(30, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        //Never went below 0, so one more copy counts as one
+        assertEquals(0, index.getAvailableCount("shared"));
+        index.incrementAvailable("shared");
+        assertEquals(1, index.getAvailableCount("shared"));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a rebuild replaces the index at once, so readers see either the old or the new contents, and that
+     * snapshots are sorted.
+     */
+    @Test
+    @Order(3)
+    void testRebuild()
+    throws Exception
+    {
+        System.out.print("\n3: Testing rebuilding the index while it's read...");
+
+        CatalogIndex index = new CatalogIndex();
+        index.replace(new CatalogIndex.Builder(1, 1).addTitle("old", 3, 2).addBarcode("old"));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean sawNeither = new AtomicBoolean(false);
+        Thread reader = new Thread(() ->
+        {
+            while (running.get())
+            {
+                if (!index.containsTitle("old") && !index.containsTitle("title0"))
+                    sawNeither.set(true);
+            }
+        });
+        reader.start();
+
+        int titles = 100000;
+        CatalogIndex.Builder builder = new CatalogIndex.Builder(titles, titles);
+        for (int i = titles - 1; i >= 0; i--)
+            builder.addTitle("title" + i, 1, i % 2).addBarcode("barcode" + i);
+        index.replace(builder);
+        running.set(false);
+        reader.join();
+
+        assertFalse(sawNeither.get(), "A reader saw a half built index.");
+        assertFalse(index.containsTitle("old"));
+        assertEquals(1, index.getStoredCount("title1"));
+        assertEquals(1, index.getAvailableCount("title1"));
+        assertEquals(0, index.getAvailableCount("title2"));
+
+        CatalogIndex.Snapshot snapshot = index.snapshot();
+        assertEquals(titles, snapshot.getStoredTitles().size());
+        assertEquals("title0", snapshot.getStoredTitles().keySet().iterator().next());
+        assertEquals("barcode0", snapshot.getRegisteredBarcodes().get(0));
+        assertEquals(new ArrayList<>(snapshot.getStoredTitles().keySet()), index.getTitles());
+        assertThrows(IllegalStateException.class, () -> index.replace(builder));
+
+        System.out.print(" Test Finished.");
+    }
+}
@@ -3,6 +3,7 @@ package dev.tias.librarydbms.control.item;
 import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.model.Item;
 import dev.tias.librarydbms.model.Literature;
+import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.ConstructionException;
 import dev.tias.librarydbms.service.exceptions.custom.EntityNotFoundException;
@@ -580,4 +581,36 @@ public class CreateNewLiteratureTest extends BaseItemHandlerTest
 
         System.out.println("Test Finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test case for creating new literature with a barcode registered by another desk after it was checked. The
+     * database rejects the item, the transaction is rolled back and an InvalidBarcodeException is thrown.
+     */
+    @Test
+    @Order(18)
+    void testCreateNewLiterature_BarcodeTakenConcurrently()
+    {
+        System.out.println("\n18: Testing createNewLiterature method with a barcode taken by another desk...");
+
+        try
+        {
+            String barcode = "raceBarcode";
+            //Saved behind the ItemHandler's back, as if by another desk
+            DataAccessManager.executePreparedUpdate("INSERT INTO items (title, itemType, barcode, authorID, " +
+                            "classificationID, allowedRentalDays, available, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    new Object[]{"Other Desk", Item.ItemType.OTHER_BOOKS, barcode, 1, 1, 14, true, false});
+            int itemCount = ItemHandler.getAllItems().size();
+
+            assertThrows(InvalidBarcodeException.class, () ->
+                    ItemHandler.createNewLiterature("Valid Title", Item.ItemType.OTHER_BOOKS, 1, 1, barcode,
+                            "9783161484100"));
+            assertEquals(itemCount, ItemHandler.getAllItems().size());
+        }
+        catch (Exception e)
+        {
+            ExceptionManager.HandleTestException(e);
+        }
+
+        System.out.println("Test Finished.");
+    }
+}
@@ -1,12 +1,30 @@
 package dev.tias.librarydbms.control.item;
 
+import dev.tias.librarydbms.control.AuthorHandler;
+import dev.tias.librarydbms.control.ClassificationHandler;
 import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.control.ItemHandlerUtils;
+import dev.tias.librarydbms.model.Author;
+import dev.tias.librarydbms.model.Film;
+import dev.tias.librarydbms.model.Item;
+import dev.tias.librarydbms.model.Literature;
+import dev.tias.librarydbms.service.db.DataAccessManager;
+import dev.tias.librarydbms.service.db.Page;
+import dev.tias.librarydbms.service.exceptions.custom.InvalidIDException;
+import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
+import dev.tias.librarydbms.service.exceptions.custom.RetrievalException;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * @author Mattias Fridsén
  * @project LibraryDBMS
@@ -25,7 +43,7 @@ public class GetAllItemsTest extends BaseItemHandlerTest
     @Override
     protected void setupTestData()
     {
-
+        setupTestData_ForItemTests_full();
     }
 
     /**
@@ -41,4 +59,149 @@ public class GetAllItemsTest extends BaseItemHandlerTest
 
         System.out.println("Test Finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that the items, with the names of their authors and classifications, are retrieved in a single round
+     * trip, however many items there are.
+     */
+    @Test
+    @Order(2)
+    void testGetAllItemsRoundTrips()
+    throws InvalidIDException
+    {
+        System.out.print("\n2: Testing that getAllItems makes a single round trip...");
+
+        long before = DataAccessManager.getRoundTripCount();
+        List<Item> items = ItemHandler.getAllItems();
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals(20, items.size());
+
+        //The joined names must match the authors and classifications they belong to
+        for (Item item : items)
+        {
+            Author author = AuthorHandler.getAuthorByID(item.getAuthorID(), false);
+            assertEquals(author.getAuthorFirstName(), item.getAuthorFirstname());
+            assertEquals(author.getAuthorLastName(), item.getAuthorLastname());
+            assertEquals(ClassificationHandler.getClassificationByID(item.getClassificationID())
+                    .getClassificationName(), item.getClassificationName());
+
+            if (item.getType() == Item.ItemType.FILM)
+                assertTrue(item instanceof Film);
+            else
+                assertTrue(item instanceof Literature);
+        }
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the filtered retrievals also make a single round trip.
+     */
+    @Test
+    @Order(3)
+    void testFilteredRetrievalRoundTrips()
+    throws InvalidIDException, RetrievalException, InvalidNameException
+    {
+        System.out.print("\n3: Testing that filtered retrievals make a single round trip...");
+
+        long before = DataAccessManager.getRoundTripCount();
+        Item item = ItemHandler.getItemByID(6);
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals("author6", item.getAuthorFirstname());
+        assertEquals("Biology", item.getClassificationName());
+
+        before = DataAccessManager.getRoundTripCount();
+        List<Item> items = ItemHandler.getItemsByAuthor("Joe", "Abercrombie");
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals(10, items.size());
+
+        before = DataAccessManager.getRoundTripCount();
+        items = ItemHandler.getItemsByClassification("Fantasy");
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals(11, items.size());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that streamAllItems returns the same items as getAllItems, in a single round trip, and that the
+     * connection can be used again once the stream is closed, whether or not it was read to the end.
+     */
+    @Test
+    @Order(4)
+    void testStreamAllItems()
+    throws InvalidNameException
+    {
+        System.out.print("\n4: Testing streaming all items...");
+
+        List<Integer> expectedIDs = ItemHandler.getAllItems().stream()
+                .map(Item::getItemID).collect(Collectors.toList());
+
+        long before = DataAccessManager.getRoundTripCount();
+        List<Item> streamed;
+        try (Stream<Item> items = ItemHandler.streamAllItems())
+        {
+            streamed = items.collect(Collectors.toList());
+        }
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals(expectedIDs, streamed.stream().map(Item::getItemID).collect(Collectors.toList()));
+        for (Item item : streamed)
+            assertEquals(item.getType() == Item.ItemType.FILM, item instanceof Film);
+
+        //Only reading some of the items, the rest are never read
+        try (Stream<Item> items = ItemHandler.streamItems("WHERE classifications.classificationName = ?",
+                new Object[]{"Fantasy"}))
+        {
+            assertEquals(5, items.limit(5).count());
+        }
+        assertEquals(11, ItemHandler.getItemsByClassification("Fantasy").size());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that paging through all items returns every item once, in order of itemID, a page per round trip, and
+     * that filtered pages only hold matching items.
+     */
+    @Test
+    @Order(5)
+    void testGetItemsPages()
+    throws InvalidNameException
+    {
+        System.out.print("\n5: Testing paging through items...");
+
+        List<Integer> expectedIDs = ItemHandler.getAllItems().stream()
+                .map(Item::getItemID).sorted().collect(Collectors.toList());
+
+        List<Integer> pagedIDs = new ArrayList<>();
+        String pageToken = null;
+        int pages = 0;
+        do
+        {
+            long before = DataAccessManager.getRoundTripCount();
+            Page<Item> page = ItemHandler.getAllItemsPage(pageToken, 6);
+            assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+            assertTrue(page.getItems().size() <= 6);
+            page.getItems().forEach(item -> pagedIDs.add(item.getItemID()));
+            pageToken = page.getNextPageToken();
+            pages++;
+        }
+        while (pageToken != null);
+        assertEquals(expectedIDs, pagedIDs);
+        assertEquals(4, pages); //20 items
+
+        //11 Fantasy items, 5 + 5 + 1
+        Page<Item> first = ItemHandler.getItemsByClassificationPage("Fantasy", null, 5);
+        Page<Item> second = ItemHandler.getItemsByClassificationPage("Fantasy", first.getNextPageToken(), 5);
+        Page<Item> third = ItemHandler.getItemsByClassificationPage("Fantasy", second.getNextPageToken(), 5);
+        assertEquals(5, first.getItems().size());
+        assertEquals(5, second.getItems().size());
+        assertEquals(1, third.getItems().size());
+        assertFalse(third.hasNext());
+        for (Page<Item> page : List.of(first, second, third))
+            for (Item item : page.getItems())
+                assertEquals("Fantasy", item.getClassificationName());
+
+        System.out.print(" Test Finished.");
+    }
+}
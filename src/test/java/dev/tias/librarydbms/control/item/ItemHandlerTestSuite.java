@@ -14,6 +14,8 @@ import org.junit.platform.suite.api.Suite;
 @Suite
 @SelectClasses({
         ItemHandlerSetupTest.class,
+        CatalogIndexTest.class,
+        AvailabilityIndexTest.class,
         CreateNewLiteratureTest.class,
         CreateNewFilmTest.class,
         GetItemByIDTest.class,
@@ -25,6 +27,7 @@ import org.junit.platform.suite.api.Suite;
         GetItemsByClassificationTest.class,
         GetItemsByISBNTest.class,
         GetItemsByAuthorTest.class,
+        SearchItemsTest.class,
 })
 public class ItemHandlerTestSuite
 {
@@ -0,0 +1,112 @@
+package dev.tias.librarydbms.control.item;
+
+import dev.tias.librarydbms.control.ItemHandler;
+import dev.tias.librarydbms.model.Film;
+import dev.tias.librarydbms.model.Item;
+import dev.tias.librarydbms.service.db.DataAccessManager;
+import dev.tias.librarydbms.service.search.SearchIndex;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control.item
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Test class for the ItemHandler.searchItems and getItemsBySearch methods.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SearchItemsTest extends BaseItemHandlerTest
+{
+    @Override
+    protected void setupTestData()
+    {
+        DataAccessManager.executeSQLCommandsFromFile("src/main/resources/sql/data/test_data.sql");
+        ItemHandler.setup();
+    }
+
+    /**
+     * Tests searching every field, with prefixes and typos, without querying the database.
+     */
+    @Test
+    @Order(1)
+    void testSearchItems_Fields()
+    {
+        System.out.print("\n1: Testing searching titles, authors, classifications, ISBNs and actors...");
+
+        long before = DataAccessManager.getRoundTripCount();
+
+        //Author, all ten books by the same author
+        assertEquals(10, ItemHandler.searchItems("Abercrombie", 50).size());
+        //Author and title, the title narrows it down to one
+        assertEquals(List.of(15), ids(ItemHandler.searchItems("abercrombie heroes", 50)));
+        //Title prefix and typo
+        assertEquals(15, ItemHandler.searchItems("hero", 50).get(0).getId());
+        assertEquals(List.of(13), ids(ItemHandler.searchItems("Last Arugment", 50)));
+        //Classification
+        assertEquals(List.of(3), ids(ItemHandler.searchItems("mathematics", 50)));
+        //ISBN, with or without hyphens. ISBNs one or two digits off count as typos, but rank lower
+        assertEquals(15, ItemHandler.searchItems("978-0-12-384941-0", 50).get(0).getId());
+        assertEquals(15, ItemHandler.searchItems("9780123849410", 50).get(0).getId());
+        //Actors
+        assertEquals(10, ItemHandler.searchItems("actor13", 50).get(0).getId());
+        //No match
+        assertTrue(ItemHandler.searchItems("tolkien", 50).isEmpty());
+
+        assertEquals(0, DataAccessManager.getRoundTripCount() - before);
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the search index follows items being created, updated and deleted, and that the found items are
+     * retrieved in one round trip, best match first.
+     */
+    @Test
+    @Order(2)
+    void testSearchItems_KeptInSync()
+    {
+        System.out.print("\n2: Testing that the search index is kept in sync...");
+
+        try
+        {
+            Film film = ItemHandler.createNewFilm("Grimdark Nights", 11, 10, "search-barcode", 15);
+            assertEquals(List.of(film.getItemID()), ids(ItemHandler.searchItems("grimdark", 50)));
+
+            long before = DataAccessManager.getRoundTripCount();
+            List<Item> items = ItemHandler.getItemsBySearch("abercrombie", 50);
+            assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+            assertEquals(11, items.size());
+
+            Film updated = (Film) ItemHandler.getItemByID(film.getItemID());
+            updated.setTitle("Sunny Days");
+            ItemHandler.updateItem(updated);
+            assertTrue(ItemHandler.searchItems("grimdark", 50).isEmpty());
+            assertEquals(List.of(film.getItemID()), ids(ItemHandler.searchItems("sunny", 50)));
+
+            ItemHandler.deleteItem(updated);
+            assertTrue(ItemHandler.searchItems("sunny", 50).isEmpty());
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+            fail("Valid operations should not throw exceptions.");
+        }
+
+        System.out.print(" Test Finished.");
+    }
+
+    private static List<Integer> ids(List<SearchIndex.Hit> hits)
+    {
+        return hits.stream().map(SearchIndex.Hit::getId).collect(Collectors.toList());
+    }
+}
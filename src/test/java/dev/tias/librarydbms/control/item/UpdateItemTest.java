@@ -4,6 +4,7 @@ import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.model.Film;
 import dev.tias.librarydbms.model.Item;
 import dev.tias.librarydbms.model.Literature;
+import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.exceptions.custom.*;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidBarcodeException;
 import dev.tias.librarydbms.service.exceptions.custom.item.InvalidISBNException;
@@ -13,6 +14,8 @@ import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.sql.SQLException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -185,4 +188,44 @@ public class UpdateItemTest extends BaseItemHandlerTest
 
         System.out.println("Test Finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test case for releasing a rented item with the atomic availability method. Items are rented by the checkout
+     * in RentalHandler, so the item is marked as rented directly here.
+     */
+    @Test
+    @Order(5)
+    void testReleaseItem()
+    {
+        System.out.println("\n5: Testing releaseItem...");
+
+        try
+        {
+            Literature newLit = ItemHandler.createNewLiterature("Title5", Item.ItemType.OTHER_BOOKS, 1, 1, "barcode5",
+                    "ISBN5");
+            int itemID = newLit.getItemID();
+
+            //An available item can't be released
+            assertFalse(ItemHandler.releaseItem(itemID));
+            DataAccessManager.executePreparedUpdate("UPDATE items SET available = 0 WHERE itemID = ?",
+                    new Object[]{itemID});
+            assertFalse(ItemHandler.getItemByID(itemID).isAvailable());
+
+            //Only the first release succeeds
+            assertTrue(ItemHandler.releaseItem(itemID));
+            assertFalse(ItemHandler.releaseItem(itemID));
+            assertTrue(ItemHandler.getItemByID(itemID).isAvailable());
+
+            //Items that don't exist can't be released
+            assertFalse(ItemHandler.releaseItem(9999));
+        }
+        catch (SQLException | InvalidBarcodeException | InvalidIDException | ConstructionException |
+               EntityNotFoundException | RetrievalException e)
+        {
+            e.printStackTrace();
+            fail("Valid operations should not throw exceptions.");
+        }
+
+        System.out.println("Test Finished.");
+    }
+}
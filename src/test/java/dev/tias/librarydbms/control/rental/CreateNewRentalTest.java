@@ -4,11 +4,16 @@ import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.control.RentalHandler;
 import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.model.Item;
+import dev.tias.librarydbms.model.Literature;
 import dev.tias.librarydbms.model.Rental;
 import dev.tias.librarydbms.model.User;
+import dev.tias.librarydbms.service.db.DataAccessManager;
+import dev.tias.librarydbms.service.db.RoundTripScope;
 import dev.tias.librarydbms.service.exceptions.ExceptionManager;
 import dev.tias.librarydbms.service.exceptions.custom.*;
+import dev.tias.librarydbms.service.exceptions.custom.item.InvalidBarcodeException;
 import dev.tias.librarydbms.service.exceptions.custom.rental.RentalNotAllowedException;
+import dev.tias.librarydbms.service.exceptions.custom.rental.RentalReturnException;
 import dev.tias.librarydbms.service.exceptions.custom.user.InvalidLateFeeException;
 import dev.tias.librarydbms.service.exceptions.custom.user.InvalidUserRentalsException;
 import org.junit.jupiter.api.MethodOrderer;
@@ -18,6 +23,7 @@ import org.junit.jupiter.api.TestMethodOrder;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -444,4 +450,174 @@ public class CreateNewRentalTest extends BaseRentalHandlerTest
 
         System.out.println("Test Finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test case for the number of statements a checkout sends to the server. The user and item are locked and read
+     * with one SELECT, followed by the INSERT of the rental and one UPDATE of both the item and the user. Turning
+     * auto-commit off, committing and turning it back on are three more.
+     */
+    @Test
+    @Order(11)
+    void testCreateNewRental_RoundTrips()
+    {
+        System.out.println("\n11: Testing the number of round trips of createNewRental...");
+
+        try
+        {
+            int validUserID = 3;
+            int validItemID = 5; //OTHER_BOOKS
+            int currentRentals = UserHandler.getUserByID(validUserID).getCurrentRentals();
+            String title = ItemHandler.getItemByID(validItemID).getTitle();
+            int availableCopies = ItemHandler.getAvailableTitles().get(title);
+
+            long before = DataAccessManager.getRoundTripCount();
+            Rental rental = RentalHandler.createNewRental(validUserID, validItemID);
+            assertEquals(6, DataAccessManager.getRoundTripCount() - before);
+
+            //Both rows were updated, and the available titles counted down once
+            assertNotNull(rental);
+            assertEquals(validItemID, rental.getItemID());
+            assertEquals(currentRentals + 1, UserHandler.getUserByID(validUserID).getCurrentRentals());
+            assertFalse(ItemHandler.getItemByID(validItemID).isAvailable());
+            assertEquals(availableCopies - 1, ItemHandler.getAvailableTitles().get(title));
+        }
+        catch (InvalidIDException | RetrievalException | RentalNotAllowedException | EntityNotFoundException |
+               InvalidTypeException e)
+        {
+            e.printStackTrace();
+            fail("Valid operations should not throw exceptions.");
+        }
+
+        System.out.println("Test Finished.");
+    }
+
+    /**
+     * Test case for createNewRental method when the requested copy is rented out and another copy is picked from the
+     * availability index. The suggested copy is locked by primary key, so the checkout makes one more round trip
+     * than when the requested copy is available. A copy the index is wrong about is dropped from it.
+     */
+    @Test
+    @Order(12)
+    void testCreateNewRental_AnotherCopyFromIndex()
+    {
+        System.out.println("\n12: Testing createNewRental method picking another copy from the availability index...");
+
+        try
+        {
+            int validUserID = 6; //RESEARCHER
+            int rentedItemID = 5; //Rented out in test 11
+            String title = ItemHandler.getItemByID(rentedItemID).getTitle();
+
+            //Two more copies of the same title
+            Literature copy1 = ItemHandler.createNewLiterature(title, Item.ItemType.OTHER_BOOKS, 5, 5,
+                    "5-copy1", "9780123849500");
+            Literature copy2 = ItemHandler.createNewLiterature(title, Item.ItemType.OTHER_BOOKS, 5, 5,
+                    "5-copy2", "9780123849500");
+            List<Integer> indexed = ItemHandler.findAvailableCopies(title, 10);
+            assertEquals(2, indexed.size());
+            assertTrue(indexed.contains(copy1.getItemID()));
+            assertTrue(indexed.contains(copy2.getItemID()));
+            assertEquals(2, ItemHandler.findAvailableCopiesByISBN("9780123849500", 10).size());
+
+            long before = DataAccessManager.getRoundTripCount();
+            Rental rental = RentalHandler.createNewRental(validUserID, rentedItemID);
+            assertEquals(7, DataAccessManager.getRoundTripCount() - before);
+            assertTrue(rental.getItemID() == copy1.getItemID() || rental.getItemID() == copy2.getItemID());
+            assertFalse(ItemHandler.findAvailableCopies(title, 10).contains(rental.getItemID()));
+
+            //Rent out the last copy behind the index's back, the checkout must notice and drop it from the index
+            int lastCopyID = rental.getItemID() == copy1.getItemID() ? copy2.getItemID() : copy1.getItemID();
+            DataAccessManager.executePreparedUpdate("UPDATE items SET available = 0 WHERE itemID = ?",
+                    new Object[]{lastCopyID});
+            assertThrows(EntityNotFoundException.class,
+                    () -> RentalHandler.createNewRental(validUserID, rentedItemID));
+            assertTrue(ItemHandler.findAvailableCopies(title, 10).isEmpty());
+
+            //Returning the rental makes its copy available in the index again
+            RentalHandler.returnRental(rental);
+            assertEquals(List.of(rental.getItemID()), ItemHandler.findAvailableCopies(title, 10));
+        }
+        catch (InvalidIDException | RetrievalException | RentalNotAllowedException | EntityNotFoundException |
+               InvalidTypeException | InvalidBarcodeException | ConstructionException | RentalReturnException e)
+        {
+            e.printStackTrace();
+            fail("Valid operations should not throw exceptions.");
+        }
+
+        System.out.println("Test Finished.");
+    }
+
+    /**
+     * Test case for the round trip budget of a checkout, measured in a scope of its own. No statement may be
+     * repeated, which would mean a query run once per row instead of being joined.
+     */
+    @Test
+    @Order(13)
+    void testCreateNewRental_RoundTripBudget()
+    {
+        System.out.println("\n13: Testing the round trip budget of createNewRental...");
+
+        try
+        {
+            int validUserID = 6; //RESEARCHER
+            Literature copy = ItemHandler.createNewLiterature("Budget Title", Item.ItemType.OTHER_BOOKS, 5, 5,
+                    "budget-copy", "9780123849500");
+
+            RoundTripScope scope = RoundTripScope.measure("createNewRental",
+                    () -> RentalHandler.createNewRental(validUserID, copy.getItemID()));
+            //Three statements, and the three of the transaction
+            assertTrue(scope.getRoundTrips() <= 6, scope.toString());
+            assertFalse(scope.hasRepeatedStatements(), scope.toString());
+        }
+        catch (Exception e)
+        {
+            ExceptionManager.HandleTestException(e);
+        }
+
+        System.out.println("Test Finished.");
+    }
+
+    /**
+     * Test case for createNewRental method when the requested copy is rented out and the only other available
+     * copies are of other types. A reference copy can't be rented, and a substitute is rented for as long as its
+     * own type allows, not the requested copy's.
+     */
+    @Test
+    @Order(14)
+    void testCreateNewRental_AnotherCopyOfAnotherType()
+    {
+        System.out.println("\n14: Testing createNewRental method picking a copy of another type...");
+
+        try
+        {
+            int validUserID = 6; //RESEARCHER
+            String title = "Loan Period Title";
+            Literature requested = ItemHandler.createNewLiterature(title, Item.ItemType.OTHER_BOOKS, 5, 5,
+                    "loan-other", "9780123849500");
+            Literature reference = ItemHandler.createNewLiterature(title, Item.ItemType.REFERENCE_LITERATURE, 5, 5,
+                    "loan-reference", "9780123849500");
+            Literature course = ItemHandler.createNewLiterature(title, Item.ItemType.COURSE_LITERATURE, 5, 5,
+                    "loan-course", "9780123849500");
+            RentalHandler.createNewRental(validUserID, requested.getItemID());
+
+            //The course copy, rented for 14 days rather than the 28 of the requested copy
+            Rental rental = RentalHandler.createNewRental(validUserID, requested.getItemID());
+            assertEquals(course.getItemID(), rental.getItemID());
+            assertEquals("COURSE_LITERATURE", rental.getItemType());
+            assertEquals(rental.getRentalDate().plusDays(14), rental.getRentalDueDate());
+            assertTrue(rental.getReceipt().contains("Item Type: COURSE_LITERATURE"));
+
+            //Only the reference copy is left, which isn't rented out and is dropped from the index
+            assertThrows(EntityNotFoundException.class,
+                    () -> RentalHandler.createNewRental(validUserID, requested.getItemID()));
+            assertTrue(ItemHandler.getItemByID(reference.getItemID()).isAvailable());
+            assertTrue(ItemHandler.findAvailableCopies(title, 10).isEmpty());
+        }
+        catch (Exception e)
+        {
+            ExceptionManager.HandleTestException(e);
+        }
+
+        System.out.println("Test Finished.");
+    }
+}
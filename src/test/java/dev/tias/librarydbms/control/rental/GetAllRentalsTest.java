@@ -1,19 +1,29 @@
 package dev.tias.librarydbms.control.rental;
 
+import dev.tias.librarydbms.control.ItemHandler;
 import dev.tias.librarydbms.control.RentalHandler;
+import dev.tias.librarydbms.control.UserHandler;
+import dev.tias.librarydbms.model.Item;
 import dev.tias.librarydbms.model.Rental;
 import dev.tias.librarydbms.service.db.DataAccessManager;
+import dev.tias.librarydbms.service.db.Page;
 import dev.tias.librarydbms.service.exceptions.custom.EntityNotFoundException;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidIDException;
+import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidTypeException;
+import dev.tias.librarydbms.service.exceptions.custom.RetrievalException;
+import dev.tias.librarydbms.service.exceptions.custom.item.InvalidTitleException;
 import dev.tias.librarydbms.service.exceptions.custom.rental.RentalNotAllowedException;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,4 +154,131 @@ public class GetAllRentalsTest extends BaseRentalHandlerTest
 
         System.out.println("Test Finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that rentals are retrieved in a single round trip however many there are, with the username, item title
+     * and item type of the users and items they reference. Also tests the retrievals by username and item title,
+     * which filter on the joined tables.
+     */
+    @Test
+    @Order(14)
+    void testGetRentals_SingleRoundTrip()
+    throws InvalidIDException, RetrievalException, InvalidNameException, InvalidTitleException
+    {
+        System.out.println("\n14: Testing that rentals are retrieved in a single round trip...");
+
+        //18 rentals, 3 of them overdue
+        createAndSaveRentalsWithDifferentDateAndDueDates(3);
+
+        long before = DataAccessManager.getRoundTripCount();
+        List<Rental> rentals = RentalHandler.getAllRentals();
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals(validItemIDs.length, rentals.size());
+
+        //The joined columns must match the users and items the rentals reference
+        for (Rental rental : rentals)
+        {
+            Item item = ItemHandler.getItemByID(rental.getItemID());
+            assertEquals(UserHandler.getUserByID(rental.getUserID()).getUsername(), rental.getUsername());
+            assertEquals(item.getTitle(), rental.getItemTitle());
+            assertEquals(item.getType().toString(), rental.getItemType());
+        }
+
+        before = DataAccessManager.getRoundTripCount();
+        List<Rental> overdueRentals = RentalHandler.getOverdueRentals();
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals(3, overdueRentals.size());
+
+        //Rentals by the username of the first user
+        Rental first = rentals.get(0);
+        List<Rental> rentalsByUsername = RentalHandler.getRentalsByUsername(first.getUsername());
+        assertFalse(rentalsByUsername.isEmpty());
+        for (Rental rental : rentalsByUsername)
+            assertEquals(first.getUserID(), rental.getUserID());
+        assertEquals(rentals.stream().filter(rental -> rental.getUserID() == first.getUserID()).count(),
+                rentalsByUsername.size());
+
+        //Rentals by the title of the first item
+        List<Rental> rentalsByTitle = RentalHandler.getRentalsByItemTitle(first.getItemTitle());
+        assertFalse(rentalsByTitle.isEmpty());
+        for (Rental rental : rentalsByTitle)
+            assertEquals(first.getItemTitle(), rental.getItemTitle());
+
+        System.out.println("Test Finished.");
+    }
+
+    /**
+     * Tests that streamAllRentals returns the same rentals as getAllRentals, in a single round trip, and that the
+     * connection can be used again once the stream is closed, whether or not it was read to the end.
+     */
+    @Test
+    @Order(15)
+    void testStreamAllRentals()
+    {
+        System.out.println("\n15: Testing streaming all rentals...");
+
+        createAndSaveRentalsWithDifferentDateAndDueDates(3);
+        List<Integer> expectedIDs = RentalHandler.getAllRentals().stream()
+                .map(Rental::getRentalID).collect(Collectors.toList());
+
+        long before = DataAccessManager.getRoundTripCount();
+        List<Integer> streamedIDs;
+        try (Stream<Rental> rentals = RentalHandler.streamAllRentals())
+        {
+            streamedIDs = rentals.map(Rental::getRentalID).collect(Collectors.toList());
+        }
+        assertEquals(1, DataAccessManager.getRoundTripCount() - before);
+        assertEquals(expectedIDs, streamedIDs);
+
+        //Only reading the first rental, the rest are never read
+        try (Stream<Rental> rentals = RentalHandler.streamAllRentals())
+        {
+            assertEquals(expectedIDs.get(0), rentals.findFirst().map(Rental::getRentalID).orElse(null));
+        }
+        assertEquals(expectedIDs.size(), RentalHandler.getAllRentals().size());
+
+        System.out.println("Test Finished.");
+    }
+
+    /**
+     * Tests that paging through all rentals, and through the rentals of a user, returns every rental once, in order
+     * of rentalID and rentalDate respectively.
+     */
+    @Test
+    @Order(16)
+    void testGetRentalsPages()
+    throws InvalidIDException
+    {
+        System.out.println("\n16: Testing paging through rentals...");
+
+        createAndSaveRentalsWithDifferentDateAndDueDates(3);
+        List<Rental> allRentals = RentalHandler.getAllRentals();
+
+        List<Integer> pagedIDs = new ArrayList<>();
+        String pageToken = null;
+        do
+        {
+            Page<Rental> page = RentalHandler.getAllRentalsPage(pageToken, 4);
+            page.getItems().forEach(rental -> pagedIDs.add(rental.getRentalID()));
+            pageToken = page.getNextPageToken();
+        }
+        while (pageToken != null);
+        assertEquals(allRentals.stream().map(Rental::getRentalID).sorted().collect(Collectors.toList()), pagedIDs);
+
+        //The rentals of the first user, oldest first
+        int userID = allRentals.get(0).getUserID();
+        List<Rental> pagedRentals = new ArrayList<>();
+        do
+        {
+            Page<Rental> page = RentalHandler.getRentalsByUserIDPage(userID, pageToken, 1);
+            pagedRentals.addAll(page.getItems());
+            pageToken = page.getNextPageToken();
+        }
+        while (pageToken != null);
+        assertEquals(RentalHandler.getRentalsByUserID(userID).size(), pagedRentals.size());
+        for (int i = 1; i < pagedRentals.size(); i++)
+            assertFalse(pagedRentals.get(i).getRentalDate().isBefore(pagedRentals.get(i - 1).getRentalDate()));
+
+        System.out.println("Test Finished.");
+    }
+}
@@ -186,4 +186,43 @@ public class ReturnRentalTest extends  BaseRentalHandlerTest
 
         System.out.println("\nTest finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test to verify that a return updates the rental, user and item with one guarded UPDATE each, in a transaction
+     * of three more round trips, and that the available copies are counted up exactly once.
+     */
+    @Test
+    @Order(5)
+    void testReturnRental_RoundTrips()
+    {
+        System.out.println("\n5: Testing the number of round trips of returnRental...");
+
+        try
+        {
+            int currentRentals = UserHandler.getUserByID(validRental.getUserID()).getCurrentRentals();
+            String title = validRental.getItemTitle();
+            int availableCopies = ItemHandler.getAvailableTitles().get(title);
+
+            long before = DataAccessManager.getRoundTripCount();
+            RentalHandler.returnRental(validRental);
+            assertEquals(6, DataAccessManager.getRoundTripCount() - before);
+
+            assertEquals(currentRentals - 1, UserHandler.getUserByID(validRental.getUserID()).getCurrentRentals());
+            assertTrue(ItemHandler.getItemByID(validRental.getItemID()).isAvailable());
+            assertEquals(availableCopies + 1, ItemHandler.getAvailableTitles().get(title));
+
+            //A stale copy of the returned rental can't be returned again
+            Rental staleRental = RentalHandler.getRentalByID(alreadyReturnedRental.getRentalID());
+            RentalHandler.returnRental(alreadyReturnedRental);
+            Exception e = assertThrows(RentalReturnException.class, () -> RentalHandler.returnRental(staleRental));
+            assertTrue(e.getMessage().contains("rental already returned"));
+        }
+        catch (RentalReturnException | InvalidIDException | RetrievalException e)
+        {
+            e.printStackTrace();
+            fail("Exception thrown during test.");
+        }
+
+        System.out.println("\nTest finished.");
+    }
+}
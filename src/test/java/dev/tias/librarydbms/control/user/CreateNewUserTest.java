@@ -2,6 +2,7 @@ package dev.tias.librarydbms.control.user;
 
 import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.model.User;
+import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.exceptions.custom.CreationException;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidEmailException;
 import dev.tias.librarydbms.service.exceptions.custom.InvalidNameException;
@@ -366,4 +367,31 @@ public class CreateNewUserTest extends BaseUserHandlerTest
 
         System.out.println("Test Finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Testing createNewUser method with a username and an email registered by another desk after they were checked.
+     * The database rejects the user, and the cause tells which of the two was taken.
+     */
+    @Test
+    @Order(17)
+    void testCreateNewUser_TakenConcurrently()
+    {
+        System.out.println("\n17: Testing createNewUser method with a username and email taken by another desk...");
+
+        //Saved behind the UserHandler's back, as if by another desk
+        DataAccessManager.executePreparedUpdate("INSERT INTO users (username, password, userType, email, " +
+                        "allowedRentals, currentRentals, lateFee, allowedToRent, deleted) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                new Object[]{validUsername, validPassword, userType, validEmail, 5, 0, 0.0, true, false});
+
+        Exception e = assertThrows(CreationException.class, () -> UserHandler.createNewUser(validUsername,
+                validPassword, validEmail2, userType));
+        assertTrue(e.getCause() instanceof InvalidNameException);
+
+        e = assertThrows(CreationException.class, () -> UserHandler.createNewUser(validUsername2,
+                validPassword, validEmail, userType));
+        assertTrue(e.getCause() instanceof InvalidEmailException);
+
+        System.out.println("Test Finished.");
+    }
+}
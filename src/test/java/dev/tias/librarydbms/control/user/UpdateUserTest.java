@@ -2,12 +2,15 @@ package dev.tias.librarydbms.control.user;
 
 import dev.tias.librarydbms.control.UserHandler;
 import dev.tias.librarydbms.model.User;
+import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.exceptions.custom.*;
 import dev.tias.librarydbms.service.exceptions.custom.user.InvalidLateFeeException;
 import dev.tias.librarydbms.service.exceptions.custom.user.InvalidPasswordException;
 import dev.tias.librarydbms.service.exceptions.custom.user.InvalidUserRentalsException;
 import org.junit.jupiter.api.*;
 
+import java.sql.SQLException;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -496,4 +499,50 @@ public class UpdateUserTest extends BaseUserHandlerTest
 
         System.out.println("Test Finished.");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test to count returned rentals for a User with the atomic counter method, from the allowed number back to 0.
+     * Rentals are counted by the checkout in RentalHandler, so the user is given them directly here.
+     */
+    @Test
+    @Order(16)
+    void testDecrementCurrentRentals()
+    {
+        System.out.println("\n16: Testing decrementCurrentRentals...");
+
+        try
+        {
+            int userID = takenUser.getUserID();
+            int allowedRentals = takenUser.getAllowedRentals();
+
+            //Renting the allowed number
+            DataAccessManager.executePreparedUpdate("UPDATE users SET currentRentals = allowedRentals, " +
+                    "allowedToRent = 0 WHERE userID = ?", new Object[]{userID});
+            User user = UserHandler.getUserByID(userID);
+            assertEquals(allowedRentals, user.getCurrentRentals());
+            assertFalse(user.isAllowedToRent());
+
+            //One return and the user may rent again
+            assertTrue(UserHandler.decrementCurrentRentals(userID));
+            user = UserHandler.getUserByID(userID);
+            assertEquals(allowedRentals - 1, user.getCurrentRentals());
+            assertTrue(user.isAllowedToRent());
+
+            //Counted down to 0, and refused after that
+            for (int i = 1; i < allowedRentals; i++)
+                assertTrue(UserHandler.decrementCurrentRentals(userID));
+            assertFalse(UserHandler.decrementCurrentRentals(userID));
+            assertEquals(0, UserHandler.getUserByID(userID).getCurrentRentals());
+
+            //Users that don't exist are never counted
+            assertFalse(UserHandler.decrementCurrentRentals(9999));
+        }
+        catch (SQLException | InvalidIDException e)
+        {
+            e.printStackTrace();
+            fail("Valid operations should not throw exceptions.");
+        }
+
+        System.out.println("Test Finished.");
+    }
+}
@@ -14,6 +14,7 @@ import org.junit.platform.suite.api.Suite;
 @Suite
 @SelectClasses({
         UserHandlerSetupTest.class,
+        UserRegistryTest.class,
         CreateNewUserTest.class,
         GetUserByIDTest.class,
         DeleteAndRecoverUserTest.class,
@@ -0,0 +1,94 @@
+package dev.tias.librarydbms.control.user;
+
+import dev.tias.librarydbms.control.UserRegistry;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.control.user
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the UserRegistry class. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class UserRegistryTest
+{
+    /**
+     * Tests that usernames and emails are looked up regardless of case, and that the lists are ordered by userID.
+     */
+    @Test
+    @Order(1)
+    void testLookups()
+    {
+        System.out.print("\n1: Testing lookups regardless of case...");
+
+        UserRegistry registry = new UserRegistry();
+        registry.replace(new UserRegistry.Builder(2)
+                .add(2, "Bob", "Bob@Example.com")
+                .add(1, "alice", "alice@example.com"));
+
+        assertTrue(registry.isUsernameTaken("bob"));
+        assertTrue(registry.isUsernameTaken("ALICE"));
+        assertFalse(registry.isUsernameTaken("carol"));
+        assertFalse(registry.isUsernameTaken(null));
+        assertTrue(registry.isEmailRegistered("bob@example.com"));
+        assertFalse(registry.isEmailRegistered("carol@example.com"));
+
+        //The user's own username and email don't count as taken
+        assertFalse(registry.isUsernameTaken("BOB", 2));
+        assertTrue(registry.isUsernameTaken("BOB", 1));
+        assertFalse(registry.isEmailRegistered("bob@example.com", 2));
+        assertTrue(registry.isEmailRegistered("bob@example.com", 1));
+
+        assertEquals(2, registry.size());
+        assertEquals(List.of("alice", "Bob"), registry.getUsernames());
+        assertEquals(List.of("alice@example.com", "Bob@Example.com"), registry.getEmails());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that changing a user frees the old username and email, and that unregistering frees both.
+     */
+    @Test
+    @Order(2)
+    void testChanges()
+    {
+        System.out.print("\n2: Testing registering, changing and unregistering users...");
+
+        UserRegistry registry = new UserRegistry();
+        registry.register(1, "alice", "alice@example.com");
+        registry.register(2, "bob", "bob@example.com");
+
+        //Change username only
+        registry.register(1, "alicia", "alice@example.com");
+        assertFalse(registry.isUsernameTaken("alice"));
+        assertTrue(registry.isUsernameTaken("Alicia"));
+        assertTrue(registry.isEmailRegistered("alice@example.com"));
+        assertEquals(2, registry.size());
+
+        registry.unregister(2);
+        assertFalse(registry.isUsernameTaken("bob"));
+        assertFalse(registry.isEmailRegistered("bob@example.com"));
+        assertEquals(1, registry.size());
+
+        //Unknown users are ignored
+        registry.unregister(99);
+        assertEquals(1, registry.size());
+
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertFalse(registry.isUsernameTaken("alicia"));
+
+        System.out.print(" Test Finished.");
+    }
+}
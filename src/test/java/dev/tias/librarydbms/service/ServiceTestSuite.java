@@ -1,8 +1,24 @@
 package dev.tias.librarydbms.service;
 
+import dev.tias.librarydbms.service.db.ConnectionPoolTest;
 import dev.tias.librarydbms.service.db.DataAccessManager;
 import dev.tias.librarydbms.service.db.DatabaseConnectionTest;
+import dev.tias.librarydbms.service.db.ExecutePreparedBatchTest;
+import dev.tias.librarydbms.service.db.KeysetTest;
 import dev.tias.librarydbms.service.db.MetaDataRetrieverTest;
+import dev.tias.librarydbms.service.db.ParameterBinderTest;
+import dev.tias.librarydbms.service.db.PreparedStatementCacheTest;
+import dev.tias.librarydbms.service.db.QueryPlanTest;
+import dev.tias.librarydbms.service.db.QueryStatisticsTest;
+import dev.tias.librarydbms.service.db.ResultStreamTest;
+import dev.tias.librarydbms.service.db.RoundTripScopeTest;
+import dev.tias.librarydbms.service.db.SQLScriptExecutorTest;
+import dev.tias.librarydbms.service.db.SQLScriptReaderTest;
+import dev.tias.librarydbms.service.db.SchemaMetaDataTest;
+import dev.tias.librarydbms.service.db.SchemaMigratorTest;
+import dev.tias.librarydbms.service.db.TransactionTest;
+import dev.tias.librarydbms.service.search.PrefixIndexTest;
+import dev.tias.librarydbms.service.search.SearchIndexTest;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 
@@ -19,8 +35,24 @@ import org.junit.platform.suite.api.Suite;
 @Suite
 @SelectClasses({
         DatabaseConnectionTest.class,
+        ConnectionPoolTest.class,
+        PreparedStatementCacheTest.class,
+        ResultStreamTest.class,
+        KeysetTest.class,
+        ParameterBinderTest.class,
+        ExecutePreparedBatchTest.class,
+        TransactionTest.class,
+        QueryStatisticsTest.class,
+        RoundTripScopeTest.class,
+        SQLScriptReaderTest.class,
+        SQLScriptExecutorTest.class,
+        SchemaMigratorTest.class,
         DataAccessManager.class,
         MetaDataRetrieverTest.class,
+        SchemaMetaDataTest.class,
+        QueryPlanTest.class,
+        SearchIndexTest.class,
+        PrefixIndexTest.class,
 })
 public class ServiceTestSuite
 {
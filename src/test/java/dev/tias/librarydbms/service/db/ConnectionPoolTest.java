@@ -0,0 +1,303 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the ConnectionPool class. Uses mocked Connections, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ConnectionPoolTest
+{
+    private final List<Connection> openedConnections = new ArrayList<>();
+    private ConnectionPool pool;
+
+    /**
+     * Opens a mocked connection that is valid and in auto-commit mode.
+     */
+    private Connection openMockConnection()
+    throws SQLException
+    {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(connection.getAutoCommit()).thenReturn(true);
+        openedConnections.add(connection);
+        return connection;
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if (pool != null)
+            pool.close();
+        openedConnections.clear();
+    }
+
+    /**
+     * Tests that a lease hands out a connection and that closing it returns the connection to the pool.
+     */
+    @Test
+    @Order(1)
+    void testLeaseAndReturn()
+    throws SQLException
+    {
+        System.out.print("\n1: Testing to lease and return a connection...");
+
+        pool = new ConnectionPool(this::openMockConnection, 1, 2, 60000, 1000, 500, 1);
+        pool.start();
+        assertEquals(1, pool.getStatistics().getIdleConnections());
+
+        try (ConnectionLease lease = pool.lease())
+        {
+            assertSame(openedConnections.get(0), lease.getConnection());
+            assertEquals(1, pool.getStatistics().getActiveConnections());
+            assertEquals(0, pool.getStatistics().getIdleConnections());
+        }
+
+        PoolStatistics statistics = pool.getStatistics();
+        assertEquals(0, statistics.getActiveConnections());
+        assertEquals(1, statistics.getIdleConnections());
+        assertEquals(1, statistics.getBorrowCount());
+        assertEquals(1, statistics.getCreatedCount());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that nested leases on one thread reuse the same connection, which is only returned once the
+     * outermost lease is closed.
+     */
+    @Test
+    @Order(2)
+    void testNestedLeasesReuseConnection()
+    throws SQLException
+    {
+        System.out.print("\n2: Testing nested leases on the same thread...");
+
+        pool = new ConnectionPool(this::openMockConnection, 0, 2, 60000, 1000, 500, 1);
+        pool.start();
+
+        try (ConnectionLease outer = pool.lease())
+        {
+            try (ConnectionLease inner = pool.lease())
+            {
+                assertSame(outer.getConnection(), inner.getConnection());
+            }
+            assertEquals(1, pool.getStatistics().getActiveConnections());
+            assertSame(outer.getConnection(), pool.getLeasedConnection());
+        }
+
+        assertEquals(0, pool.getStatistics().getActiveConnections());
+        assertEquals(1, pool.getStatistics().getTotalConnections());
+        assertNull(pool.getLeasedConnection());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the pool never grows beyond its max size, and that a borrower gives up after the borrow timeout.
+     */
+    @Test
+    @Order(3)
+    void testBorrowTimesOutWhenPoolIsExhausted()
+    throws Exception
+    {
+        System.out.print("\n3: Testing borrow timeout on an exhausted pool...");
+
+        pool = new ConnectionPool(this::openMockConnection, 0, 1, 60000, 50, 500, 1);
+        pool.start();
+
+        try (ConnectionLease held = pool.lease())
+        {
+            assertSame(openedConnections.get(0), held.getConnection());
+            CompletableFuture<Void> otherThread = CompletableFuture.runAsync(() ->
+            {
+                try (ConnectionLease lease = pool.lease())
+                {
+                    fail("Should not get a connection, got: " + lease.getConnection());
+                }
+                catch (SQLException e)
+                {
+                    assertTrue(e instanceof SQLTimeoutException);
+                }
+            });
+            otherThread.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, openedConnections.size());
+        assertEquals(1, pool.getStatistics().getTimeoutCount());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a waiting borrower gets the connection as soon as it is returned, and that the wait is recorded.
+     */
+    @Test
+    @Order(4)
+    void testWaitingBorrowerGetsReturnedConnection()
+    throws Exception
+    {
+        System.out.print("\n4: Testing that a waiting borrower gets a returned connection...");
+
+        pool = new ConnectionPool(this::openMockConnection, 0, 1, 60000, 5000, 500, 1);
+        pool.start();
+
+        CountDownLatch leased = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+        {
+            try (ConnectionLease lease = pool.lease())
+            {
+                assertNotNull(lease.getConnection());
+                leased.countDown();
+                release.await();
+            }
+            catch (SQLException | InterruptedException e)
+            {
+                fail(e);
+            }
+        });
+
+        assertTrue(leased.await(5, TimeUnit.SECONDS));
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS).execute(release::countDown);
+
+        try (ConnectionLease lease = pool.lease())
+        {
+            assertSame(openedConnections.get(0), lease.getConnection());
+        }
+        holder.get(5, TimeUnit.SECONDS);
+
+        PoolStatistics statistics = pool.getStatistics();
+        assertEquals(1, statistics.getWaitCount());
+        assertTrue(statistics.getMaxWaitNanos() > 0);
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a connection failing validation on borrow is discarded and replaced.
+     */
+    @Test
+    @Order(5)
+    void testInvalidConnectionIsReplaced()
+    throws SQLException
+    {
+        System.out.print("\n5: Testing that invalid connections are replaced on borrow...");
+
+        //Validation interval 0 means every borrow validates
+        pool = new ConnectionPool(this::openMockConnection, 1, 1, 60000, 1000, 0, 1);
+        pool.start();
+        Connection broken = openedConnections.get(0);
+        when(broken.isValid(anyInt())).thenReturn(false);
+
+        try (ConnectionLease lease = pool.lease())
+        {
+            assertNotSame(broken, lease.getConnection());
+        }
+
+        verify(broken).close();
+        assertEquals(1, pool.getStatistics().getValidationFailureCount());
+        assertEquals(1, pool.getStatistics().getTotalConnections());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that an unfinished transaction is rolled back when its connection is returned.
+     */
+    @Test
+    @Order(6)
+    void testUnfinishedTransactionRolledBackOnReturn()
+    throws SQLException
+    {
+        System.out.print("\n6: Testing rollback of unfinished transactions on return...");
+
+        pool = new ConnectionPool(this::openMockConnection, 1, 1, 60000, 1000, 500, 1);
+        pool.start();
+        Connection connection = openedConnections.get(0);
+
+        try (ConnectionLease lease = pool.lease())
+        {
+            assertSame(connection, lease.getConnection());
+            when(connection.getAutoCommit()).thenReturn(false);
+        }
+
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that connections idle for longer than the idle timeout are evicted, down to the minimum size.
+     */
+    @Test
+    @Order(7)
+    void testIdleConnectionsEvicted()
+    throws Exception
+    {
+        System.out.print("\n7: Testing eviction of idle connections...");
+
+        pool = new ConnectionPool(this::openMockConnection, 1, 3, 10, 1000, 500, 1);
+        pool.start();
+
+        //Hold three leases at once from different threads to grow the pool
+        CountDownLatch leased = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> holders = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        for (int i = 0; i < 3; i++)
+        {
+            holders.add(CompletableFuture.runAsync(() ->
+            {
+                try (ConnectionLease lease = pool.lease())
+                {
+                    assertNotNull(lease.getConnection());
+                    leased.countDown();
+                    release.await();
+                }
+                catch (SQLException | InterruptedException e)
+                {
+                    fail(e);
+                }
+            }, executor));
+        }
+        assertTrue(leased.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        for (CompletableFuture<Void> holder : holders)
+            holder.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(3, pool.getStatistics().getTotalConnections());
+
+        //The evictor runs once a second at the shortest
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getStatistics().getTotalConnections() > 1 && System.currentTimeMillis() < deadline)
+            Thread.sleep(100);
+
+        assertEquals(1, pool.getStatistics().getTotalConnections());
+        assertEquals(2, pool.getStatistics().getEvictedCount());
+
+        System.out.print(" Test Finished.");
+    }
+}
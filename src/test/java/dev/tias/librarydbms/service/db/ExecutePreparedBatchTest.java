@@ -0,0 +1,155 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for DataAccessManager.executePreparedBatch. Uses a mocked Connection, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ExecutePreparedBatchTest
+{
+    private static final String INSERT = "INSERT INTO authors (authorFirstName, authorLastName) VALUES (?, ?)";
+
+    private PreparedStatement statement;
+
+    @BeforeEach
+    void setUp()
+    throws SQLException
+    {
+        statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(statement);
+        DataAccessManager.setConnection(connection);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        DataAccessManager.setConnection(null);
+    }
+
+    /**
+     * Returns a mocked ResultSet with one generated key per row.
+     */
+    private static ResultSet keys(int... keys)
+    throws SQLException
+    {
+        ResultSet resultSet = mock(ResultSet.class);
+        final int[] position = {-1};
+        when(resultSet.next()).thenAnswer(invocation -> ++position[0] < keys.length);
+        when(resultSet.getInt(1)).thenAnswer(invocation -> keys[position[0]]);
+        return resultSet;
+    }
+
+    private static List<Object[]> rows(int count)
+    {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            rows.add(new Object[]{"First" + i, "Last" + i});
+        }
+        return rows;
+    }
+
+    /**
+     * Tests that the rows are sent in chunks, and that the generated keys are matched to the rows in order.
+     */
+    @Test
+    @Order(1)
+    void testChunksAndGeneratedKeys()
+    throws SQLException
+    {
+        System.out.print("\n1: Testing that rows are sent in chunks with their keys...");
+
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1, 1}, new int[]{1});
+        ResultSet first = keys(11, 12);
+        ResultSet second = keys(13, 14);
+        ResultSet third = keys(15);
+        when(statement.getGeneratedKeys()).thenReturn(first, second, third);
+
+        BatchResult result = DataAccessManager.executePreparedBatch(INSERT, rows(5), 2, true);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(5, result.getSuccessCount());
+        assertArrayEquals(new int[]{11, 12, 13, 14, 15}, result.getGeneratedKeys());
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1}, result.getUpdateCounts());
+        verify(statement, times(3)).executeBatch();
+        verify(statement, times(5)).addBatch();
+        verify(statement, never()).executeUpdate();
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the rows of a failed chunk that weren't executed are run one at a time, and that the row that
+     * fails is reported with its exception while the others succeed.
+     */
+    @Test
+    @Order(2)
+    void testFailedRowReported()
+    throws SQLException
+    {
+        System.out.print("\n2: Testing that a failed row is pinpointed and reported...");
+
+        SQLException duplicate = new SQLIntegrityConstraintViolationException("Duplicate entry");
+        //The driver stops at the second row
+        when(statement.executeBatch()).thenThrow(new BatchUpdateException(new int[]{1}, duplicate));
+        ResultSet batchKeys = keys(21);
+        ResultSet retryKeys = keys(23);
+        when(statement.getGeneratedKeys()).thenReturn(batchKeys, retryKeys);
+        when(statement.executeUpdate()).thenThrow(duplicate).thenReturn(1);
+
+        BatchResult result = DataAccessManager.executePreparedBatch(INSERT, rows(3), 10, true);
+
+        assertFalse(result.isSuccessful());
+        assertEquals(2, result.getSuccessCount());
+        assertTrue(result.isRowSuccessful(0));
+        assertFalse(result.isRowSuccessful(1));
+        assertTrue(result.isRowSuccessful(2));
+        assertSame(duplicate, result.getFailures().get(1));
+        assertEquals(Statement.EXECUTE_FAILED, result.getUpdateCount(1));
+        assertArrayEquals(new int[]{21, 0, 23}, result.getGeneratedKeys());
+        //Only the two rows the batch didn't execute are retried
+        verify(statement, times(2)).executeUpdate();
+        verify(statement).clearBatch();
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that an empty batch never touches the database, and that the chunk size must be positive.
+     */
+    @Test
+    @Order(3)
+    void testEmptyBatchAndInvalidChunkSize()
+    throws SQLException
+    {
+        System.out.print("\n3: Testing an empty batch and an invalid chunk size...");
+
+        BatchResult result = DataAccessManager.executePreparedBatch(INSERT, new ArrayList<>(), 10, true);
+        assertEquals(0, result.getRowCount());
+        assertTrue(result.isSuccessful());
+        verify(statement, never()).executeBatch();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DataAccessManager.executePreparedBatch(INSERT, rows(1), 0, false));
+
+        System.out.print(" Test Finished.");
+    }
+}
@@ -0,0 +1,122 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the Keyset and Page classes. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class KeysetTest
+{
+    /**
+     * Tests the suffix and parameters of pages ordered by primary key.
+     */
+    @Test
+    @Order(1)
+    void testByID()
+    {
+        System.out.print("\n1: Testing pages ordered by primary key...");
+
+        Keyset keyset = Keyset.byID("items.itemID");
+
+        //First page
+        assertEquals("ORDER BY items.itemID LIMIT ?", keyset.suffix(null, null));
+        assertArrayEquals(new Object[]{11}, keyset.params(null, null, 10));
+
+        //Next page, with a condition
+        String token = keyset.tokenAfter(42);
+        assertEquals("WHERE (title = ?) AND items.itemID > ? ORDER BY items.itemID LIMIT ?",
+                keyset.suffix("title = ?", token));
+        assertArrayEquals(new Object[]{"Dune", 42, 11}, keyset.params(new Object[]{"Dune"}, token, 10));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests the suffix and parameters of pages ordered by date, with ties broken by primary key.
+     */
+    @Test
+    @Order(2)
+    void testByDateAndID()
+    {
+        System.out.print("\n2: Testing pages ordered by date...");
+
+        Keyset keyset = Keyset.byDateAndID("rentals.rentalDate", "rentals.rentalID");
+        LocalDateTime date = LocalDateTime.of(2026, 10, 17, 12, 30, 5);
+        String token = keyset.tokenAfter(date, 7);
+
+        assertEquals("WHERE (rentals.userID = ?) AND (rentals.rentalDate > ? OR (rentals.rentalDate = ? AND " +
+                        "rentals.rentalID > ?)) ORDER BY rentals.rentalDate, rentals.rentalID LIMIT ?",
+                keyset.suffix("rentals.userID = ?", token));
+        assertArrayEquals(new Object[]{3, date, date, 7, 51}, keyset.params(new Object[]{3}, token, 50));
+
+        assertThrows(IllegalStateException.class, () -> keyset.tokenAfter(7));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that bad page sizes and tokens are rejected, including tokens made by another kind of keyset.
+     */
+    @Test
+    @Order(3)
+    void testInvalidInput()
+    {
+        System.out.print("\n3: Testing invalid page sizes and tokens...");
+
+        Keyset byID = Keyset.byID("items.itemID");
+        Keyset byDate = Keyset.byDateAndID("rentals.rentalDate", "rentals.rentalID");
+
+        assertThrows(IllegalArgumentException.class, () -> byID.params(null, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> byID.params(null, null, Keyset.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> byID.params(null, "not a token!", 10));
+        assertThrows(IllegalArgumentException.class, () -> byID.params(null, "Zm9v", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> byID.params(null, byDate.tokenAfter(LocalDateTime.now(), 1), 10));
+        assertThrows(IllegalArgumentException.class, () -> byDate.params(null, byID.tokenAfter(1), 10));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a page is cut at the page size, with a token continuing after its last row only if there are more.
+     */
+    @Test
+    @Order(4)
+    void testPage()
+    {
+        System.out.print("\n4: Testing cutting pages...");
+
+        Keyset keyset = Keyset.byID("items.itemID");
+
+        //One more row than the page size, so there's a next page
+        Page<Integer> page = Page.of(List.of(1, 2, 3, 4), 3, keyset::tokenAfter);
+        assertEquals(List.of(1, 2, 3), page.getItems());
+        assertTrue(page.hasNext());
+        assertArrayEquals(new Object[]{3, 4}, keyset.params(null, page.getNextPageToken(), 3));
+
+        //Last page
+        page = Page.of(List.of(4), 3, keyset::tokenAfter);
+        assertEquals(List.of(4), page.getItems());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextPageToken());
+
+        assertTrue(Page.of(List.<Integer>of(), 3, keyset::tokenAfter).isEmpty());
+
+        System.out.print(" Test Finished.");
+    }
+}
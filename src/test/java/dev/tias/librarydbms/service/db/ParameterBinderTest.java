@@ -0,0 +1,70 @@
+package dev.tias.librarydbms.service.db;
+
+import dev.tias.librarydbms.model.Item;
+import org.junit.jupiter.api.*;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the ParameterBinder class. Uses a mocked PreparedStatement, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ParameterBinderTest
+{
+    /**
+     * Tests that each value is bound with the setter matching its type.
+     */
+    @Test
+    @Order(1)
+    void testBindsNativeTypes()
+    throws SQLException
+    {
+        System.out.print("\n1: Testing that values are bound with their native setters...");
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        LocalDateTime dueDate = LocalDateTime.of(2023, 6, 1, 12, 30, 0);
+
+        ParameterBinder.bind(statement, new Object[]{"title", 5, true, 12.5, dueDate, Item.ItemType.FILM, 7L, null});
+
+        verify(statement).setString(1, "title");
+        verify(statement).setInt(2, 5);
+        verify(statement).setBoolean(3, true);
+        verify(statement).setDouble(4, 12.5);
+        verify(statement).setTimestamp(5, Timestamp.valueOf(dueDate));
+        verify(statement).setString(6, "FILM");
+        verify(statement).setLong(7, 7L);
+        verify(statement).setNull(8, Types.NULL);
+        verifyNoMoreInteractions(statement);
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a null params array binds nothing.
+     */
+    @Test
+    @Order(2)
+    void testNullParams()
+    throws SQLException
+    {
+        System.out.print("\n2: Testing that null params bind nothing...");
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ParameterBinder.bind(statement, null);
+        verifyNoInteractions(statement);
+
+        System.out.print(" Test Finished.");
+    }
+}
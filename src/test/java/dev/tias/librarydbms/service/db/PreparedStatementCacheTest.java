@@ -0,0 +1,194 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the PreparedStatementCache class. Uses a mocked Connection, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PreparedStatementCacheTest
+{
+    private Connection connection;
+
+    @BeforeEach
+    void setUp()
+    throws SQLException
+    {
+        connection = mock(Connection.class);
+        //Every call prepares a new mocked statement
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        when(connection.prepareStatement(anyString(), anyInt())).thenAnswer(
+                invocation -> mock(PreparedStatement.class));
+    }
+
+    /**
+     * Tests that a released statement is reused for the same SQL, and that hits and misses are counted.
+     */
+    @Test
+    @Order(1)
+    void testStatementReused()
+    throws SQLException
+    {
+        System.out.print("\n1: Testing that statements are reused...");
+
+        PreparedStatementCache cache = new PreparedStatementCache(connection, 10);
+        String sql = "SELECT * FROM items WHERE itemID = ?";
+
+        PreparedStatement first = cache.acquire(sql, false);
+        cache.release(first);
+        PreparedStatement second = cache.acquire(sql, false);
+        cache.release(second);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        verify(connection, times(1)).prepareStatement(sql);
+        verify(first, times(2)).clearParameters();
+        verify(first, never()).close();
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the generated keys flag is part of the key.
+     */
+    @Test
+    @Order(2)
+    void testGeneratedKeysFlagIsPartOfKey()
+    throws SQLException
+    {
+        System.out.print("\n2: Testing that the generated keys flag is part of the key...");
+
+        PreparedStatementCache cache = new PreparedStatementCache(connection, 10);
+        String sql = "INSERT INTO authors (authorFirstName) VALUES (?)";
+
+        PreparedStatement plain = cache.acquire(sql, false);
+        cache.release(plain);
+        PreparedStatement withKeys = cache.acquire(sql, true);
+        cache.release(withKeys);
+
+        assertNotSame(plain, withKeys);
+        assertEquals(2, cache.size());
+        verify(connection).prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a statement that is checked out is not handed out again, and that the extra statement prepared
+     * instead is closed on release.
+     */
+    @Test
+    @Order(3)
+    void testCheckedOutStatementNotShared()
+    throws SQLException
+    {
+        System.out.print("\n3: Testing that checked out statements aren't shared...");
+
+        PreparedStatementCache cache = new PreparedStatementCache(connection, 10);
+        String sql = "SELECT * FROM authors WHERE authorID = ?";
+
+        PreparedStatement outer = cache.acquire(sql, false);
+        PreparedStatement nested = cache.acquire(sql, false);
+        assertNotSame(outer, nested);
+
+        cache.release(nested);
+        cache.release(outer);
+
+        verify(nested).close();
+        verify(outer, never()).close();
+        assertEquals(1, cache.size());
+        assertSame(outer, cache.acquire(sql, false));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the least recently used statement is evicted and closed when the cache is full.
+     */
+    @Test
+    @Order(4)
+    void testLeastRecentlyUsedEvicted()
+    throws SQLException
+    {
+        System.out.print("\n4: Testing eviction of the least recently used statement...");
+
+        PreparedStatementCache cache = new PreparedStatementCache(connection, 2);
+
+        PreparedStatement a = cache.acquire("A", false);
+        cache.release(a);
+        PreparedStatement b = cache.acquire("B", false);
+        cache.release(b);
+        //Use A again, making B the least recently used
+        cache.release(cache.acquire("A", false));
+        PreparedStatement c = cache.acquire("C", false);
+        cache.release(c);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        verify(b).close();
+        verify(a, never()).close();
+        assertSame(a, cache.acquire("A", false));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a cache with size 0 never keeps statements.
+     */
+    @Test
+    @Order(5)
+    void testDisabledCache()
+    throws SQLException
+    {
+        System.out.print("\n5: Testing a disabled cache...");
+
+        PreparedStatementCache cache = new PreparedStatementCache(connection, 0);
+
+        PreparedStatement first = cache.acquire("A", false);
+        cache.release(first);
+
+        verify(first).close();
+        assertEquals(0, cache.size());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a statement used for streaming gets its fetch size reset when handed back.
+     */
+    @Test
+    @Order(6)
+    void testFetchSizeReset()
+    throws SQLException
+    {
+        System.out.print("\n6: Testing that the fetch size is reset...");
+
+        PreparedStatementCache cache = new PreparedStatementCache(connection, 10);
+
+        PreparedStatement statement = cache.acquire("A", false);
+        when(statement.getFetchSize()).thenReturn(DataAccessManager.STREAMING_FETCH_SIZE);
+        cache.release(statement);
+
+        verify(statement).setFetchSize(0);
+        verify(statement, never()).close();
+
+        System.out.print(" Test Finished.");
+    }
+}
@@ -0,0 +1,167 @@
+package dev.tias.librarydbms.service.db;
+
+import dev.tias.librarydbms.control.*;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.function.Executable;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Checks that none of the lookup queries of the handlers scan a whole table for lack of an index. Records the
+ * queries each handler method runs against a migrated test database, then runs EXPLAIN on them using the
+ * QueryPlanInspector.
+ * <p>
+ * Methods that load whole tables on purpose, such as the syncs run by the handler setup methods, are not checked.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class QueryPlanTest extends BaseHandlerTest
+{
+    @Override
+    protected void setupTables()
+    {
+        super.setupTables();
+        DataAccessManager.migrateDatabase();
+    }
+
+    @Override
+    protected void setupTestData()
+    {
+        DataAccessManager.executeSQLCommandsFromFile("src/main/resources/sql/data/test_data.sql");
+        ItemHandler.setup();
+        UserHandler.setup();
+    }
+
+    /**
+     * Runs the handler calls while recording their queries, then fails if any recorded query scans a table that
+     * has no index it could use.
+     */
+    private void assertNoFullTableScans(Executable handlerCalls)
+    throws Throwable
+    {
+        Map<String, Object[]> queries;
+        QueryPlanInspector.startRecording();
+        try
+        {
+            handlerCalls.execute();
+        }
+        finally
+        {
+            queries = QueryPlanInspector.stopRecording();
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Object[]> query : queries.entrySet())
+        {
+            for (QueryPlanInspector.PlanRow scan : explain(query.getKey(), query.getValue()))
+            {
+                failures.add(query.getKey() + " -> " + scan);
+            }
+        }
+
+        assertFalse(queries.isEmpty(), "No queries were recorded.");
+        assertTrue(failures.isEmpty(), "Full table scans:\n" + String.join("\n", failures));
+    }
+
+    private List<QueryPlanInspector.PlanRow> explain(String sql, Object[] params)
+    {
+        try
+        {
+            return QueryPlanInspector.findFullTableScans(sql, params);
+        }
+        catch (SQLException e)
+        {
+            fail("Failed to explain " + sql + ": " + e.getMessage());
+            return null; //Needed for compilation
+        }
+    }
+
+    /**
+     * Tests the queries of ItemHandler.
+     */
+    @Test
+    @Order(1)
+    void testItemHandlerQueries()
+    throws Throwable
+    {
+        System.out.print("\n1: Testing the query plans of ItemHandler...");
+
+        assertNoFullTableScans(() ->
+        {
+            ItemHandler.getItemByID(1);
+            ItemHandler.getItemsByTitle("item1");
+            ItemHandler.getItemsByISBN("9783161484100");
+            ItemHandler.getItemsByClassification("Physics");
+            ItemHandler.getItemsByAuthor("author1", "lastname1");
+            ItemHandler.getItemsByAuthor("author1", null);
+            ItemHandler.getItemsByAuthor(null, "lastname1");
+        });
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests the queries of RentalHandler.
+     */
+    @Test
+    @Order(2)
+    void testRentalHandlerQueries()
+    throws Throwable
+    {
+        System.out.print("\n2: Testing the query plans of RentalHandler...");
+
+        assertNoFullTableScans(() ->
+        {
+            RentalHandler.getRentalByID(1);
+            RentalHandler.getOverdueRentals();
+            RentalHandler.getRentalsByRentalDay(LocalDate.now());
+            RentalHandler.getRentalsByTimePeriod(LocalDate.now().minusDays(7), LocalDate.now());
+            RentalHandler.getRentalsByUserID(1);
+            RentalHandler.getRentalsByItemID(1);
+            RentalHandler.getRentalsByUsername("user1");
+            RentalHandler.getRentalsByItemTitle("item1");
+        });
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests the queries of UserHandler, AuthorHandler and ClassificationHandler.
+     */
+    @Test
+    @Order(3)
+    void testUserAuthorAndClassificationQueries()
+    throws Throwable
+    {
+        System.out.print("\n3: Testing the query plans of UserHandler, AuthorHandler and ClassificationHandler...");
+
+        assertNoFullTableScans(() ->
+        {
+            UserHandler.getUserByID(1);
+            UserHandler.getUserByUsername("user1");
+            UserHandler.login("user1", "password1");
+            AuthorHandler.getAuthorByID(1, false);
+            AuthorHandler.getAuthorByAuthorName("author1", "lastname1");
+            AuthorHandler.getAuthorByAuthorName("author1", null);
+            AuthorHandler.getAuthorByAuthorName(null, "lastname1");
+            ClassificationHandler.getClassificationByID(1);
+            ClassificationHandler.getClassificationByClassificationName("Physics");
+        });
+
+        System.out.print(" Test Finished.");
+    }
+}
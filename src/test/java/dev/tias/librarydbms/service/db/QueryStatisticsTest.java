@@ -0,0 +1,203 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the QueryStatistics class and the LatencyHistogram it uses. Uses a mocked Connection, so no
+ * database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class QueryStatisticsTest
+{
+    @BeforeEach
+    void setUp()
+    {
+        QueryStatistics.reset();
+        QueryStatistics.setEnabled(true);
+        QueryStatistics.setSlowQueryThresholdMillis(QueryStatistics.DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        QueryStatistics.reset();
+        QueryStatistics.setSlowQueryThresholdMillis(QueryStatistics.DEFAULT_SLOW_QUERY_THRESHOLD_MILLIS);
+        DataAccessManager.setConnection(null);
+    }
+
+    /**
+     * Tests that statements differing only in literals, whitespace and IN list length share a shape.
+     */
+    @Test
+    @Order(1)
+    void testNormalize()
+    {
+        System.out.print("\n1: Testing normalizing SQL...");
+
+        assertEquals("SELECT * FROM items WHERE itemID = ?",
+                QueryStatistics.normalize("SELECT *\n  FROM items\tWHERE itemID = 42"));
+        assertEquals("SELECT * FROM users WHERE username = ? AND deleted = ?",
+                QueryStatistics.normalize("SELECT * FROM users WHERE username = 'it''s me' AND deleted = 0"));
+        assertEquals(QueryStatistics.normalize("SELECT * FROM items WHERE itemID IN (?)"),
+                QueryStatistics.normalize("SELECT * FROM items WHERE itemID in (?, ?,?)"));
+        assertEquals("SELECT * FROM items ORDER BY itemID LIMIT ? OFFSET ?",
+                QueryStatistics.normalize("SELECT * FROM items ORDER BY itemID LIMIT 20 OFFSET -1.5"));
+        //Digits in identifiers are kept
+        assertEquals("SELECT col1 FROM table2 WHERE id = ?",
+                QueryStatistics.normalize("SELECT col1 FROM table2 WHERE id = ?"));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that percentiles are within a bucket of the actual latencies, and never above the maximum.
+     */
+    @Test
+    @Order(2)
+    void testPercentiles()
+    {
+        System.out.print("\n2: Testing latency percentiles...");
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(99));
+
+        //1 to 100 ms
+        for (int millis = 1; millis <= 100; millis++)
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getMaxNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5050), histogram.getTotalNanos());
+        assertWithinBucket(50, histogram.getPercentileNanos(50));
+        assertWithinBucket(95, histogram.getPercentileNanos(95));
+        assertWithinBucket(99, histogram.getPercentileNanos(99));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getPercentileNanos(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(101));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the top statements are ordered by total time, and that slow statements are counted.
+     */
+    @Test
+    @Order(3)
+    void testTopStatementsAndSlowQueries()
+    {
+        System.out.print("\n3: Testing top statements and the slow query threshold...");
+
+        //Many fast runs of one shape, a few slow runs of another
+        for (int i = 0; i < 100; i++)
+            QueryStatistics.record("SELECT * FROM items WHERE itemID = " + i, null,
+                    TimeUnit.MILLISECONDS.toNanos(1), 1);
+        for (int i = 0; i < 3; i++)
+            QueryStatistics.record("UPDATE users SET password = ? WHERE userID = ?", new Object[]{"secret", i},
+                    TimeUnit.MILLISECONDS.toNanos(250), 1);
+        QueryStatistics.record("DELETE FROM rentals WHERE rentalID = ?", new Object[]{1},
+                TimeUnit.MILLISECONDS.toNanos(10), 0);
+
+        List<StatementStatistics> top = QueryStatistics.getTopStatements(2);
+        assertEquals(2, top.size());
+        assertEquals("UPDATE users SET password = ? WHERE userID = ?", top.get(0).getShape());
+        assertEquals(3, top.get(0).getCount());
+        assertEquals(750, top.get(0).getTotalMillis(), 0.001);
+        assertEquals("SELECT * FROM items WHERE itemID = ?", top.get(1).getShape());
+        assertEquals(100, top.get(1).getCount());
+        assertEquals(100, top.get(1).getRows());
+        assertEquals(3, QueryStatistics.getTopStatements(10).size());
+
+        //Only the updates are over the default threshold
+        assertEquals(3, QueryStatistics.getSlowQueryCount());
+        QueryStatistics.setSlowQueryThresholdMillis(-1);
+        QueryStatistics.record("DELETE FROM rentals WHERE rentalID = ?", new Object[]{2},
+                TimeUnit.SECONDS.toNanos(1), 0);
+        assertEquals(3, QueryStatistics.getSlowQueryCount());
+        assertEquals(-1, QueryStatistics.getSlowQueryThresholdMillis());
+
+        QueryStatistics.reset();
+        assertTrue(QueryStatistics.getTopStatements(10).isEmpty());
+        assertEquals(0, QueryStatistics.getSlowQueryCount());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the DataAccessManager records the rows affected by updates, and the rows read from queries when
+     * their QueryResult is closed.
+     */
+    @Test
+    @Order(4)
+    void testDataAccessManagerRecords()
+    throws SQLException
+    {
+        System.out.print("\n4: Testing statements recorded by the DataAccessManager...");
+
+        String update = "UPDATE items SET title = ? WHERE itemID = ?";
+        String query = "SELECT title FROM items WHERE itemID IN (?, ?)";
+
+        PreparedStatement updateStatement = mock(PreparedStatement.class);
+        when(updateStatement.executeUpdate()).thenReturn(3);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false);
+        PreparedStatement queryStatement = mock(PreparedStatement.class);
+        when(queryStatement.getResultSet()).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation ->
+                invocation.getArgument(0).equals(update) ? updateStatement : queryStatement);
+        DataAccessManager.setConnection(connection);
+
+        DataAccessManager.executePreparedUpdate(update, new Object[]{"Dune", 1});
+        assertEquals(3, QueryStatistics.getStatistics(update).getRows());
+
+        QueryResult result = DataAccessManager.executePreparedQuery(query, new Object[]{1, 2});
+        while (result.getResultSet().next())
+            result.getResultSet().getString("title");
+        //Not recorded until closed
+        assertNull(QueryStatistics.getStatistics(query));
+        result.close();
+        result.close();
+
+        StatementStatistics statistics = QueryStatistics.getStatistics(query);
+        assertEquals(1, statistics.getCount());
+        assertEquals(2, statistics.getRows());
+        verify(resultSet, times(2)).getString("title");
+        assertEquals(2, DataAccessManager.getTopStatements(5).size());
+
+        //Nothing is recorded while disabled
+        QueryStatistics.setEnabled(false);
+        DataAccessManager.executePreparedUpdate(update, new Object[]{"Dune", 1});
+        DataAccessManager.executePreparedQuery(query, new Object[]{1, 2}).close();
+        QueryStatistics.setEnabled(true);
+        assertEquals(1, QueryStatistics.getStatistics(update).getCount());
+        assertEquals(1, QueryStatistics.getStatistics(query).getCount());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Asserts that a percentile is at least the expected latency, and at most one bucket, about 19%, above it.
+     */
+    private static void assertWithinBucket(long expectedMillis, long actualNanos)
+    {
+        long expectedNanos = TimeUnit.MILLISECONDS.toNanos(expectedMillis);
+        assertTrue(actualNanos >= expectedNanos && actualNanos <= expectedNanos * 1.19,
+                "Expected about " + expectedMillis + " ms, was " + actualNanos + " ns");
+    }
+}
@@ -0,0 +1,119 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the ResultStream class. Uses a mocked ResultSet, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ResultStreamTest
+{
+    private static final int ROWS = 5;
+
+    private ResultSet resultSet;
+    private Statement statement;
+    private QueryResult queryResult;
+    private AtomicInteger rowsRead;
+
+    @BeforeEach
+    void setUp()
+    throws SQLException
+    {
+        resultSet = mock(ResultSet.class);
+        statement = mock(Statement.class);
+        queryResult = new QueryResult(resultSet, statement);
+
+        //The ResultSet has ROWS rows, numbered from 1
+        rowsRead = new AtomicInteger();
+        when(resultSet.next()).thenAnswer(invocation -> rowsRead.incrementAndGet() <= ROWS);
+        when(resultSet.getInt("itemID")).thenAnswer(invocation -> rowsRead.get());
+    }
+
+    /**
+     * Tests that rows are only read as the stream is consumed, and that closing the stream closes the result.
+     */
+    @Test
+    @Order(1)
+    void testReadsLazily()
+    throws SQLException
+    {
+        System.out.print("\n1: Testing that rows are read lazily...");
+
+        try (Stream<Integer> stream = ResultStream.of(queryResult, rs -> rs.getInt("itemID")))
+        {
+            assertEquals(0, rowsRead.get());
+            assertEquals(List.of(1, 2), stream.limit(2).collect(Collectors.toList()));
+            assertEquals(2, rowsRead.get());
+            verify(resultSet, never()).close();
+        }
+
+        verify(resultSet).close();
+        verify(statement).close();
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the result is closed once the last row has been read, and only once.
+     */
+    @Test
+    @Order(2)
+    void testClosesWhenExhausted()
+    throws SQLException
+    {
+        System.out.print("\n2: Testing that the result is closed after the last row...");
+
+        Stream<Integer> stream = ResultStream.of(queryResult, rs -> rs.getInt("itemID"));
+        assertEquals(List.of(1, 2, 3, 4, 5), stream.collect(Collectors.toList()));
+        verify(resultSet).close();
+        verify(statement).close();
+
+        //Closing the stream afterwards does nothing more
+        stream.close();
+        verify(resultSet, times(1)).close();
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the result is closed when a row can't be mapped.
+     */
+    @Test
+    @Order(3)
+    void testClosesWhenMappingFails()
+    throws SQLException
+    {
+        System.out.print("\n3: Testing that the result is closed when mapping fails...");
+
+        Stream<Integer> stream = ResultStream.of(queryResult, rs ->
+        {
+            if (rs.getInt("itemID") == 3)
+                throw new IllegalStateException("Bad row");
+            return rs.getInt("itemID");
+        });
+
+        assertThrows(IllegalStateException.class, () -> stream.forEach(id -> { }));
+        assertEquals(3, rowsRead.get());
+        verify(resultSet).close();
+        verify(statement).close();
+
+        System.out.print(" Test Finished.");
+    }
+}
@@ -0,0 +1,145 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the RoundTripScope class. Uses a mocked Connection, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class RoundTripScopeTest
+{
+    private static final String SELECT_RENTAL = "SELECT * FROM rentals WHERE rentalID = ?";
+    private static final String SELECT_USER = "SELECT * FROM users WHERE userID = ?";
+    private static final String UPDATE_ITEM = "UPDATE items SET available = 0 WHERE itemID = ?";
+
+    @BeforeEach
+    void setUp()
+    throws SQLException
+    {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation ->
+        {
+            PreparedStatement statement = mock(PreparedStatement.class);
+            when(statement.executeBatch()).thenReturn(new int[]{1});
+            return statement;
+        });
+        DataAccessManager.setConnection(connection);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        DataAccessManager.setConnection(null);
+    }
+
+    /**
+     * Tests that the round trips within a scope are counted by shape, and that none are counted outside of it.
+     */
+    @Test
+    @Order(1)
+    void testCountRoundTrips()
+    {
+        System.out.print("\n1: Testing counting round trips in a scope...");
+
+        //Not counted anywhere
+        DataAccessManager.executePreparedUpdate(UPDATE_ITEM, new Object[]{1});
+
+        RoundTripScope scope;
+        try (RoundTripScope opened = RoundTripScope.open("checkout"))
+        {
+            scope = opened;
+            DataAccessManager.executePreparedQuery(SELECT_USER, new Object[]{1}).close();
+            DataAccessManager.executePreparedUpdate(UPDATE_ITEM, new Object[]{1});
+            DataAccessManager.executePreparedUpdate(UPDATE_ITEM.replace("0", "1"), new Object[]{2});
+            DataAccessManager.executePreparedBatch(UPDATE_ITEM, List.of(new Object[]{1}, new Object[]{2}), 1,
+                    false);
+        }
+        //Not counted after closing
+        DataAccessManager.executePreparedUpdate(UPDATE_ITEM, new Object[]{1});
+
+        //One query, two updates of the same shape and a batch of two chunks
+        assertEquals(5, scope.getRoundTrips());
+        assertEquals(Map.of(SELECT_USER, 1, QueryStatistics.normalize(UPDATE_ITEM), 2), scope.getShapeCounts());
+        assertFalse(scope.hasRepeatedStatements());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a statement run once per row of an earlier query is flagged as a likely N+1.
+     */
+    @Test
+    @Order(2)
+    void testDetectNPlusOne()
+    {
+        System.out.print("\n2: Testing detecting an N+1...");
+
+        RoundTripScope scope = RoundTripScope.measure("getRentals", () ->
+        {
+            DataAccessManager.executePreparedQuery(SELECT_RENTAL, new Object[]{1}).close();
+            for (int userID = 1; userID <= RoundTripScope.REPEAT_THRESHOLD; userID++)
+                DataAccessManager.executePreparedQuery(SELECT_USER, new Object[]{userID}).close();
+            return null;
+        });
+
+        assertEquals(1 + RoundTripScope.REPEAT_THRESHOLD, scope.getRoundTrips());
+        assertTrue(scope.hasRepeatedStatements());
+        assertEquals(Map.of(SELECT_USER, RoundTripScope.REPEAT_THRESHOLD), scope.getRepeatedStatements());
+        assertTrue(scope.toString().contains("(repeated)"), scope.toString());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the round trips of nested scopes are counted by the outer scope as well, that scopes must be
+     * closed in order, and that scopes on other threads are left alone.
+     */
+    @Test
+    @Order(3)
+    void testNestedScopes()
+    throws Exception
+    {
+        System.out.print("\n3: Testing nested scopes...");
+
+        try (RoundTripScope outer = RoundTripScope.open("outer"))
+        {
+            DataAccessManager.executePreparedUpdate(UPDATE_ITEM, new Object[]{1});
+
+            RoundTripScope inner = RoundTripScope.open("inner");
+            DataAccessManager.executePreparedUpdate(UPDATE_ITEM, new Object[]{2});
+            assertThrows(IllegalStateException.class, outer::close);
+
+            //Another thread has no scope
+            CompletableFuture.runAsync(() ->
+                    DataAccessManager.executePreparedUpdate(UPDATE_ITEM, new Object[]{3})).get();
+
+            inner.close();
+            inner.close();
+            DataAccessManager.executePreparedUpdate(UPDATE_ITEM, new Object[]{4});
+
+            assertEquals(1, inner.getRoundTrips());
+            assertEquals(3, outer.getRoundTrips());
+            assertTrue(outer.hasRepeatedStatements());
+        }
+
+        System.out.print(" Test Finished.");
+    }
+}
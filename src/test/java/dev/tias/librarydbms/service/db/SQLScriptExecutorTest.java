@@ -0,0 +1,149 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+import org.mockito.InOrder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the SQLScriptExecutor class. Uses a mocked Connection, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SQLScriptExecutorTest
+{
+    private static final String SCRIPT = """
+            CREATE TABLE t (a INT);
+            INSERT INTO t VALUES (1);
+            INSERT INTO t VALUES (2);
+            INSERT INTO t VALUES (3);
+            CREATE INDEX t_a ON t (a);
+            UPDATE t SET a = 4 WHERE a = 3;
+            """;
+
+    private Connection connection;
+    private Statement statement;
+
+    @BeforeEach
+    void setUp()
+    throws SQLException
+    {
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeBatch()).thenAnswer(invocation -> new int[0]);
+    }
+
+    private static SQLScriptReader reader(String script)
+    throws IOException
+    {
+        return new SQLScriptReader(Channels.newChannel(
+                new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8))), 64);
+    }
+
+    /**
+     * Tests that consecutive DML is batched in chunks, that other statements run on their own, that every batch and
+     * statement is committed, and that auto-commit is restored.
+     */
+    @Test
+    @Order(1)
+    void testBatchesAndCommits()
+    throws IOException, SQLException
+    {
+        System.out.print("\n1: Testing batching and commits...");
+
+        List<ScriptProgress> reports = new ArrayList<>();
+        SQLScriptExecutor executor = new SQLScriptExecutor(2, 1, reports::add);
+        ScriptProgress progress = executor.execute(connection, reader(SCRIPT), "test");
+
+        InOrder inOrder = inOrder(connection, statement);
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(statement).execute("CREATE TABLE t (a INT)");
+        inOrder.verify(connection).commit();
+        inOrder.verify(statement).addBatch("INSERT INTO t VALUES (1)");
+        inOrder.verify(statement).addBatch("INSERT INTO t VALUES (2)");
+        inOrder.verify(statement).executeBatch();
+        inOrder.verify(connection).commit();
+        inOrder.verify(statement).addBatch("INSERT INTO t VALUES (3)");
+        inOrder.verify(statement).executeBatch();
+        inOrder.verify(connection).commit();
+        inOrder.verify(statement).execute("CREATE INDEX t_a ON t (a)");
+        inOrder.verify(connection).commit();
+        inOrder.verify(statement).addBatch("UPDATE t SET a = 4 WHERE a = 3");
+        inOrder.verify(statement).executeBatch();
+        inOrder.verify(connection).commit();
+        inOrder.verify(connection).setAutoCommit(true);
+
+        assertEquals(6, progress.getStatementsExecuted());
+        assertEquals(3, progress.getBatchesExecuted());
+        assertEquals(5, progress.getTransactionsCommitted());
+        assertTrue(progress.isFinished());
+        assertFalse(reports.isEmpty());
+        assertSame(progress, reports.get(reports.size() - 1));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a failing statement rolls back its transaction, and that the exception names its line.
+     */
+    @Test
+    @Order(2)
+    void testFailureRollsBack()
+    throws IOException, SQLException
+    {
+        System.out.print("\n2: Testing that a failure rolls back...");
+
+        //The driver stops at the second statement of the batch
+        when(statement.executeBatch()).thenThrow(
+                new BatchUpdateException("Duplicate entry", "23000", 1062, new int[]{1}, null));
+
+        SQLScriptExecutor executor = new SQLScriptExecutor(10, 100, null);
+        SQLException e = assertThrows(SQLException.class,
+                () -> executor.execute(connection, reader(SCRIPT), "test"));
+
+        assertTrue(e.getMessage().startsWith("Statement at line 3 of test failed"), e.getMessage());
+        assertEquals(1062, e.getErrorCode());
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+        verify(statement, never()).execute("CREATE INDEX t_a ON t (a)");
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests which statements are batched.
+     */
+    @Test
+    @Order(3)
+    void testIsBatchable()
+    {
+        System.out.print("\n3: Testing which statements are batched...");
+
+        assertTrue(SQLScriptExecutor.isBatchable("insert into t values (1)"));
+        assertTrue(SQLScriptExecutor.isBatchable("REPLACE INTO t VALUES (1)"));
+        assertTrue(SQLScriptExecutor.isBatchable("DELETE FROM t"));
+        assertFalse(SQLScriptExecutor.isBatchable("INSERTS"));
+        assertFalse(SQLScriptExecutor.isBatchable("CREATE TABLE t (a INT)"));
+        assertFalse(SQLScriptExecutor.isBatchable("/*!40101 SET NAMES utf8mb4 */"));
+        assertFalse(SQLScriptExecutor.isBatchable("USE db"));
+
+        System.out.print(" Test Finished.");
+    }
+}
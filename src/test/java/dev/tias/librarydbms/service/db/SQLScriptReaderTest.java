@@ -0,0 +1,146 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the SQLScriptReader class. Reads scripts from memory and from the script files in resources, so no
+ * database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SQLScriptReaderTest
+{
+    /**
+     * Reads every statement of a script held in memory, using a small buffer so that statements span several reads.
+     */
+    private static List<String> readAll(String script)
+    throws IOException
+    {
+        List<String> statements = new ArrayList<>();
+        try (SQLScriptReader reader = new SQLScriptReader(Channels.newChannel(
+                new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8))), 16))
+        {
+            String statement;
+            while ((statement = reader.nextStatement()) != null)
+            {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Tests that comments are removed and that comment markers and delimiters inside quotes are kept.
+     */
+    @Test
+    @Order(1)
+    void testCommentsAndQuotes()
+    throws IOException
+    {
+        System.out.print("\n1: Testing comments and quoted strings...");
+
+        String script = """
+                -- A comment; with a delimiter
+                INSERT INTO authors (authorFirstName, biography) VALUES ('Joe', 'Has -- in it; and more'); # trailing
+                /* A block comment; */ UPDATE items SET title = "It's -- fine" WHERE itemID = 1;
+                INSERT INTO `odd;name` VALUES ('It''s', 'back\\\\slash\\'; still quoted');
+                SELECT 1--1 -- is 1 - -1, this is a comment
+                ;""";
+
+        List<String> statements = readAll(script);
+
+        assertEquals(4, statements.size());
+        assertEquals("INSERT INTO authors (authorFirstName, biography) VALUES ('Joe', 'Has -- in it; and more')",
+                statements.get(0));
+        assertEquals("UPDATE items SET title = \"It's -- fine\" WHERE itemID = 1", statements.get(1));
+        assertEquals("INSERT INTO `odd;name` VALUES ('It''s', 'back\\\\slash\\'; still quoted')", statements.get(2));
+        assertEquals("SELECT 1--1", statements.get(3));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that executable comments are kept, that DELIMITER lines change the delimiter, and that the last statement
+     * needs no delimiter.
+     */
+    @Test
+    @Order(2)
+    void testExecutableCommentsAndDelimiter()
+    throws IOException
+    {
+        System.out.print("\n2: Testing executable comments and DELIMITER...");
+
+        String script = """
+                /*!40101 SET NAMES utf8mb4 */;
+                DELIMITER $$
+                CREATE PROCEDURE p() BEGIN SELECT 1; SELECT 2; END$$
+                DELIMITER ;
+                SELECT '\u00dcn\u00efc\u00f6d\u00e9'""";
+
+        List<String> statements = readAll(script);
+
+        assertEquals(3, statements.size());
+        assertEquals("/*!40101 SET NAMES utf8mb4 */", statements.get(0));
+        assertEquals("CREATE PROCEDURE p() BEGIN SELECT 1; SELECT 2; END", statements.get(1));
+        assertEquals("SELECT '\u00dcn\u00efc\u00f6d\u00e9'", statements.get(2));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the scripts in resources are split into the expected statements, and that line numbers and bytes
+     * read are tracked.
+     */
+    @Test
+    @Order(3)
+    void testResourceScripts()
+    throws IOException
+    {
+        System.out.print("\n3: Testing the scripts in resources...");
+
+        try (SQLScriptReader reader = new SQLScriptReader(Paths.get("src/main/resources/sql/data/test_data.sql")))
+        {
+            String first = reader.nextStatement();
+            assertTrue(first.startsWith("INSERT INTO authors"));
+            assertTrue(first.endsWith("'Lord Grimdark', 0)"));
+            assertEquals(9, reader.getStatementLineNumber());
+
+            int count = 1;
+            while (reader.nextStatement() != null)
+            {
+                count++;
+            }
+            assertEquals(6, count);
+            assertEquals(reader.getTotalBytes(), reader.getBytesRead());
+        }
+
+        try (SQLScriptReader reader = new SQLScriptReader(Paths.get("src/main/resources/sql/create_tables.sql")))
+        {
+            int count = 0;
+            String statement;
+            while ((statement = reader.nextStatement()) != null)
+            {
+                assertTrue(statement.startsWith("CREATE TABLE"), "Unexpected statement: " + statement);
+                count++;
+            }
+            assertEquals(7, count);
+        }
+
+        System.out.print(" Test Finished.");
+    }
+}
@@ -0,0 +1,154 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the SchemaMetaData class and the bootstrap in MetaDataRetriever. Uses a mocked Connection and a
+ * temporary directory, so no database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SchemaMetaDataTest
+{
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown()
+    {
+        DataAccessManager.setConnection(null);
+    }
+
+    /**
+     * Returns a mocked ResultSet holding the rows of the columns query.
+     */
+    private static ResultSet columns(Object[]... rows)
+    throws SQLException
+    {
+        ResultSet resultSet = mock(ResultSet.class);
+        final int[] position = {-1};
+        when(resultSet.next()).thenAnswer(invocation -> ++position[0] < rows.length);
+        when(resultSet.getString("TABLE_NAME")).thenAnswer(invocation -> rows[position[0]][0]);
+        when(resultSet.getString("COLUMN_NAME")).thenAnswer(invocation -> rows[position[0]][1]);
+        when(resultSet.getLong("COLUMN_SIZE")).thenAnswer(invocation -> ((Number) rows[position[0]][2]).longValue());
+        return resultSet;
+    }
+
+    /**
+     * Tests that the rows of the columns query are read, and that names are looked up regardless of case.
+     */
+    @Test
+    @Order(1)
+    void testFromResultSet()
+    throws SQLException
+    {
+        System.out.print("\n1: Testing reading column sizes...");
+
+        SchemaMetaData metaData = SchemaMetaData.fromResultSet(columns(
+                new Object[]{"users", "username", 20},
+                new Object[]{"authors", "authorFirstName", 100},
+                new Object[]{"items", "itemID", 10}));
+
+        assertEquals(3, metaData.getColumnCount());
+        assertEquals(20, metaData.getColumnSize("users", "username"));
+        assertEquals(100, metaData.getColumnSize("authors", "authorFirstname"));
+        assertEquals(100, metaData.getColumnSize("AUTHORS", "AUTHORFIRSTNAME"));
+        assertEquals(10, metaData.getColumnSize("items", "itemID"));
+        assertTrue(metaData.hasColumn("Users", "UserName"));
+        assertFalse(metaData.hasColumn("users", "missing"));
+        assertEquals(0, metaData.getColumnSize("users", "missing"));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a snapshot is read back for the same schema key only, and that corrupt snapshots are ignored.
+     */
+    @Test
+    @Order(2)
+    void testSnapshot()
+    throws IOException
+    {
+        System.out.print("\n2: Testing metadata snapshots...");
+
+        Path snapshot = directory.resolve("metadata").resolve("schema-metadata.properties");
+        assertNull(SchemaMetaData.readSnapshot(snapshot, "db:V2:abc"));
+
+        new SchemaMetaData(Map.of("users.username", 20, "films.countryofproduction", 100))
+                .writeSnapshot(snapshot, "db:V2:abc");
+
+        SchemaMetaData read = SchemaMetaData.readSnapshot(snapshot, "db:V2:abc");
+        assertNotNull(read);
+        assertEquals(2, read.getColumnCount());
+        assertEquals(20, read.getColumnSize("users", "username"));
+        assertEquals(100, read.getColumnSize("films", "countryOfProduction"));
+
+        //Another schema version
+        assertNull(SchemaMetaData.readSnapshot(snapshot, "db:V3:abc"));
+
+        Files.writeString(snapshot, "schemaKey=db:V2:abc\ncolumn.users.username=twenty\n");
+        assertNull(SchemaMetaData.readSnapshot(snapshot, "db:V2:abc"));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the metadata of every model is served by a single query, run on first use.
+     */
+    @Test
+    @Order(3)
+    void testSingleQueryBootstrap()
+    throws SQLException
+    {
+        System.out.print("\n3: Testing that all metadata is loaded with one query...");
+
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        ResultSet resultSet = columns(
+                new Object[]{"authors", "authorFirstName", 100},
+                new Object[]{"authors", "authorLastName", 100},
+                new Object[]{"classifications", "classificationName", 255},
+                new Object[]{"items", "title", 255},
+                new Object[]{"items", "barcode", 20},
+                new Object[]{"literature", "ISBN", 13},
+                new Object[]{"films", "countryOfProduction", 100},
+                new Object[]{"users", "username", 20},
+                new Object[]{"users", "password", 50},
+                new Object[]{"users", "email", 255});
+        when(statement.getResultSet()).thenReturn(resultSet);
+        DataAccessManager.setConnection(connection);
+
+        assertArrayEquals(new int[]{100, 100}, MetaDataRetriever.getAuthorMetaData());
+        assertArrayEquals(new int[]{255}, MetaDataRetriever.getClassificationMetaData());
+        assertArrayEquals(new int[]{255, 20}, MetaDataRetriever.getItemMetaData());
+        assertArrayEquals(new int[]{13}, MetaDataRetriever.getLiteratureMetaData());
+        assertArrayEquals(new int[]{100}, MetaDataRetriever.getFilmMetaData());
+        assertArrayEquals(new int[]{20, 50, 255}, MetaDataRetriever.getUserMetaData());
+
+        verify(connection, times(1)).prepareStatement(SchemaMetaData.COLUMNS_QUERY);
+        verify(statement, times(1)).execute();
+        verify(connection, never()).getMetaData();
+
+        System.out.print(" Test Finished.");
+    }
+}
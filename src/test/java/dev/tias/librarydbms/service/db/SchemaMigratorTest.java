@@ -0,0 +1,115 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for finding and ordering migrations in the SchemaMigrator class. Works on a temporary directory, so no
+ * database server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SchemaMigratorTest
+{
+    @TempDir
+    Path directory;
+
+    private void write(String fileName, String content)
+    throws IOException
+    {
+        Files.writeString(directory.resolve(fileName), content);
+    }
+
+    /**
+     * Tests that migrations are found and sorted by version, not by name, and that other files are ignored.
+     */
+    @Test
+    @Order(1)
+    void testFindMigrations()
+    throws IOException
+    {
+        System.out.print("\n1: Testing that migrations are found in version order...");
+
+        write("V10__add_rental_indexes.sql", "CREATE INDEX a ON rentals (userID);");
+        write("V2__add_item_indexes.sql", "CREATE INDEX b ON items (title);");
+        write("V1__create_something.sql", "CREATE TABLE c (a INT);");
+        write("README.txt", "Not a migration");
+        write("V3_missing_underscore.sql", "Not a migration");
+
+        List<SchemaMigrator.Migration> migrations = SchemaMigrator.findMigrations(directory);
+
+        assertEquals(3, migrations.size());
+        assertEquals(1, migrations.get(0).getVersion());
+        assertEquals(2, migrations.get(1).getVersion());
+        assertEquals(10, migrations.get(2).getVersion());
+        assertEquals("add rental indexes", migrations.get(2).getDescription());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that only migrations that haven't been applied are pending, and never the baseline.
+     */
+    @Test
+    @Order(2)
+    void testPendingMigrations()
+    throws IOException
+    {
+        System.out.print("\n2: Testing pending migrations...");
+
+        write("V0__baseline.sql", "");
+        write("V1__first.sql", "");
+        write("V2__second.sql", "");
+        write("V3__third.sql", "");
+
+        List<SchemaMigrator.Migration> pending = SchemaMigrator.pendingMigrations(
+                SchemaMigrator.findMigrations(directory), Set.of(0, 2));
+
+        assertEquals(2, pending.size());
+        assertEquals(1, pending.get(0).getVersion());
+        assertEquals(3, pending.get(1).getVersion());
+
+        assertTrue(SchemaMigrator.pendingMigrations(SchemaMigrator.findMigrations(directory),
+                Set.of(0, 1, 2, 3)).isEmpty());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that duplicate versions are rejected, that a missing directory has no migrations, and that the
+     * checksum changes with the content.
+     */
+    @Test
+    @Order(3)
+    void testDuplicatesMissingDirectoryAndChecksum()
+    throws IOException
+    {
+        System.out.print("\n3: Testing duplicates, missing directory and checksums...");
+
+        assertTrue(SchemaMigrator.findMigrations(directory.resolve("missing")).isEmpty());
+
+        write("V1__first.sql", "CREATE INDEX a ON items (title);");
+        SchemaMigrator.Migration migration = SchemaMigrator.findMigrations(directory).get(0);
+        long checksum = migration.getChecksum();
+        write("V1__first.sql", "CREATE INDEX a ON items (barcode);");
+        assertNotEquals(checksum, migration.getChecksum());
+
+        write("V01__also_first.sql", "");
+        assertThrows(IllegalStateException.class, () -> SchemaMigrator.findMigrations(directory));
+
+        System.out.print(" Test Finished.");
+    }
+}
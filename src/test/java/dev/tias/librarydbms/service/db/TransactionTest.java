@@ -0,0 +1,233 @@
+package dev.tias.librarydbms.service.db;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.db
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for DataAccessManager.inTransaction and the Transaction class. Uses a mocked Connection, so no database
+ * server is needed.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class TransactionTest
+{
+    private static final String INSERT_ITEM = "INSERT INTO items (title) VALUES (?)";
+    private static final String INSERT_LITERATURE = "INSERT INTO literature (literatureID, ISBN) VALUES (?, ?)";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp()
+    throws SQLException
+    {
+        connection = mock(Connection.class);
+        //Keeps track of auto-commit like a real connection
+        AtomicBoolean autoCommit = new AtomicBoolean(true);
+        when(connection.getAutoCommit()).thenAnswer(invocation -> autoCommit.get());
+        doAnswer(invocation ->
+        {
+            autoCommit.set(invocation.getArgument(0));
+            return null;
+        }).when(connection).setAutoCommit(anyBoolean());
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        DataAccessManager.setConnection(connection);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        DataAccessManager.setConnection(null);
+    }
+
+    /**
+     * Tests that the updates of a unit of work are committed once, with auto-commit turned back on afterwards.
+     */
+    @Test
+    @Order(1)
+    void testCommitOnce()
+    throws SQLException
+    {
+        System.out.print("\n1: Testing committing a unit of work once...");
+
+        int result = DataAccessManager.inTransaction(() ->
+        {
+            assertFalse(connection.getAutoCommit());
+            DataAccessManager.executePreparedUpdateChecked(INSERT_ITEM, new Object[]{"Dune"});
+            DataAccessManager.executePreparedUpdateChecked(INSERT_LITERATURE, new Object[]{1, "9780441013593"});
+            return 2;
+        });
+
+        assertEquals(2, result);
+        verify(connection, times(1)).commit();
+        verify(connection, never()).rollback();
+        assertTrue(connection.getAutoCommit());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a unit of work that throws is rolled back, and that the exception reaches the caller as is.
+     */
+    @Test
+    @Order(2)
+    void testRollbackOnException()
+    throws SQLException
+    {
+        System.out.print("\n2: Testing rolling back a unit of work that throws...");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () ->
+                DataAccessManager.inTransaction(() ->
+                {
+                    DataAccessManager.executePreparedUpdateChecked(INSERT_ITEM, new Object[]{"Dune"});
+                    throw new IllegalStateException("failed");
+                }));
+        assertEquals("failed", thrown.getMessage());
+
+        //Checked exceptions thrown by the work are declared by inTransaction
+        assertThrows(SQLException.class, () -> DataAccessManager.<Void, SQLException>inTransaction(() ->
+        {
+            throw new SQLTransactionRollbackException("Deadlock");
+        }));
+
+        verify(connection, never()).commit();
+        verify(connection, times(2)).rollback();
+        assertTrue(connection.getAutoCommit());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a transaction begun inside another joins it, leaving the commit to the outer transaction.
+     */
+    @Test
+    @Order(3)
+    void testNestedTransactionJoins()
+    throws SQLException
+    {
+        System.out.print("\n3: Testing nested transactions...");
+
+        try (Transaction outer = DataAccessManager.beginTransaction())
+        {
+            assertTrue(outer.isOwner());
+            DataAccessManager.inTransaction(() ->
+                    DataAccessManager.executePreparedUpdateChecked(INSERT_ITEM, new Object[]{"Dune"}));
+            try (Transaction inner = DataAccessManager.beginTransaction())
+            {
+                assertFalse(inner.isOwner());
+                inner.commit();
+                assertThrows(IllegalStateException.class, inner::commit);
+            }
+
+            verify(connection, never()).commit();
+            assertFalse(connection.getAutoCommit());
+            outer.commit();
+        }
+
+        verify(connection, times(1)).commit();
+        verify(connection, never()).rollback();
+        assertTrue(connection.getAutoCommit());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that actions registered after commit in a joined transaction only run when the outer transaction is
+     * committed, and are dropped when it's rolled back.
+     */
+    @Test
+    @Order(4)
+    void testAfterCommit()
+    throws SQLException
+    {
+        System.out.print("\n4: Testing actions run after commit...");
+
+        List<String> actions = new ArrayList<>();
+
+        //Not in a transaction, run at once
+        DataAccessManager.afterCommit(() -> actions.add("now"));
+        assertEquals(List.of("now"), actions);
+
+        try (Transaction outer = DataAccessManager.beginTransaction())
+        {
+            DataAccessManager.inTransaction(() ->
+            {
+                DataAccessManager.executePreparedUpdateChecked(INSERT_ITEM, new Object[]{"Dune"});
+                DataAccessManager.afterCommit(() -> actions.add("inner"));
+                return null;
+            });
+            try (Transaction inner = DataAccessManager.beginTransaction())
+            {
+                inner.afterCommit(() -> actions.add("joined"));
+                inner.commit();
+            }
+            outer.afterCommit(() -> actions.add("outer"));
+
+            //Nothing has been committed yet
+            assertEquals(List.of("now"), actions);
+            outer.commit();
+            assertThrows(IllegalStateException.class, () -> outer.afterCommit(() -> actions.add("late")));
+        }
+        assertEquals(List.of("now", "inner", "joined", "outer"), actions);
+
+        //Dropped on rollback
+        try (Transaction outer = DataAccessManager.beginTransaction())
+        {
+            DataAccessManager.afterCommit(() -> actions.add("rolled back"));
+            assertFalse(outer.isCommitted());
+        }
+        DataAccessManager.afterCommit(() -> actions.add("after rollback"));
+        assertEquals(List.of("now", "inner", "joined", "outer", "after rollback"), actions);
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that turning auto-commit off and on, committing and rolling back are counted as round trips, but not
+     * by a joined transaction, which sends none of them.
+     */
+    @Test
+    @Order(5)
+    void testTransactionRoundTrips()
+    throws SQLException
+    {
+        System.out.print("\n5: Testing counting the round trips of transactions...");
+
+        RoundTripScope committed = RoundTripScope.measure("commit", () ->
+                DataAccessManager.inTransaction(() ->
+                {
+                    DataAccessManager.executePreparedUpdateChecked(INSERT_ITEM, new Object[]{"Dune"});
+                    return DataAccessManager.inTransaction(() ->
+                            DataAccessManager.executePreparedUpdateChecked(INSERT_LITERATURE,
+                                    new Object[]{1, "9780441013593"}));
+                }));
+        //Two updates, auto-commit off, commit and auto-commit on
+        assertEquals(5, committed.getRoundTrips());
+        //Only the updates have shapes
+        assertEquals(2, committed.getShapeCounts().size());
+
+        long before = DataAccessManager.getRoundTripCount();
+        try (Transaction transaction = DataAccessManager.beginTransaction())
+        {
+            assertTrue(transaction.isOwner());
+            assertEquals(before + 1, DataAccessManager.getRoundTripCount());
+        }
+        //Auto-commit off, rollback and auto-commit on
+        assertEquals(before + 3, DataAccessManager.getRoundTripCount());
+
+        System.out.print(" Test Finished.");
+    }
+}
@@ -0,0 +1,117 @@
+package dev.tias.librarydbms.service.search;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.search
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the PrefixIndex and Suggester classes. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PrefixIndexTest
+{
+    /**
+     * Tests that names are found by the start of the name or of a later word, names starting with the prefix first,
+     * and that no more names than asked for are returned.
+     */
+    @Test
+    @Order(1)
+    void testSuggest()
+    {
+        System.out.print("\n1: Testing suggesting names by prefix...");
+
+        PrefixIndex index = new PrefixIndex(Arrays.asList("The Heroes", "Heroes of Old", "Herbal Remedies",
+                "Red Country", "Frids\u00e9n", "The Heroes", null, " "));
+        assertEquals(5, index.size());
+
+        //Names starting with the prefix come first, then names with a later word starting with it
+        assertEquals(List.of("Herbal Remedies", "Heroes of Old", "The Heroes"), index.suggest("her", 10));
+        assertEquals(List.of("Heroes of Old", "The Heroes"), index.suggest("HEROES", 10));
+        assertEquals(List.of("Red Country", "Herbal Remedies"), index.suggest("re", 10));
+        //Case and accents are ignored
+        assertEquals(List.of("Frids\u00e9n"), index.suggest("fridse", 10));
+        //Words are only matched from their start
+        assertTrue(index.suggest("eroes", 10).isEmpty());
+
+        //Bounded
+        assertEquals(List.of("Herbal Remedies"), index.suggest("her", 1));
+        assertTrue(index.suggest("", 10).isEmpty());
+        assertTrue(index.suggest(null, 10).isEmpty());
+        assertTrue(index.suggest("her", 0).isEmpty());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that the suggester only rebuilds its index after being invalidated, and then only once.
+     */
+    @Test
+    @Order(2)
+    void testSuggesterRebuilds()
+    {
+        System.out.print("\n2: Testing rebuilding suggestions after changes...");
+
+        List<String> names = new ArrayList<>(List.of("admin", "alice"));
+        AtomicInteger rebuilds = new AtomicInteger();
+        Suggester suggester = new Suggester(() ->
+        {
+            rebuilds.incrementAndGet();
+            return new ArrayList<>(names);
+        });
+
+        assertEquals(List.of("admin", "alice"), suggester.suggest("a", 10));
+        assertEquals(List.of("alice"), suggester.suggest("al", 10));
+        assertEquals(1, rebuilds.get());
+
+        //Changes aren't seen until the suggester is invalidated
+        names.add("albert");
+        assertEquals(List.of("alice"), suggester.suggest("al", 10));
+        suggester.invalidate();
+        suggester.invalidate();
+        assertEquals(List.of("albert", "alice"), suggester.suggest("al", 10));
+        assertEquals(3, suggester.size());
+        assertEquals(2, rebuilds.get());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a large index answers a keystroke quickly, however many names match.
+     */
+    @Test
+    @Order(3)
+    void testLargeIndex()
+    {
+        System.out.print("\n3: Testing suggesting from a large index...");
+
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            titles.add("Title number " + i);
+        PrefixIndex index = new PrefixIndex(titles);
+
+        int lookups = 10000;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++)
+            assertEquals(10, index.suggest(i % 2 == 0 ? "t" : "number", 10).size());
+        double microsPerLookup = (System.nanoTime() - start) / 1000.0 / lookups;
+        System.out.printf(" %.1f us per lookup...", microsPerLookup);
+
+        assertEquals("Title number 4242", index.suggest("4242", 10).get(0));
+
+        System.out.print(" Test Finished.");
+    }
+}
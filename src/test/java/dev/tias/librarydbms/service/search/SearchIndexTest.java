@@ -0,0 +1,171 @@
+package dev.tias.librarydbms.service.search;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.service.search
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the SearchIndex and Tokenizer classes. Doesn't use the database.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SearchIndexTest
+{
+    private static final Map<String, Double> FIELDS = Map.of("title", 3.0, "author", 2.0, "actors", 1.0);
+    //Generous, see testLargeIndex
+    private static final double MAX_MILLIS_PER_SEARCH = 20;
+
+    /**
+     * Tests that text is split into lower-case terms without accents, and that ISBNs stay whole.
+     */
+    @Test
+    @Order(1)
+    void testTokenize()
+    {
+        System.out.print("\n1: Testing splitting text into terms...");
+
+        assertEquals(List.of("the", "blade", "itself"), Tokenizer.tokenize("The Blade, Itself!"));
+        assertEquals(List.of("mattias", "fridsen"), Tokenizer.tokenize("Mattias Frids\u00e9n"));
+        assertEquals(List.of("9780123849410"), Tokenizer.tokenize("978-0-12-384941-0"));
+        assertEquals(List.of("spider", "man", "2"), Tokenizer.tokenize("Spider-Man 2"));
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+        assertTrue(Tokenizer.tokenize(" ,.- ").isEmpty());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests exact, prefix and typo matches, that every query term must match, and how results are ranked.
+     */
+    @Test
+    @Order(2)
+    void testSearch()
+    {
+        System.out.print("\n2: Testing matching and ranking...");
+
+        SearchIndex index = new SearchIndex(FIELDS);
+        index.replace(new SearchIndex.Builder(index)
+                .add(new SearchIndex.Document(1).field("title", "The Heroes").field("author", "Joe Abercrombie"))
+                .add(new SearchIndex.Document(2).field("title", "Red Country").field("author", "Joe Abercrombie"))
+                .add(new SearchIndex.Document(3).field("title", "Heroes of Old").field("actors", "Joe Bloggs"))
+                .add(new SearchIndex.Document(4).field("title", "Herbal Remedies").field("author", "Jane Doe")));
+
+        //Every query term must match, in any field
+        assertEquals(List.of(1), ids(index.search("abercrombie heroes", 10)));
+        assertEquals(List.of(2), ids(index.search("abercrombie red", 10)));
+
+        //A match by the author counts more than one in the actors, equal matches are ordered by ID
+        assertEquals(List.of(1, 2, 3), ids(index.search("joe", 10)));
+
+        //Prefixes, the rarer term ranks first
+        assertEquals(List.of(1, 3), ids(index.search("heroes", 10)));
+        assertEquals(List.of(4, 1, 3), ids(index.search("her", 10)));
+        //An exact match ranks above a prefix match
+        index.put(new SearchIndex.Document(5).field("title", "Her"));
+        assertEquals(5, index.search("her", 10).get(0).getId());
+        index.remove(5);
+
+        //Typos, a swap and a missing letter
+        assertEquals(List.of(1, 2), ids(index.search("abrecrombie", 10)));
+        assertEquals(List.of(2), ids(index.search("contry", 10)));
+        //Short terms must be spelled right
+        assertTrue(index.search("jeo", 10).isEmpty());
+
+        //Top-k
+        assertEquals(2, index.search("joe", 2).size());
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("joe", 0).isEmpty());
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that replaced documents lose their old terms, and that removed documents are no longer found.
+     */
+    @Test
+    @Order(3)
+    void testChanges()
+    {
+        System.out.print("\n3: Testing adding, replacing and removing documents...");
+
+        SearchIndex index = new SearchIndex(FIELDS);
+        index.put(new SearchIndex.Document(1).field("title", "Old Title"));
+        index.put(new SearchIndex.Document(1).field("title", "New Title"));
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of(1), ids(index.search("new", 10)));
+        assertEquals(1, index.size());
+        assertEquals(2, index.getTermCount());
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertTrue(index.search("new", 10).isEmpty());
+        assertEquals(0, index.getTermCount());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> index.put(new SearchIndex.Document(2).field("publisher", "Gollancz")));
+
+        SearchIndex.Builder builder = new SearchIndex.Builder(index);
+        index.replace(builder);
+        assertThrows(IllegalStateException.class, () -> index.replace(builder));
+
+        System.out.print(" Test Finished.");
+    }
+
+    /**
+     * Tests that a catalog of a hundred thousand items is searched quickly enough for search-as-you-type. The bound
+     * is far above the time a search takes, so that a slow or busy machine doesn't fail the test, but well below the
+     * time between two keystrokes.
+     */
+    @Test
+    @Order(4)
+    void testLargeIndex()
+    {
+        System.out.print("\n4: Testing searching a large index...");
+
+        String[] words = {"history", "of", "the", "modern", "world", "introduction", "to", "algorithms", "physics",
+                "chemistry", "advanced", "calculus", "swedish", "grammar", "programming", "in", "java", "databases"};
+        SearchIndex index = new SearchIndex(FIELDS);
+        SearchIndex.Builder builder = new SearchIndex.Builder(index);
+        int documents = 100000;
+        for (int i = 0; i < documents; i++)
+        {
+            String title = words[i % words.length] + " " + words[(i / words.length) % words.length] + " volume" + i;
+            builder.add(new SearchIndex.Document(i).field("title", title).field("author", "author" + (i % 5000)));
+        }
+        index.replace(builder);
+        assertEquals(documents, index.size());
+
+        String[] queries = {"introduction algorithms", "databses", "volume4242", "author4999 grammar", "calc"};
+        int searches = 200;
+        //The JIT compiler has yet to compile the search, which would otherwise be timed instead
+        for (int i = 0; i < searches; i++)
+            index.search(queries[i % queries.length], 20);
+        long start = System.nanoTime();
+        for (int i = 0; i < searches; i++)
+            assertFalse(index.search(queries[i % queries.length], 20).isEmpty(), queries[i % queries.length]);
+        double millisPerSearch = (System.nanoTime() - start) / 1_000_000.0 / searches;
+        System.out.printf(" %.3f ms per search...", millisPerSearch);
+        assertTrue(millisPerSearch < MAX_MILLIS_PER_SEARCH, millisPerSearch + " ms per search");
+
+        assertEquals(4242, index.search("volume4242", 20).get(0).getId());
+
+        System.out.print(" Test Finished.");
+    }
+
+    private static List<Integer> ids(List<SearchIndex.Hit> hits)
+    {
+        return hits.stream().map(SearchIndex.Hit::getId).collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package dev.tias.librarydbms.view;
 
+import dev.tias.librarydbms.view.gui.PagedResultsTest;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 
@@ -20,7 +21,7 @@ import org.junit.platform.suite.api.Suite;
 @Suite
 @SelectClasses({
         //View tests
-
+        PagedResultsTest.class
 })
 
 public class ViewTestSuite
@@ -0,0 +1,67 @@
+package dev.tias.librarydbms.view.gui;
+
+import dev.tias.librarydbms.service.db.Page;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author Mattias Fridsén
+ * @project LibraryDBMS
+ * @package dev.tias.librarydbms.view.gui
+ * @contact matfir-1@student.ltu.se
+ * @date 10/17/2026
+ * <p>
+ * Unit Test for the PagedResults class. Doesn't use the database or show any GUI.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class PagedResultsTest
+{
+    /**
+     * Tests that loadMore fetches the next page of every search with more results, leaving out results already
+     * found, until no search has more.
+     */
+    @Test
+    @Order(1)
+    void testLoadMore()
+    {
+        System.out.print("\n1: Testing loading more results...");
+
+        PagedResults<Integer> results = new PagedResults<>(Function.identity());
+        List<String> tokensLoaded = new ArrayList<>();
+
+        //1-6 in pages of two, and 5-7 in one page
+        results.addFirstPage(new Page<>(List.of(1, 2), "a"), pageToken ->
+        {
+            tokensLoaded.add(pageToken);
+            return pageToken.equals("a") ? new Page<>(List.of(3, 4), "b") : new Page<>(List.of(5, 6), null);
+        });
+        results.addFirstPage(new Page<>(List.of(5, 6, 7), null), pageToken ->
+        {
+            throw new AssertionError("Has no more pages");
+        });
+        results.addAll(List.of(2, 8));
+
+        assertEquals(List.of(1, 2, 5, 6, 7, 8), results.getResults());
+        assertTrue(results.hasMore());
+
+        assertEquals(List.of(3, 4), results.loadMore());
+        assertTrue(results.hasMore());
+        //Only duplicates on the last page
+        assertTrue(results.loadMore().isEmpty());
+        assertFalse(results.hasMore());
+        assertTrue(results.loadMore().isEmpty());
+
+        assertEquals(List.of("a", "b"), tokensLoaded);
+        assertEquals(List.of(1, 2, 5, 6, 7, 8, 3, 4), results.getResults());
+
+        System.out.print(" Test Finished.");
+    }
+}